@@ -0,0 +1,68 @@
+#!/usr/bin/env bash
+# Compares two JMH JSON result files (mvn -Pjmh ... exec:exec writes one to target/jmh-result.json)
+# and flags regressions, e.g. between the merge base and a branch:
+#
+#   git checkout main   && mvn -B -q -Pjmh compile exec:exec -Djmh.args="PaymentDto" -Djmh.result=/tmp/base.json
+#   git checkout branch && mvn -B -q -Pjmh compile exec:exec -Djmh.args="PaymentDto" -Djmh.result=/tmp/head.json
+#   misc/jmh/compare-jmh-results.sh /tmp/base.json /tmp/head.json
+#   THRESHOLD=5 misc/jmh/compare-jmh-results.sh /tmp/base.json /tmp/head.json
+#
+# Benchmarks are matched by name and @Param values. A result is a regression when it is worse by more
+# than THRESHOLD percent (default 10) and the difference is larger than the two runs' error margins
+# together; "worse" is lower for throughput modes and higher for time modes. Benchmarks present in
+# only one file are listed as added or removed. Exits with 1 if any regression was found.
+# Requires jq.
+set -euo pipefail
+
+if [ $# -ne 2 ]; then
+    echo "Usage: $0 BASE.json HEAD.json" >&2
+    exit 2
+fi
+
+BASE=$1
+HEAD=$2
+THRESHOLD=${THRESHOLD:-10}
+
+# One line per result: key, mode, score, error, unit
+flatten() {
+    jq -r '.[] | [
+        (.benchmark | split(".") | .[-2:] | join(".")) + (if (.params // {}) == {} then ""
+            else "(" + ([.params | to_entries[] | "\(.key)=\(.value)"] | join(",")) + ")" end),
+        .mode,
+        .primaryMetric.score,
+        (.primaryMetric.scoreError | if . == "NaN" then 0 else . end),
+        .primaryMetric.scoreUnit
+    ] | @tsv' "$1" | sort
+}
+
+export LC_ALL=C  # Same collation for sort and join
+
+join -t $'\t' -a 1 -a 2 -e MISSING -o 0,1.2,1.3,1.4,1.5,2.2,2.3,2.4,2.5 \
+    <(flatten "$BASE") <(flatten "$HEAD") |
+awk -F '\t' -v threshold="$THRESHOLD" '
+    BEGIN {
+        printf "%-60s %14s %14s %9s  %s\n", "Benchmark", "Base", "Head", "Change", "Unit"
+        regressions = 0
+    }
+    $2 == "MISSING" { printf "%-60s %14s %14.3f %9s  %s  added\n", $1, "-", $7, "", $9; next }
+    $6 == "MISSING" { printf "%-60s %14.3f %14s %9s  %s  removed\n", $1, $3, "-", "", $5; next }
+    {
+        base = $3; head = $7
+        change = base == 0 ? 0 : (head - base) / base * 100
+        # Throughput: higher is better; average/sample/single-shot time: lower is better
+        worse = $2 == "thrpt" ? -change : change
+        verdict = ""
+        if (worse > threshold && (head - base > $4 + $8 || base - head > $4 + $8)) {
+            verdict = "REGRESSION"
+            regressions++
+        } else if (-worse > threshold && (head - base > $4 + $8 || base - head > $4 + $8)) {
+            verdict = "improved"
+        }
+        printf "%-60s %14.3f %14.3f %+8.1f%%  %s  %s\n", $1, base, head, change, $9, verdict
+    }
+    END {
+        if (regressions > 0) {
+            printf "\n%d regression(s) over %s%%\n", regressions, threshold
+            exit 1
+        }
+    }'
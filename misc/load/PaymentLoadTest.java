@@ -0,0 +1,350 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load generator for the payment API (single-file program, no build needed):
+ *
+ *   java misc/load/PaymentLoadTest.java --url http://localhost:8080 --api-key KEY \
+ *        --concurrency 400 --duration-seconds 30 --warmup-seconds 5 --provider STRIPE \
+ *        --scenario distinct
+ *
+ * Scenarios:
+ * - distinct: every payment has a fresh Idempotency-Key (throughput of new payments)
+ * - same-key: storms of --storm-size concurrent requests share one key (claim contention, 409s)
+ * - webhook-flood: creates --payments MoMo payments, then floods POST /api/v1/webhooks/momo with
+ *   their success webhooks round-robin, so each transaction is redelivered many times
+ * - mixed-replay: creates --payments payments, then sends --replay-ratio replays of their keys
+ *   (cached responses) mixed with new payments
+ * - webhook-burst: creates --payments MoMo payments (left PROCESSING), then fires --redeliveries
+ *   copies of each one's success webhook all at once - a single burst rather than a timed run
+ *   (concurrency, duration and warmup are ignored) - and also prints the webhook lock conflicts
+ *   it caused (payment.webhook.lock.conflicts). Every response should be 200; a conflict that
+ *   escapes the retries shows up as a 500.
+ *
+ * Each of the concurrency virtual users sends its next request as soon as the previous one was
+ * answered, over non-blocking HttpClient calls, so the generator itself needs only a few threads.
+ * Requests completed during the warmup are not recorded.
+ *
+ * Prints throughput, latency percentiles, the count per HTTP status (0 = transport error), the 409
+ * rate and, when the application runs with payment.debug.db-round-trips=true, the database round
+ * trips per request (read from /actuator/metrics/payment.db.round_trips over the measured window;
+ * includes the application's background workers).
+ */
+public class PaymentLoadTest {
+
+    private static final Pattern PROVIDER_TRANSACTION_ID = Pattern.compile("\"providerTransactionId\":\"([^\"]+)\"");
+    private static final Pattern COUNT = Pattern.compile("\"statistic\":\"COUNT\",\"value\":([0-9.Ee+-]+)");
+
+    /**
+     * Builds the n-th request of a run.
+     */
+    private interface Scenario {
+        HttpRequest next(long n);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String baseUrl = options.getOrDefault("url", "http://localhost:8080");
+        String apiKey = options.getOrDefault("api-key", System.getenv().getOrDefault("API_KEY", ""));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "200"));
+        long durationNanos = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration-seconds", "30"))).toNanos();
+        long warmupNanos = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup-seconds", "5"))).toNanos();
+        String provider = options.getOrDefault("provider", "STRIPE");
+        String scenarioName = options.getOrDefault("scenario", "distinct");
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Api api = new Api(client, baseUrl, apiKey);
+
+        if ("webhook-burst".equals(scenarioName)) {
+            webhookBurst(client, api, Integer.parseInt(options.getOrDefault("payments", "20")),
+                    Integer.parseInt(options.getOrDefault("redeliveries", "10")));
+            return;
+        }
+
+        Scenario scenario = switch (scenarioName) {
+            case "distinct" -> n -> api.payment(UUID.randomUUID().toString(), api.paymentBody(provider));
+            case "same-key" -> sameKey(api, provider, Integer.parseInt(options.getOrDefault("storm-size", "50")));
+            case "webhook-flood" -> webhookFlood(api, Integer.parseInt(options.getOrDefault("payments", "200")));
+            case "mixed-replay" -> mixedReplay(api, provider, Integer.parseInt(options.getOrDefault("payments", "200")),
+                    Double.parseDouble(options.getOrDefault("replay-ratio", "0.8")));
+            default -> throw new IllegalArgumentException("Unknown scenario " + scenarioName
+                    + " (distinct, same-key, webhook-flood, mixed-replay, webhook-burst)");
+        };
+
+        Recorder recorder = new Recorder();
+        AtomicLong sequence = new AtomicLong();
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        System.out.printf("Load: %s, scenario=%s, provider=%s, concurrency=%d, warmup=%ds, duration=%ds%n", baseUrl,
+                scenarioName, provider, concurrency, warmupNanos / 1_000_000_000L, durationNanos / 1_000_000_000L);
+        for (int i = 0; i < concurrency; i++) {
+            send(client, scenario, sequence, recorder, measureFrom, end, done);
+        }
+        sleepUntil(measureFrom);
+        double roundTripsBefore = api.dbRoundTrips();
+        sleepUntil(end);
+        double roundTripsAfter = api.dbRoundTrips();
+        done.await();
+
+        recorder.print(durationNanos, roundTripsAfter - roundTripsBefore);
+    }
+
+    /**
+     * Every storm-size consecutive requests share one key, so about storm-size of them are in flight
+     * together: one claims the key, the others get 409 until it completes and then its cached response.
+     */
+    private static Scenario sameKey(Api api, String provider, int stormSize) {
+        Map<Long, String> keys = new ConcurrentHashMap<>();
+        String body = api.paymentBody(provider);
+        return n -> api.payment(keys.computeIfAbsent(n / stormSize, s -> UUID.randomUUID().toString()), body);
+    }
+
+    private static Scenario webhookFlood(Api api, int payments) {
+        List<String[]> created = api.createPayments("MOMO", payments);
+        String[] bodies = created.stream()
+                .filter(payment -> payment[1] != null)
+                .map(payment -> "{\"transaction_id\":\"" + payment[1] + "\",\"status\":\"success\"}")
+                .toArray(String[]::new);
+        if (bodies.length == 0) {
+            throw new IllegalStateException("Setup payments returned no providerTransactionId");
+        }
+        return n -> api.webhook("momo", bodies[(int) (n % bodies.length)]);
+    }
+
+    private static Scenario mixedReplay(Api api, String provider, int payments, double replayRatio) {
+        String body = api.paymentBody(provider);
+        String[] keys = api.createPayments(provider, payments).stream().map(payment -> payment[0]).toArray(String[]::new);
+        return n -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String key = random.nextDouble() < replayRatio ? keys[random.nextInt(keys.length)] : UUID.randomUUID().toString();
+            return api.payment(key, body);
+        };
+    }
+
+    /**
+     * Fires every redelivery of every payment's webhook without waiting for answers, so the copies
+     * for one payment reach the application together.
+     */
+    private static void webhookBurst(HttpClient client, Api api, int payments, int redeliveries) {
+        String[] bodies = api.createPayments("MOMO", payments).stream()
+                .filter(payment -> payment[1] != null)
+                .map(payment -> "{\"transaction_id\":\"" + payment[1] + "\",\"status\":\"success\"}")
+                .toArray(String[]::new);
+        System.out.printf("Burst: %d webhooks (%d redeliveries of each of %d payments)%n",
+                bodies.length * redeliveries, redeliveries, bodies.length);
+
+        Recorder recorder = new Recorder();
+        double conflictsBefore = api.counter("payment.webhook.lock.conflicts");
+        double roundTripsBefore = api.dbRoundTrips();
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> responses = new ArrayList<>();
+        for (int round = 0; round < redeliveries; round++) {
+            for (String body : bodies) {
+                long sent = System.nanoTime();
+                responses.add(client.sendAsync(api.webhook("momo", body), HttpResponse.BodyHandlers.discarding())
+                        .handle((response, failure) -> {
+                            recorder.record(failure == null ? response.statusCode() : 0, System.nanoTime() - sent);
+                            return null;
+                        }));
+            }
+        }
+        responses.forEach(CompletableFuture::join);
+        long elapsed = System.nanoTime() - start;
+
+        recorder.print(elapsed, api.dbRoundTrips() - roundTripsBefore);
+        double conflicts = api.counter("payment.webhook.lock.conflicts") - conflictsBefore;
+        System.out.println(Double.isNaN(conflicts) ? "webhook lock conflicts=n/a" : "webhook lock conflicts=" + (long) conflicts);
+    }
+
+    /**
+     * Sends one request and, when it is answered, the next one - until the end of the run.
+     */
+    private static void send(HttpClient client, Scenario scenario, AtomicLong sequence, Recorder recorder,
+                             long measureFrom, long end, CountDownLatch done) {
+        if (System.nanoTime() >= end) {
+            done.countDown();
+            return;
+        }
+        HttpRequest request = scenario.next(sequence.getAndIncrement());
+        long sent = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            long answered = System.nanoTime();
+            if (sent >= measureFrom && answered <= end) {
+                recorder.record(failure == null ? response.statusCode() : 0, answered - sent);
+            }
+            send(client, scenario, sequence, recorder, measureFrom, end, done);
+        });
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            Thread.sleep(remaining / 1_000_000L, (int) (remaining % 1_000_000L));
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new ConcurrentHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    /**
+     * Request builders and the setup calls the scenarios need.
+     */
+    private record Api(HttpClient client, String baseUrl, String apiKey) {
+
+        private static final int SETUP_BATCH = 50;
+
+        String paymentBody(String provider) {
+            return "{\"amount\":100,\"paymentMethod\":\"card\",\"description\":\"load test\",\"paymentProvider\":\""
+                    + provider + "\"}";
+        }
+
+        HttpRequest payment(String idempotencyKey, String body) {
+            return post("/api/v1/payments", body).header("Idempotency-Key", idempotencyKey).build();
+        }
+
+        HttpRequest webhook(String provider, String body) {
+            return post("/api/v1/webhooks/" + provider, body).build();
+        }
+
+        /**
+         * Creates payments SETUP_BATCH at a time and returns {idempotency key, provider transaction id}
+         * of each one that succeeded (the id is null when the response has none, e.g. Stripe).
+         */
+        List<String[]> createPayments(String provider, int count) {
+            String body = paymentBody(provider);
+            List<String[]> created = new ArrayList<>();
+            for (int from = 0; from < count; from += SETUP_BATCH) {
+                List<CompletableFuture<String[]>> batch = new ArrayList<>();
+                for (int i = from; i < Math.min(count, from + SETUP_BATCH); i++) {
+                    String key = UUID.randomUUID().toString();
+                    batch.add(client.sendAsync(payment(key, body), HttpResponse.BodyHandlers.ofString())
+                            .thenApply(response -> {
+                                Matcher matcher = PROVIDER_TRANSACTION_ID.matcher(response.body());
+                                if (response.statusCode() >= 300) {
+                                    return null;
+                                }
+                                return new String[]{key, matcher.find() ? matcher.group(1) : null};
+                            })
+                            .exceptionally(failure -> null));
+                }
+                batch.stream().map(CompletableFuture::join).filter(payment -> payment != null).forEach(created::add);
+            }
+            if (created.isEmpty()) {
+                throw new IllegalStateException("Setup created no " + provider + " payment");
+            }
+            System.out.printf("Setup: created %d of %d %s payments%n", created.size(), count, provider);
+            return created;
+        }
+
+        /**
+         * Total of payment.db.round_trips, or NaN when the counter is not enabled.
+         */
+        double dbRoundTrips() {
+            return counter("payment.db.round_trips");
+        }
+
+        /**
+         * Total of a counter from /actuator/metrics, or NaN when it is not registered.
+         */
+        double counter(String name) {
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + name))
+                        .timeout(Duration.ofSeconds(10))
+                        .header("X-API-Key", apiKey)
+                        .GET()
+                        .build();
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                Matcher matcher = COUNT.matcher(response.body());
+                return response.statusCode() == 200 && matcher.find() ? Double.parseDouble(matcher.group(1)) : Double.NaN;
+            } catch (Exception e) {
+                return Double.NaN;
+            }
+        }
+
+        private HttpRequest.Builder post(String path, String body) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/json")
+                    .header("X-API-Key", apiKey)
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+    }
+
+    /**
+     * Latencies in a growable array (one lock per sample is negligible next to an HTTP round trip).
+     */
+    private static final class Recorder {
+
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final AtomicLong count = new AtomicLong();
+        private long[] latencies = new long[1 << 16];
+
+        void record(int status, long latencyNanos) {
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+            synchronized (this) {
+                int index = (int) count.getAndIncrement();
+                if (index == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, latencies.length * 2);
+                }
+                latencies[index] = latencyNanos;
+            }
+        }
+
+        synchronized void print(long durationNanos, double dbRoundTrips) {
+            int n = (int) count.get();
+            long[] sorted = Arrays.copyOf(latencies, n);
+            Arrays.sort(sorted);
+            System.out.printf("requests=%d throughput=%.1f req/s%n", n, n / (durationNanos / 1e9));
+            if (n > 0) {
+                System.out.printf("latency ms: p50=%.1f p90=%.1f p99=%.1f p999=%.1f max=%.1f%n",
+                        percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                        percentile(sorted, 0.999), sorted[n - 1] / 1e6);
+            }
+            Map<Integer, Long> byStatus = new TreeMap<>();
+            statuses.forEach((status, adder) -> byStatus.put(status, adder.sum()));
+            System.out.println("status counts: " + byStatus);
+            if (n > 0) {
+                System.out.printf("409 rate=%.2f%%%n", 100.0 * byStatus.getOrDefault(409, 0L) / n);
+                System.out.println(Double.isNaN(dbRoundTrips)
+                        ? "db round trips/request=n/a (run with --payment.debug.db-round-trips=true)"
+                        : String.format("db round trips/request=%.2f", dbRoundTrips / n));
+            }
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
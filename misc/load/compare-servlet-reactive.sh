@@ -0,0 +1,55 @@
+#!/usr/bin/env bash
+# Builds the servlet (Tomcat) and reactive (Netty) deployments and drives each with the same
+# closed-loop payment load (PaymentLoadTest.java), one after the other on the same port.
+#
+#   misc/load/compare-servlet-reactive.sh
+#   CONCURRENCY=800 DURATION=60 PROVIDER=MOMO misc/load/compare-servlet-reactive.sh
+#
+# Rate limiting and admission control are disabled so both variants are measured at saturation
+# instead of shedding. With the default in-process Stripe simulation (1s per call) the servlet
+# build is bounded by Tomcat's worker threads; the reactive build holds no thread per call.
+# Extra application arguments (e.g. --payment.providers.stub.enabled=true) can be passed in APP_ARGS.
+set -euo pipefail
+
+cd "$(dirname "$0")/../.."
+
+CONCURRENCY=${CONCURRENCY:-400}
+DURATION=${DURATION:-30}
+WARMUP=${WARMUP:-10}
+PROVIDER=${PROVIDER:-STRIPE}
+PORT=${PORT:-18080}
+APP_ARGS=${APP_ARGS:-}
+API_KEY=load-test-key
+OUT=$(mktemp -d)
+
+echo "Building servlet and reactive jars (results in $OUT)"
+mvn -B -q clean package -DskipTests
+cp target/payment-api-1.0.0.jar "$OUT/servlet.jar"
+mvn -B -q clean package -DskipTests -Preactive
+cp target/payment-api-reactive-1.0.0.jar "$OUT/reactive.jar"
+
+run() {
+    local name=$1
+    echo
+    echo "=== $name ==="
+    # shellcheck disable=SC2086
+    API_KEY=$API_KEY java -jar "$OUT/$name.jar" --server.port="$PORT" \
+        --payment.rate-limit.enabled=false --payment.admission.enabled=false $APP_ARGS \
+        > "$OUT/$name.log" 2>&1 &
+    local pid=$!
+    for _ in $(seq 1 120); do
+        curl -sf "http://localhost:$PORT/actuator/health" > /dev/null && break
+        sleep 1
+    done
+    java misc/load/PaymentLoadTest.java --url "http://localhost:$PORT" --api-key "$API_KEY" \
+        --concurrency "$CONCURRENCY" --duration-seconds "$DURATION" --warmup-seconds "$WARMUP" \
+        --provider "$PROVIDER" | tee "$OUT/$name.txt"
+    kill "$pid"
+    wait "$pid" || true
+}
+
+run servlet
+run reactive
+
+echo
+echo "Application logs and results: $OUT"
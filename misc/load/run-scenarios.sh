@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Builds the application, starts it with the DB round-trip counter and a provider simulation, and
+# runs every PaymentLoadTest.java scenario against it: distinct keys, same-key storms, webhook
+# floods and mixed replays. Each prints throughput, p50/p99/p999, the 409 rate and DB round trips
+# per request.
+#
+#   misc/load/run-scenarios.sh
+#   SCENARIOS="same-key mixed-replay" CONCURRENCY=400 misc/load/run-scenarios.sh
+#   STRIPE_SIM_DISTRIBUTION=FIXED STRIPE_SIM_LATENCY_MS=1000 STRIPE_SIM_ERROR_RATE=0 misc/load/run-scenarios.sh
+#
+# The Stripe simulation defaults to a log-normal latency (median 200ms, p99 1s) with 1% errors and
+# 0.1% calls hanging until STRIPE_REQUEST_TIMEOUT_MS; any STRIPE_SIM_* / MOMO_SIM_* variable set in
+# the environment wins. Stripe is used for distinct, same-key and mixed-replay because its
+# payments complete synchronously (replays of a pending MoMo payment stay 409 until its webhook).
+# Rate limiting and admission control are disabled so the scenarios are measured at saturation.
+# Extra application arguments can be passed in APP_ARGS.
+set -euo pipefail
+
+cd "$(dirname "$0")/../.."
+
+SCENARIOS=${SCENARIOS:-distinct same-key webhook-flood mixed-replay}
+CONCURRENCY=${CONCURRENCY:-200}
+DURATION=${DURATION:-30}
+WARMUP=${WARMUP:-5}
+PAYMENTS=${PAYMENTS:-200}
+STORM_SIZE=${STORM_SIZE:-50}
+REPLAY_RATIO=${REPLAY_RATIO:-0.8}
+PORT=${PORT:-18080}
+APP_ARGS=${APP_ARGS:-}
+API_KEY=load-test-key
+OUT=$(mktemp -d)
+
+export STRIPE_SIM_DISTRIBUTION=${STRIPE_SIM_DISTRIBUTION:-LOG_NORMAL}
+export STRIPE_SIM_LATENCY_MS=${STRIPE_SIM_LATENCY_MS:-200}
+export STRIPE_SIM_LATENCY_P99_MS=${STRIPE_SIM_LATENCY_P99_MS:-1000}
+export STRIPE_SIM_ERROR_RATE=${STRIPE_SIM_ERROR_RATE:-0.01}
+export STRIPE_SIM_TIMEOUT_RATE=${STRIPE_SIM_TIMEOUT_RATE:-0.001}
+
+echo "Building (results in $OUT)"
+mvn -B -q clean package -DskipTests
+
+# shellcheck disable=SC2086
+API_KEY=$API_KEY java -jar target/payment-api-1.0.0.jar --server.port="$PORT" \
+    --payment.debug.db-round-trips=true --payment.rate-limit.enabled=false --payment.admission.enabled=false \
+    $APP_ARGS > "$OUT/app.log" 2>&1 &
+PID=$!
+trap 'kill "$PID" 2> /dev/null; wait "$PID" 2> /dev/null || true' EXIT
+for _ in $(seq 1 120); do
+    curl -sf "http://localhost:$PORT/actuator/health" > /dev/null && break
+    sleep 1
+done
+
+for scenario in $SCENARIOS; do
+    provider=STRIPE
+    [ "$scenario" = webhook-flood ] && provider=MOMO
+    echo
+    echo "=== $scenario ==="
+    java misc/load/PaymentLoadTest.java --url "http://localhost:$PORT" --api-key "$API_KEY" \
+        --scenario "$scenario" --provider "$provider" --concurrency "$CONCURRENCY" \
+        --duration-seconds "$DURATION" --warmup-seconds "$WARMUP" --payments "$PAYMENTS" \
+        --storm-size "$STORM_SIZE" --replay-ratio "$REPLAY_RATIO" | tee "$OUT/$scenario.txt"
+done
+
+echo
+echo "Application log and results: $OUT"
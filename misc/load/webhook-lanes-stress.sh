@@ -0,0 +1,60 @@
+#!/usr/bin/env bash
+# Webhook lock-contention stress test: redeliveries of the same payment's webhook arriving together.
+# Builds the application and runs the PaymentLoadTest.java webhook-burst scenario (PAYMENTS MoMo
+# payments left PROCESSING, REDELIVERIES concurrent copies of each success webhook) against it three
+# times:
+# - batching off, lanes off: every redelivery races the others into optimistic-lock conflicts
+# - batching off, lanes on: redeliveries of one payment run serially on its lane
+# - batching on, lanes on: the default configuration
+# Each run prints the status counts (any 500 is a conflict that escaped the retries) and the
+# payment.webhook.lock.conflicts it caused.
+#
+#   misc/load/webhook-lanes-stress.sh
+#   PAYMENTS=50 REDELIVERIES=20 misc/load/webhook-lanes-stress.sh
+#
+# The MoMo simulation is fixed at 0ms with no errors so setup is quick and every payment stays
+# PROCESSING until its webhook. Rate limiting and admission control are disabled.
+set -euo pipefail
+
+cd "$(dirname "$0")/../.."
+
+PAYMENTS=${PAYMENTS:-20}
+REDELIVERIES=${REDELIVERIES:-10}
+PORT=${PORT:-18080}
+API_KEY=load-test-key
+OUT=$(mktemp -d)
+
+export MOMO_SIM_DISTRIBUTION=FIXED MOMO_SIM_LATENCY_MS=0 MOMO_SIM_ERROR_RATE=0 MOMO_SIM_TIMEOUT_RATE=0
+
+echo "Building (results in $OUT)"
+mvn -B -q clean package -DskipTests
+
+PID=
+trap '[ -n "$PID" ] && kill "$PID" 2> /dev/null; wait 2> /dev/null || true' EXIT
+
+run() {
+    local name=$1 batching=$2 lanes=$3
+    API_KEY=$API_KEY java -jar target/payment-api-1.0.0.jar --server.port="$PORT" \
+        --payment.rate-limit.enabled=false --payment.admission.enabled=false \
+        --payment.webhook.batching.enabled="$batching" --payment.webhook.lanes.enabled="$lanes" \
+        > "$OUT/$name.log" 2>&1 &
+    PID=$!
+    for _ in $(seq 1 120); do
+        curl -sf "http://localhost:$PORT/actuator/health" > /dev/null && break
+        sleep 1
+    done
+    echo
+    echo "=== $name (batching=$batching, lanes=$lanes) ==="
+    java misc/load/PaymentLoadTest.java --url "http://localhost:$PORT" --api-key "$API_KEY" \
+        --scenario webhook-burst --payments "$PAYMENTS" --redeliveries "$REDELIVERIES" | tee "$OUT/$name.txt"
+    kill "$PID"
+    wait "$PID" 2> /dev/null || true
+    PID=
+}
+
+run lanes-off false false
+run lanes-on false true
+run default true true
+
+echo
+echo "Application logs and results: $OUT"
@@ -0,0 +1,98 @@
+package com.tymex.payment.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tymex.payment.dto.PaymentResponseDTO;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.enums.PaymentStatus;
+import com.tymex.payment.service.JsonSerializationService;
+import com.tymex.payment.util.IdempotencyKeyValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request DTO work on the payment path, outside any I/O.
+ *
+ * - validateIdempotencyKey: IdempotencyKeyValidator.validate on a UUID v4 key (every submission)
+ * - serializeResponse / deserializeResponse: JsonSerializationService as used to store a response
+ *   and to answer a replay from the stored body
+ * - roundTrip: both, as a stored-then-replayed response
+ * - withMetadata: copying the response to attach idempotencyKey and cached
+ *
+ * Run with -prof gc to see bytes allocated per operation next to the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class PaymentDtoBenchmark {
+
+    private String idempotencyKey;
+    private JsonSerializationService serializationService;
+    private PaymentResponseDTO response;
+    private String storedResponse;
+
+    @Setup
+    public void setup() {
+        idempotencyKey = UUID.randomUUID().toString();
+        // Boot's JSON defaults that matter for these DTOs (ISO dates, not timestamps)
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        serializationService = new JsonSerializationService(objectMapper);
+        response = PaymentResponseDTO.of(
+            "ch_" + UUID.randomUUID().toString().replace("-", "").substring(0, 24),
+            PaymentStatus.COMPLETED,
+            new BigDecimal("100.50"),
+            "card",
+            "benchmark",
+            LocalDateTime.now(),
+            PaymentProvider.STRIPE
+        );
+        storedResponse = serializationService.serializeResponse(response);
+    }
+
+    @Benchmark
+    public String validateIdempotencyKey() {
+        IdempotencyKeyValidator.validate(idempotencyKey);
+        return idempotencyKey;
+    }
+
+    @Benchmark
+    public String serializeResponse() {
+        return serializationService.serializeResponse(response);
+    }
+
+    @Benchmark
+    public PaymentResponseDTO deserializeResponse() {
+        return serializationService.deserializeResponse(storedResponse);
+    }
+
+    @Benchmark
+    public PaymentResponseDTO roundTrip() {
+        return serializationService.deserializeResponse(serializationService.serializeResponse(response));
+    }
+
+    @Benchmark
+    public PaymentResponseDTO withMetadata() {
+        return response.withMetadata(idempotencyKey, true);
+    }
+}
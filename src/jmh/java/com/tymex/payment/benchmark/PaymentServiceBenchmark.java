@@ -0,0 +1,93 @@
+package com.tymex.payment.benchmark;
+
+import com.tymex.payment.PaymentApplication;
+import com.tymex.payment.dto.PaymentRequestDTO;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.service.PaymentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full PaymentService.processPayment against the in-memory H2 database, without HTTP.
+ *
+ * Boots the application once per fork and calls the service bean directly:
+ * - newKey: a fresh key through claim (INSERT), the in-process MoMo simulation (no delay,
+ *   PENDING) and finalization (UPDATE); the table grows by one row per operation
+ * - replayedKey: a completed Stripe payment submitted again (INSERT conflict, existing-record
+ *   reads, stored response deserialized)
+ *
+ * New Stripe keys are not measured: the in-process Stripe simulation sleeps for a second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class PaymentServiceBenchmark {
+
+    private static final PaymentRequestDTO MOMO_PAYMENT =
+        new PaymentRequestDTO(new BigDecimal("100.00"), "wallet", "benchmark", PaymentProvider.MOMO, null);
+    private static final PaymentRequestDTO STRIPE_PAYMENT =
+        new PaymentRequestDTO(new BigDecimal("100.00"), "card", "benchmark", PaymentProvider.STRIPE, null);
+
+    private ConfigurableApplicationContext context;
+    private PaymentService paymentService;
+    private String completedKey;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(PaymentApplication.class).run(
+            "--server.port=0",
+            "--payment.api.key=benchmark-key",
+            "--logging.level.root=WARN",
+            "--spring.main.banner-mode=off");
+        paymentService = context.getBean(PaymentService.class);
+
+        completedKey = UUID.randomUUID().toString();
+        PaymentService.ProcessPaymentResult created = paymentService.processPayment(completedKey, STRIPE_PAYMENT);
+        if (created.isCached() || created.getResponse().transactionNo() == null) {
+            throw new IllegalStateException("Payment not completed: " + created.getResponse());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PaymentService.ProcessPaymentResult newKey() {
+        return paymentService.processPayment(UUID.randomUUID().toString(), MOMO_PAYMENT);
+    }
+
+    @Benchmark
+    public PaymentService.ProcessPaymentResult replayedKey() {
+        return expectCached(paymentService.processPayment(completedKey, STRIPE_PAYMENT));
+    }
+
+    private static PaymentService.ProcessPaymentResult expectCached(PaymentService.ProcessPaymentResult result) {
+        if (!result.isCached()) {
+            throw new IllegalStateException("Replay was not answered from the stored response");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,121 @@
+package com.tymex.payment.benchmark;
+
+import com.tymex.payment.PaymentApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking a payment's status: POST replay vs GET status endpoint vs GET revalidation.
+ * 
+ * Boots the application (in-memory H2, in-process provider simulation) on a random port and
+ * polls one completed payment over HTTP:
+ * - postReplay: re-POST with the same Idempotency-Key (insert attempt, conflict, re-read, cached body)
+ * - getStatus: GET /api/v1/payments/{key} (one read, stored body)
+ * - getStatusNotModified: GET with a matching If-None-Match (version-only query, 304, no body)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class PaymentStatusPollingBenchmark {
+    
+    private static final String API_KEY = "benchmark-key";
+    private static final String PAYMENT_BODY =
+        "{\"amount\":100,\"paymentMethod\":\"card\",\"paymentProvider\":\"stripe\"}";
+    
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI paymentsUri;
+    private URI statusUri;
+    private String idempotencyKey;
+    private String eTag;
+    
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        context = new SpringApplicationBuilder(PaymentApplication.class).run(
+            "--server.port=0",
+            "--payment.api.key=" + API_KEY,
+            "--logging.level.root=WARN",
+            "--spring.main.banner-mode=off");
+        String baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        idempotencyKey = UUID.randomUUID().toString();
+        paymentsUri = URI.create(baseUrl + "/api/v1/payments");
+        statusUri = URI.create(baseUrl + "/api/v1/payments/" + idempotencyKey);
+        
+        HttpResponse<String> created = client.send(postRequest(), HttpResponse.BodyHandlers.ofString());
+        if (created.statusCode() != 200) {
+            throw new IllegalStateException("Payment not created: " + created.statusCode() + " " + created.body());
+        }
+        HttpResponse<String> status = client.send(getRequest(null), HttpResponse.BodyHandlers.ofString());
+        eTag = status.headers().firstValue("ETag")
+            .orElseThrow(() -> new IllegalStateException("No ETag on status response: " + status.statusCode()));
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public byte[] postReplay() throws Exception {
+        return expect(client.send(postRequest(), HttpResponse.BodyHandlers.ofByteArray()), 200);
+    }
+    
+    @Benchmark
+    public byte[] getStatus() throws Exception {
+        return expect(client.send(getRequest(null), HttpResponse.BodyHandlers.ofByteArray()), 200);
+    }
+    
+    @Benchmark
+    public byte[] getStatusNotModified() throws Exception {
+        return expect(client.send(getRequest(eTag), HttpResponse.BodyHandlers.ofByteArray()), 304);
+    }
+    
+    private HttpRequest postRequest() {
+        return HttpRequest.newBuilder(paymentsUri)
+            .header("X-API-Key", API_KEY)
+            .header("Idempotency-Key", idempotencyKey)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(PAYMENT_BODY))
+            .build();
+    }
+    
+    private HttpRequest getRequest(String ifNoneMatch) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(statusUri).header("X-API-Key", API_KEY).GET();
+        if (ifNoneMatch != null) {
+            builder.header("If-None-Match", ifNoneMatch);
+        }
+        return builder.build();
+    }
+    
+    private static byte[] expect(HttpResponse<byte[]> response, int status) {
+        if (response.statusCode() != status) {
+            throw new IllegalStateException("Expected HTTP " + status + " but got " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,83 @@
+package com.tymex.payment.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.service.provider.http.ProviderHttpClient;
+import com.tymex.payment.service.provider.http.ProviderStubServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provider calls per second per pooled connection: ProviderHttpClient POSTing Stripe charges to
+ * the embedded ProviderStubServer on loopback, reading each response stream to the end so the
+ * connection goes back to the pool.
+ *
+ * The stub speaks HTTP/1.1, so every calling thread keeps one keep-alive connection busy:
+ * - oneConnection: 1 thread, the score is calls/s on a single connection
+ * - fourConnections: 4 threads, divide the score by 4 for calls/s per connection (shows how far
+ *   the pool scales before the client or the stub's worker threads become the limit)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProviderHttpClientBenchmark {
+
+    private static final byte[] CHARGE =
+        "{\"amount\":100.50,\"currency\":\"usd\",\"payment_method\":\"card\"}".getBytes(StandardCharsets.UTF_8);
+    private static final String IDEMPOTENCY_KEY = "7b0f5a9e-3c1d-4e2f-8a6b-9c0d1e2f3a4b";
+
+    private ProviderStubServer stubServer;
+    private ProviderHttpClient httpClient;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        stubServer = new ProviderStubServer(new ObjectMapper(), 0, 4);
+        stubServer.start();
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("providerStubServer", stubServer);
+        httpClient = new ProviderHttpClient(new PaymentProperties(), beans.getBeanProvider(ProviderStubServer.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stubServer.stop();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int oneConnection() throws Exception {
+        return charge();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int fourConnections() throws Exception {
+        return charge();
+    }
+
+    private int charge() throws Exception {
+        try (InputStream response = httpClient.post(PaymentProvider.STRIPE, "/v1/charges", CHARGE, IDEMPOTENCY_KEY)) {
+            return response.readAllBytes().length;
+        }
+    }
+}
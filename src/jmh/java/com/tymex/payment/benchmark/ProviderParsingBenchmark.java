@@ -0,0 +1,155 @@
+package com.tymex.payment.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.WebhookPayload;
+import com.tymex.payment.dto.WebhookResult;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.service.provider.MoMoPaymentProvider;
+import com.tymex.payment.service.provider.StripePaymentProvider;
+import com.tymex.payment.service.provider.codec.MoMoCodec;
+import com.tymex.payment.service.provider.codec.MoMoPaymentCreated;
+import com.tymex.payment.service.provider.codec.MoMoWebhookEvent;
+import com.tymex.payment.service.provider.codec.StripeCharge;
+import com.tymex.payment.service.provider.codec.StripeResponseCodec;
+import com.tymex.payment.service.provider.contract.PaymentProviderStrategy;
+import com.tymex.payment.service.provider.contract.WebhookCapablePaymentProviderStrategy;
+import com.tymex.payment.service.provider.http.ProviderHttpClient;
+import com.tymex.payment.service.provider.http.ProviderStubServer;
+import com.tymex.payment.service.provider.routing.PaymentProviderRouter;
+import com.tymex.payment.service.provider.simulation.ProviderSimulator;
+import com.tymex.payment.util.PaymentReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provider response and webhook parsing, and provider routing, with the production components
+ * (no HTTP: bodies are the ones the providers send).
+ *
+ * - decodeStripeCharge: StripeResponseCodec on a charge response
+ * - decodeMoMoPaymentCreated: MoMoCodec on a create-payment response
+ * - decodeMoMoWebhook: MoMoCodec on a webhook body
+ * - tree*: the same three bodies parsed the way the providers did before the codecs - the body as
+ *   a String, ObjectMapper.readTree, then field lookups (twice for Stripe, once for id, once for status)
+ * - handleMoMoWebhook: MoMoPaymentProvider.handleWebhook (signature check disabled, see
+ *   WebhookSignatureBenchmark for its cost) on a self-routing webhook
+ * - route / routeWebhook: PaymentProviderRouter lookups, alternating providers for route
+ *
+ * Allocation is reported by JMH's GC profiler (gc.alloc.rate.norm = bytes allocated per operation):
+ *
+ *   mvn -Pjmh compile exec:exec -Djmh.args="ProviderParsing -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class ProviderParsingBenchmark {
+
+    private static final byte[] STRIPE_CHARGE =
+        "{\"id\":\"ch_3f1c2b9a8e7d6c5b4a392817\",\"status\":\"SUCCEED\",\"amount\":100.50}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MOMO_WEBHOOK =
+        ("{\"transaction_id\":\"MOMO_3712681415304c7c9b8e\",\"order_id\":\"ORD-20240101-0001\","
+            + "\"transaction_no\":\"MOMO-TXN-88211\",\"status\":\"SUCCEED\"}").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MOMO_PAYMENT_CREATED =
+        ("{\"transaction_id\":\"MOMO_3712681415304c7c9b8e\","
+            + "\"webhook_url\":\"https://momo-provider.com/webhooks/MOMO_3712681415304c7c9b8e\","
+            + "\"status\":\"PENDING\"}").getBytes(StandardCharsets.UTF_8);
+
+    private ObjectMapper objectMapper;
+    private StripeResponseCodec stripeCodec;
+    private MoMoCodec momoCodec;
+    private MoMoPaymentProvider momoProvider;
+    private PaymentProviderRouter router;
+    private WebhookPayload momoWebhook;
+    private int next;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper();
+        PaymentProperties properties = new PaymentProperties();
+        ProviderHttpClient httpClient = new ProviderHttpClient(properties,
+            new StaticListableBeanFactory().getBeanProvider(ProviderStubServer.class));
+
+        stripeCodec = new StripeResponseCodec(objectMapper);
+        momoCodec = new MoMoCodec(objectMapper);
+        ProviderSimulator simulator = new ProviderSimulator(properties);
+        momoProvider = new MoMoPaymentProvider(objectMapper, httpClient, momoCodec, simulator, properties);
+        router = new PaymentProviderRouter(
+            new StripePaymentProvider(objectMapper, httpClient, stripeCodec, simulator), momoProvider);
+        momoWebhook = WebhookPayload.of("{\"transaction_id\":\"MOMO_3712681415304c7c9b8e\","
+            + "\"order_id\":\"" + PaymentReference.encode(123456L) + "\","
+            + "\"transaction_no\":\"MOMO-TXN-88211\",\"status\":\"SUCCEED\"}");
+    }
+
+    @Benchmark
+    public StripeCharge decodeStripeCharge() throws Exception {
+        return stripeCodec.decodeCharge(STRIPE_CHARGE);
+    }
+
+    @Benchmark
+    public MoMoPaymentCreated decodeMoMoPaymentCreated() throws Exception {
+        return momoCodec.decodePaymentCreated(MOMO_PAYMENT_CREATED);
+    }
+
+    @Benchmark
+    public MoMoWebhookEvent decodeMoMoWebhook() throws Exception {
+        return momoCodec.decodeWebhook(MOMO_WEBHOOK);
+    }
+
+    @Benchmark
+    public StripeCharge treeStripeCharge() throws Exception {
+        String json = new String(STRIPE_CHARGE, StandardCharsets.UTF_8);
+        JsonNode idNode = objectMapper.readTree(json).get("id");
+        JsonNode statusNode = objectMapper.readTree(json).get("status");
+        return new StripeCharge(idNode != null ? idNode.asText() : null,
+            statusNode != null ? statusNode.asText() : null);
+    }
+
+    @Benchmark
+    public MoMoPaymentCreated treeMoMoPaymentCreated() throws Exception {
+        JsonNode node = objectMapper.readTree(new String(MOMO_PAYMENT_CREATED, StandardCharsets.UTF_8));
+        return new MoMoPaymentCreated(node.get("transaction_id").asText(), node.get("webhook_url").asText(),
+            node.path("status").asText(null));
+    }
+
+    @Benchmark
+    public MoMoWebhookEvent treeMoMoWebhook() throws Exception {
+        JsonNode node = objectMapper.readTree(new String(MOMO_WEBHOOK, StandardCharsets.UTF_8));
+        return new MoMoWebhookEvent(node.get("transaction_id").asText(), node.path("order_id").asText(null),
+            node.has("transaction_no") ? node.get("transaction_no").asText() : null, node.get("status").asText());
+    }
+
+    @Benchmark
+    public WebhookResult handleMoMoWebhook() {
+        return momoProvider.handleWebhook(momoWebhook, Map.of());
+    }
+
+    @Benchmark
+    public PaymentProviderStrategy route() {
+        return router.route((next++ & 1) == 0 ? PaymentProvider.STRIPE : PaymentProvider.MOMO);
+    }
+
+    @Benchmark
+    public WebhookCapablePaymentProviderStrategy routeWebhook() {
+        return router.routeWebhook(PaymentProvider.MOMO);
+    }
+}
@@ -0,0 +1,112 @@
+package com.tymex.payment.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.filter.ApiKeyAuthenticationFilter;
+import com.tymex.payment.filter.ApiKeyRegistry;
+import com.tymex.payment.filter.JsonRequestSizeLimitFilter;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the authentication and body-size filters on top of an empty filter chain
+ * (RateLimitFilterBenchmark covers the rate limiter).
+ *
+ * - baseline: the chain alone
+ * - apiKeyAccepted: ApiKeyAuthenticationFilter with a valid X-API-Key (SHA-256 + map lookup)
+ * - apiKeyRejected: the same with an unknown key, answered 401 with the pre-rendered body
+ * - sizeLimitJson: JsonRequestSizeLimitFilter on a JSON payment body (content-type check,
+ *   declared length check, limiting request wrapper)
+ * - sizeLimitSkipped: the same filter on a request without an API body (GET)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class RequestFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+    private static final String API_KEY = "benchmark-key";
+    private static final byte[] PAYMENT_BODY =
+        "{\"amount\":100,\"paymentMethod\":\"card\",\"paymentProvider\":\"stripe\"}".getBytes(StandardCharsets.UTF_8);
+
+    private ApiKeyAuthenticationFilter apiKeyFilter;
+    private JsonRequestSizeLimitFilter sizeLimitFilter;
+
+    @State(Scope.Thread)
+    public static class Exchange {
+        MockHttpServletRequest authenticated;
+        MockHttpServletRequest unknownKey;
+        MockHttpServletRequest paymentBody;
+        MockHttpServletRequest statusQuery;
+        MockHttpServletResponse response;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            authenticated = new MockHttpServletRequest("POST", "/api/v1/payments");
+            authenticated.addHeader("X-API-Key", API_KEY);
+            unknownKey = new MockHttpServletRequest("POST", "/api/v1/payments");
+            unknownKey.addHeader("X-API-Key", "not-a-key");
+            paymentBody = new MockHttpServletRequest("POST", "/api/v1/payments");
+            paymentBody.setContentType("application/json");
+            paymentBody.setContent(PAYMENT_BODY);
+            statusQuery = new MockHttpServletRequest("GET", "/api/v1/payments/00000000-0000-4000-8000-000000000001");
+            response = new MockHttpServletResponse();
+        }
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        PaymentProperties properties = new PaymentProperties();
+        properties.getApi().setKey(API_KEY);
+        apiKeyFilter = new ApiKeyAuthenticationFilter(new ApiKeyRegistry(properties), objectMapper);
+        sizeLimitFilter = new JsonRequestSizeLimitFilter(DataSize.ofKilobytes(10), DataSize.ofMegabytes(1), objectMapper);
+    }
+
+    @Benchmark
+    public void baseline(Exchange exchange) throws Exception {
+        NO_OP_CHAIN.doFilter(exchange.authenticated, exchange.response);
+    }
+
+    @Benchmark
+    public void apiKeyAccepted(Exchange exchange) throws Exception {
+        apiKeyFilter.doFilter(exchange.authenticated, exchange.response, NO_OP_CHAIN);
+    }
+
+    @Benchmark
+    public void apiKeyRejected(Exchange exchange) throws Exception {
+        exchange.response.reset();  // Keep the mock from accumulating 401 bodies
+        apiKeyFilter.doFilter(exchange.unknownKey, exchange.response, NO_OP_CHAIN);
+    }
+
+    @Benchmark
+    public void sizeLimitJson(Exchange exchange) throws Exception {
+        sizeLimitFilter.doFilter(exchange.paymentBody, exchange.response, NO_OP_CHAIN);
+    }
+
+    @Benchmark
+    public void sizeLimitSkipped(Exchange exchange) throws Exception {
+        sizeLimitFilter.doFilter(exchange.statusQuery, exchange.response, NO_OP_CHAIN);
+    }
+}
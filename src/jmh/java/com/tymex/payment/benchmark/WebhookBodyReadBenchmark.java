@@ -0,0 +1,100 @@
+package com.tymex.payment.benchmark;
+
+import com.tymex.payment.dto.WebhookPayload;
+import com.tymex.payment.exception.PayloadTooLargeException;
+import com.tymex.payment.util.PooledBodyReader;
+import com.tymex.payment.util.RequestHeaderView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-webhook allocation of WebhookController's read path: the body read into the pooled
+ * per-thread buffer (bounded by payment.security.max-json-size) plus the lazy header view.
+ *
+ * - declaredLength: body with a Content-Length
+ * - chunked: the same body without one (buffer grown up to the limit)
+ * - oversizedDeclaredLength: a 2 GB Content-Length, rejected before anything is allocated for it
+ * - readAllBytes: baseline - the body copied into a new array and String per request
+ *
+ * Allocation is reported by JMH's GC profiler (gc.alloc.rate.norm = bytes allocated per webhook):
+ *
+ *   mvn -Pjmh compile exec:exec -Djmh.args="WebhookBodyRead -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class WebhookBodyReadBenchmark {
+
+    private static final DataSize LIMIT = DataSize.ofKilobytes(10);
+    private static final byte[] MOMO_WEBHOOK =
+        ("{\"transaction_id\":\"MOMO_3712681415304c7c9b8e\",\"order_id\":\"ORD-20240101-0001\","
+            + "\"transaction_no\":\"MOMO-TXN-88211\",\"status\":\"SUCCEED\"}").getBytes(StandardCharsets.UTF_8);
+
+    private MockHttpServletRequest request;
+    private ByteArrayInputStream body;
+
+    @Setup
+    public void setup() {
+        request = new MockHttpServletRequest("POST", "/api/v1/webhooks/momo");
+        request.setContentType("application/json");
+        request.addHeader("X-MoMo-Signature", "5d41402abc4b2a76b9719d911017c592aa8c5b1b7e6f4bd2b47b3f9e4a3c2d1e");
+        body = new ByteArrayInputStream(MOMO_WEBHOOK);
+    }
+
+    @Benchmark
+    public void declaredLength(Blackhole blackhole) throws IOException {
+        body.reset();
+        blackhole.consume(PooledBodyReader.read(body, MOMO_WEBHOOK.length, LIMIT));
+        blackhole.consume(headers());
+    }
+
+    @Benchmark
+    public void chunked(Blackhole blackhole) throws IOException {
+        body.reset();
+        blackhole.consume(PooledBodyReader.read(body, -1, LIMIT));
+        blackhole.consume(headers());
+    }
+
+    @Benchmark
+    public Object oversizedDeclaredLength() throws IOException {
+        body.reset();
+        try {
+            return PooledBodyReader.read(body, 2L * 1024 * 1024 * 1024, LIMIT);
+        } catch (PayloadTooLargeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public void readAllBytes(Blackhole blackhole) {
+        body.reset();
+        blackhole.consume(WebhookPayload.of(new String(body.readAllBytes(), StandardCharsets.UTF_8)));
+        blackhole.consume(headers());
+    }
+
+    private Map<String, String> headers() {
+        return new RequestHeaderView(request);
+    }
+}
@@ -0,0 +1,97 @@
+package com.tymex.payment.benchmark;
+
+import com.tymex.payment.dto.WebhookPayload;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.service.webhook.journal.WebhookJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Webhook journal append path, on a journal in a temporary directory (64 MB segments, like the
+ * default configuration):
+ * - append: writing an entry into the mapped segment (what the request thread pays before waiting)
+ * - appendDurable: append + awaitDurable, as a JOURNAL-mode webhook request does before its 200;
+ *   64 concurrent writers share each group commit, so the score is durable appends/s across them
+ *
+ * flushIntervalMs is the group-commit window (payment.webhook.journal.flush-interval-ms).
+ * Consumed segments are dropped after every iteration so the run does not fill the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebhookJournalBenchmark {
+
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final Duration ACK_TIMEOUT = Duration.ofSeconds(1);
+
+    @Param({"2"})
+    public int flushIntervalMs;
+
+    private Path directory;
+    private WebhookJournal journal;
+    private WebhookPayload payload;
+    private Map<String, String> headers;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("webhook-journal-benchmark");
+        journal = new WebhookJournal(directory, SEGMENT_SIZE, Duration.ofMillis(flushIntervalMs));
+        payload = WebhookPayload.of("{\"transaction_id\":\"MOMO_3712681415304c7c9b8e\","
+            + "\"order_id\":\"ORD-20240101-0001\",\"transaction_no\":\"MOMO-TXN-88211\",\"status\":\"SUCCEED\"}");
+        headers = Map.of("content-type", "application/json",
+            "x-momo-signature", "5d41402abc4b2a76b9719d911017c592aa8c5b1b7e6f4bd2b47b3f9e4a3c2d1e");
+    }
+
+    @TearDown(Level.Iteration)
+    public void dropConsumedSegments() {
+        journal.commitConsumerOffset(journal.getDurableOffset());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long append() {
+        return journal.append(PaymentProvider.MOMO, payload, headers);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean appendDurable() throws InterruptedException {
+        long offset = journal.append(PaymentProvider.MOMO, payload, headers);
+        if (!journal.awaitDurable(offset, ACK_TIMEOUT)) {
+            throw new IllegalStateException("Journal entry not durable within " + ACK_TIMEOUT);
+        }
+        return true;
+    }
+}
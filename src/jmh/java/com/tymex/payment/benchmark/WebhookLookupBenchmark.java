@@ -0,0 +1,144 @@
+package com.tymex.payment.benchmark;
+
+import com.tymex.payment.util.PaymentReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Webhook payment lookup latency: self-routing reference (decode + primary key lookup)
+ * vs the secondary provider_transaction_id lookup.
+ * 
+ * Runs against in-memory H2 (MODE=PostgreSQL) with the payment_requests columns the
+ * webhook path reads. indexed=false mirrors the current entity mapping (no index on
+ * provider_transaction_id); indexed=true shows the cost with a secondary index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebhookLookupBenchmark {
+    
+    private static final String SELECT_COLUMNS =
+        "SELECT id, idempotency_key, version, processing_status, provider_transaction_id FROM payment_requests ";
+    
+    @Param({"10000", "100000"})
+    public int rows;
+    
+    @Param({"false", "true"})
+    public boolean indexed;
+    
+    private Connection connection;
+    private PreparedStatement byId;
+    private PreparedStatement byProviderTransactionId;
+    
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:lookup-" + rows + "-" + indexed + ";MODE=PostgreSQL", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE payment_requests ("
+                + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "idempotency_key VARCHAR(36) NOT NULL UNIQUE, "
+                + "version BIGINT NOT NULL, "
+                + "processing_status VARCHAR(20), "
+                + "provider_transaction_id VARCHAR(100))");
+            if (indexed) {
+                statement.execute("CREATE INDEX idx_payment_requests_ptx ON payment_requests (provider_transaction_id)");
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO payment_requests (idempotency_key, version, processing_status, provider_transaction_id) "
+                + "VALUES (?, 0, 'PROCESSING', ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                insert.setString(1, String.format("00000000-0000-4000-8000-%012d", i));
+                insert.setString(2, providerTransactionId(i));
+                insert.addBatch();
+                if (i % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        byId = connection.prepareStatement(SELECT_COLUMNS + "WHERE id = ?");
+        byProviderTransactionId = connection.prepareStatement(SELECT_COLUMNS + "WHERE provider_transaction_id = ?");
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+    
+    /**
+     * Pre-generated random webhooks, cycled per call (avoids per-invocation setup overhead).
+     */
+    @State(Scope.Thread)
+    public static class Webhooks {
+        private static final int COUNT = 1024;
+        
+        final String[] references = new String[COUNT];
+        final String[] providerTransactionIds = new String[COUNT];
+        int next;
+        
+        @Setup(Level.Trial)
+        public void setup(WebhookLookupBenchmark benchmark) {
+            for (int i = 0; i < COUNT; i++) {
+                long id = ThreadLocalRandom.current().nextLong(1, benchmark.rows + 1);
+                references[i] = PaymentReference.encode(id);
+                providerTransactionIds[i] = providerTransactionId(id);
+            }
+        }
+        
+        int next() {
+            next = (next + 1) & (COUNT - 1);
+            return next;
+        }
+    }
+    
+    @Benchmark
+    public String selfRoutingReference(Webhooks webhooks) throws SQLException {
+        int i = webhooks.next();
+        byId.setLong(1, PaymentReference.decode(webhooks.references[i]));
+        return read(byId, webhooks.providerTransactionIds[i]);
+    }
+    
+    @Benchmark
+    public String providerTransactionId(Webhooks webhooks) throws SQLException {
+        int i = webhooks.next();
+        byProviderTransactionId.setString(1, webhooks.providerTransactionIds[i]);
+        return read(byProviderTransactionId, webhooks.providerTransactionIds[i]);
+    }
+    
+    private static String read(PreparedStatement statement, String expected) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            if (!resultSet.next() || !expected.equals(resultSet.getString(5))) {
+                throw new IllegalStateException("Payment not found for providerTransactionId: " + expected);
+            }
+            return resultSet.getString(2);
+        }
+    }
+    
+    private static String providerTransactionId(long id) {
+        return String.format("MOMO_%020d", id);
+    }
+}
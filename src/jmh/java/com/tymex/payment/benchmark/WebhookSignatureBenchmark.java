@@ -0,0 +1,92 @@
+package com.tymex.payment.benchmark;
+
+import com.tymex.payment.dto.WebhookPayload;
+import com.tymex.payment.service.provider.signature.WebhookSignatureVerifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Webhook signature verification cost per webhook.
+ * 
+ * - naive: Mac.getInstance + init per request (what a straightforward implementation does)
+ * - pooled: WebhookSignatureVerifier (thread-confined Macs, precomputed keys, streaming HMAC)
+ * 
+ * keys=2 models secret rotation, where the newest key is checked alongside the previous one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class WebhookSignatureBenchmark {
+    
+    private static final String ALGORITHM = "HmacSHA256";
+    
+    @Param({"1", "2"})
+    public int keys;
+    
+    @Param({"256", "4096"})
+    public int payloadSize;
+    
+    private List<String> secrets;
+    private WebhookSignatureVerifier verifier;
+    private WebhookPayload payload;
+    private byte[] signature;
+    
+    @Setup
+    public void setup() throws Exception {
+        secrets = new ArrayList<>();
+        for (int i = 0; i < keys; i++) {
+            secrets.add("whsec_benchmark_secret_" + i);
+        }
+        verifier = new WebhookSignatureVerifier(ALGORITHM, "X-Signature", secrets);
+        
+        StringBuilder body = new StringBuilder("{\"transaction_id\":\"MOMO_0123456789\",\"status\":\"SUCCESS\",\"pad\":\"");
+        while (body.length() < payloadSize - 2) {
+            body.append('x');
+        }
+        body.append("\"}");
+        payload = WebhookPayload.of(body.toString());
+        
+        // Sign with the oldest key so rotation checks every key before matching
+        Mac mac = Mac.getInstance(ALGORITHM);
+        mac.init(new SecretKeySpec(secrets.get(keys - 1).getBytes(StandardCharsets.UTF_8), ALGORITHM));
+        signature = mac.doFinal(payload.toBytes());
+    }
+    
+    @Benchmark
+    public boolean naive() throws Exception {
+        boolean matched = false;
+        for (String secret : secrets) {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            matched |= MessageDigest.isEqual(mac.doFinal(payload.toBytes()), signature);
+        }
+        return matched;
+    }
+    
+    @Benchmark
+    public boolean pooled() {
+        return verifier.matches(payload, signature);
+    }
+}
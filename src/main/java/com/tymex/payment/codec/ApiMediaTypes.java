@@ -0,0 +1,47 @@
+package com.tymex.payment.codec;
+
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Body formats of the payment API.
+ *
+ * JSON is the default; CBOR and Protobuf are used when the client asks for them with
+ * Content-Type (request body) and Accept (response body). All three carry the same fields.
+ */
+public final class ApiMediaTypes {
+
+    public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType(APPLICATION_PROTOBUF_VALUE);
+
+    /**
+     * Request body types bound by the controllers, and therefore subject to the body size limits
+     */
+    public static final List<MediaType> API_BODY_TYPES = List.of(
+        MediaType.APPLICATION_JSON,
+        MediaType.APPLICATION_CBOR,
+        APPLICATION_PROTOBUF
+    );
+
+    // Prevent instantiation
+    private ApiMediaTypes() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * @param contentType the parsed Content-Type, may be null
+     * @return true if it is JSON, CBOR or Protobuf
+     */
+    public static boolean isApiBody(MediaType contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        for (MediaType type : API_BODY_TYPES) {
+            if (type.isCompatibleWith(contentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,49 @@
+package com.tymex.payment.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+
+/**
+ * ObjectMappers for the binary API formats.
+ *
+ * Built from the same Jackson2ObjectMapperBuilder as the JSON mapper (Boot's, carrying the
+ * spring.jackson.* settings and registered modules), so a DTO has the same field names, enum
+ * values and date format in every format.
+ */
+public final class ApiObjectMappers {
+
+    // Prevent instantiation
+    private ApiObjectMappers() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * @param builder a fresh builder (Boot's is a prototype bean)
+     * @return a mapper reading and writing CBOR
+     */
+    public static ObjectMapper cbor(Jackson2ObjectMapperBuilder builder) {
+        return builder.createXmlMapper(false).factory(new CBORFactory()).build();
+    }
+
+    /**
+     * Protobuf has no decimal type: BigDecimal amounts are written as decimal strings
+     * (see payment.proto); reading parses them back without loss.
+     *
+     * @param builder a fresh builder (Boot's is a prototype bean)
+     * @return a mapper reading and writing Protobuf; every reader and writer needs a schema
+     *         from ProtobufSchemas
+     */
+    public static ObjectMapper protobuf(Jackson2ObjectMapperBuilder builder) {
+        return builder.createXmlMapper(false)
+            .factory(new ProtobufFactory())
+            .postConfigurer(mapper -> mapper.registerModule(
+                new SimpleModule("ProtobufDecimals").addSerializer(BigDecimal.class, ToStringSerializer.instance)))
+            .build();
+    }
+}
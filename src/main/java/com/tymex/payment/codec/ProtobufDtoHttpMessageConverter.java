@@ -0,0 +1,60 @@
+package com.tymex.payment.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Spring MVC converter for application/x-protobuf bodies of the DTOs in ProtobufSchemas.
+ *
+ * Jackson's Protobuf backend needs the message schema for every read and write, which is
+ * looked up by the body class. Controllers return ResponseEntity&lt;?&gt;, so the schema for
+ * writing comes from the runtime class of the value, not from the declared type.
+ */
+public class ProtobufDtoHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    private final ProtobufSchemas schemas;
+
+    /**
+     * @param protobufMapper a mapper from ApiObjectMappers.protobuf
+     * @param schemas the DTO schemas
+     */
+    public ProtobufDtoHttpMessageConverter(ObjectMapper protobufMapper, ProtobufSchemas schemas) {
+        super(protobufMapper, ApiMediaTypes.APPLICATION_PROTOBUF);
+        this.schemas = schemas;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return type instanceof Class<?> clazz && schemas.supports(clazz) && super.canRead(type, contextClass, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return schemas.supports(clazz) && super.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        super.writeInternal(object, object.getClass(), outputMessage);
+    }
+
+    @Override
+    protected ObjectReader customizeReader(ObjectReader reader, JavaType javaType) {
+        return reader.with(schemas.schemaFor(javaType.getRawClass()));
+    }
+
+    @Override
+    protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, MediaType contentType) {
+        return writer.with(schemas.schemaFor(javaType.getRawClass()));
+    }
+}
@@ -0,0 +1,62 @@
+package com.tymex.payment.codec;
+
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.tymex.payment.dto.ErrorResponseDTO;
+import com.tymex.payment.dto.PaymentRequestDTO;
+import com.tymex.payment.dto.PaymentResponseDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Protobuf schemas of the API DTOs, parsed once from the published protobuf/payment.proto
+ * (so the server cannot drift from what clients generate their code from).
+ *
+ * Only the DTOs listed here can be exchanged as Protobuf; any other body type (e.g. batches)
+ * stays JSON/CBOR and is answered 406/415 when Protobuf is requested.
+ */
+public final class ProtobufSchemas {
+
+    public static final String SCHEMA_RESOURCE = "protobuf/payment.proto";
+
+    private final Map<Class<?>, ProtobufSchema> schemas;
+
+    private ProtobufSchemas(Map<Class<?>, ProtobufSchema> schemas) {
+        this.schemas = schemas;
+    }
+
+    /**
+     * @return the schemas from the classpath copy of payment.proto
+     * @throws UncheckedIOException if the file is missing or invalid
+     */
+    public static ProtobufSchemas load() {
+        try (InputStream in = ProtobufSchemas.class.getClassLoader().getResourceAsStream(SCHEMA_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Protobuf schema not found on classpath: " + SCHEMA_RESOURCE);
+            }
+            NativeProtobufSchema file = ProtobufSchemaLoader.std.loadNative(in, false);
+            return new ProtobufSchemas(Map.of(
+                PaymentRequestDTO.class, file.forType("PaymentRequest"),
+                PaymentResponseDTO.class, file.forType("PaymentResponse"),
+                ErrorResponseDTO.class, file.forType("ErrorResponse")
+            ));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load " + SCHEMA_RESOURCE, e);
+        }
+    }
+
+    /**
+     * @return the schema of the type, or null if it has no Protobuf form
+     */
+    public ProtobufSchema schemaFor(Class<?> type) {
+        return schemas.get(type);
+    }
+
+    public boolean supports(Class<?> type) {
+        return schemas.containsKey(type);
+    }
+}
@@ -0,0 +1,53 @@
+package com.tymex.payment.config;
+
+import com.tymex.payment.codec.ApiObjectMappers;
+import com.tymex.payment.codec.ProtobufDtoHttpMessageConverter;
+import com.tymex.payment.codec.ProtobufSchemas;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * CBOR (application/cbor) and Protobuf (application/x-protobuf) bodies next to JSON.
+ *
+ * The binary converters are appended after the JSON one, so JSON stays the answer to a missing
+ * or wildcard Accept header; a client gets a binary body only by asking for it. Error bodies
+ * written by controllers follow the same negotiation; the pre-rendered rejections of the /api/*
+ * filters (401, 413, 415, 429, 503) are always JSON.
+ */
+@Configuration
+public class ContentNegotiationConfig {
+
+    @Bean
+    public ProtobufSchemas protobufSchemas() {
+        return ProtobufSchemas.load();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletMessageConverters implements WebMvcConfigurer {
+
+        private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+        private final ProtobufSchemas schemas;
+
+        ServletMessageConverters(ObjectProvider<Jackson2ObjectMapperBuilder> builders, ProtobufSchemas schemas) {
+            this.builders = builders;
+            this.schemas = schemas;
+        }
+
+        @Override
+        public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+            // Spring's default CBOR converter ignores the spring.jackson.* settings (dates as arrays, ...)
+            converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter);
+            converters.add(new MappingJackson2CborHttpMessageConverter(ApiObjectMappers.cbor(builders.getObject())));
+            converters.add(new ProtobufDtoHttpMessageConverter(ApiObjectMappers.protobuf(builders.getObject()), schemas));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.tymex.payment.config;
+
+import com.tymex.payment.service.metrics.RoundTripCountingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource in a RoundTripCountingDataSource when
+ * payment.debug.db-round-trips=true, so load tests can report database round trips per request.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "payment.debug", name = "db-round-trips", havingValue = "true")
+public class DbRoundTripConfig {
+
+    @Bean
+    public static BeanPostProcessor roundTripCountingDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof RoundTripCountingDataSource)) {
+                    return new RoundTripCountingDataSource(dataSource, meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
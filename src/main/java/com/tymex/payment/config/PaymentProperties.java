@@ -1,5 +1,7 @@
 package com.tymex.payment.config;
 
+import com.tymex.payment.enums.LatencyDistribution;
+import com.tymex.payment.enums.WebhookIngestionMode;
 import jakarta.annotation.PostConstruct;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
@@ -9,6 +11,11 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 @Validated
 @ConfigurationProperties(prefix = "payment")
@@ -19,6 +26,16 @@ public class PaymentProperties {
     private Api api = new Api();
     private Idempotency idempotency = new Idempotency();
     private Debug debug = new Debug();
+    private Providers providers = new Providers();
+    private Batch batch = new Batch();
+    private Deadline deadline = new Deadline();
+    private RetryBudget retryBudget = new RetryBudget();
+    private Webhook webhook = new Webhook();
+    private Events events = new Events();
+    private Notifications notifications = new Notifications();
+    private RateLimit rateLimit = new RateLimit();
+    private Admission admission = new Admission();
+    private Reactive reactive = new Reactive();
     private String apiVersion = "v1";
     
     public Api getApi() {
@@ -45,6 +62,86 @@ public class PaymentProperties {
         this.debug = debug;
     }
     
+    public Providers getProviders() {
+        return providers;
+    }
+    
+    public void setProviders(Providers providers) {
+        this.providers = providers;
+    }
+    
+    public Batch getBatch() {
+        return batch;
+    }
+    
+    public void setBatch(Batch batch) {
+        this.batch = batch;
+    }
+    
+    public Deadline getDeadline() {
+        return deadline;
+    }
+    
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+    
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+    
+    public void setRetryBudget(RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+    }
+    
+    public Webhook getWebhook() {
+        return webhook;
+    }
+    
+    public void setWebhook(Webhook webhook) {
+        this.webhook = webhook;
+    }
+    
+    public Events getEvents() {
+        return events;
+    }
+    
+    public void setEvents(Events events) {
+        this.events = events;
+    }
+    
+    public Notifications getNotifications() {
+        return notifications;
+    }
+    
+    public void setNotifications(Notifications notifications) {
+        this.notifications = notifications;
+    }
+    
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+    
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+    
+    public Admission getAdmission() {
+        return admission;
+    }
+    
+    public void setAdmission(Admission admission) {
+        this.admission = admission;
+    }
+    
+    public Reactive getReactive() {
+        return reactive;
+    }
+    
+    public void setReactive(Reactive reactive) {
+        this.reactive = reactive;
+    }
+    
     public String getApiVersion() {
         return apiVersion;
     }
@@ -88,6 +185,9 @@ public class PaymentProperties {
     public static class Api {
         @NotBlank(message = "API key must be provided via API_KEY environment variable")
         private String key;
+        private String defaultClientId = "default";
+        private String keysFile;
+        private Integer reloadIntervalSeconds = 10;
         
         public String getKey() {
             return key;
@@ -96,6 +196,30 @@ public class PaymentProperties {
         public void setKey(String key) {
             this.key = key;
         }
+        
+        public String getDefaultClientId() {
+            return defaultClientId;
+        }
+        
+        public void setDefaultClientId(String defaultClientId) {
+            this.defaultClientId = defaultClientId;
+        }
+        
+        public String getKeysFile() {
+            return keysFile;
+        }
+        
+        public void setKeysFile(String keysFile) {
+            this.keysFile = keysFile;
+        }
+        
+        public Integer getReloadIntervalSeconds() {
+            return reloadIntervalSeconds;
+        }
+        
+        public void setReloadIntervalSeconds(Integer reloadIntervalSeconds) {
+            this.reloadIntervalSeconds = reloadIntervalSeconds;
+        }
     }
     
     public static class Idempotency {
@@ -130,6 +254,7 @@ public class PaymentProperties {
     
     public static class Debug {
         private Boolean sqlLogging = false;
+        private Boolean dbRoundTrips = false;
         
         public Boolean getSqlLogging() {
             return sqlLogging;
@@ -138,5 +263,1055 @@ public class PaymentProperties {
         public void setSqlLogging(Boolean sqlLogging) {
             this.sqlLogging = sqlLogging;
         }
+        
+        /**
+         * Count JDBC statement executions, commits and rollbacks (payment.db.round_trips).
+         * Every JDBC call then goes through a proxy, so keep it off outside load tests.
+         */
+        public Boolean getDbRoundTrips() {
+            return dbRoundTrips;
+        }
+        
+        public void setDbRoundTrips(Boolean dbRoundTrips) {
+            this.dbRoundTrips = dbRoundTrips;
+        }
+    }
+    
+    public static class Providers {
+        private Integer connectTimeoutMs = 2000;
+        private Endpoint stripe = new Endpoint();
+        private Endpoint momo = new Endpoint();
+        private Stub stub = new Stub();
+        
+        public Providers() {
+            // Stripe is a synchronous API that answers in about a second; MoMo answers PENDING at once
+            stripe.getSimulation().setLatencyMs(1000);
+        }
+        
+        public Integer getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+        
+        public void setConnectTimeoutMs(Integer connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+        
+        public Endpoint getStripe() {
+            return stripe;
+        }
+        
+        public void setStripe(Endpoint stripe) {
+            this.stripe = stripe;
+        }
+        
+        public Endpoint getMomo() {
+            return momo;
+        }
+        
+        public void setMomo(Endpoint momo) {
+            this.momo = momo;
+        }
+        
+        public Stub getStub() {
+            return stub;
+        }
+        
+        public void setStub(Stub stub) {
+            this.stub = stub;
+        }
+    }
+    
+    /**
+     * Connection settings of a single external provider.
+     * A blank base URL keeps the provider on its in-process simulation.
+     */
+    public static class Endpoint {
+        private String baseUrl;
+        private Integer requestTimeoutMs = 10000;
+        private Boolean selfRoutingReference = false;
+        private WebhookSignature webhookSignature = new WebhookSignature();
+        private Simulation simulation = new Simulation();
+        
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+        
+        public void setBaseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+        
+        public Integer getRequestTimeoutMs() {
+            return requestTimeoutMs;
+        }
+        
+        public void setRequestTimeoutMs(Integer requestTimeoutMs) {
+            this.requestTimeoutMs = requestTimeoutMs;
+        }
+        
+        /**
+         * Async providers only: send a reference encoding our payment record id as the order id,
+         * so webhooks echoing it resolve the payment by primary key.
+         */
+        public Boolean getSelfRoutingReference() {
+            return selfRoutingReference;
+        }
+        
+        public void setSelfRoutingReference(Boolean selfRoutingReference) {
+            this.selfRoutingReference = selfRoutingReference;
+        }
+        
+        public WebhookSignature getWebhookSignature() {
+            return webhookSignature;
+        }
+        
+        public void setWebhookSignature(WebhookSignature webhookSignature) {
+            this.webhookSignature = webhookSignature;
+        }
+        
+        public Simulation getSimulation() {
+            return simulation;
+        }
+        
+        public void setSimulation(Simulation simulation) {
+            this.simulation = simulation;
+        }
+    }
+    
+    /**
+     * Behaviour of a provider's in-process simulation (used while its base URL is blank).
+     * Each call samples a latency, then fails with error-rate probability; with timeout-rate
+     * probability it instead hangs until request-timeout-ms (or the caller's deadline) and times out.
+     */
+    public static class Simulation {
+        private LatencyDistribution distribution = LatencyDistribution.FIXED;
+        private Integer latencyMs = 0;
+        private Integer latencyP99Ms = 0;
+        private Double errorRate = 0.0;
+        private Double timeoutRate = 0.0;
+        
+        public LatencyDistribution getDistribution() {
+            return distribution;
+        }
+        
+        public void setDistribution(LatencyDistribution distribution) {
+            this.distribution = distribution;
+        }
+        
+        /**
+         * FIXED: the latency; UNIFORM: the lower bound; LOG_NORMAL: the median.
+         */
+        public Integer getLatencyMs() {
+            return latencyMs;
+        }
+        
+        public void setLatencyMs(Integer latencyMs) {
+            this.latencyMs = latencyMs;
+        }
+        
+        /**
+         * UNIFORM: the upper bound; LOG_NORMAL: the 99th percentile; ignored for FIXED.
+         */
+        public Integer getLatencyP99Ms() {
+            return latencyP99Ms;
+        }
+        
+        public void setLatencyP99Ms(Integer latencyP99Ms) {
+            this.latencyP99Ms = latencyP99Ms;
+        }
+        
+        public Double getErrorRate() {
+            return errorRate;
+        }
+        
+        public void setErrorRate(Double errorRate) {
+            this.errorRate = errorRate;
+        }
+        
+        public Double getTimeoutRate() {
+            return timeoutRate;
+        }
+        
+        public void setTimeoutRate(Double timeoutRate) {
+            this.timeoutRate = timeoutRate;
+        }
+    }
+    
+    /**
+     * HMAC webhook signature settings of a provider. No secrets = verification disabled.
+     */
+    public static class WebhookSignature {
+        private String algorithm = "HmacSHA256";
+        private String header = "X-Signature";
+        private List<String> secrets = new ArrayList<>();
+        
+        public String getAlgorithm() {
+            return algorithm;
+        }
+        
+        public void setAlgorithm(String algorithm) {
+            this.algorithm = algorithm;
+        }
+        
+        public String getHeader() {
+            return header;
+        }
+        
+        public void setHeader(String header) {
+            this.header = header;
+        }
+        
+        public List<String> getSecrets() {
+            return secrets;
+        }
+        
+        public void setSecrets(List<String> secrets) {
+            this.secrets = secrets;
+        }
+    }
+    
+    public static class Stub {
+        private Boolean enabled = false;
+        private Integer port = 0;
+        private Integer threads = 16;
+        
+        public Boolean getEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public Integer getPort() {
+            return port;
+        }
+        
+        public void setPort(Integer port) {
+            this.port = port;
+        }
+        
+        public Integer getThreads() {
+            return threads;
+        }
+        
+        public void setThreads(Integer threads) {
+            this.threads = threads;
+        }
+    }
+    
+    public static class Batch {
+        private Integer maxItems = 500;
+        private Integer providerConcurrency = 16;
+        private Integer providerQueueCapacity = 256;
+        private Integer maxConcurrentBatches = 8;
+        
+        public Integer getMaxItems() {
+            return maxItems;
+        }
+        
+        public void setMaxItems(Integer maxItems) {
+            this.maxItems = maxItems;
+        }
+        
+        public Integer getProviderConcurrency() {
+            return providerConcurrency;
+        }
+        
+        public void setProviderConcurrency(Integer providerConcurrency) {
+            this.providerConcurrency = providerConcurrency;
+        }
+        
+        public Integer getProviderQueueCapacity() {
+            return providerQueueCapacity;
+        }
+        
+        public void setProviderQueueCapacity(Integer providerQueueCapacity) {
+            this.providerQueueCapacity = providerQueueCapacity;
+        }
+        
+        public Integer getMaxConcurrentBatches() {
+            return maxConcurrentBatches;
+        }
+        
+        public void setMaxConcurrentBatches(Integer maxConcurrentBatches) {
+            this.maxConcurrentBatches = maxConcurrentBatches;
+        }
+    }
+    
+    /**
+     * Request deadline settings. Clients may send a Request-Timeout header (milliseconds);
+     * otherwise the default applies. Values are capped at maxTimeoutMs.
+     */
+    public static class Deadline {
+        private Integer defaultTimeoutMs = 30000;
+        private Integer maxTimeoutMs = 120000;
+        private Integer minAttemptMs = 100;
+        
+        public Integer getDefaultTimeoutMs() {
+            return defaultTimeoutMs;
+        }
+        
+        public void setDefaultTimeoutMs(Integer defaultTimeoutMs) {
+            this.defaultTimeoutMs = defaultTimeoutMs;
+        }
+        
+        public Integer getMaxTimeoutMs() {
+            return maxTimeoutMs;
+        }
+        
+        public void setMaxTimeoutMs(Integer maxTimeoutMs) {
+            this.maxTimeoutMs = maxTimeoutMs;
+        }
+        
+        public Integer getMinAttemptMs() {
+            return minAttemptMs;
+        }
+        
+        public void setMinAttemptMs(Integer minAttemptMs) {
+            this.minAttemptMs = minAttemptMs;
+        }
+    }
+    
+    /**
+     * Per-provider retry budget: retries may use at most {@code ratio} of recent first attempts,
+     * with at most {@code maxTokens} retries banked.
+     */
+    public static class RetryBudget {
+        private Boolean enabled = true;
+        private Double ratio = 0.2;
+        private Integer maxTokens = 20;
+        
+        public Boolean getEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public Double getRatio() {
+            return ratio;
+        }
+        
+        public void setRatio(Double ratio) {
+            this.ratio = ratio;
+        }
+        
+        public Integer getMaxTokens() {
+            return maxTokens;
+        }
+        
+        public void setMaxTokens(Integer maxTokens) {
+            this.maxTokens = maxTokens;
+        }
+    }
+    
+    public static class Webhook {
+        private WebhookIngestionMode ingestionMode = WebhookIngestionMode.DIRECT;
+        private Inbox inbox = new Inbox();
+        private Journal journal = new Journal();
+        private Dedup dedup = new Dedup();
+        private Batching batching = new Batching();
+        private Lanes lanes = new Lanes();
+        
+        public WebhookIngestionMode getIngestionMode() {
+            return ingestionMode;
+        }
+        
+        public void setIngestionMode(WebhookIngestionMode ingestionMode) {
+            this.ingestionMode = ingestionMode;
+        }
+        
+        public Inbox getInbox() {
+            return inbox;
+        }
+        
+        public void setInbox(Inbox inbox) {
+            this.inbox = inbox;
+        }
+        
+        public Journal getJournal() {
+            return journal;
+        }
+        
+        public void setJournal(Journal journal) {
+            this.journal = journal;
+        }
+        
+        public Dedup getDedup() {
+            return dedup;
+        }
+        
+        public void setDedup(Dedup dedup) {
+            this.dedup = dedup;
+        }
+        
+        public Batching getBatching() {
+            return batching;
+        }
+        
+        public void setBatching(Batching batching) {
+            this.batching = batching;
+        }
+        
+        public Lanes getLanes() {
+            return lanes;
+        }
+        
+        public void setLanes(Lanes lanes) {
+            this.lanes = lanes;
+        }
+    }
+    
+    /**
+     * Durable webhook inbox settings (used when ingestion-mode is INBOX).
+     */
+    public static class Inbox {
+        private Integer workers = 4;
+        private Integer batchSize = 50;
+        private Integer pollIntervalMs = 200;
+        private Integer maxAttempts = 5;
+        private Integer retryDelayMs = 1000;
+        private Integer staleClaimSeconds = 60;
+        
+        public Integer getWorkers() {
+            return workers;
+        }
+        
+        public void setWorkers(Integer workers) {
+            this.workers = workers;
+        }
+        
+        public Integer getBatchSize() {
+            return batchSize;
+        }
+        
+        public void setBatchSize(Integer batchSize) {
+            this.batchSize = batchSize;
+        }
+        
+        public Integer getPollIntervalMs() {
+            return pollIntervalMs;
+        }
+        
+        public void setPollIntervalMs(Integer pollIntervalMs) {
+            this.pollIntervalMs = pollIntervalMs;
+        }
+        
+        public Integer getMaxAttempts() {
+            return maxAttempts;
+        }
+        
+        public void setMaxAttempts(Integer maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+        
+        public Integer getRetryDelayMs() {
+            return retryDelayMs;
+        }
+        
+        public void setRetryDelayMs(Integer retryDelayMs) {
+            this.retryDelayMs = retryDelayMs;
+        }
+        
+        public Integer getStaleClaimSeconds() {
+            return staleClaimSeconds;
+        }
+        
+        public void setStaleClaimSeconds(Integer staleClaimSeconds) {
+            this.staleClaimSeconds = staleClaimSeconds;
+        }
+    }
+    
+    /**
+     * Memory-mapped webhook journal settings (used when ingestion-mode is JOURNAL).
+     */
+    public static class Journal {
+        private String directory = "./data/webhook-journal";
+        private Integer segmentSizeMb = 64;
+        private Integer flushIntervalMs = 2;
+        private Integer ackTimeoutMs = 1000;
+        private Integer maxAttempts = 5;
+        private Integer retryDelayMs = 200;
+        private Integer commitEvery = 100;
+        
+        public String getDirectory() {
+            return directory;
+        }
+        
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+        
+        public Integer getSegmentSizeMb() {
+            return segmentSizeMb;
+        }
+        
+        public void setSegmentSizeMb(Integer segmentSizeMb) {
+            this.segmentSizeMb = segmentSizeMb;
+        }
+        
+        public Integer getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+        
+        public void setFlushIntervalMs(Integer flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+        
+        public Integer getAckTimeoutMs() {
+            return ackTimeoutMs;
+        }
+        
+        public void setAckTimeoutMs(Integer ackTimeoutMs) {
+            this.ackTimeoutMs = ackTimeoutMs;
+        }
+        
+        public Integer getMaxAttempts() {
+            return maxAttempts;
+        }
+        
+        public void setMaxAttempts(Integer maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+        
+        public Integer getRetryDelayMs() {
+            return retryDelayMs;
+        }
+        
+        public void setRetryDelayMs(Integer retryDelayMs) {
+            this.retryDelayMs = retryDelayMs;
+        }
+        
+        public Integer getCommitEvery() {
+            return commitEvery;
+        }
+        
+        public void setCommitEvery(Integer commitEvery) {
+            this.commitEvery = commitEvery;
+        }
+    }
+    
+    /**
+     * Duplicate-webhook digest filter settings.
+     */
+    public static class Dedup {
+        private Boolean enabled = true;
+        private Integer windowSeconds = 600;
+        private Integer maxEntries = 100000;
+        
+        public Boolean getEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public Integer getWindowSeconds() {
+            return windowSeconds;
+        }
+        
+        public void setWindowSeconds(Integer windowSeconds) {
+            this.windowSeconds = windowSeconds;
+        }
+        
+        public Integer getMaxEntries() {
+            return maxEntries;
+        }
+        
+        public void setMaxEntries(Integer maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+    
+    /**
+     * Webhook micro-batching settings.
+     */
+    public static class Batching {
+        private Boolean enabled = true;
+        private Integer maxBatchSize = 200;
+        private Integer maxWaitMs = 2;
+        private Integer queueCapacity = 10000;
+        private Integer maxConflictRetries = 3;
+        private Integer awaitTimeoutMs = 10000;
+        
+        public Boolean getEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public Integer getMaxBatchSize() {
+            return maxBatchSize;
+        }
+        
+        public void setMaxBatchSize(Integer maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+        
+        public Integer getMaxWaitMs() {
+            return maxWaitMs;
+        }
+        
+        public void setMaxWaitMs(Integer maxWaitMs) {
+            this.maxWaitMs = maxWaitMs;
+        }
+        
+        public Integer getQueueCapacity() {
+            return queueCapacity;
+        }
+        
+        public void setQueueCapacity(Integer queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+        
+        public Integer getMaxConflictRetries() {
+            return maxConflictRetries;
+        }
+        
+        public void setMaxConflictRetries(Integer maxConflictRetries) {
+            this.maxConflictRetries = maxConflictRetries;
+        }
+        
+        public Integer getAwaitTimeoutMs() {
+            return awaitTimeoutMs;
+        }
+        
+        public void setAwaitTimeoutMs(Integer awaitTimeoutMs) {
+            this.awaitTimeoutMs = awaitTimeoutMs;
+        }
+    }
+    
+    /**
+     * Key-ordered webhook processing lanes (hash of providerTransactionId -> lane).
+     */
+    public static class Lanes {
+        private Boolean enabled = true;
+        private Integer count = 0;
+        private Integer queueCapacity = 1000;
+        private Integer awaitTimeoutMs = 10000;
+        
+        public Boolean getEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public Integer getCount() {
+            return count;
+        }
+        
+        public void setCount(Integer count) {
+            this.count = count;
+        }
+        
+        public Integer getQueueCapacity() {
+            return queueCapacity;
+        }
+        
+        public void setQueueCapacity(Integer queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+        
+        public Integer getAwaitTimeoutMs() {
+            return awaitTimeoutMs;
+        }
+        
+        public void setAwaitTimeoutMs(Integer awaitTimeoutMs) {
+            this.awaitTimeoutMs = awaitTimeoutMs;
+        }
+        
+        /**
+         * @return configured lane count, or the number of CPU cores when count is 0
+         */
+        public int resolveCount() {
+            return count > 0 ? count : Runtime.getRuntime().availableProcessors();
+        }
+    }
+    
+    /**
+     * Server-Sent Events stream of payment status transitions.
+     */
+    public static class Events {
+        private Integer heartbeatSeconds = 15;
+        private Integer timeoutMinutes = 30;
+        private Integer maxSubscribers = 10000;
+        private Integer queueCapacity = 10000;
+        
+        public Integer getHeartbeatSeconds() {
+            return heartbeatSeconds;
+        }
+        
+        public void setHeartbeatSeconds(Integer heartbeatSeconds) {
+            this.heartbeatSeconds = heartbeatSeconds;
+        }
+        
+        public Integer getTimeoutMinutes() {
+            return timeoutMinutes;
+        }
+        
+        public void setTimeoutMinutes(Integer timeoutMinutes) {
+            this.timeoutMinutes = timeoutMinutes;
+        }
+        
+        public Integer getMaxSubscribers() {
+            return maxSubscribers;
+        }
+        
+        public void setMaxSubscribers(Integer maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+        }
+        
+        public Integer getQueueCapacity() {
+            return queueCapacity;
+        }
+        
+        public void setQueueCapacity(Integer queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+    
+    /**
+     * Merchant callback notifications (transactional outbox + dispatcher).
+     */
+    public static class Notifications {
+        private Boolean enabled = false;
+        private Integer workers = 4;
+        private Integer batchSize = 200;
+        private Integer maxBatchSize = 50;
+        private Integer maxConcurrencyPerDestination = 2;
+        private Integer pollIntervalMs = 200;
+        private Integer requestTimeoutMs = 5000;
+        private Integer maxAttempts = 10;
+        private Integer retryBaseDelayMs = 1000;
+        private Integer retryMaxDelayMs = 300000;
+        private Integer staleClaimSeconds = 60;
+        private String signatureAlgorithm = "HmacSHA256";
+        private String signatureHeader = "X-Signature";
+        private Boolean allowPrivateAddresses = false;
+        private Map<String, CallbackClient> clients = new HashMap<>();
+        
+        public Boolean getEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public Integer getWorkers() {
+            return workers;
+        }
+        
+        public void setWorkers(Integer workers) {
+            this.workers = workers;
+        }
+        
+        public Integer getBatchSize() {
+            return batchSize;
+        }
+        
+        public void setBatchSize(Integer batchSize) {
+            this.batchSize = batchSize;
+        }
+        
+        public Integer getMaxBatchSize() {
+            return maxBatchSize;
+        }
+        
+        public void setMaxBatchSize(Integer maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+        
+        public Integer getMaxConcurrencyPerDestination() {
+            return maxConcurrencyPerDestination;
+        }
+        
+        public void setMaxConcurrencyPerDestination(Integer maxConcurrencyPerDestination) {
+            this.maxConcurrencyPerDestination = maxConcurrencyPerDestination;
+        }
+        
+        public Integer getPollIntervalMs() {
+            return pollIntervalMs;
+        }
+        
+        public void setPollIntervalMs(Integer pollIntervalMs) {
+            this.pollIntervalMs = pollIntervalMs;
+        }
+        
+        public Integer getRequestTimeoutMs() {
+            return requestTimeoutMs;
+        }
+        
+        public void setRequestTimeoutMs(Integer requestTimeoutMs) {
+            this.requestTimeoutMs = requestTimeoutMs;
+        }
+        
+        public Integer getMaxAttempts() {
+            return maxAttempts;
+        }
+        
+        public void setMaxAttempts(Integer maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+        
+        public Integer getRetryBaseDelayMs() {
+            return retryBaseDelayMs;
+        }
+        
+        public void setRetryBaseDelayMs(Integer retryBaseDelayMs) {
+            this.retryBaseDelayMs = retryBaseDelayMs;
+        }
+        
+        public Integer getRetryMaxDelayMs() {
+            return retryMaxDelayMs;
+        }
+        
+        public void setRetryMaxDelayMs(Integer retryMaxDelayMs) {
+            this.retryMaxDelayMs = retryMaxDelayMs;
+        }
+        
+        public Integer getStaleClaimSeconds() {
+            return staleClaimSeconds;
+        }
+        
+        public void setStaleClaimSeconds(Integer staleClaimSeconds) {
+            this.staleClaimSeconds = staleClaimSeconds;
+        }
+        
+        public String getSignatureAlgorithm() {
+            return signatureAlgorithm;
+        }
+        
+        public void setSignatureAlgorithm(String signatureAlgorithm) {
+            this.signatureAlgorithm = signatureAlgorithm;
+        }
+        
+        public String getSignatureHeader() {
+            return signatureHeader;
+        }
+        
+        public void setSignatureHeader(String signatureHeader) {
+            this.signatureHeader = signatureHeader;
+        }
+        
+        public Boolean getAllowPrivateAddresses() {
+            return allowPrivateAddresses;
+        }
+        
+        public void setAllowPrivateAddresses(Boolean allowPrivateAddresses) {
+            this.allowPrivateAddresses = allowPrivateAddresses;
+        }
+        
+        public Map<String, CallbackClient> getClients() {
+            return clients;
+        }
+        
+        public void setClients(Map<String, CallbackClient> clients) {
+            this.clients = clients;
+        }
+    }
+    
+    /**
+     * Callback registration of one API client: the hosts its callback URLs may point at,
+     * and the secret its notifications are signed with.
+     */
+    public static class CallbackClient {
+        private List<String> allowedHosts = new ArrayList<>();
+        private String signingSecret;
+        
+        public List<String> getAllowedHosts() {
+            return allowedHosts;
+        }
+        
+        public void setAllowedHosts(List<String> allowedHosts) {
+            this.allowedHosts = allowedHosts;
+        }
+        
+        public String getSigningSecret() {
+            return signingSecret;
+        }
+        
+        public void setSigningSecret(String signingSecret) {
+            this.signingSecret = signingSecret;
+        }
+    }
+    
+    public static class RateLimit {
+        private Boolean enabled = true;
+        private Integer maxBuckets = 10000;
+        private Limit client = new Limit(200.0, 400);
+        private Limit webhook = new Limit(1000.0, 2000);
+        private Map<String, Limit> clients = new HashMap<>();
+        
+        public Boolean getEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public Integer getMaxBuckets() {
+            return maxBuckets;
+        }
+        
+        public void setMaxBuckets(Integer maxBuckets) {
+            this.maxBuckets = maxBuckets;
+        }
+        
+        public Limit getClient() {
+            return client;
+        }
+        
+        public void setClient(Limit client) {
+            this.client = client;
+        }
+        
+        public Limit getWebhook() {
+            return webhook;
+        }
+        
+        public void setWebhook(Limit webhook) {
+            this.webhook = webhook;
+        }
+        
+        public Map<String, Limit> getClients() {
+            return clients;
+        }
+        
+        public void setClients(Map<String, Limit> clients) {
+            this.clients = clients;
+        }
+    }
+    
+    public static class Limit {
+        private Double requestsPerSecond;
+        private Integer burst;
+        
+        public Limit() {
+        }
+        
+        public Limit(Double requestsPerSecond, Integer burst) {
+            this.requestsPerSecond = requestsPerSecond;
+            this.burst = burst;
+        }
+        
+        public Double getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
+        
+        public void setRequestsPerSecond(Double requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+        }
+        
+        public Integer getBurst() {
+            return burst;
+        }
+        
+        public void setBurst(Integer burst) {
+            this.burst = burst;
+        }
+    }
+    
+    public static class Admission {
+        private Boolean enabled = true;
+        private Integer maxInFlightPayments = 150;
+        private Integer maxProviderInFlight = 150;
+        private Integer maxDbPendingThreads = 10;
+        private Long maxDbAcquireMs = 250L;
+        private Integer sampleIntervalMs = 100;
+        private Integer retryAfterSeconds = 1;
+        private Integer replayKeys = 100000;
+        
+        public Boolean getEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public Integer getMaxInFlightPayments() {
+            return maxInFlightPayments;
+        }
+        
+        public void setMaxInFlightPayments(Integer maxInFlightPayments) {
+            this.maxInFlightPayments = maxInFlightPayments;
+        }
+        
+        public Integer getMaxProviderInFlight() {
+            return maxProviderInFlight;
+        }
+        
+        public void setMaxProviderInFlight(Integer maxProviderInFlight) {
+            this.maxProviderInFlight = maxProviderInFlight;
+        }
+        
+        public Integer getMaxDbPendingThreads() {
+            return maxDbPendingThreads;
+        }
+        
+        public void setMaxDbPendingThreads(Integer maxDbPendingThreads) {
+            this.maxDbPendingThreads = maxDbPendingThreads;
+        }
+        
+        public Long getMaxDbAcquireMs() {
+            return maxDbAcquireMs;
+        }
+        
+        public void setMaxDbAcquireMs(Long maxDbAcquireMs) {
+            this.maxDbAcquireMs = maxDbAcquireMs;
+        }
+        
+        public Integer getSampleIntervalMs() {
+            return sampleIntervalMs;
+        }
+        
+        public void setSampleIntervalMs(Integer sampleIntervalMs) {
+            this.sampleIntervalMs = sampleIntervalMs;
+        }
+        
+        public Integer getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+        
+        public void setRetryAfterSeconds(Integer retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+        
+        public Integer getReplayKeys() {
+            return replayKeys;
+        }
+        
+        public void setReplayKeys(Integer replayKeys) {
+            this.replayKeys = replayKeys;
+        }
+    }
+    
+    public static class Reactive {
+        private Integer blockingThreads = 0;
+        private Integer blockingQueueCapacity = 10000;
+        
+        public Integer getBlockingThreads() {
+            return blockingThreads;
+        }
+        
+        public void setBlockingThreads(Integer blockingThreads) {
+            this.blockingThreads = blockingThreads;
+        }
+        
+        public Integer getBlockingQueueCapacity() {
+            return blockingQueueCapacity;
+        }
+        
+        public void setBlockingQueueCapacity(Integer blockingQueueCapacity) {
+            this.blockingQueueCapacity = blockingQueueCapacity;
+        }
     }
 }
@@ -0,0 +1,22 @@
+package com.tymex.payment.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tymex.payment.service.provider.http.ProviderStubServer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires the embedded provider stub server when payment.providers.stub.enabled=true.
+ * Providers without an explicit base URL then call the stub over real HTTP.
+ */
+@Configuration
+public class ProviderHttpConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(prefix = "payment.providers.stub", name = "enabled", havingValue = "true")
+    public ProviderStubServer providerStubServer(ObjectMapper objectMapper, PaymentProperties paymentProperties) {
+        PaymentProperties.Stub stub = paymentProperties.getProviders().getStub();
+        return new ProviderStubServer(objectMapper, stub.getPort(), stub.getThreads());
+    }
+}
@@ -1,6 +1,8 @@
 package com.tymex.payment.config;
 
+import com.tymex.payment.filter.AdmissionControlFilter;
 import com.tymex.payment.filter.ApiKeyAuthenticationFilter;
+import com.tymex.payment.filter.RateLimitFilter;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,8 +15,28 @@ public class WebConfig {
         FilterRegistrationBean<ApiKeyAuthenticationFilter> registrationBean = new FilterRegistrationBean<>();
         registrationBean.setFilter(filter);
         registrationBean.addUrlPatterns("/api/*");
+        // Metrics name clients, providers and traffic levels; /actuator/health stays open for probes
+        registrationBean.addUrlPatterns("/actuator/metrics/*", "/actuator/prometheus");
         registrationBean.setOrder(1);
         return registrationBean;
     }
+    
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(filter);
+        registrationBean.addUrlPatterns("/api/*");
+        registrationBean.setOrder(2);  // After authentication: limits are per authenticated client
+        return registrationBean;
+    }
+    
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilterRegistration(AdmissionControlFilter filter) {
+        FilterRegistrationBean<AdmissionControlFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(filter);
+        registrationBean.addUrlPatterns("/api/*");
+        registrationBean.setOrder(3);  // After rate limiting: a throttled client never counts as in flight
+        return registrationBean;
+    }
 }
 
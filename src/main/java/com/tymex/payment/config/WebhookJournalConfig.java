@@ -0,0 +1,29 @@
+package com.tymex.payment.config;
+
+import com.tymex.payment.service.webhook.journal.WebhookJournal;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Opens the memory-mapped webhook journal when payment.webhook.ingestion-mode=JOURNAL.
+ * Opening recovers existing segments, so a restart resumes from the last committed consumer offset.
+ */
+@Configuration
+public class WebhookJournalConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "payment.webhook", name = "ingestion-mode", havingValue = "JOURNAL")
+    public WebhookJournal webhookJournal(PaymentProperties paymentProperties) throws IOException {
+        PaymentProperties.Journal journal = paymentProperties.getWebhook().getJournal();
+        return new WebhookJournal(
+            Path.of(journal.getDirectory()),
+            journal.getSegmentSizeMb() * 1024 * 1024,
+            Duration.ofMillis(journal.getFlushIntervalMs())
+        );
+    }
+}
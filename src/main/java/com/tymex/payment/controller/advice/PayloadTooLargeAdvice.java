@@ -0,0 +1,40 @@
+package com.tymex.payment.controller.advice;
+
+import com.tymex.payment.dto.ErrorResponseDTO;
+import com.tymex.payment.enums.ErrorCode;
+import com.tymex.payment.exception.PayloadTooLargeException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps request bodies that outgrow their size limit while being read (JsonRequestSizeLimitFilter)
+ * to 413. Bodies bound with @RequestBody surface the limit wrapped in HttpMessageNotReadableException;
+ * any other unreadable body keeps Spring's default 400 handling.
+ * In the reactive build, ReactiveRequestSizeLimitFilter raises PayloadTooLargeException directly.
+ */
+@RestControllerAdvice
+public class PayloadTooLargeAdvice {
+    
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponseDTO> handleUnreadable(HttpMessageNotReadableException e)
+            throws HttpMessageNotReadableException {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof PayloadTooLargeException tooLarge) {
+                return handleTooLarge(tooLarge);
+            }
+        }
+        throw e;  // Not ours - fall through to the default resolver
+    }
+    
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<ErrorResponseDTO> handleTooLarge(PayloadTooLargeException e) {
+        return ResponseEntity
+            .status(HttpStatus.PAYLOAD_TOO_LARGE)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(ErrorResponseDTO.of(ErrorCode.PAYLOAD_TOO_LARGE, e.getMessage()));
+    }
+}
@@ -1,31 +1,55 @@
 package com.tymex.payment.controller.v1;
 
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.BatchPaymentRequestDTO;
+import com.tymex.payment.dto.BatchPaymentResponseDTO;
 import com.tymex.payment.dto.ErrorResponseDTO;
 import com.tymex.payment.dto.PaymentRequestDTO;
 import com.tymex.payment.dto.PaymentResponseDTO;
 import com.tymex.payment.enums.ErrorCode;
+import com.tymex.payment.exception.PaymentNotFoundException;
 import com.tymex.payment.exception.RequestInProgressException;
+import com.tymex.payment.filter.ApiKeyAuthenticationFilter;
+import com.tymex.payment.service.BatchPaymentService;
 import com.tymex.payment.service.PaymentService;
+import com.tymex.payment.util.Deadline;
+import com.tymex.payment.util.ETags;
 import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v1/payments")
 public class PaymentController {
     
     private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String REQUEST_TIMEOUT_HEADER = Deadline.REQUEST_TIMEOUT_HEADER;
+    private static final String IF_NONE_MATCH_HEADER = "If-None-Match";
     
     private final PaymentService paymentService;
+    private final BatchPaymentService batchPaymentService;
+    private final PaymentProperties.Deadline deadlineConfig;
     
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, BatchPaymentService batchPaymentService,
+                             PaymentProperties paymentProperties) {
         this.paymentService = paymentService;
+        this.batchPaymentService = batchPaymentService;
+        this.deadlineConfig = paymentProperties.getDeadline();
     }
     
     @PostMapping
     public ResponseEntity<?> processPayment(
             @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) String requestTimeout,
+            @RequestAttribute(value = ApiKeyAuthenticationFilter.CLIENT_ID_ATTRIBUTE, required = false) String clientId,
             @Valid @RequestBody PaymentRequestDTO request) {
         
         // Validate idempotency key presence
@@ -39,7 +63,9 @@ public class PaymentController {
         }
         
         try {
-            PaymentService.ProcessPaymentResult result = paymentService.processPayment(idempotencyKey, request);
+            Deadline deadline = resolveDeadline(requestTimeout);
+            PaymentService.ProcessPaymentResult result = paymentService.processPayment(idempotencyKey,
+                request.withClientId(clientId), deadline);
             
             // Add metadata to response
             PaymentResponseDTO response = result.getResponse().withMetadata(
@@ -58,6 +84,72 @@ public class PaymentController {
                     idempotencyKey
                 ));
                 
+        } catch (PaymentNotFoundException e) {
+            // The key belongs to another API client
+            return notFound(idempotencyKey);
+                
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ErrorResponseDTO.of(
+                    ErrorCode.BAD_REQUEST,
+                    e.getMessage(),
+                    idempotencyKey
+                ));
+        }
+    }
+    
+    /**
+     * Returns the current state of a payment without re-submitting it.
+     * 
+     * The ETag is the record version, which changes on every state transition
+     * (PROCESSING -> PENDING response -> COMPLETED/FAILED). Pollers send it back in
+     * If-None-Match: a match is answered 304 from a version-only query, without loading
+     * or serializing the stored response. The tag is weak and responses vary by Accept,
+     * since JSON, CBOR and Protobuf bodies of one version share it (see ETags).
+     * Payments of other API clients are answered 404.
+     */
+    @GetMapping("/{idempotencyKey}")
+    public ResponseEntity<?> getPayment(
+            @PathVariable String idempotencyKey,
+            @RequestHeader(value = IF_NONE_MATCH_HEADER, required = false) String ifNoneMatch,
+            @RequestAttribute(value = ApiKeyAuthenticationFilter.CLIENT_ID_ATTRIBUTE, required = false) String clientId) {
+        try {
+            // Revalidation: version-only query, 304 without touching the response body
+            if (ifNoneMatch != null && !ifNoneMatch.isBlank()) {
+                Optional<Long> version = paymentService.getPaymentVersion(idempotencyKey, clientId);
+                if (version.isEmpty()) {
+                    return notFound(idempotencyKey);
+                }
+                if (ETags.matches(ifNoneMatch, ETags.of(version.get()))) {
+                    return ResponseEntity
+                        .status(HttpStatus.NOT_MODIFIED)
+                        .eTag(ETags.of(version.get()))
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .cacheControl(CacheControl.noCache())
+                        .build();
+                }
+            }
+            
+            Optional<PaymentService.PaymentStatusResult> result = paymentService.getPaymentStatus(idempotencyKey, clientId);
+            if (result.isEmpty()) {
+                return notFound(idempotencyKey);
+            }
+            return ResponseEntity.ok()
+                .eTag(ETags.of(result.get().getVersion()))
+                .varyBy(HttpHeaders.ACCEPT)
+                .cacheControl(CacheControl.noCache())
+                .body(result.get().getResponse().withMetadata(idempotencyKey, true));
+                
+        } catch (RequestInProgressException e) {
+            return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ErrorResponseDTO.of(
+                    ErrorCode.REQUEST_IN_PROGRESS,
+                    e.getMessage(),
+                    idempotencyKey
+                ));
+                
         } catch (IllegalArgumentException e) {
             return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
@@ -68,4 +160,60 @@ public class PaymentController {
                 ));
         }
     }
+    
+    /**
+     * Submits many payments in one request. Each item carries its own idempotency key
+     * and gets its own result (NEW, CACHED, IN_PROGRESS or FAILED), so the batch itself
+     * always answers 200 unless the envelope is invalid (400) or too many batches are
+     * already running (503 with Retry-After).
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> processBatch(
+            @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) String requestTimeout,
+            @RequestAttribute(value = ApiKeyAuthenticationFilter.CLIENT_ID_ATTRIBUTE, required = false) String clientId,
+            @Valid @RequestBody BatchPaymentRequestDTO request) {
+        try {
+            Deadline deadline = resolveDeadline(requestTimeout);
+            BatchPaymentResponseDTO response = batchPaymentService.processBatch(request.items(), clientId, deadline);
+            return ResponseEntity.ok(response);
+            
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(ErrorResponseDTO.of(
+                    ErrorCode.SERVICE_UNAVAILABLE,
+                    e.getMessage()
+                ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ErrorResponseDTO.of(
+                    ErrorCode.BAD_REQUEST,
+                    e.getMessage()
+                ));
+        }
+    }
+    
+    private static ResponseEntity<ErrorResponseDTO> notFound(String idempotencyKey) {
+        return ResponseEntity
+            .status(HttpStatus.NOT_FOUND)
+            .body(ErrorResponseDTO.of(
+                ErrorCode.NOT_FOUND,
+                "Payment not found",
+                idempotencyKey
+            ));
+    }
+    
+    /**
+     * Builds the request deadline from the Request-Timeout header (milliseconds),
+     * falling back to payment.deadline.default-timeout-ms and capping at max-timeout-ms.
+     * A configured default of 0 disables the deadline when the client sends none.
+     * 
+     * @throws IllegalArgumentException if the header is not a positive integer
+     */
+    private Deadline resolveDeadline(String requestTimeout) {
+        return Deadline.fromRequestTimeout(requestTimeout,
+                deadlineConfig.getDefaultTimeoutMs(), deadlineConfig.getMaxTimeoutMs());
+    }
 }
@@ -0,0 +1,111 @@
+package com.tymex.payment.controller.v1;
+
+import com.tymex.payment.dto.ErrorResponseDTO;
+import com.tymex.payment.enums.ErrorCode;
+import com.tymex.payment.exception.PaymentNotFoundException;
+import com.tymex.payment.filter.ApiKeyAuthenticationFilter;
+import com.tymex.payment.service.event.PaymentStatusStream;
+import com.tymex.payment.util.IdempotencyKeyValidator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-Sent Events streams of payment status transitions, so async (MoMo) clients
+ * are pushed the webhook result instead of polling.
+ * 
+ * Events are named "payment-status" and carry the stored response JSON.
+ * Handlers return the emitter itself (Spring only streams a declared SseEmitter), so
+ * errors are raised as exceptions and mapped by the handlers at the bottom.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/v1/payments")
+public class PaymentEventController {
+    
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    
+    private final PaymentStatusStream paymentStatusStream;
+    
+    public PaymentEventController(PaymentStatusStream paymentStatusStream) {
+        this.paymentStatusStream = paymentStatusStream;
+    }
+    
+    /**
+     * Streams one payment (event id = record version).
+     * The current state is sent first when it is newer than Last-Event-ID, so reconnecting
+     * clients resume without missing the latest state. The stream ends once the payment is completed.
+     * A payment of another API client is answered 404.
+     */
+    @GetMapping(value = "/{idempotencyKey}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPayment(
+            @PathVariable String idempotencyKey,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId,
+            @RequestAttribute(value = ApiKeyAuthenticationFilter.CLIENT_ID_ATTRIBUTE, required = false) String clientId) {
+        IdempotencyKeyValidator.validate(idempotencyKey);
+        return paymentStatusStream.subscribe(idempotencyKey, clientId, parseLastEventId(lastEventId));
+    }
+    
+    /**
+     * Streams every payment submitted with the caller's API client (event id = idempotencyKey:version);
+     * other clients' payments are never sent.
+     * No snapshot or resume: clients reconcile with GET /api/v1/payments/{idempotencyKey}
+     * after reconnecting.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPayments(
+            @RequestAttribute(value = ApiKeyAuthenticationFilter.CLIENT_ID_ATTRIBUTE, required = false) String clientId) {
+        if (clientId == null) {
+            throw new IllegalArgumentException("Streaming all payments requires an authenticated API key");
+        }
+        return paymentStatusStream.subscribeAll(clientId);
+    }
+    
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponseDTO> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity
+            .status(HttpStatus.BAD_REQUEST)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(ErrorResponseDTO.of(ErrorCode.BAD_REQUEST, e.getMessage()));
+    }
+    
+    @ExceptionHandler(PaymentNotFoundException.class)
+    public ResponseEntity<ErrorResponseDTO> handleNotFound(PaymentNotFoundException e) {
+        return ResponseEntity
+            .status(HttpStatus.NOT_FOUND)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(ErrorResponseDTO.of(ErrorCode.NOT_FOUND, e.getMessage(), e.getIdempotencyKey()));
+    }
+    
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<ErrorResponseDTO> handleUnavailable(IllegalStateException e) {
+        return ResponseEntity
+            .status(HttpStatus.SERVICE_UNAVAILABLE)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(ErrorResponseDTO.of(ErrorCode.SERVICE_UNAVAILABLE, e.getMessage()));
+    }
+    
+    /**
+     * @return the version from a Last-Event-ID header, -1 if absent
+     * @throws IllegalArgumentException if the header is not a version number
+     */
+    private static long parseLastEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(LAST_EVENT_ID_HEADER + " must be a payment version");
+        }
+    }
+}
@@ -1,35 +1,56 @@
 package com.tymex.payment.controller.v1;
 
 import com.tymex.payment.dto.ErrorResponseDTO;
+import com.tymex.payment.dto.WebhookBatchResponseDTO;
+import com.tymex.payment.dto.WebhookPayload;
 import com.tymex.payment.enums.ErrorCode;
 import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.exception.PayloadTooLargeException;
+import com.tymex.payment.exception.UnauthorizedException;
 import com.tymex.payment.service.PaymentService;
+import com.tymex.payment.service.webhook.WebhookIngestionService;
+import com.tymex.payment.util.PooledBodyReader;
+import com.tymex.payment.util.RequestHeaderView;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Controller for receiving webhooks from payment providers.
  * Supports asynchronous payment providers (e.g., MoMo) that send webhooks
  * to notify about payment status changes.
+ * 
+ * Bodies are bounded whatever their Content-Type: payment.security.max-json-size for a single
+ * webhook, max-batch-json-size for /batch (413 PAYLOAD_TOO_LARGE above it).
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v1/webhooks")
 public class WebhookController {
     
     private static final Logger log = LoggerFactory.getLogger(WebhookController.class);
     
     private final PaymentService paymentService;
+    private final WebhookIngestionService ingestionService;
+    private final DataSize maxBodySize;
+    private final DataSize maxBatchBodySize;
     
-    public WebhookController(PaymentService paymentService) {
+    public WebhookController(PaymentService paymentService,
+                             WebhookIngestionService ingestionService,
+                             @Value("${payment.security.max-json-size:10KB}") DataSize maxBodySize,
+                             @Value("${payment.security.max-batch-json-size:1MB}") DataSize maxBatchBodySize) {
         this.paymentService = paymentService;
+        this.ingestionService = ingestionService;
+        this.maxBodySize = maxBodySize;
+        this.maxBatchBodySize = maxBatchBodySize;
     }
     
     /**
@@ -39,37 +60,69 @@ public class WebhookController {
      * - MoMo: { "transaction_id": "...", "transaction_no": "...", "status": "SUCCEED" }
      * - Other providers may have different formats
      * 
-     * Flow:
+     * In every mode, an exact copy of an already processed webhook (same payload digest)
+     * is answered 200 straight away, before any database or inbox/journal access.
+     * 
+     * Flow (DIRECT mode):
      * 1. Controller extracts provider from path parameter
      * 2. Delegates to PaymentService which handles routing, parsing, and processing
+
+     * 
+     * Flow (INBOX mode):
+     * 1. Controller extracts provider from path parameter
+     * 2. Raw payload and headers are appended to the durable inbox (one INSERT)
+     * 3. 200 is returned immediately; background workers process the entry
+     * 
+     * Flow (JOURNAL mode):
+     * 1. Controller extracts provider from path parameter
+     * 2. Raw payload and headers are appended to the memory-mapped journal (no DB access)
+     * 3. 200 is returned once the next group commit has forced the entry to disk
+     * 
+     * The body is read once into a pooled per-thread buffer and headers are exposed as a
+     * lazy read-only view; parsing, hashing and journaling work on those bytes directly.
+     * Only the inbox (which stores text) copies the payload. The mode dispatch lives in
+     * WebhookIngestionService (shared with the reactive deployment).
      * 
      * @param provider the payment provider (from path parameter)
-     * @param payload the webhook payload (JSON string)
-     * @param request HTTP request (to read headers)
+     * @param request HTTP request (to read the body and headers)
      * @return HTTP 200 OK if webhook processed successfully
      */
     @PostMapping("/{provider}")
     public ResponseEntity<?> handleWebhook(
             @PathVariable String provider,
-            @RequestBody String payload,
             HttpServletRequest request) {
         try {
-            // Extract headers
-            Map<String, String> headers = extractHeaders(request);
+            WebhookPayload payload = PooledBodyReader.read(request.getInputStream(), request.getContentLengthLong(), maxBodySize);
+            Map<String, String> headers = new RequestHeaderView(request);
             
             // Parse provider enum from path parameter
             PaymentProvider paymentProvider = PaymentProvider.fromString(provider);
             
-            log.info("Received webhook from {}: payload length={}, headers={}", 
-                    paymentProvider, payload.length(), headers.keySet());
-            
-            // Delegate to PaymentService - service handles routing, parsing, and processing
-            paymentService.processWebhook(paymentProvider, payload, headers);
-            
-            log.info("Webhook processed successfully: provider={}", paymentProvider);
+            log.info("Received webhook from {}: payload length={}", paymentProvider, payload.length());
             
+            if (ingestionService.ingest(paymentProvider, payload, headers) == WebhookIngestionService.Outcome.NOT_DURABLE) {
+                return ResponseEntity
+                        .status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header("Retry-After", "1")
+                        .body(ErrorResponseDTO.of(
+                                ErrorCode.WEBHOOK_NOT_PERSISTED,
+                                "Webhook not persisted in time, please retry"
+                        ));
+            }
             return ResponseEntity.ok().build();
             
+        } catch (UnauthorizedException e) {
+            log.warn("Webhook rejected: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.UNAUTHORIZED)
+                    .body(ErrorResponseDTO.of(ErrorCode.UNAUTHORIZED, e.getMessage()));
+                    
+        } catch (PayloadTooLargeException e) {
+            log.warn("Webhook rejected: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(ErrorResponseDTO.of(ErrorCode.PAYLOAD_TOO_LARGE, e.getMessage()));
+                    
         } catch (IllegalArgumentException e) {
             log.warn("Webhook validation failed: {}", e.getMessage());
             return ResponseEntity
@@ -91,19 +144,60 @@ public class WebhookController {
     }
     
     /**
-     * Extracts all headers from HTTP request into a Map.
+     * Receives an array of webhook events from a payment provider in one request.
      * 
-     * @param request the HTTP request
-     * @return Map of header names to header values
+     * Events are always processed through the webhook batching stage (regardless of
+     * ingestion mode), so the whole array is resolved with one lookup and applied in one
+     * JDBC batch per flush. Each event gets its own result; the request itself answers 200
+     * unless the payload cannot be parsed at all.
+     * 
+     * @param provider the payment provider (from path parameter)
+     * @param request HTTP request (to read the body - a JSON array of events - and headers)
+     * @return HTTP 200 OK with one result per event
      */
-    private Map<String, String> extractHeaders(HttpServletRequest request) {
-        Map<String, String> headers = new HashMap<>();
-        Enumeration<String> headerNames = request.getHeaderNames();
-        while (headerNames.hasMoreElements()) {
-            String headerName = headerNames.nextElement();
-            headers.put(headerName, request.getHeader(headerName));
+    @PostMapping("/{provider}/batch")
+    public ResponseEntity<?> handleWebhookBatch(
+            @PathVariable String provider,
+            HttpServletRequest request) {
+        try {
+            WebhookPayload payload = PooledBodyReader.read(request.getInputStream(), request.getContentLengthLong(), maxBatchBodySize);
+            Map<String, String> headers = new RequestHeaderView(request);
+            PaymentProvider paymentProvider = PaymentProvider.fromString(provider);
+            
+            log.info("Received webhook batch from {}: payload length={}", paymentProvider, payload.length());
+            
+            return ResponseEntity.ok(new WebhookBatchResponseDTO(
+                    paymentService.processWebhookBatch(paymentProvider, payload, headers)));
+            
+        } catch (UnauthorizedException e) {
+            log.warn("Webhook batch rejected: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.UNAUTHORIZED)
+                    .body(ErrorResponseDTO.of(ErrorCode.UNAUTHORIZED, e.getMessage()));
+                    
+        } catch (PayloadTooLargeException e) {
+            log.warn("Webhook batch rejected: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(ErrorResponseDTO.of(ErrorCode.PAYLOAD_TOO_LARGE, e.getMessage()));
+                    
+        } catch (IllegalArgumentException e) {
+            log.warn("Webhook batch validation failed: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ErrorResponseDTO.of(
+                            ErrorCode.BAD_REQUEST,
+                            "Invalid webhook batch: " + e.getMessage()
+                    ));
+                    
+        } catch (Exception e) {
+            log.error("Error processing webhook batch", e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ErrorResponseDTO.of(
+                            ErrorCode.PAYMENT_FAILED,
+                            "Failed to process webhook batch: " + e.getMessage()
+                    ));
         }
-        return headers;
     }
 }
-
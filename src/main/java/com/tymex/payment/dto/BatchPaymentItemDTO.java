@@ -0,0 +1,18 @@
+package com.tymex.payment.dto;
+
+/**
+ * Single item of a batch payment submission.
+ * Each item carries its own idempotency key; items are validated individually so one
+ * bad item does not reject the whole batch.
+ */
+public record BatchPaymentItemDTO(
+    String idempotencyKey,
+    PaymentRequestDTO payment
+) {
+    /**
+     * Returns a copy whose payment is owned by the given API client.
+     */
+    public BatchPaymentItemDTO withClientId(String clientId) {
+        return payment == null ? this : new BatchPaymentItemDTO(idempotencyKey, payment.withClientId(clientId));
+    }
+}
@@ -0,0 +1,27 @@
+package com.tymex.payment.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.tymex.payment.enums.BatchItemOutcome;
+
+/**
+ * Per-item result of a batch payment submission.
+ * Carries either the payment response (NEW, CACHED, FAILED payments) or an error
+ * (IN_PROGRESS, rejected items), in the same shape the single-item endpoint returns.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchPaymentItemResultDTO(
+    String idempotencyKey,
+    BatchItemOutcome outcome,
+    PaymentResponseDTO payment,
+    ErrorResponseDTO error
+) {
+    public static BatchPaymentItemResultDTO ofPayment(String idempotencyKey, BatchItemOutcome outcome,
+                                                      PaymentResponseDTO payment) {
+        return new BatchPaymentItemResultDTO(idempotencyKey, outcome, payment, null);
+    }
+    
+    public static BatchPaymentItemResultDTO ofError(String idempotencyKey, BatchItemOutcome outcome,
+                                                    ErrorResponseDTO error) {
+        return new BatchPaymentItemResultDTO(idempotencyKey, outcome, null, error);
+    }
+}
@@ -0,0 +1,10 @@
+package com.tymex.payment.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record BatchPaymentRequestDTO(
+    @NotEmpty(message = "Batch must contain at least one item")
+    List<BatchPaymentItemDTO> items
+) {}
@@ -0,0 +1,10 @@
+package com.tymex.payment.dto;
+
+import java.util.List;
+
+/**
+ * Response of a batch payment submission: one result per submitted item, in submission order.
+ */
+public record BatchPaymentResponseDTO(
+    List<BatchPaymentItemResultDTO> results
+) {}
@@ -1,9 +1,12 @@
 package com.tymex.payment.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.tymex.payment.enums.PaymentProvider;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
 
@@ -18,5 +21,27 @@ public record PaymentRequestDTO(
     String description,
     
     @NotNull(message = "Payment provider is required")
-    PaymentProvider paymentProvider
-) {}
+    PaymentProvider paymentProvider,
+    
+    // Optional merchant endpoint notified when an async payment reaches its final status;
+    // its host must be registered for the client (payment.notifications.clients)
+    @Size(max = 500, message = "Callback URL must be at most 500 characters")
+    @Pattern(regexp = "https?://\\S+", message = "Callback URL must be an http(s) URL")
+    String callbackUrl,
+    
+    // API client submitting the payment: set by the controller from the authenticated key, never read from the body
+    @JsonIgnore
+    String clientId
+) {
+    public PaymentRequestDTO(BigDecimal amount, String paymentMethod, String description,
+                             PaymentProvider paymentProvider, String callbackUrl) {
+        this(amount, paymentMethod, description, paymentProvider, callbackUrl, null);
+    }
+    
+    /**
+     * Returns a copy owned by the given API client.
+     */
+    public PaymentRequestDTO withClientId(String clientId) {
+        return new PaymentRequestDTO(amount, paymentMethod, description, paymentProvider, callbackUrl, clientId);
+    }
+}
@@ -0,0 +1,22 @@
+package com.tymex.payment.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Per-event result of a webhook event array: accepted, or the error the single-event
+ * endpoint would have answered for the same event.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record WebhookBatchItemResultDTO(
+    String providerTransactionId,
+    boolean accepted,
+    ErrorResponseDTO error
+) {
+    public static WebhookBatchItemResultDTO ofAccepted(String providerTransactionId) {
+        return new WebhookBatchItemResultDTO(providerTransactionId, true, null);
+    }
+    
+    public static WebhookBatchItemResultDTO ofError(String providerTransactionId, ErrorResponseDTO error) {
+        return new WebhookBatchItemResultDTO(providerTransactionId, false, error);
+    }
+}
@@ -0,0 +1,10 @@
+package com.tymex.payment.dto;
+
+import java.util.List;
+
+/**
+ * Response to a webhook event array: one result per event, in payload order.
+ */
+public record WebhookBatchResponseDTO(
+    List<WebhookBatchItemResultDTO> results
+) {}
@@ -0,0 +1,41 @@
+package com.tymex.payment.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Raw webhook body (UTF-8 JSON) as a slice of a byte array, so it can be hashed, parsed
+ * and journaled without first being copied into a String.
+ * 
+ * When read by WebhookController the array is a pooled per-thread buffer: the slice is only
+ * valid on the request thread until the request completes. Copy it ({@link #toBytes()},
+ * {@link #toUtf8String()}) before storing it or handing it to another thread.
+ * 
+ * @param buffer the backing array
+ * @param offset start of the body in the array
+ * @param length body length in bytes
+ */
+public record WebhookPayload(byte[] buffer, int offset, int length) {
+    
+    public static WebhookPayload of(byte[] bytes) {
+        return new WebhookPayload(bytes, 0, bytes.length);
+    }
+    
+    public static WebhookPayload of(String payload) {
+        return of(payload.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * @return a copy of the body bytes
+     */
+    public byte[] toBytes() {
+        return Arrays.copyOfRange(buffer, offset, offset + length);
+    }
+    
+    /**
+     * @return the body decoded as a UTF-8 string (a copy)
+     */
+    public String toUtf8String() {
+        return new String(buffer, offset, length, StandardCharsets.UTF_8);
+    }
+}
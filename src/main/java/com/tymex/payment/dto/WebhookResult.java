@@ -5,12 +5,15 @@ import com.tymex.payment.enums.PaymentStatus;
 /**
  * Result object containing parsed webhook data from payment providers.
  * Used to decouple webhook parsing (in providers) from webhook processing (in service).
+ * Carries only the parsed fields - the raw payload stays with the caller.
+ * paymentId is set when the webhook echoed a self-routing reference, so the record
+ * can be fetched by primary key instead of provider_transaction_id.
  */
 public record WebhookResult(
     String providerTransactionId,
     String transactionNo,
     PaymentStatus status,
-    String payload
+    Long paymentId
 ) {
     /**
      * Factory method to create WebhookResult.
@@ -18,12 +21,23 @@ public record WebhookResult(
      * @param providerTransactionId the provider's transaction ID (used to look up payment record)
      * @param transactionNo the final transaction number (may be null if payment failed)
      * @param status the payment status (COMPLETED or FAILED)
-     * @param payload the original webhook payload (for hash validation)
      * @return WebhookResult with all fields
      */
-    public static WebhookResult of(String providerTransactionId, String transactionNo, 
-                                   PaymentStatus status, String payload) {
-        return new WebhookResult(providerTransactionId, transactionNo, status, payload);
+    public static WebhookResult of(String providerTransactionId, String transactionNo, PaymentStatus status) {
+        return new WebhookResult(providerTransactionId, transactionNo, status, null);
+    }
+    
+    /**
+     * Factory method for a webhook that carried a self-routing reference (see PaymentReference).
+     * 
+     * @param providerTransactionId the provider's transaction ID (fallback lookup key)
+     * @param transactionNo the final transaction number (may be null if payment failed)
+     * @param status the payment status (COMPLETED or FAILED)
+     * @param paymentId the payment record id decoded from the reference (null if none)
+     * @return WebhookResult with all fields
+     */
+    public static WebhookResult of(String providerTransactionId, String transactionNo, PaymentStatus status,
+                                   Long paymentId) {
+        return new WebhookResult(providerTransactionId, transactionNo, status, paymentId);
     }
 }
-
@@ -54,6 +54,12 @@ public class PaymentRequest {
     @Column(name = "payment_status", length = 20)
     private String paymentStatus;
     
+    @Column(name = "callback_url", length = 500)
+    private String callbackUrl;
+    
+    @Column(name = "client_id", length = 100)
+    private String clientId;  // API client that submitted the payment
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -189,6 +195,22 @@ public class PaymentRequest {
         this.paymentStatus = paymentStatus;
     }
     
+    public String getCallbackUrl() {
+        return callbackUrl;
+    }
+    
+    public void setCallbackUrl(String callbackUrl) {
+        this.callbackUrl = callbackUrl;
+    }
+    
+    public String getClientId() {
+        return clientId;
+    }
+    
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,160 @@
+package com.tymex.payment.entity;
+
+import com.tymex.payment.enums.PaymentProvider;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Raw webhook appended to the durable inbox before it is processed.
+ * Written with a single INSERT on receipt; drained asynchronously by WebhookInboxWorker.
+ */
+@Entity
+@Table(name = "webhook_inbox",
+       indexes = @Index(name = "idx_webhook_inbox_status_available", columnList = "status, available_at"))
+public class WebhookInboxEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "provider", length = 50, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private PaymentProvider provider;
+    
+    @Column(name = "payload", columnDefinition = "TEXT", nullable = false)
+    private String payload;
+    
+    @Column(name = "headers", columnDefinition = "TEXT")
+    private String headers;
+    
+    @Column(name = "status", length = 20, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Status status;
+    
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+    
+    @Column(name = "received_at", nullable = false, updatable = false)
+    private LocalDateTime receivedAt;
+    
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+    
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+    
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        receivedAt = now;
+        if (availableAt == null) {
+            availableAt = now;
+        }
+        if (status == null) {
+            status = Status.PENDING;
+        }
+    }
+    
+    public enum Status {
+        PENDING,     // Waiting to be claimed (new or scheduled for retry)
+        PROCESSING,  // Claimed by a worker
+        DONE,        // Processed successfully
+        FAILED       // Gave up after max attempts
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public PaymentProvider getProvider() {
+        return provider;
+    }
+    
+    public void setProvider(PaymentProvider provider) {
+        this.provider = provider;
+    }
+    
+    public String getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+    
+    public String getHeaders() {
+        return headers;
+    }
+    
+    public void setHeaders(String headers) {
+        this.headers = headers;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public Integer getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+    
+    public LocalDateTime getReceivedAt() {
+        return receivedAt;
+    }
+    
+    public void setReceivedAt(LocalDateTime receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+    
+    public LocalDateTime getAvailableAt() {
+        return availableAt;
+    }
+    
+    public void setAvailableAt(LocalDateTime availableAt) {
+        this.availableAt = availableAt;
+    }
+    
+    public LocalDateTime getClaimedAt() {
+        return claimedAt;
+    }
+    
+    public void setClaimedAt(LocalDateTime claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+    
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+    
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+}
@@ -0,0 +1,30 @@
+package com.tymex.payment.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Outcome of a single item in a batch payment submission.
+ * Mirrors what the single-item endpoint would have answered for the same key.
+ */
+public enum BatchItemOutcome {
+    NEW("NEW"),                  // Key claimed by this batch and processed now
+    CACHED("CACHED"),            // Key already COMPLETED - cached response replayed
+    IN_PROGRESS("IN_PROGRESS"),  // Key is being processed by another request (409 for single item)
+    FAILED("FAILED");            // Item rejected or payment failed
+    
+    private final String code;
+    
+    BatchItemOutcome(String code) {
+        this.code = code;
+    }
+    
+    @JsonValue
+    public String getCode() {
+        return code;
+    }
+    
+    @Override
+    public String toString() {
+        return code;
+    }
+}
@@ -10,9 +10,15 @@ public enum ErrorCode {
     REQUEST_IN_PROGRESS("REQUEST_IN_PROGRESS"),
     IDEMPOTENCY_KEY_CONFLICT("IDEMPOTENCY_KEY_CONFLICT"),
     PAYMENT_FAILED("PAYMENT_FAILED"),
+    DEADLINE_EXCEEDED("DEADLINE_EXCEEDED"),
     BAD_REQUEST("BAD_REQUEST"),
+    NOT_FOUND("NOT_FOUND"),
     UNAUTHORIZED("UNAUTHORIZED"),
-    PAYLOAD_TOO_LARGE("PAYLOAD_TOO_LARGE");
+    SERVICE_UNAVAILABLE("SERVICE_UNAVAILABLE"),
+    TOO_MANY_REQUESTS("TOO_MANY_REQUESTS"),
+    PAYLOAD_TOO_LARGE("PAYLOAD_TOO_LARGE"),
+    UNSUPPORTED_MEDIA_TYPE("UNSUPPORTED_MEDIA_TYPE"),
+    WEBHOOK_NOT_PERSISTED("WEBHOOK_NOT_PERSISTED");
     
     private final String code;
     
@@ -0,0 +1,10 @@
+package com.tymex.payment.enums;
+
+/**
+ * Shape of the simulated provider latency (payment.providers.*.simulation).
+ */
+public enum LatencyDistribution {
+    FIXED,      // Always latency-ms
+    UNIFORM,    // Uniform between latency-ms and latency-p99-ms
+    LOG_NORMAL  // Median latency-ms, 99th percentile latency-p99-ms (long right tail, like real APIs)
+}
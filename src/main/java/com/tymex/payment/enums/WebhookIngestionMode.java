@@ -0,0 +1,10 @@
+package com.tymex.payment.enums;
+
+/**
+ * How received webhooks are ingested.
+ */
+public enum WebhookIngestionMode {
+    DIRECT,  // Parse, look up and update inline before answering (default)
+    INBOX,   // Append raw webhook to the durable inbox, answer 200, process in background workers
+    JOURNAL  // Append raw webhook to the memory-mapped journal, answer 200 after group commit, consume in order
+}
@@ -0,0 +1,16 @@
+package com.tymex.payment.exception;
+
+/**
+ * Thrown when the request deadline leaves no room for another provider attempt, or cuts a
+ * provider call short before the provider answered.
+ * The payment is recorded as FAILED, so the client can retry with the same idempotency key.
+ */
+public class DeadlineExceededException extends PaymentException {
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+    
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
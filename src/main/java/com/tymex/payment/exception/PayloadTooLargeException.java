@@ -0,0 +1,13 @@
+package com.tymex.payment.exception;
+
+import java.io.IOException;
+
+/**
+ * Thrown while reading a request body that grows past its size limit.
+ * An IOException so it travels through stream readers and message converters like any read failure.
+ */
+public class PayloadTooLargeException extends IOException {
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
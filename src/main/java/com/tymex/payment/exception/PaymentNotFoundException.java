@@ -0,0 +1,18 @@
+package com.tymex.payment.exception;
+
+/**
+ * The idempotency key is unknown to the calling API client: either no payment uses it,
+ * or it belongs to another client (answered the same way, so keys of other clients are not revealed).
+ */
+public class PaymentNotFoundException extends RuntimeException {
+    private final String idempotencyKey;
+    
+    public PaymentNotFoundException(String message, String idempotencyKey) {
+        super(message);
+        this.idempotencyKey = idempotencyKey;
+    }
+    
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
@@ -0,0 +1,111 @@
+package com.tymex.payment.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.ErrorResponseDTO;
+import com.tymex.payment.enums.ErrorCode;
+import com.tymex.payment.service.admission.SaturationMonitor;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Sheds new payment submissions while the service is saturated, instead of letting them queue
+ * in Tomcat until they time out.
+ *
+ * Only POST /api/v1/payments (and /batch) is subject to admission control. When any
+ * SaturationMonitor signal is over its threshold:
+ * - a replay of a recently completed payment (same Idempotency-Key) is still admitted: it is
+ *   answered from the stored response without calling the provider
+ * - every other submission gets 503 SERVICE_UNAVAILABLE with Retry-After
+ * Webhooks and status reads are never shed, so payments already in progress can still finish.
+ *
+ * Admitted submissions are counted as in flight until the response is complete; a batch is
+ * counted per item by BatchPaymentService once its body is parsed.
+ *
+ * The in-flight threshold only works below the Tomcat worker pool (server.tomcat.threads.max):
+ * a request beyond the pool waits in Tomcat's accept queue and never reaches this filter, so
+ * the IN_FLIGHT signal could never fire. A warning is logged at startup when it is not below.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlFilter.class);
+    private static final String PAYMENTS_PATH = "/api/v1/payments";
+    private static final String BATCH_PATH = PAYMENTS_PATH + "/batch";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final SaturationMonitor saturationMonitor;
+    private final PaymentProperties.Admission config;
+    private final String retryAfter;
+    private final byte[] overloadedBody;
+
+    public AdmissionControlFilter(SaturationMonitor saturationMonitor, PaymentProperties paymentProperties,
+                                  ObjectMapper objectMapper,
+                                  @Value("${server.tomcat.threads.max:200}") int maxWorkerThreads)
+            throws JsonProcessingException {
+        this.saturationMonitor = saturationMonitor;
+        this.config = paymentProperties.getAdmission();
+        if (Boolean.TRUE.equals(config.getEnabled()) && config.getMaxInFlightPayments() >= maxWorkerThreads) {
+            log.warn("payment.admission.max-in-flight-payments ({}) is not below server.tomcat.threads.max ({}): "
+                    + "excess submissions queue in Tomcat before admission control sees them",
+                    config.getMaxInFlightPayments(), maxWorkerThreads);
+        }
+        this.retryAfter = Integer.toString(config.getRetryAfterSeconds());
+        this.overloadedBody = objectMapper.writeValueAsBytes(ErrorResponseDTO.of(
+            ErrorCode.SERVICE_UNAVAILABLE,
+            "Service is at capacity. Please retry after the time given in the Retry-After header."
+        ));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!Boolean.TRUE.equals(config.getEnabled()) || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String uri = request.getRequestURI();
+        return !PAYMENTS_PATH.equals(uri) && !BATCH_PATH.equals(uri);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                   HttpServletResponse response,
+                                   FilterChain filterChain)
+            throws ServletException, IOException {
+        SaturationMonitor.Signal saturated = saturationMonitor.saturatedSignal();
+        if (saturated != null) {
+            if (saturationMonitor.isCompletedReplay(request.getHeader(IDEMPOTENCY_KEY_HEADER))) {
+                saturationMonitor.recordReplayAdmitted();
+            } else {
+                saturationMonitor.recordShed(saturated);
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                response.setHeader("Retry-After", retryAfter);
+                response.setContentType("application/json");
+                response.setContentLength(overloadedBody.length);
+                response.getOutputStream().write(overloadedBody);
+                return;
+            }
+        }
+
+        if (BATCH_PATH.equals(request.getRequestURI())) {
+            // Counted per item by BatchPaymentService
+            filterChain.doFilter(request, response);
+            return;
+        }
+        saturationMonitor.paymentStarted();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            saturationMonitor.paymentFinished();
+        }
+    }
+}
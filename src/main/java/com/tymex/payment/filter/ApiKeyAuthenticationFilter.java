@@ -1,7 +1,7 @@
 package com.tymex.payment.filter;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.tymex.payment.config.PaymentProperties;
 import com.tymex.payment.dto.ErrorResponseDTO;
 import com.tymex.payment.enums.ErrorCode;
 import jakarta.servlet.FilterChain;
@@ -13,55 +13,74 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+/**
+ * Authenticates API requests by the X-API-Key header against the ApiKeyRegistry.
+ * Registered for /api/* and the metrics endpoints (/actuator/metrics, /actuator/prometheus), see WebConfig.
+ * The authenticated client id is stored in the request attribute {@link #CLIENT_ID_ATTRIBUTE}
+ * (see {@link #clientId(HttpServletRequest)}).
+ *
+ * Rejection bodies are rendered once at startup, so a client flooding us with bad keys
+ * costs a hash and a map lookup per request, not a JSON serialization.
+ */
 @Component
 public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
-    
+
+    // A literal (same value as class name + ".clientId") so it can be used in @RequestAttribute
+    public static final String CLIENT_ID_ATTRIBUTE = "com.tymex.payment.filter.ApiKeyAuthenticationFilter.clientId";
+
     private static final String API_KEY_HEADER = "X-API-Key";
-    
-    private final PaymentProperties paymentProperties;
-    private final ObjectMapper objectMapper;
-    
-    public ApiKeyAuthenticationFilter(PaymentProperties paymentProperties, ObjectMapper objectMapper) {
-        this.paymentProperties = paymentProperties;
-        this.objectMapper = objectMapper;
+
+    private final ApiKeyRegistry apiKeyRegistry;
+    private final byte[] notConfiguredBody;
+    private final byte[] invalidKeyBody;
+
+    public ApiKeyAuthenticationFilter(ApiKeyRegistry apiKeyRegistry, ObjectMapper objectMapper)
+            throws JsonProcessingException {
+        this.apiKeyRegistry = apiKeyRegistry;
+        this.notConfiguredBody = objectMapper.writeValueAsBytes(ErrorResponseDTO.of(
+            ErrorCode.UNAUTHORIZED,
+            "API key is not configured. Please set API_KEY environment variable."
+        ));
+        this.invalidKeyBody = objectMapper.writeValueAsBytes(ErrorResponseDTO.of(
+            ErrorCode.UNAUTHORIZED,
+            "Invalid or missing API key"
+        ));
+    }
+
+    /**
+     * @param request an authenticated API request
+     * @return the client id the request authenticated as, or null outside the /api/* filter chain
+     */
+    public static String clientId(HttpServletRequest request) {
+        return (String) request.getAttribute(CLIENT_ID_ATTRIBUTE);
     }
-    
+
     @Override
-    protected void doFilterInternal(HttpServletRequest request, 
-                                   HttpServletResponse response, 
-                                   FilterChain filterChain) 
+    protected void doFilterInternal(HttpServletRequest request,
+                                   HttpServletResponse response,
+                                   FilterChain filterChain)
             throws ServletException, IOException {
-        
-        String expectedKey = paymentProperties.getApi().getKey();
 
-        
-        // Reject all requests if API key is not configured (null, empty, blank, or unresolved placeholder)
-        boolean isUnresolvedPlaceholder = expectedKey != null && expectedKey.startsWith("${") && expectedKey.endsWith("}");
-        if (expectedKey == null || expectedKey.isBlank() || isUnresolvedPlaceholder) {
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            response.setContentType("application/json");
-            ErrorResponseDTO errorResponse = ErrorResponseDTO.of(
-                ErrorCode.UNAUTHORIZED,
-                "API key is not configured. Please set API_KEY environment variable."
-            );
-            response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+        // Reject all requests if no API key is configured (API_KEY unset and no keys file)
+        if (apiKeyRegistry.isEmpty()) {
+            reject(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, notConfiguredBody);
             return;
         }
-        
-        String apiKey = request.getHeader(API_KEY_HEADER);
-        
-        if (apiKey == null || !apiKey.equals(expectedKey)) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            response.setContentType("application/json");
-            ErrorResponseDTO errorResponse = ErrorResponseDTO.of(
-                ErrorCode.UNAUTHORIZED,
-                "Invalid or missing API key"
-            );
-            response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+
+        String clientId = apiKeyRegistry.authenticate(request.getHeader(API_KEY_HEADER));
+        if (clientId == null) {
+            reject(response, HttpServletResponse.SC_UNAUTHORIZED, invalidKeyBody);
             return;
         }
-        
+
+        request.setAttribute(CLIENT_ID_ATTRIBUTE, clientId);
         filterChain.doFilter(request, response);
     }
-}
 
+    private static void reject(HttpServletResponse response, int status, byte[] body) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
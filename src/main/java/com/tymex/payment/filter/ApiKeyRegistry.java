@@ -0,0 +1,210 @@
+package com.tymex.payment.filter;
+
+import com.tymex.payment.config.PaymentProperties;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of API client keys, indexed by SHA-256 digest.
+ *
+ * Sources:
+ * - payment.api.key: a single key authenticated as payment.api.default-client-id
+ * - payment.api.keys-file (optional): one client per line, either "client-id=key" or
+ *   "client-id=sha256:&lt;hex digest&gt;" so plaintext keys never have to sit on disk.
+ *   Blank lines and lines starting with # are ignored.
+ *
+ * Only digests are kept in memory. A lookup hashes the presented key, finds the candidate by digest
+ * in an immutable map and confirms it with a constant-time comparison (MessageDigest.isEqual),
+ * so timing never depends on how much of a real key the caller guessed.
+ *
+ * The keys file is re-read when its modification time or size changes (checked every
+ * reload-interval-seconds). The new map is built off to the side and swapped in atomically;
+ * a file that fails to parse is rejected as a whole and the previous keys stay active.
+ */
+@Component
+public class ApiKeyRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ApiKeyRegistry.class);
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String HASH_PREFIX = "sha256:";
+    private static final int DIGEST_LENGTH = 32;
+
+    private final PaymentProperties.Api config;
+    private final Path keysFile;
+    private final ThreadLocal<MessageDigest> digest = ThreadLocal.withInitial(ApiKeyRegistry::newDigest);
+    private final ScheduledExecutorService reloader;
+
+    private volatile Map<ByteBuffer, Client> clients;
+    private FileTime loadedModifiedTime;
+    private long loadedSize = -1;
+
+    /**
+     * An authenticated API client.
+     *
+     * @param id the client identity attached to requests
+     * @param keyDigest SHA-256 digest of the client's key
+     */
+    private record Client(String id, byte[] keyDigest) {
+    }
+
+    public ApiKeyRegistry(PaymentProperties paymentProperties) {
+        this.config = paymentProperties.getApi();
+        String file = config.getKeysFile();
+        this.keysFile = file == null || file.isBlank() ? null : Path.of(file);
+
+        // Fail startup if the configured file is unusable; later reload failures keep the previous keys
+        this.clients = load();
+
+        if (keysFile != null) {
+            this.reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "api-key-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = config.getReloadIntervalSeconds();
+            reloader.scheduleWithFixedDelay(this::reloadIfChanged, interval, interval, TimeUnit.SECONDS);
+        } else {
+            this.reloader = null;
+        }
+        log.info("API key registry loaded: clients={}, keysFile={}", clients.size(), keysFile);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    /**
+     * @return true if no key is configured at all (every request must be rejected)
+     */
+    public boolean isEmpty() {
+        return clients.isEmpty();
+    }
+
+    /**
+     * Resolves the client owning the presented key.
+     *
+     * @param apiKey the key from the request header (may be null)
+     * @return the client id, or null if the key is missing or unknown
+     */
+    public String authenticate(String apiKey) {
+        if (apiKey == null || apiKey.isEmpty()) {
+            return null;
+        }
+        byte[] presented = hash(apiKey);
+        Client client = clients.get(ByteBuffer.wrap(presented));
+        if (client == null || !MessageDigest.isEqual(client.keyDigest(), presented)) {
+            return null;
+        }
+        return client.id();
+    }
+
+    /**
+     * Re-reads the keys file if it changed since the last load.
+     */
+    synchronized void reloadIfChanged() {
+        try {
+            if (Files.getLastModifiedTime(keysFile).equals(loadedModifiedTime) && Files.size(keysFile) == loadedSize) {
+                return;
+            }
+            Map<ByteBuffer, Client> reloaded = load();
+            clients = reloaded;
+            log.info("API keys reloaded from {}: clients={}", keysFile, reloaded.size());
+        } catch (Exception e) {
+            // Keep serving with the previous keys; the next change to the file is picked up again
+            log.error("API key reload from {} failed, keeping {} previous clients: {}",
+                    keysFile, clients.size(), e.getMessage());
+        }
+    }
+
+    private synchronized Map<ByteBuffer, Client> load() {
+        Map<ByteBuffer, Client> loaded = new HashMap<>();
+        String key = config.getKey();
+        boolean isUnresolvedPlaceholder = key != null && key.startsWith("${") && key.endsWith("}");
+        if (key != null && !key.isBlank() && !isUnresolvedPlaceholder) {
+            register(loaded, config.getDefaultClientId(), hash(key), "payment.api.key");
+        }
+        if (keysFile != null) {
+            try {
+                // Remembered even if parsing fails, so a broken file is reported once rather than every poll
+                loadedModifiedTime = Files.getLastModifiedTime(keysFile);
+                loadedSize = Files.size(keysFile);
+                parse(Files.readAllLines(keysFile, StandardCharsets.UTF_8), loaded);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read API keys file " + keysFile + ": " + e.getMessage(), e);
+            }
+        }
+        return Map.copyOf(loaded);
+    }
+
+    private void parse(List<String> lines, Map<ByteBuffer, Client> loaded) {
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String source = keysFile + ":" + (i + 1);
+            int separator = line.indexOf('=');
+            if (separator <= 0 || separator == line.length() - 1) {
+                throw new IllegalArgumentException("Expected client-id=key at " + source);
+            }
+            String clientId = line.substring(0, separator).trim();
+            String value = line.substring(separator + 1).trim();
+            register(loaded, clientId, value.startsWith(HASH_PREFIX) ? decode(value, source) : hash(value), source);
+        }
+    }
+
+    private static void register(Map<ByteBuffer, Client> loaded, String clientId, byte[] keyDigest, String source) {
+        Client previous = loaded.putIfAbsent(ByteBuffer.wrap(keyDigest), new Client(clientId, keyDigest));
+        if (previous != null && !Objects.equals(previous.id(), clientId)) {
+            throw new IllegalArgumentException("Key at " + source + " is already assigned to client " + previous.id());
+        }
+    }
+
+    private static byte[] decode(String value, String source) {
+        try {
+            byte[] keyDigest = Hex.decodeHex(value.substring(HASH_PREFIX.length()));
+            if (keyDigest.length != DIGEST_LENGTH) {
+                throw new IllegalArgumentException("Expected a 64 hex digit SHA-256 digest at " + source);
+            }
+            return keyDigest;
+        } catch (DecoderException e) {
+            throw new IllegalArgumentException("Invalid hex digest at " + source, e);
+        }
+    }
+
+    private byte[] hash(String apiKey) {
+        return digest.get().digest(apiKey.getBytes(StandardCharsets.UTF_8));  // digest() resets for reuse
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+        }
+    }
+}
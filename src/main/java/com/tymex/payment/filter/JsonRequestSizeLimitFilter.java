@@ -1,6 +1,8 @@
 package com.tymex.payment.filter;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tymex.payment.codec.ApiMediaTypes;
 import com.tymex.payment.dto.ErrorResponseDTO;
 import com.tymex.payment.enums.ErrorCode;
 import jakarta.servlet.FilterChain;
@@ -17,30 +19,57 @@ import org.springframework.util.unit.DataSize;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Filter to limit JSON request body size.
  * Protects against large payload attacks (DoS) for JSON APIs.
  * 
  * Note: Tomcat's max-http-form-post-size only applies to form data,
- * not JSON bodies. This filter provides protection for application/json requests.
+ * not JSON bodies. This filter provides protection for application/json requests,
+ * and for the binary API formats (application/cbor, application/x-protobuf) with the same limits.
  * 
- * Configuration:
+ * - A declared Content-Length over the limit is rejected with 413 before the body is read
+ * - Otherwise (including chunked bodies) the request is wrapped so its body stream counts bytes
+ *   and fails with PayloadTooLargeException as soon as the limit is passed; controllers map it to 413
+ * - Content-Encoding: gzip bodies are decompressed on the fly, the limit applying to the
+ *   decompressed size; any other encoding is rejected with 415
+ * - Content-Type decisions are cached per distinct header value (bounded), so MediaType is not
+ *   parsed on every request; rejection bodies are pre-rendered
+ * 
+ * Configuration (the limits apply to the body bytes whatever the format; binary bodies are
+ * smaller than their JSON equivalent, so a limit sized for JSON never rejects them first):
  * - payment.security.max-json-size: Maximum allowed JSON body size (default: 10KB)
  *   Supports human-readable formats: 10KB, 1MB, etc.
+ * - payment.security.max-batch-json-size: Limit for batch submissions and webhook event arrays (default: 1MB)
  */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
 public class JsonRequestSizeLimitFilter extends OncePerRequestFilter {
 
+    private static final String BATCH_PATH_SUFFIX = "/batch";
+    private static final int MAX_CACHED_CONTENT_TYPES = 256;
+
     private final DataSize maxJsonSize;
-    private final ObjectMapper objectMapper;
+    private final DataSize maxBatchJsonSize;
+    private final Map<String, Boolean> apiBodyContentTypes = new ConcurrentHashMap<>();
+    private final byte[] tooLargeBody;
+    private final byte[] batchTooLargeBody;
+    private final byte[] unsupportedEncodingBody;
 
     public JsonRequestSizeLimitFilter(
             @Value("${payment.security.max-json-size:10KB}") DataSize maxJsonSize,
-            ObjectMapper objectMapper) {
+            @Value("${payment.security.max-batch-json-size:1MB}") DataSize maxBatchJsonSize,
+            ObjectMapper objectMapper) throws JsonProcessingException {
         this.maxJsonSize = maxJsonSize;
-        this.objectMapper = objectMapper;
+        this.maxBatchJsonSize = maxBatchJsonSize;
+        this.tooLargeBody = objectMapper.writeValueAsBytes(ErrorResponseDTO.of(
+            ErrorCode.PAYLOAD_TOO_LARGE, String.format("Request body exceeds %s limit", maxJsonSize)));
+        this.batchTooLargeBody = objectMapper.writeValueAsBytes(ErrorResponseDTO.of(
+            ErrorCode.PAYLOAD_TOO_LARGE, String.format("Request body exceeds %s limit", maxBatchJsonSize)));
+        this.unsupportedEncodingBody = objectMapper.writeValueAsBytes(ErrorResponseDTO.of(
+            ErrorCode.UNSUPPORTED_MEDIA_TYPE, "Unsupported Content-Encoding. Supported: gzip, identity"));
     }
 
     @Override
@@ -49,53 +78,60 @@ public class JsonRequestSizeLimitFilter extends OncePerRequestFilter {
                                     FilterChain filterChain)
             throws ServletException, IOException {
 
-        // Only check JSON requests
-        if (isApplicationJson(request)) {
-            long contentLength = request.getContentLengthLong();
+        // Only check API body formats (JSON, CBOR, Protobuf)
+        if (!isApiBody(request.getHeader(HttpHeaders.CONTENT_TYPE))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
 
-            // Reject if Content-Length exceeds limit
-            if (contentLength > maxJsonSize.toBytes()) {
-                sendPayloadTooLargeError(response, 
-                    String.format("Request body exceeds %s limit", maxJsonSize));
-                return;
-            }
+        boolean batch = request.getRequestURI().endsWith(BATCH_PATH_SUFFIX);
+        DataSize limit = batch ? maxBatchJsonSize : maxJsonSize;
 
-            // Reject if Content-Length is missing (chunked encoding)
-            // This is a strict security measure to prevent bypass attacks
-            if (contentLength == -1) {
-                sendPayloadTooLargeError(response, 
-                    "Content-Length header is required for JSON requests");
+        // Reject early if the declared length already exceeds the limit (compressed bodies included)
+        if (request.getContentLengthLong() > limit.toBytes()) {
+            reject(response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, batch ? batchTooLargeBody : tooLargeBody);
+            return;
+        }
+
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        boolean gzip = false;
+        if (encoding != null && !encoding.isBlank() && !"identity".equalsIgnoreCase(encoding.trim())) {
+            gzip = "gzip".equalsIgnoreCase(encoding.trim()) || "x-gzip".equalsIgnoreCase(encoding.trim());
+            if (!gzip) {
+                reject(response, HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, unsupportedEncodingBody);
                 return;
             }
         }
 
-        filterChain.doFilter(request, response);
+        // Enforce the limit while the body is read (chunked bodies, decompressed gzip)
+        filterChain.doFilter(new SizeLimitedRequest(request, limit.toBytes(), limit.toString(), gzip), response);
     }
 
-    private boolean isApplicationJson(HttpServletRequest request) {
-        String contentType = request.getHeader(HttpHeaders.CONTENT_TYPE);
+    private boolean isApiBody(String contentType) {
         if (contentType == null) {
             return false;
         }
+        Boolean cached = apiBodyContentTypes.get(contentType);
+        if (cached != null) {
+            return cached;
+        }
+        boolean apiBody;
         try {
-            return MediaType.APPLICATION_JSON.isCompatibleWith(
-                MediaType.parseMediaType(contentType)
-            );
+            apiBody = ApiMediaTypes.isApiBody(MediaType.parseMediaType(contentType));
         } catch (Exception e) {
-            return false; // Invalid Content-Type header
+            apiBody = false; // Invalid Content-Type header
+        }
+        // Bounded: arbitrary header values (e.g. random boundaries/params) must not grow the cache forever
+        if (apiBodyContentTypes.size() < MAX_CACHED_CONTENT_TYPES) {
+            apiBodyContentTypes.put(contentType, apiBody);
         }
+        return apiBody;
     }
 
-    private void sendPayloadTooLargeError(HttpServletResponse response, String message) 
-            throws IOException {
-        response.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE); // 413
+    private static void reject(HttpServletResponse response, int status, byte[] body) throws IOException {
+        response.setStatus(status);
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        
-        ErrorResponseDTO errorResponse = ErrorResponseDTO.of(
-            ErrorCode.PAYLOAD_TOO_LARGE, 
-            message
-        );
-        
-        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
     }
 }
@@ -0,0 +1,188 @@
+package com.tymex.payment.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.ErrorResponseDTO;
+import com.tymex.payment.enums.ErrorCode;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-client rate limiting for /api/*, registered right after ApiKeyAuthenticationFilter.
+ *
+ * - API requests are limited per authenticated client (payment.rate-limit.client, overridable per
+ *   client id under payment.rate-limit.clients)
+ * - Webhooks (/api/v1/webhooks/{provider}...) are limited per provider (payment.rate-limit.webhook),
+ *   so a provider's redelivery storm cannot starve merchants and vice versa
+ * - Over the limit: 429 with Retry-After (whole seconds until a token is available)
+ *
+ * Hot path: one map lookup and one CAS on a lock-free TokenBucket; the 429 body is pre-rendered.
+ * Client buckets live in a map bounded by payment.rate-limit.max-buckets: when it is full, buckets
+ * that have refilled completely are dropped (lossless, a full bucket equals a new one). If every
+ * bucket is still active the new client is let through unlimited rather than evicting someone
+ * else's state (payment.ratelimit.overflow counts these).
+ *
+ * Metrics:
+ * - payment.ratelimit.rejected{type=client|webhook}: requests answered with 429
+ * - payment.ratelimit.buckets: client buckets currently tracked
+ * - payment.ratelimit.overflow: requests not limited because the bucket map was full
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final String WEBHOOK_PATH_PREFIX = "/api/v1/webhooks/";
+    private static final PaymentProvider[] PROVIDERS = PaymentProvider.values();
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final PaymentProperties.RateLimit config;
+    private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final Map<PaymentProvider, TokenBucket> webhookBuckets = new EnumMap<>(PaymentProvider.class);
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final byte[] tooManyRequestsBody;
+    private final Counter clientRejected;
+    private final Counter webhookRejected;
+    private final Counter overflow;
+
+    public RateLimitFilter(PaymentProperties paymentProperties, ObjectMapper objectMapper, MeterRegistry meterRegistry)
+            throws JsonProcessingException {
+        this.config = paymentProperties.getRateLimit();
+        PaymentProperties.Limit webhook = config.getWebhook();
+        for (PaymentProvider provider : PaymentProvider.values()) {
+            webhookBuckets.put(provider, new TokenBucket(webhook.getRequestsPerSecond(), webhook.getBurst()));
+        }
+        this.tooManyRequestsBody = objectMapper.writeValueAsBytes(ErrorResponseDTO.of(
+            ErrorCode.TOO_MANY_REQUESTS,
+            "Rate limit exceeded. Retry after the time given in the Retry-After header."
+        ));
+        this.clientRejected = meterRegistry.counter("payment.ratelimit.rejected", "type", "client");
+        this.webhookRejected = meterRegistry.counter("payment.ratelimit.rejected", "type", "webhook");
+        this.overflow = meterRegistry.counter("payment.ratelimit.overflow");
+        Gauge.builder("payment.ratelimit.buckets", clientBuckets, Map::size)
+            .description("Client rate-limit buckets currently tracked")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !Boolean.TRUE.equals(config.getEnabled());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                   HttpServletResponse response,
+                                   FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+        PaymentProvider webhookProvider = webhookProvider(request.getRequestURI());
+        long waitNanos;
+        if (webhookProvider != null) {
+            waitNanos = webhookBuckets.get(webhookProvider).tryAcquire(now);
+            if (waitNanos > 0) {
+                webhookRejected.increment();
+            }
+        } else {
+            TokenBucket bucket = clientBucket(ApiKeyAuthenticationFilter.clientId(request), now);
+            waitNanos = bucket == null ? 0 : bucket.tryAcquire(now);
+            if (waitNanos > 0) {
+                clientRejected.increment();
+            }
+        }
+
+        if (waitNanos > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", Long.toString((waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND));
+            response.setContentType("application/json");
+            response.setContentLength(tooManyRequestsBody.length);
+            response.getOutputStream().write(tooManyRequestsBody);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * @return the client's bucket, or null if the request is not limited (no client id, or map full)
+     */
+    private TokenBucket clientBucket(String clientId, long now) {
+        if (clientId == null) {
+            return null;
+        }
+        TokenBucket bucket = clientBuckets.get(clientId);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (clientBuckets.size() >= config.getMaxBuckets()) {
+            evictIdle(now);
+            if (clientBuckets.size() >= config.getMaxBuckets()) {
+                overflow.increment();
+                return null;
+            }
+        }
+        return clientBuckets.computeIfAbsent(clientId, id -> {
+            PaymentProperties.Limit defaults = config.getClient();
+            PaymentProperties.Limit limit = config.getClients().getOrDefault(id, defaults);
+            // An override may set only one of the two values
+            return new TokenBucket(
+                limit.getRequestsPerSecond() != null ? limit.getRequestsPerSecond() : defaults.getRequestsPerSecond(),
+                limit.getBurst() != null ? limit.getBurst() : defaults.getBurst());
+        });
+    }
+
+    /**
+     * Drops buckets that refilled completely. One thread sweeps at a time; the others carry on.
+     * A request racing with the sweep may still use the dropped bucket once, which at worst
+     * admits one extra burst for that client.
+     */
+    private void evictIdle(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int before = clientBuckets.size();
+            clientBuckets.values().removeIf(bucket -> bucket.isIdle(now));
+            log.debug("Rate-limit buckets evicted: {} of {}", before - clientBuckets.size(), before);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * @return the provider of a webhook request path, or null for any other request
+     */
+    private static PaymentProvider webhookProvider(String uri) {
+        if (!uri.startsWith(WEBHOOK_PATH_PREFIX)) {
+            return null;
+        }
+        int start = WEBHOOK_PATH_PREFIX.length();
+        int end = uri.indexOf('/', start);
+        int length = (end < 0 ? uri.length() : end) - start;
+        for (PaymentProvider candidate : PROVIDERS) {
+            String name = candidate.getName();
+            if (name.length() == length && uri.regionMatches(true, start, name, 0, length)) {
+                return candidate;
+            }
+        }
+        return null;  // Unknown provider - limited as a client request, rejected later by the controller
+    }
+}
@@ -0,0 +1,165 @@
+package com.tymex.payment.filter;
+
+import com.tymex.payment.exception.PayloadTooLargeException;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Request whose body stream enforces a size limit while it is read, so bodies without
+ * Content-Length (chunked) are bounded too and nothing past the limit is buffered.
+ *
+ * With {@code gzip}, the body is decompressed on the fly and the limit applies to the
+ * decompressed bytes (a compression bomb fails after limit bytes, not after inflating).
+ * Downstream sees a plain body: no Content-Encoding and an unknown (-1) Content-Length.
+ * Only blocking reads are supported (setReadListener would bypass the count); Spring MVC
+ * reads request bodies blocking.
+ */
+class SizeLimitedRequest extends HttpServletRequestWrapper {
+
+    private final long limitBytes;
+    private final String limitDescription;
+    private final boolean gzip;
+    private LimitedInputStream inputStream;
+    private BufferedReader reader;
+
+    /**
+     * @param request the original request
+     * @param limitBytes maximum body bytes (decompressed when gzip)
+     * @param limitDescription the limit as shown in the error message (e.g. "10KB")
+     * @param gzip whether the body is gzip-encoded
+     */
+    SizeLimitedRequest(HttpServletRequest request, long limitBytes, String limitDescription, boolean gzip) {
+        super(request);
+        this.limitBytes = limitBytes;
+        this.limitDescription = limitDescription;
+        this.gzip = gzip;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (reader != null) {
+            throw new IllegalStateException("getReader() has already been called for this request");
+        }
+        return body();
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (reader == null) {
+            if (inputStream != null) {
+                throw new IllegalStateException("getInputStream() has already been called for this request");
+            }
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            reader = new BufferedReader(new InputStreamReader(body(), charset));
+        }
+        return reader;
+    }
+
+    @Override
+    public int getContentLength() {
+        return gzip ? -1 : super.getContentLength();
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return gzip ? -1 : super.getContentLengthLong();
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return gzip && isEncodingHeader(name) ? null : super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        return gzip && isEncodingHeader(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+    }
+
+    private static boolean isEncodingHeader(String name) {
+        return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+    }
+
+    private LimitedInputStream body() throws IOException {
+        if (inputStream == null) {
+            ServletInputStream raw = super.getInputStream();
+            inputStream = new LimitedInputStream(raw, gzip ? new GZIPInputStream(raw) : raw);
+        }
+        return inputStream;
+    }
+
+    private final class LimitedInputStream extends ServletInputStream {
+
+        private final ServletInputStream raw;
+        private final InputStream in;
+        private long count;
+        private boolean finished;
+
+        LimitedInputStream(ServletInputStream raw, InputStream in) {
+            this.raw = raw;
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b < 0) {
+                finished = true;
+            } else {
+                counted(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = in.read(buffer, offset, length);
+            if (read < 0) {
+                finished = true;
+            } else {
+                counted(read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return gzip ? finished : raw.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;  // Blocking reads only
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("Non-blocking reads are not supported for size-limited request bodies");
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private void counted(int bytes) throws PayloadTooLargeException {
+            count += bytes;
+            if (count > limitBytes) {
+                throw new PayloadTooLargeException(String.format("Request body exceeds %s limit", limitDescription));
+            }
+        }
+    }
+}
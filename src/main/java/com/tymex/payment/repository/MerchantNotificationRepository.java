@@ -0,0 +1,67 @@
+package com.tymex.payment.repository;
+
+import com.tymex.payment.entity.MerchantNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MerchantNotificationRepository extends JpaRepository<MerchantNotification, Long> {
+    
+    /**
+     * Locks up to {@code limit} claimable notifications, skipping rows locked by other dispatchers.
+     * Claimable: PENDING and due, or DELIVERING with a stale claim (dispatcher died mid-flight).
+     * Must run inside a transaction; the row locks are held until it commits.
+     * 
+     * @param now current time
+     * @param staleBefore claims older than this are considered abandoned
+     * @param limit maximum notifications to claim
+     * @return locked notifications, oldest first
+     */
+    @Query(value = "SELECT * FROM merchant_notifications " +
+                   "WHERE (status = 'PENDING' AND available_at <= :now) " +
+                   "   OR (status = 'DELIVERING' AND claimed_at < :staleBefore) " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<MerchantNotification> lockClaimable(@Param("now") LocalDateTime now,
+                                             @Param("staleBefore") LocalDateTime staleBefore,
+                                             @Param("limit") int limit);
+    
+    /**
+     * Marks notifications as delivered (one UPDATE per delivered batch).
+     */
+    @Modifying
+    @Query("UPDATE MerchantNotification n SET n.status = 'DELIVERED', n.deliveredAt = :now, n.lastError = null " +
+           "WHERE n.id IN :ids")
+    int markDelivered(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    /**
+     * Records a failed attempt: reschedules the notification, or parks it as DEAD.
+     */
+    @Modifying
+    @Query("UPDATE MerchantNotification n SET n.status = :status, n.attempts = :attempts, " +
+           "n.availableAt = :availableAt, n.lastError = :error WHERE n.id = :id")
+    int markAttemptFailed(@Param("id") Long id,
+                          @Param("status") MerchantNotification.Status status,
+                          @Param("attempts") int attempts,
+                          @Param("availableAt") LocalDateTime availableAt,
+                          @Param("error") String error);
+    
+    /**
+     * Hands claimed notifications back without counting an attempt (destination at its concurrency cap).
+     */
+    @Modifying
+    @Query("UPDATE MerchantNotification n SET n.status = 'PENDING', n.availableAt = :availableAt WHERE n.id IN :ids")
+    int release(@Param("ids") Collection<Long> ids, @Param("availableAt") LocalDateTime availableAt);
+    
+    long countByStatusIn(List<MerchantNotification.Status> statuses);
+    
+    @Query("SELECT MIN(n.createdAt) FROM MerchantNotification n WHERE n.status IN ('PENDING', 'DELIVERING')")
+    LocalDateTime findOldestUndeliveredCreatedAt();
+}
@@ -0,0 +1,75 @@
+package com.tymex.payment.repository;
+
+import com.tymex.payment.dto.PaymentRequestDTO;
+import com.tymex.payment.entity.PaymentRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Claims many idempotency keys at once with a single JDBC batch of
+ * INSERT ... ON CONFLICT DO NOTHING statements (one database round trip).
+ *
+ * A key is claimed when its row was inserted by this batch (update count 1);
+ * a conflict (update count 0) means the key already exists and must go through
+ * the regular existing-record handling in PaymentService.
+ *
+ * Relies on the driver reporting per-statement update counts (the default for
+ * the PostgreSQL and H2 drivers; do not enable reWriteBatchedInserts).
+ */
+@Repository
+public class PaymentRequestClaimRepository {
+    
+    private static final String CLAIM_SQL =
+        "INSERT INTO payment_requests (idempotency_key, version, processing_status, amount, payment_method, " +
+        "description, payment_provider, callback_url, client_id, created_at, updated_at, expires_at) " +
+        "VALUES (?, 0, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public PaymentRequestClaimRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Inserts a PROCESSING record for every key that does not exist yet.
+     * 
+     * @param requests idempotency key to payment request, in submission order
+     * @param expiresAt expiration timestamp for newly claimed records
+     * @return one flag per entry (in iteration order): true if the key was claimed by this call
+     */
+    public boolean[] claimAll(Map<String, PaymentRequestDTO> requests, LocalDateTime expiresAt) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp expires = Timestamp.valueOf(expiresAt);
+        
+        List<Object[]> rows = new ArrayList<>(requests.size());
+        for (Map.Entry<String, PaymentRequestDTO> entry : requests.entrySet()) {
+            PaymentRequestDTO request = entry.getValue();
+            rows.add(new Object[] {
+                entry.getKey(),
+                PaymentRequest.ProcessingStatus.PROCESSING.name(),
+                request.amount(),
+                request.paymentMethod(),
+                request.description(),
+                request.paymentProvider().name(),
+                request.callbackUrl(),
+                request.clientId(),
+                now,
+                now,
+                expires
+            });
+        }
+        
+        int[] counts = jdbcTemplate.batchUpdate(CLAIM_SQL, rows);
+        boolean[] claimed = new boolean[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            claimed[i] = counts[i] == 1;
+        }
+        return claimed;
+    }
+}
@@ -2,14 +2,30 @@ package com.tymex.payment.repository;
 
 import com.tymex.payment.entity.PaymentRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRequestRepository extends JpaRepository<PaymentRequest, Long> {
     Optional<PaymentRequest> findByIdempotencyKey(String idempotencyKey);
     
+    /**
+     * Reads only the version of a payment request (no response body).
+     * Used by the status endpoint to answer If-None-Match revalidations.
+     * 
+     * @param idempotencyKey the idempotency key
+     * @param clientId the API client that must own the payment
+     * @return the record version if the key exists and belongs to the client
+     */
+    @Query("SELECT p.version FROM PaymentRequest p WHERE p.idempotencyKey = :idempotencyKey AND p.clientId = :clientId")
+    Optional<Long> findVersionByIdempotencyKeyAndClientId(@Param("idempotencyKey") String idempotencyKey,
+                                                          @Param("clientId") String clientId);
+    
     /**
      * Finds a payment request by provider transaction ID.
      * Used for webhook processing to look up payment by provider's transaction ID.
@@ -18,5 +34,22 @@ public interface PaymentRequestRepository extends JpaRepository<PaymentRequest,
      * @return Optional PaymentRequest if found
      */
     Optional<PaymentRequest> findByProviderTransactionId(String providerTransactionId);
+    
+    /**
+     * Finds all payment requests for the given idempotency keys in one query.
+     * Used by batch submission to load the records it just claimed.
+     * 
+     * @param idempotencyKeys the idempotency keys
+     * @return matching payment requests (unordered)
+     */
+    List<PaymentRequest> findByIdempotencyKeyIn(Collection<String> idempotencyKeys);
+    
+    /**
+     * Finds all payment requests for the given provider transaction IDs in one query.
+     * Used by the webhook batcher to resolve a whole batch of webhooks at once.
+     * 
+     * @param providerTransactionIds the provider's transaction IDs
+     * @return matching payment requests (unordered)
+     */
+    List<PaymentRequest> findByProviderTransactionIdIn(Collection<String> providerTransactionIds);
 }
-
@@ -0,0 +1,68 @@
+package com.tymex.payment.repository;
+
+import com.tymex.payment.entity.WebhookInboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WebhookInboxRepository extends JpaRepository<WebhookInboxEntry, Long> {
+    
+    /**
+     * Locks up to {@code limit} claimable entries, skipping rows locked by other workers.
+     * Claimable: PENDING and due, or PROCESSING with a stale claim (worker died mid-flight).
+     * Must run inside a transaction; the row locks are held until it commits.
+     * 
+     * @param now current time
+     * @param staleBefore claims older than this are considered abandoned
+     * @param limit maximum entries to claim
+     * @return locked entries, oldest first
+     */
+    @Query(value = "SELECT * FROM webhook_inbox " +
+                   "WHERE (status = 'PENDING' AND available_at <= :now) " +
+                   "   OR (status = 'PROCESSING' AND claimed_at < :staleBefore) " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<WebhookInboxEntry> lockClaimable(@Param("now") LocalDateTime now,
+                                          @Param("staleBefore") LocalDateTime staleBefore,
+                                          @Param("limit") int limit);
+    
+    /**
+     * Marks an entry as processed.
+     */
+    @Modifying
+    @Query("UPDATE WebhookInboxEntry e SET e.status = 'DONE', e.processedAt = :now, e.lastError = null " +
+           "WHERE e.id = :id")
+    int markDone(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    /**
+     * Records a failed attempt: reschedules the entry, or parks it as FAILED.
+     */
+    @Modifying
+    @Query("UPDATE WebhookInboxEntry e SET e.status = :status, e.availableAt = :availableAt, " +
+           "e.lastError = :error WHERE e.id = :id")
+    int markAttemptFailed(@Param("id") Long id,
+                          @Param("status") WebhookInboxEntry.Status status,
+                          @Param("availableAt") LocalDateTime availableAt,
+                          @Param("error") String error);
+    
+    /**
+     * Hands claimed entries back without counting an attempt (the claim's lease ran out before
+     * the worker reached them).
+     */
+    @Modifying
+    @Query("UPDATE WebhookInboxEntry e SET e.status = 'PENDING', e.attempts = e.attempts - 1, " +
+           "e.availableAt = :now WHERE e.id IN :ids AND e.status = 'PROCESSING'")
+    int release(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    long countByStatusIn(List<WebhookInboxEntry.Status> statuses);
+    
+    @Query("SELECT MIN(e.receivedAt) FROM WebhookInboxEntry e WHERE e.status IN ('PENDING', 'PROCESSING')")
+    LocalDateTime findOldestUnprocessedReceivedAt();
+}
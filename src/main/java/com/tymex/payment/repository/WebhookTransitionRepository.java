@@ -0,0 +1,64 @@
+package com.tymex.payment.repository;
+
+import com.tymex.payment.entity.PaymentRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists webhook state transitions for many payment records with a single JDBC batch
+ * of versioned UPDATE statements (one database round trip).
+ *
+ * Each UPDATE only matches when the row still has the version the record was read with,
+ * mirroring JPA optimistic locking: an update count of 0 means the row was changed
+ * concurrently and the transition must be re-evaluated against the fresh row.
+ */
+@Repository
+public class WebhookTransitionRepository {
+    
+    private static final String UPDATE_SQL =
+        "UPDATE payment_requests SET processing_status = ?, payment_status = ?, transaction_no = ?, " +
+        "response_status = ?, response_body = ?, updated_at = ?, version = version + 1 " +
+        "WHERE id = ? AND version = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public WebhookTransitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Writes the new state of every record, guarded by its version.
+     * 
+     * @param records detached records already moved to their final state in memory
+     * @return one flag per record (in list order): true if the row was updated
+     */
+    public boolean[] updateAll(List<PaymentRequest> records) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        
+        List<Object[]> rows = new ArrayList<>(records.size());
+        for (PaymentRequest record : records) {
+            rows.add(new Object[] {
+                record.getProcessingStatus().name(),
+                record.getPaymentStatus(),
+                record.getTransactionNo(),
+                record.getResponseStatus(),
+                record.getResponseBody(),
+                now,
+                record.getId(),
+                record.getVersion()
+            });
+        }
+        
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+        boolean[] updated = new boolean[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            updated[i] = counts[i] == 1;
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,346 @@
+package com.tymex.payment.service;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.BatchPaymentItemDTO;
+import com.tymex.payment.dto.BatchPaymentItemResultDTO;
+import com.tymex.payment.dto.BatchPaymentResponseDTO;
+import com.tymex.payment.dto.ErrorResponseDTO;
+import com.tymex.payment.dto.PaymentRequestDTO;
+import com.tymex.payment.dto.PaymentResponseDTO;
+import com.tymex.payment.entity.PaymentRequest;
+import com.tymex.payment.enums.BatchItemOutcome;
+import com.tymex.payment.enums.ErrorCode;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.enums.PaymentStatus;
+import com.tymex.payment.exception.PaymentNotFoundException;
+import com.tymex.payment.exception.RequestInProgressException;
+import com.tymex.payment.repository.PaymentRequestClaimRepository;
+import com.tymex.payment.repository.PaymentRequestRepository;
+import com.tymex.payment.service.admission.SaturationMonitor;
+import com.tymex.payment.service.metrics.PaymentMetrics;
+import com.tymex.payment.service.notification.MerchantCallbackPolicy;
+import com.tymex.payment.util.Deadline;
+import com.tymex.payment.util.IdempotencyKeyValidator;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Processes batch payment submissions with per-item idempotency.
+ * 
+ * Flow:
+ * 1. Validate every item on its own (invalid items become FAILED results, not a rejected batch)
+ *    and reserve a slot with its provider (no slot: FAILED with SERVICE_UNAVAILABLE, key left unclaimed)
+ * 2. Claim all valid keys in one database round trip (batched INSERT ... ON CONFLICT DO NOTHING)
+ *    - each claimed key records the round trip as its claim stage; keys that already existed are
+ *      timed by PaymentService.claim when their item runs
+ * 3. Fan out provider calls in parallel, bounded per provider by a fixed-size pool
+ *    - Claimed keys: PaymentService.executePayment (same retry/finalization as single item)
+ *    - Existing keys: PaymentService.processPayment (same replay/in-progress/failed-retry handling)
+ * 4. Collect one result per item, in submission order
+ * 
+ * While it runs, a batch counts as one in-flight payment per item for admission control
+ * (SaturationMonitor), so a large batch sheds new submissions like that many single payments.
+ * 
+ * Capacity:
+ * - at most payment.batch.max-concurrent-batches batches run at once (each holds a request thread);
+ *   further batches are rejected with RejectedExecutionException before any item is claimed
+ * - each provider pool queues at most payment.batch.provider-queue-capacity items across all batches;
+ *   slots are reserved up front, so a claimed item is never rejected by its pool
+ */
+@Service
+public class BatchPaymentService {
+    
+    private static final Logger log = LoggerFactory.getLogger(BatchPaymentService.class);
+    
+    private final PaymentService paymentService;
+    private final PaymentRequestClaimRepository claimRepository;
+    private final PaymentRequestRepository repository;
+    private final Validator validator;
+    private final MerchantCallbackPolicy callbackPolicy;
+    private final SaturationMonitor saturationMonitor;
+    private final PaymentMetrics paymentMetrics;
+    private final PaymentProperties.Batch config;
+    private final Map<PaymentProvider, ExecutorService> providerExecutors = new EnumMap<>(PaymentProvider.class);
+    private final Map<PaymentProvider, Semaphore> providerSlots = new EnumMap<>(PaymentProvider.class);
+    private final Semaphore batchPermits;
+    
+    public BatchPaymentService(PaymentService paymentService,
+                               PaymentRequestClaimRepository claimRepository,
+                               PaymentRequestRepository repository,
+                               Validator validator,
+                               MerchantCallbackPolicy callbackPolicy,
+                               SaturationMonitor saturationMonitor,
+                               PaymentMetrics paymentMetrics,
+                               PaymentProperties paymentProperties) {
+        this.paymentService = paymentService;
+        this.claimRepository = claimRepository;
+        this.repository = repository;
+        this.validator = validator;
+        this.callbackPolicy = callbackPolicy;
+        this.saturationMonitor = saturationMonitor;
+        this.paymentMetrics = paymentMetrics;
+        this.config = paymentProperties.getBatch();
+        
+        this.batchPermits = new Semaphore(config.getMaxConcurrentBatches());
+        
+        // One bounded pool per provider: a slow provider cannot starve the others.
+        // Slots cover the running and queued items. A slot is returned just before its worker is free
+        // again, so the queue holds every slot: it never rejects an item that reserved one.
+        int threads = config.getProviderConcurrency();
+        int slots = threads + config.getProviderQueueCapacity();
+        for (PaymentProvider provider : PaymentProvider.values()) {
+            providerExecutors.put(provider, new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(slots), namedThreadFactory("batch-" + provider.getName().toLowerCase())));
+            providerSlots.put(provider, new Semaphore(slots));
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        providerExecutors.values().forEach(ExecutorService::shutdown);
+    }
+    
+    /**
+     * Processes a batch of payment items.
+     * 
+     * @param submitted the batch items
+     * @param clientId the API client submitting the batch (owner of every item)
+     * @param deadline the request deadline, shared by every item
+     * @return one result per item, in submission order
+     * @throws IllegalArgumentException if the batch exceeds payment.batch.max-items
+     * @throws RejectedExecutionException if payment.batch.max-concurrent-batches batches are already running
+     */
+    public BatchPaymentResponseDTO processBatch(List<BatchPaymentItemDTO> submitted, String clientId,
+                                                Deadline deadline) {
+        if (submitted.size() > config.getMaxItems()) {
+            throw new IllegalArgumentException(
+                "Batch contains " + submitted.size() + " items, maximum is " + config.getMaxItems());
+        }
+        List<BatchPaymentItemDTO> items = submitted.stream().map(item -> item.withClientId(clientId)).toList();
+        
+        if (!batchPermits.tryAcquire()) {
+            throw new RejectedExecutionException(
+                "Too many concurrent batches (maximum is " + config.getMaxConcurrentBatches() + "), please retry");
+        }
+        saturationMonitor.paymentsStarted(items.size());
+        try {
+            return processItems(items, deadline);
+        } finally {
+            saturationMonitor.paymentsFinished(items.size());
+            batchPermits.release();
+        }
+    }
+    
+    private BatchPaymentResponseDTO processItems(List<BatchPaymentItemDTO> items, Deadline deadline) {
+        BatchPaymentItemResultDTO[] results = new BatchPaymentItemResultDTO[items.size()];
+        
+        // Step 1: Validate each item individually and reserve its provider slot
+        // First occurrence of each key is claimed; later duplicates behave like concurrent single-item requests
+        Map<String, PaymentRequestDTO> claimable = new LinkedHashMap<>();
+        Set<Integer> duplicates = new HashSet<>();
+        List<PaymentProvider> reserved = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            BatchPaymentItemDTO item = items.get(i);
+            String rejection = validate(item);
+            if (rejection != null) {
+                results[i] = BatchPaymentItemResultDTO.ofError(item.idempotencyKey(), BatchItemOutcome.FAILED,
+                    ErrorResponseDTO.of(ErrorCode.BAD_REQUEST, rejection, item.idempotencyKey()));
+                continue;
+            }
+            PaymentProvider provider = item.payment().paymentProvider();
+            if (!providerSlots.get(provider).tryAcquire()) {
+                // Not claimed, so a retry with the same key starts afresh
+                results[i] = BatchPaymentItemResultDTO.ofError(item.idempotencyKey(), BatchItemOutcome.FAILED,
+                    ErrorResponseDTO.of(ErrorCode.SERVICE_UNAVAILABLE,
+                        "Provider " + provider + " is at capacity, please retry this item", item.idempotencyKey()));
+                continue;
+            }
+            reserved.add(provider);
+            if (claimable.putIfAbsent(item.idempotencyKey(), item.payment()) != null) {
+                duplicates.add(i);
+            }
+        }
+        
+        // Step 2: Claim all keys in one round trip, then load the claimed records in one query
+        Map<String, PaymentRequest> claimedRecords;
+        try {
+            claimedRecords = claimAll(claimable);
+        } catch (RuntimeException e) {
+            reserved.forEach(provider -> providerSlots.get(provider).release());
+            throw e;
+        }
+        
+        // Step 3: Fan out per provider
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            BatchPaymentItemDTO item = items.get(i);
+            PaymentRequest claimed = duplicates.contains(i) ? null : claimedRecords.get(item.idempotencyKey());
+            PaymentProvider provider = item.payment().paymentProvider();
+            int index = i;
+            futures.add(CompletableFuture
+                .supplyAsync(() -> {
+                    try {
+                        return processItem(item, claimed, deadline);
+                    } finally {
+                        providerSlots.get(provider).release();
+                    }
+                }, providerExecutors.get(provider))
+                .thenAccept(result -> results[index] = result));
+        }
+        
+        // Step 4: Wait for every item (items never complete exceptionally - failures are results)
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        
+        log.info("Processed batch: items={}, claimed={}", items.size(), claimedRecords.size());
+        return new BatchPaymentResponseDTO(List.of(results));
+    }
+    
+    /**
+     * Claims the keys and loads the claimed records, timed as the claim stage of every claimed
+     * key (of every key if the round trip fails).
+     */
+    private Map<String, PaymentRequest> claimAll(Map<String, PaymentRequestDTO> claimable) {
+        if (claimable.isEmpty()) {
+            return Map.of();
+        }
+        long start = System.nanoTime();
+        Map<String, PaymentRequest> records = Map.of();
+        boolean succeeded = false;
+        try {
+            records = claimRecords(claimable);
+            succeeded = true;
+            return records;
+        } finally {
+            long durationNanos = System.nanoTime() - start;
+            for (Map.Entry<String, PaymentRequestDTO> entry : claimable.entrySet()) {
+                if (!succeeded || records.containsKey(entry.getKey())) {
+                    paymentMetrics.recordStageNanos(PaymentMetrics.Stage.CLAIM, entry.getValue().paymentProvider(),
+                        durationNanos, succeeded);
+                }
+            }
+        }
+    }
+    
+    private Map<String, PaymentRequest> claimRecords(Map<String, PaymentRequestDTO> claimable) {
+        boolean[] claimed = claimRepository.claimAll(claimable, LocalDateTime.now().plusHours(24));
+        
+        List<String> claimedKeys = new ArrayList<>();
+        int i = 0;
+        for (String key : claimable.keySet()) {
+            if (claimed[i++]) {
+                claimedKeys.add(key);
+            }
+        }
+        if (claimedKeys.isEmpty()) {
+            return Map.of();
+        }
+        
+        Map<String, PaymentRequest> records = new HashMap<>();
+        for (PaymentRequest record : repository.findByIdempotencyKeyIn(claimedKeys)) {
+            records.put(record.getIdempotencyKey(), record);
+        }
+        return records;
+    }
+    
+    private BatchPaymentItemResultDTO processItem(BatchPaymentItemDTO item, PaymentRequest claimed,
+                                                  Deadline deadline) {
+        String key = item.idempotencyKey();
+        try {
+            PaymentService.ProcessPaymentResult result = claimed != null
+                ? paymentService.executePayment(claimed, key, item.payment(), deadline)
+                : paymentService.processPayment(key, item.payment(), deadline);
+            
+            PaymentResponseDTO response = result.getResponse().withMetadata(key, result.isCached());
+            BatchItemOutcome outcome;
+            if (response.status() == PaymentStatus.FAILED) {
+                outcome = BatchItemOutcome.FAILED;
+            } else {
+                outcome = result.isCached() ? BatchItemOutcome.CACHED : BatchItemOutcome.NEW;
+            }
+            return BatchPaymentItemResultDTO.ofPayment(key, outcome, response);
+            
+        } catch (RequestInProgressException e) {
+            return BatchPaymentItemResultDTO.ofError(key, BatchItemOutcome.IN_PROGRESS,
+                ErrorResponseDTO.of(ErrorCode.REQUEST_IN_PROGRESS, e.getMessage(), key));
+        } catch (PaymentNotFoundException e) {
+            // The key belongs to another API client
+            return BatchPaymentItemResultDTO.ofError(key, BatchItemOutcome.FAILED,
+                ErrorResponseDTO.of(ErrorCode.NOT_FOUND, e.getMessage(), key));
+        } catch (IllegalArgumentException e) {
+            return BatchPaymentItemResultDTO.ofError(key, BatchItemOutcome.FAILED,
+                ErrorResponseDTO.of(ErrorCode.BAD_REQUEST, e.getMessage(), key));
+        } catch (Exception e) {
+            log.error("Batch item failed unexpectedly: idempotencyKey={}", key, e);
+            return BatchPaymentItemResultDTO.ofError(key, BatchItemOutcome.FAILED,
+                ErrorResponseDTO.of(ErrorCode.PAYMENT_FAILED, e.getMessage(), key));
+        }
+    }
+    
+    /**
+     * Validates a single batch item the same way the single-item endpoint would.
+     * 
+     * @return the rejection message, or null if the item is valid
+     */
+    private String validate(BatchPaymentItemDTO item) {
+        if (item.idempotencyKey() == null || item.idempotencyKey().isBlank()) {
+            return "idempotencyKey is required";
+        }
+        try {
+            IdempotencyKeyValidator.validate(item.idempotencyKey());
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        if (item.payment() == null) {
+            return "payment is required";
+        }
+        Set<ConstraintViolation<PaymentRequestDTO>> violations = validator.validate(item.payment());
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+        }
+        try {
+            callbackPolicy.checkRegistered(item.payment().clientId(), item.payment().callbackUrl());
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+    
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,22 +1,39 @@
 package com.tymex.payment.service;
 
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.ErrorResponseDTO;
 import com.tymex.payment.dto.PaymentRequestDTO;
 import com.tymex.payment.dto.PaymentResponseDTO;
+import com.tymex.payment.dto.WebhookBatchItemResultDTO;
+import com.tymex.payment.dto.WebhookPayload;
 import com.tymex.payment.dto.WebhookResult;
 import com.tymex.payment.entity.PaymentRequest;
 import com.tymex.payment.enums.ErrorCode;
 import com.tymex.payment.enums.PaymentProvider;
 import com.tymex.payment.enums.PaymentStatus;
+import com.tymex.payment.exception.DeadlineExceededException;
 import com.tymex.payment.exception.PaymentException;
+import com.tymex.payment.exception.PaymentNotFoundException;
 import com.tymex.payment.exception.RequestInProgressException;
 import com.tymex.payment.repository.PaymentRequestRepository;
+import com.tymex.payment.service.admission.SaturationMonitor;
+import com.tymex.payment.service.event.PaymentStatusChangedEvent;
+import com.tymex.payment.service.metrics.PaymentMetrics;
+import com.tymex.payment.service.notification.MerchantCallbackPolicy;
+import com.tymex.payment.service.notification.MerchantNotificationOutbox;
 import com.tymex.payment.service.provider.contract.PaymentProviderStrategy;
 import com.tymex.payment.service.provider.contract.WebhookCapablePaymentProviderStrategy;
 import com.tymex.payment.service.provider.routing.PaymentProviderRouter;
+import com.tymex.payment.service.webhook.WebhookBatcher;
+import com.tymex.payment.service.webhook.WebhookDigestFilter;
+import com.tymex.payment.service.webhook.WebhookLaneDispatcher;
+import com.tymex.payment.service.webhook.WebhookStateTransition;
+import com.tymex.payment.util.Deadline;
 import com.tymex.payment.util.IdempotencyKeyValidator;
 import com.tymex.payment.util.RetryUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
@@ -24,9 +41,18 @@ import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 @Service
 public class PaymentService {
@@ -36,13 +62,49 @@ public class PaymentService {
     private final PaymentRequestRepository repository;
     private final PaymentProviderRouter providerRouter;
     private final JsonSerializationService jsonSerializationService;
+    private final RetryBudgetRegistry retryBudgetRegistry;
+    private final WebhookDigestFilter webhookDigestFilter;
+    private final WebhookStateTransition webhookStateTransition;
+    private final WebhookBatcher webhookBatcher;
+    private final WebhookLaneDispatcher webhookLaneDispatcher;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MerchantNotificationOutbox notificationOutbox;
+    private final MerchantCallbackPolicy callbackPolicy;
+    private final TransactionTemplate transactionTemplate;
+    private final SaturationMonitor saturationMonitor;
+    private final PaymentMetrics paymentMetrics;
+    private final Duration minAttemptDuration;
 
     public PaymentService(PaymentRequestRepository repository,
             PaymentProviderRouter providerRouter,
-            JsonSerializationService jsonSerializationService) {
+            JsonSerializationService jsonSerializationService,
+            RetryBudgetRegistry retryBudgetRegistry,
+            WebhookDigestFilter webhookDigestFilter,
+            WebhookStateTransition webhookStateTransition,
+            WebhookBatcher webhookBatcher,
+            WebhookLaneDispatcher webhookLaneDispatcher,
+            ApplicationEventPublisher eventPublisher,
+            MerchantNotificationOutbox notificationOutbox,
+            MerchantCallbackPolicy callbackPolicy,
+            TransactionTemplate transactionTemplate,
+            SaturationMonitor saturationMonitor,
+            PaymentMetrics paymentMetrics,
+            PaymentProperties paymentProperties) {
         this.repository = repository;
         this.providerRouter = providerRouter;
         this.jsonSerializationService = jsonSerializationService;
+        this.retryBudgetRegistry = retryBudgetRegistry;
+        this.webhookDigestFilter = webhookDigestFilter;
+        this.webhookStateTransition = webhookStateTransition;
+        this.webhookBatcher = webhookBatcher;
+        this.webhookLaneDispatcher = webhookLaneDispatcher;
+        this.eventPublisher = eventPublisher;
+        this.notificationOutbox = notificationOutbox;
+        this.callbackPolicy = callbackPolicy;
+        this.transactionTemplate = transactionTemplate;
+        this.saturationMonitor = saturationMonitor;
+        this.paymentMetrics = paymentMetrics;
+        this.minAttemptDuration = Duration.ofMillis(paymentProperties.getDeadline().getMinAttemptMs());
     }
     
     /**
@@ -52,30 +114,121 @@ public class PaymentService {
      * Flow:
      * 1. Route to appropriate provider based on provider type
      * 2. Provider handles webhook (parses according to provider-specific format)
-     * 3. Process webhook with idempotency logic
+     * 3. Process webhook with idempotency logic (through WebhookBatcher when batching is enabled,
+     *    otherwise on the key-ordered lane of its providerTransactionId)
+     * 4. Remember the payload digest so exact redeliveries are ACKed without the database
+     * 
+     * The payload is parsed and hashed on the calling thread; only the parsed WebhookResult
+     * is handed to the batching stage or processing lane.
      * 
      * @param provider the payment provider (from path parameter)
-     * @param payload the webhook payload (JSON string)
+     * @param payload the webhook payload (raw JSON bytes)
      * @param headers the webhook headers (for signature verification, etc.)
      * @throws IllegalArgumentException if provider is not supported or webhook is invalid
      */
-    public void processWebhook(PaymentProvider provider, String payload, Map<String, String> headers) {
+    public void processWebhook(PaymentProvider provider, WebhookPayload payload, Map<String, String> headers) {
         // Route to webhook-capable provider
         WebhookCapablePaymentProviderStrategy webhookHandler = providerRouter.routeWebhook(provider);
         
         // Provider handles webhook (provider-specific parsing)
-        WebhookResult webhookResult = webhookHandler.handleWebhook(payload, headers);
+        WebhookResult webhookResult = parseWebhook(provider, () -> webhookHandler.handleWebhook(payload, headers));
         
         log.info("Handled webhook from {}: providerTransactionId={}, status={}", 
                  provider, webhookResult.providerTransactionId(), webhookResult.status());
         
-        // Process webhook with idempotency logic
-        processWebhook(
-            webhookResult.providerTransactionId(),
-            webhookResult.payload(),
-            webhookResult.transactionNo(),
-            webhookResult.status()
-        );
+        // Process webhook with idempotency logic (batched with concurrent webhooks when enabled)
+        long applyStart = System.nanoTime();
+        boolean applied = false;
+        try {
+            if (webhookBatcher.isEnabled()) {
+                webhookBatcher.await(webhookBatcher.submit(webhookResult));
+            } else {
+                // Same providerTransactionId -> same lane, so redeliveries never race into lock conflicts
+                webhookLaneDispatcher.run(webhookResult.providerTransactionId(), () -> processWebhook(
+                    webhookResult.paymentId(),
+                    webhookResult.providerTransactionId(),
+                    webhookResult.transactionNo(),
+                    webhookResult.status()
+                ));
+            }
+            applied = true;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            paymentMetrics.recordLockConflict(provider, PaymentMetrics.LockOperation.WEBHOOK);
+            throw e;
+        } finally {
+            paymentMetrics.recordStage(PaymentMetrics.Stage.WEBHOOK_APPLY, provider, applyStart, applied);
+        }
+        
+        webhookDigestFilter.recordProcessed(webhookDigestFilter.digest(provider, payload));
+    }
+
+    /**
+     * Same as {@link #processWebhook(PaymentProvider, WebhookPayload, Map)} for a payload that was
+     * stored as text (e.g. a webhook inbox entry).
+     */
+    public void processWebhook(PaymentProvider provider, String payload, Map<String, String> headers) {
+        processWebhook(provider, WebhookPayload.of(payload), headers);
+    }
+    
+    /**
+     * Processes a payload carrying an array of webhook events.
+     * All events are handed to the WebhookBatcher together, so they are resolved and applied
+     * in as few batches as possible; each event gets its own result.
+     * 
+     * @param provider the payment provider (from path parameter)
+     * @param payload the webhook payload (raw JSON array bytes)
+     * @param headers the webhook headers (for signature verification, etc.)
+     * @return one result per event, in payload order
+     * @throws IllegalArgumentException if provider is not supported or the payload is invalid
+     */
+    public List<WebhookBatchItemResultDTO> processWebhookBatch(PaymentProvider provider, WebhookPayload payload,
+            Map<String, String> headers) {
+        WebhookCapablePaymentProviderStrategy webhookHandler = providerRouter.routeWebhook(provider);
+        List<WebhookResult> webhookResults = parseWebhook(provider,
+                () -> webhookHandler.handleWebhookBatch(payload, headers));
+        
+        long applyStart = System.nanoTime();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(webhookResults.size());
+        for (WebhookResult webhookResult : webhookResults) {
+            futures.add(webhookBatcher.submit(webhookResult));
+        }
+        
+        List<WebhookBatchItemResultDTO> results = new ArrayList<>(webhookResults.size());
+        for (int i = 0; i < webhookResults.size(); i++) {
+            String providerTransactionId = webhookResults.get(i).providerTransactionId();
+            boolean applied = false;
+            try {
+                webhookBatcher.await(futures.get(i));
+                applied = true;
+                results.add(WebhookBatchItemResultDTO.ofAccepted(providerTransactionId));
+            } catch (IllegalArgumentException e) {
+                results.add(WebhookBatchItemResultDTO.ofError(providerTransactionId,
+                        ErrorResponseDTO.of(ErrorCode.BAD_REQUEST, "Invalid webhook: " + e.getMessage())));
+            } catch (Exception e) {
+                results.add(WebhookBatchItemResultDTO.ofError(providerTransactionId,
+                        ErrorResponseDTO.of(ErrorCode.PAYMENT_FAILED, "Failed to process webhook: " + e.getMessage())));
+            } finally {
+                // Events of a batch are applied together: each records the time until its own result
+                paymentMetrics.recordStage(PaymentMetrics.Stage.WEBHOOK_APPLY, provider, applyStart, applied);
+            }
+        }
+        log.info("Handled webhook batch from {}: events={}", provider, results.size());
+        return results;
+    }
+    
+    /**
+     * Runs provider-specific webhook parsing, timed as the webhook_parse stage.
+     */
+    private <T> T parseWebhook(PaymentProvider provider, Supplier<T> parse) {
+        long start = System.nanoTime();
+        boolean parsed = false;
+        try {
+            T result = parse.get();
+            parsed = true;
+            return result;
+        } finally {
+            paymentMetrics.recordStage(PaymentMetrics.Stage.WEBHOOK_PARSE, provider, start, parsed);
+        }
     }
 
     public static class ProcessPaymentResult {
@@ -96,6 +249,24 @@ public class PaymentService {
         }
     }
 
+    public static class PaymentStatusResult {
+        private final PaymentResponseDTO response;
+        private final long version;
+        
+        public PaymentStatusResult(PaymentResponseDTO response, long version) {
+            this.response = response;
+            this.version = version;
+        }
+        
+        public PaymentResponseDTO getResponse() {
+            return response;
+        }
+        
+        public long getVersion() {
+            return version;
+        }
+    }
+
     public class PaymentRequestResetInfo {
             private final PaymentRequest record;
             private final boolean isReset;
@@ -115,20 +286,53 @@ public class PaymentService {
         }
 
         public ProcessPaymentResult processPayment(String idempotencyKey, PaymentRequestDTO request) {
-            // Validate idempotency key format (UUID v4)
+            return processPayment(idempotencyKey, request, Deadline.none());
+        }
+
+        /**
+         * Processes a payment bounded by the caller's deadline.
+         * Retries stop as soon as the remaining budget cannot fit another attempt; the payment
+         * is then recorded as FAILED (DEADLINE_EXCEEDED) so the same key can be retried.
+         * 
+         * @param idempotencyKey the idempotency key
+         * @param request the payment request
+         * @param deadline the request deadline
+         * @return the payment result
+         */
+        public ProcessPaymentResult processPayment(String idempotencyKey, PaymentRequestDTO request,
+                Deadline deadline) {
+            // Validate idempotency key format (UUID v4) and the callback host
             IdempotencyKeyValidator.validate(idempotencyKey);
+            callbackPolicy.checkRegistered(request.clientId(), request.callbackUrl());
 
             // Transaction 1: Create PENDING record (SHORT - 10ms)
-            PaymentRequest record = createPendingRecord(idempotencyKey, request);
+            PaymentRequest record = claim(idempotencyKey, request);
 
             // Check if this is a cached response (record was already COMPLETED)
             boolean isCached = record.getProcessingStatus() == PaymentRequest.ProcessingStatus.COMPLETED;
             if (isCached) {
+                paymentMetrics.recordCacheHit(request.paymentProvider());
                 PaymentResponseDTO cachedResponse = jsonSerializationService
                         .deserializeResponse(record.getResponseBody());
                 return new ProcessPaymentResult(cachedResponse, true);
             }
 
+            return executePayment(record, idempotencyKey, request, deadline);
+        }
+
+        /**
+         * Calls the provider for a record already claimed (PROCESSING) by the caller and
+         * records the outcome. Shared by single-item and batch submission so every item
+         * goes through the same retry and finalization logic.
+         * 
+         * @param record the claimed PROCESSING record
+         * @param idempotencyKey the idempotency key of the record
+         * @param request the payment request
+         * @param deadline the request deadline
+         * @return the payment result (never cached)
+         */
+        public ProcessPaymentResult executePayment(PaymentRequest record, String idempotencyKey,
+                PaymentRequestDTO request, Deadline deadline) {
             // NO TRANSACTION: Call external provider with retry logic (LONG - 10s for sync, immediate for async)
             // Route to appropriate provider strategy (once, before retry loop)
             PaymentProviderStrategy strategy = providerRouter.route(request.paymentProvider());
@@ -136,42 +340,190 @@ public class PaymentService {
             PaymentResponseDTO response;
             try {
                 // Execute payment with automatic retry (3 attempts with exponential backoff: 1s, 2s, 4s)
+                // Retries stop early when the deadline cannot fit the backoff plus another attempt,
+                // or when the provider's shared retry budget is exhausted
                 response = RetryUtil.executeWithRetry(
-                        () -> strategy.process(request, idempotencyKey),
-                        RetryUtil.DEFAULT_RETRY_ATTEMPT
+                        () -> {
+                            // Counted per attempt: backoff sleeps do not hold a provider slot
+                            saturationMonitor.providerCallStarted(request.paymentProvider());
+                            long attemptStart = System.nanoTime();
+                            boolean succeeded = false;
+                            try {
+                                PaymentResponseDTO answer = strategy.process(request, idempotencyKey, record.getId(), deadline);
+                                succeeded = true;
+                                return answer;
+                            } finally {
+                                saturationMonitor.providerCallFinished(request.paymentProvider());
+                                paymentMetrics.recordStage(PaymentMetrics.Stage.PROVIDER_ATTEMPT,
+                                        request.paymentProvider(), attemptStart, succeeded);
+                            }
+                        },
+                        RetryUtil.DEFAULT_RETRY_ATTEMPT,
+                        deadline,
+                        minAttemptDuration,
+                        retryBudgetRegistry.forProvider(request.paymentProvider()),
+                        backoffNanos -> paymentMetrics.recordStageNanos(PaymentMetrics.Stage.RETRY_BACKOFF,
+                                request.paymentProvider(), backoffNanos, true)
                 );
 
             } catch (Exception e) {
-                // Handle payment failure - RetryUtil throws Exception, but we expect PaymentException
-                PaymentException paymentException;
-                if (e instanceof PaymentException) {
-                    paymentException = (PaymentException) e;
-                } else {
-                    // Wrap unexpected exceptions as PaymentException
-                    paymentException = new PaymentException("Payment processing failed: " + e.getMessage(), e);
-                }
-                
-                // Gracefully handle payment failure - return error response instead of throwing
-                // Transaction 2: Update to FAILED (SHORT - 10ms)
-                PaymentResponseDTO errorResponse = createErrorResponse(paymentException, request);
-                updateRecordFailed(record, errorResponse);
-                return new ProcessPaymentResult(errorResponse, false);
+                return recordFailure(record, request, e);
             }
 
+            return recordOutcome(record, response);
+        }
+
+        /**
+         * Non-blocking variant of {@link #processPayment(String, PaymentRequestDTO, Deadline)} for the
+         * reactive deployment: the same claim, retry and finalization steps, but no thread waits for
+         * the provider. Database steps (claim, final update) run on blockingExecutor, which should be
+         * bounded to the connection pool; the provider call goes through
+         * PaymentProviderStrategy.processAsync and retry backoffs are scheduled delays.
+         * 
+         * @param idempotencyKey the idempotency key
+         * @param request the payment request
+         * @param deadline the request deadline
+         * @param blockingExecutor executor for the blocking (JPA) steps
+         * @return future of the payment result; completes exceptionally with IllegalArgumentException
+         *         or RequestInProgressException exactly where the blocking variant throws them
+         */
+        public CompletableFuture<ProcessPaymentResult> processPaymentAsync(String idempotencyKey,
+                PaymentRequestDTO request, Deadline deadline, Executor blockingExecutor) {
+            return CompletableFuture.supplyAsync(() -> {
+                IdempotencyKeyValidator.validate(idempotencyKey);
+                callbackPolicy.checkRegistered(request.clientId(), request.callbackUrl());
+                return claim(idempotencyKey, request);
+            }, blockingExecutor).thenCompose(record -> {
+                if (record.getProcessingStatus() == PaymentRequest.ProcessingStatus.COMPLETED) {
+                    paymentMetrics.recordCacheHit(request.paymentProvider());
+                    PaymentResponseDTO cachedResponse = jsonSerializationService
+                            .deserializeResponse(record.getResponseBody());
+                    return CompletableFuture.completedFuture(new ProcessPaymentResult(cachedResponse, true));
+                }
+                return executePaymentAsync(record, idempotencyKey, request, deadline, blockingExecutor);
+            });
+        }
+
+        /**
+         * Non-blocking variant of {@link #executePayment(PaymentRequest, String, PaymentRequestDTO, Deadline)}.
+         * 
+         * @param record the claimed PROCESSING record
+         * @param idempotencyKey the idempotency key of the record
+         * @param request the payment request
+         * @param deadline the request deadline
+         * @param blockingExecutor executor for the final (JPA) update
+         * @return future of the payment result (never cached)
+         */
+        public CompletableFuture<ProcessPaymentResult> executePaymentAsync(PaymentRequest record, String idempotencyKey,
+                PaymentRequestDTO request, Deadline deadline, Executor blockingExecutor) {
+            PaymentProvider provider = request.paymentProvider();
+            PaymentProviderStrategy strategy = providerRouter.route(provider);
+            
+            return RetryUtil.executeWithRetryAsync(
+                    () -> {
+                        saturationMonitor.providerCallStarted(provider);
+                        long attemptStart = System.nanoTime();
+                        CompletableFuture<PaymentResponseDTO> call;
+                        try {
+                            call = strategy.processAsync(request, idempotencyKey, record.getId(), deadline,
+                                    blockingExecutor);
+                        } catch (RuntimeException e) {
+                            call = CompletableFuture.failedFuture(e);
+                        }
+                        return call.whenComplete((response, failure) -> {
+                            saturationMonitor.providerCallFinished(provider);
+                            paymentMetrics.recordStage(PaymentMetrics.Stage.PROVIDER_ATTEMPT, provider, attemptStart,
+                                    failure == null);
+                        });
+                    },
+                    RetryUtil.DEFAULT_RETRY_ATTEMPT,
+                    deadline,
+                    minAttemptDuration,
+                    retryBudgetRegistry.forProvider(provider),
+                    backoffNanos -> paymentMetrics.recordStageNanos(PaymentMetrics.Stage.RETRY_BACKOFF, provider,
+                            backoffNanos, true)
+            ).handleAsync((response, failure) -> failure == null
+                    ? recordOutcome(record, response)
+                    : recordFailure(record, request, RetryUtil.unwrap(failure)), blockingExecutor);
+        }
+
+        /**
+         * Records a provider answer: PENDING (async provider, result follows by webhook) keeps the
+         * record PROCESSING, anything else completes it.
+         */
+        private ProcessPaymentResult recordOutcome(PaymentRequest record, PaymentResponseDTO response) {
             // Transaction 3: Update record based on response status
             // For synchronous providers: Update to COMPLETED
             // For asynchronous providers (PENDING): Update to PROCESSING (keep processing, don't complete yet)
-            if (response.status() == PaymentStatus.PENDING) {
-                // Async provider - store provider transaction ID and keep as PROCESSING
-                updateRecordPending(record, response);
-            } else {
-                // Sync provider - update to COMPLETED
-                updateRecordCompleted(record, response);
+            PaymentProvider provider = record.getPaymentProvider();
+            paymentMetrics.recordOutcome(provider, PaymentMetrics.Outcome.of(response.status()));
+            long start = System.nanoTime();
+            boolean stored = false;
+            try {
+                if (response.status() == PaymentStatus.PENDING) {
+                    // Async provider - store provider transaction ID and keep as PROCESSING
+                    updateRecordPending(record, response);
+                } else {
+                    // Sync provider - update to COMPLETED
+                    updateRecordCompleted(record, response);
+                }
+                stored = true;
+            } finally {
+                paymentMetrics.recordStage(PaymentMetrics.Stage.FINALIZE, provider, start, stored);
             }
 
             return new ProcessPaymentResult(response, false);
         }
 
+        /**
+         * Records a failed provider call (after retries) as FAILED, so the key can be retried.
+         */
+        private ProcessPaymentResult recordFailure(PaymentRequest record, PaymentRequestDTO request, Throwable e) {
+            // Handle payment failure - RetryUtil throws Exception, but we expect PaymentException
+            PaymentException paymentException;
+            if (e instanceof PaymentException) {
+                paymentException = (PaymentException) e;
+            } else {
+                // Wrap unexpected exceptions as PaymentException
+                paymentException = new PaymentException("Payment processing failed: " + e.getMessage(), e);
+            }
+            
+            // Gracefully handle payment failure - return error response instead of throwing
+            // Transaction 2: Update to FAILED (SHORT - 10ms)
+            PaymentResponseDTO errorResponse = createErrorResponse(paymentException, request);
+            paymentMetrics.recordOutcome(request.paymentProvider(), e instanceof DeadlineExceededException
+                    ? PaymentMetrics.Outcome.DEADLINE_EXCEEDED
+                    : PaymentMetrics.Outcome.FAILED);
+            long start = System.nanoTime();
+            boolean stored = false;
+            try {
+                updateRecordFailed(record, errorResponse);
+                stored = true;
+            } finally {
+                paymentMetrics.recordStage(PaymentMetrics.Stage.FINALIZE, request.paymentProvider(), start, stored);
+            }
+            return new ProcessPaymentResult(errorResponse, false);
+        }
+
+        /**
+         * Claims the idempotency key (createPendingRecord), timed as the claim stage; a key that is
+         * still being processed elsewhere is counted as a 409.
+         */
+        private PaymentRequest claim(String idempotencyKey, PaymentRequestDTO request) {
+            long start = System.nanoTime();
+            boolean claimed = false;
+            try {
+                PaymentRequest record = createPendingRecord(idempotencyKey, request);
+                claimed = true;
+                return record;
+            } catch (RequestInProgressException e) {
+                paymentMetrics.recordInProgress(request.paymentProvider());
+                throw e;
+            } finally {
+                paymentMetrics.recordStage(PaymentMetrics.Stage.CLAIM, request.paymentProvider(), start, claimed);
+            }
+        }
+
         @Transactional
         private PaymentRequest createPendingRecord(String idempotencyKey,
                 PaymentRequestDTO request) {
@@ -183,6 +535,8 @@ public class PaymentService {
                 record.setPaymentMethod(request.paymentMethod());
                 record.setDescription(request.description());
                 record.setPaymentProvider(request.paymentProvider());
+                record.setCallbackUrl(request.callbackUrl());
+                record.setClientId(request.clientId());
                 record.setExpiresAt(LocalDateTime.now().plusHours(24));
 
                 repository.save(record); // INSERT
@@ -192,13 +546,24 @@ public class PaymentService {
 
             } catch (DataIntegrityViolationException e) {
                 // Key already exists, handle existing record
+                long start = System.nanoTime();
+                boolean handled = false;
                 try {
-                    return handleExistingRecord(idempotencyKey, request);
-                } catch (ObjectOptimisticLockingFailureException retryException) {
-                    // All retries failed - fallback to read-only check
-                    // Another thread might have updated the record to COMPLETED
-                    log.info("handleExistingRecordReadOnly");
-                    return handleExistingRecordReadOnly(idempotencyKey);
+                    PaymentRequest existing;
+                    try {
+                        existing = handleExistingRecord(idempotencyKey, request);
+                    } catch (ObjectOptimisticLockingFailureException retryException) {
+                        // All retries failed - fallback to read-only check
+                        // Another thread might have updated the record to COMPLETED
+                        log.info("handleExistingRecordReadOnly");
+                        paymentMetrics.recordLockConflict(request.paymentProvider(), PaymentMetrics.LockOperation.CLAIM);
+                        existing = handleExistingRecordReadOnly(idempotencyKey, request.clientId());
+                    }
+                    handled = true;
+                    return existing;
+                } finally {
+                    paymentMetrics.recordStage(PaymentMetrics.Stage.EXISTING_RECORD, request.paymentProvider(),
+                            start, handled);
                 }
             }
         }
@@ -252,6 +617,7 @@ public class PaymentService {
                 existing.setPaymentMethod(request.paymentMethod());
                 existing.setDescription(request.description());
                 existing.setPaymentProvider(request.paymentProvider());
+                existing.setCallbackUrl(request.callbackUrl());
                 existing.setExpiresAt(LocalDateTime.now().plusHours(24));
                 repository.save(existing);
                 return existing;
@@ -266,6 +632,7 @@ public class PaymentService {
 
             PaymentRequest existing = repository.findByIdempotencyKey(idempotencyKey)
                     .orElseThrow(() -> new IllegalStateException("Record should exist but not found"));
+            checkOwner(existing, request.clientId());
 
             // Check expiration
             if (existing.getExpiresAt().isBefore(LocalDateTime.now())) {
@@ -277,6 +644,7 @@ public class PaymentService {
                 existing.setPaymentMethod(request.paymentMethod());
                 existing.setDescription(request.description());
                 existing.setPaymentProvider(request.paymentProvider());
+                existing.setCallbackUrl(request.callbackUrl());
                 existing.setExpiresAt(LocalDateTime.now().plusHours(24));
                 // Clear previous response data
                 existing.setResponseStatus(null);
@@ -301,13 +669,15 @@ public class PaymentService {
          * return cached responses if the record is COMPLETED.
          * 
          * @param idempotencyKey the idempotency key
+         * @param clientId the API client retrying the key
          * @return PaymentRequest if status allows, otherwise throws appropriate
          *         exception
          */
         @Transactional(readOnly = true)
-        private PaymentRequest handleExistingRecordReadOnly(String idempotencyKey) {
+        private PaymentRequest handleExistingRecordReadOnly(String idempotencyKey, String clientId) {
             PaymentRequest existing = repository.findByIdempotencyKey(idempotencyKey)
                     .orElseThrow(() -> new IllegalStateException("Record should exist but not found"));
+            checkOwner(existing, clientId);
 
             // Handle based on current status (read-only, no updates)
             switch (existing.getProcessingStatus()) {
@@ -341,7 +711,8 @@ public class PaymentService {
             record.setPaymentProvider(response.paymentProvider());
             record.setPaymentStatus(response.status().getValue());
             // Keep processingStatus as PROCESSING (don't change to COMPLETED)
-            repository.save(record); // UPDATE
+            PaymentRequest saved = repository.save(record); // UPDATE
+            eventPublisher.publishEvent(PaymentStatusChangedEvent.of(saved));
             log.debug("Updated record for async payment (PENDING): idempotencyKey={}, providerTransactionId={}", 
                      record.getIdempotencyKey(), response.providerTransactionId());
         }
@@ -355,7 +726,8 @@ public class PaymentService {
             record.setProviderTransactionId(response.providerTransactionId());  // May be null for sync providers
             record.setPaymentProvider(response.paymentProvider());
             record.setPaymentStatus(response.status().getValue());
-            repository.save(record); // UPDATE
+            PaymentRequest saved = repository.save(record); // UPDATE
+            eventPublisher.publishEvent(PaymentStatusChangedEvent.of(saved));
             log.debug("Updated record to COMPLETED for idempotency key: {}", record.getIdempotencyKey());
             // COMMIT here - lock released in ~10ms!
         }
@@ -364,13 +736,17 @@ public class PaymentService {
          * Creates an error response DTO for failed payments.
          */
         private PaymentResponseDTO createErrorResponse(PaymentException e, PaymentRequestDTO request) {
+            // Deadline failures are retryable with the same idempotency key (record is FAILED)
+            ErrorCode errorCode = e instanceof DeadlineExceededException
+                    ? ErrorCode.DEADLINE_EXCEEDED
+                    : ErrorCode.PAYMENT_FAILED;
             return PaymentResponseDTO.failed(
                     request.amount(),
                     request.paymentMethod(),
                     request.description(),
                     LocalDateTime.now(),
                     request.paymentProvider(),
-                    ErrorCode.PAYMENT_FAILED.getCode(),
+                    errorCode.getCode(),
                     e.getMessage()
             );
         }
@@ -381,7 +757,8 @@ public class PaymentService {
             record.setResponseStatus(HttpStatus.OK.value()); // 200 OK (gracefully handled)
             record.setResponseBody(jsonSerializationService.serializeResponse(errorResponse));
             record.setPaymentStatus(PaymentStatus.FAILED.getValue());
-            repository.save(record); // UPDATE
+            PaymentRequest saved = repository.save(record); // UPDATE
+            eventPublisher.publishEvent(PaymentStatusChangedEvent.of(saved));
             log.debug("Updated record to FAILED for idempotency key: {}", record.getIdempotencyKey());
             // COMMIT here - lock released in ~10ms!
         }
@@ -397,20 +774,84 @@ public class PaymentService {
             return jsonSerializationService.deserializeResponse(record.getResponseBody());
         }
 
+        /**
+         * Reads the current stored response of a payment, for the status endpoint.
+         * Read-only: never claims, resets or re-executes the payment (unlike a POST replay).
+         * 
+         * @param idempotencyKey the idempotency key
+         * @param clientId the API client asking (a payment of another client is reported as unknown)
+         * @return the stored response and record version, or empty if the key is unknown to the client
+         * @throws IllegalArgumentException if the key is not a valid UUID v4
+         * @throws RequestInProgressException if the provider has not answered yet (no stored response)
+         */
+        @Transactional(readOnly = true)
+        public Optional<PaymentStatusResult> getPaymentStatus(String idempotencyKey, String clientId) {
+            IdempotencyKeyValidator.validate(idempotencyKey);
+            
+            Optional<PaymentRequest> found = repository.findByIdempotencyKey(idempotencyKey)
+                    .filter(record -> isOwnedBy(record, clientId));
+            if (found.isEmpty()) {
+                return Optional.empty();
+            }
+            PaymentRequest record = found.get();
+            if (record.getResponseBody() == null) {
+                throw new RequestInProgressException(
+                        "Payment is being processed. Please retry later.",
+                        idempotencyKey);
+            }
+            PaymentResponseDTO response = jsonSerializationService.deserializeResponse(record.getResponseBody());
+            return Optional.of(new PaymentStatusResult(response, record.getVersion()));
+        }
+        
+        /**
+         * Reads only the version of a payment (version-only query, no response body).
+         * Lets the status endpoint answer a matching If-None-Match without loading the response.
+         * 
+         * @param idempotencyKey the idempotency key
+         * @param clientId the API client asking
+         * @return the record version, or empty if the key is unknown to the client
+         * @throws IllegalArgumentException if the key is not a valid UUID v4
+         */
+        public Optional<Long> getPaymentVersion(String idempotencyKey, String clientId) {
+            IdempotencyKeyValidator.validate(idempotencyKey);
+            return repository.findVersionByIdempotencyKeyAndClientId(idempotencyKey, clientId);
+        }
+        
+        /**
+         * Payments belong to the API client that created them; the owner never changes, not even
+         * when a FAILED or expired record is retried.
+         * 
+         * @return true if the record was created by the client
+         */
+        public static boolean isOwnedBy(PaymentRequest record, String clientId) {
+            return Objects.equals(record.getClientId(), clientId);
+        }
+        
+        /**
+         * @throws PaymentNotFoundException if the existing record belongs to another client
+         *         (so a replay never returns, resets or reveals another client's payment)
+         */
+        private static void checkOwner(PaymentRequest existing, String clientId) {
+            if (!isOwnedBy(existing, clientId)) {
+                throw new PaymentNotFoundException("Payment not found", existing.getIdempotencyKey());
+            }
+        }
+
         /**
          * Processes webhook callback with idempotency logic (similar to processPayment).
          * Used for asynchronous payment providers (e.g., MoMo) that send webhooks.
          * 
          * Webhook idempotency flow (similar to processPayment):
-         * 1. Look up payment by provider_transaction_id to get the actual idempotency_key
+         * 1. Look up payment by primary key (self-routing reference) or provider_transaction_id
+         *    to get the actual idempotency_key
          * 2. Calculate webhook payload hash
          * 3. Check for existing record by idempotency_key
          * 4. Validate webhook hash (if record exists, ensure it matches)
          * 5. Handle duplicate webhooks (if already COMPLETED/FAILED, return early)
          * 6. Update payment status if still in PROCESSING
          * 
+         * @param paymentId the payment record id from a self-routing reference (null = look up by providerTransactionId)
          * @param providerTransactionId the provider's transaction ID (used as idempotency key for webhooks)
-         * @param webhookPayload the webhook payload (JSON string) for hash validation
          * @param transactionNo the final transaction number (from webhook, may be null if failed)
          * @param status the payment status (COMPLETED or FAILED)
          * @throws IllegalArgumentException if payment not found
@@ -421,12 +862,10 @@ public class PaymentService {
             backoff = @Backoff(delay = 100, multiplier = 2)
         )
         @Transactional
-        public void processWebhook(String providerTransactionId, String webhookPayload, 
-                                   String transactionNo, PaymentStatus status) {
-            // Step 1: Look up payment by provider_transaction_id to get the actual idempotency_key
-            PaymentRequest record = repository.findByProviderTransactionId(providerTransactionId)
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Payment not found for providerTransactionId: " + providerTransactionId));
+        public void processWebhook(Long paymentId, String providerTransactionId, String transactionNo,
+                PaymentStatus status) {
+            // Step 1: Look up payment (primary key first, provider_transaction_id as fallback)
+            PaymentRequest record = findWebhookPayment(paymentId, providerTransactionId);
             
             String idempotencyKey = record.getIdempotencyKey();
             
@@ -453,54 +892,60 @@ public class PaymentService {
             }
             
             // Step 6: Update payment status
-            if (status == PaymentStatus.COMPLETED) {
-                record.setProcessingStatus(PaymentRequest.ProcessingStatus.COMPLETED);
-                record.setTransactionNo(transactionNo);
-                record.setPaymentStatus(PaymentStatus.COMPLETED.getValue());
-                record.setResponseStatus(HttpStatus.OK.value());
-                
-                // Update response body with final status
-                PaymentResponseDTO finalResponse = PaymentResponseDTO.of(
-                        transactionNo,
-                        PaymentStatus.COMPLETED,
-                        record.getAmount(),
-                        record.getPaymentMethod(),
-                        record.getDescription(),
-                        LocalDateTime.now(),
-                        record.getPaymentProvider()
-                );
-                record.setResponseBody(jsonSerializationService.serializeResponse(finalResponse));
-                
-                log.info("Webhook: Payment completed - idempotencyKey={}, transactionNo={}, providerTransactionId={}",
-                        idempotencyKey, transactionNo, providerTransactionId);
-            } else if (status == PaymentStatus.FAILED) {
-                record.setProcessingStatus(PaymentRequest.ProcessingStatus.FAILED);
-                record.setPaymentStatus(PaymentStatus.FAILED.getValue());
-                record.setResponseStatus(HttpStatus.OK.value()); // 200 OK (gracefully handled)
-                
-                // Update response body with failure status
-                PaymentResponseDTO failedResponse = PaymentResponseDTO.failed(
-                        record.getAmount(),
-                        record.getPaymentMethod(),
-                        record.getDescription(),
-                        LocalDateTime.now(),
-                        record.getPaymentProvider(),
-                        ErrorCode.PAYMENT_FAILED.getCode(),
-                        "Payment processing failed"
-                );
-                record.setResponseBody(jsonSerializationService.serializeResponse(failedResponse));
-                
-                log.info("Webhook: Payment failed - idempotencyKey={}, providerTransactionId={}",
-                        idempotencyKey, providerTransactionId);
-            } else {
+            if (!webhookStateTransition.apply(record, transactionNo, status)) {
                 log.warn("Webhook: Unexpected status {} for providerTransactionId={}", status, providerTransactionId);
                 return;
             }
-
-            repository.save(record);
+            log.info("Webhook: Payment {} - idempotencyKey={}, transactionNo={}, providerTransactionId={}",
+                    status.getValue(), idempotencyKey, transactionNo, providerTransactionId);
+
+            // Status update and merchant notification commit together (joins the caller's transaction if any);
+            // flushed so the saved version is the one being committed
+            PaymentRequest saved = transactionTemplate.execute(tx -> {
+                PaymentRequest flushed = repository.saveAndFlush(record);
+                notificationOutbox.enqueue(flushed, flushed.getVersion());
+                return flushed;
+            });
+            // Subscribers and the status stream see the transition once it committed
+            eventPublisher.publishEvent(PaymentStatusChangedEvent.of(saved));
             log.debug("Webhook update completed for providerTransactionId={}", providerTransactionId);
         }
         
+        /**
+         * Same as {@link #processWebhook(Long, String, String, PaymentStatus)} for a webhook without
+         * a self-routing reference (looked up by provider_transaction_id).
+         */
+        @Retryable(
+            retryFor = {ObjectOptimisticLockingFailureException.class},
+            maxAttempts = 3,
+            backoff = @Backoff(delay = 100, multiplier = 2)
+        )
+        @Transactional
+        public void processWebhook(String providerTransactionId, String transactionNo, PaymentStatus status) {
+            processWebhook(null, providerTransactionId, transactionNo, status);
+        }
+        
+        /**
+         * Resolves the payment a webhook refers to.
+         * A self-routing reference is trusted only if the record it points at belongs to the
+         * webhook's provider transaction; otherwise (legacy reference, mismatch) the secondary
+         * provider_transaction_id lookup is used.
+         */
+        private PaymentRequest findWebhookPayment(Long paymentId, String providerTransactionId) {
+            if (paymentId != null) {
+                Optional<PaymentRequest> byId = repository.findById(paymentId)
+                        .filter(record -> providerTransactionId.equals(record.getProviderTransactionId()));
+                if (byId.isPresent()) {
+                    return byId.get();
+                }
+                log.warn("Webhook reference does not match payment {}, falling back to providerTransactionId={}",
+                        paymentId, providerTransactionId);
+            }
+            return repository.findByProviderTransactionId(providerTransactionId)
+                    .orElseThrow(() -> new IllegalArgumentException(
+                            "Payment not found for providerTransactionId: " + providerTransactionId));
+        }
+        
         /**
          * @deprecated Use processWebhook() instead. This method is kept for backward compatibility.
          * Updates payment status from webhook callback (legacy method without idempotency hash validation).
@@ -513,7 +958,6 @@ public class PaymentService {
         )
         @Transactional
         public void updatePaymentFromWebhook(String providerTransactionId, String transactionNo, PaymentStatus status) {
-            // Delegate to processWebhook with empty payload (no hash validation)
-            processWebhook(providerTransactionId, "", transactionNo, status);
+            processWebhook(providerTransactionId, transactionNo, status);
         }
 }
\ No newline at end of file
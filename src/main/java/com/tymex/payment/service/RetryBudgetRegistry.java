@@ -0,0 +1,54 @@
+package com.tymex.payment.service;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.util.RetryBudget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Holds one RetryBudget per payment provider, shared by all requests.
+ * 
+ * Metrics (tagged by provider):
+ * - payment.retry.budget.exhausted: retries skipped because the budget was empty
+ * - payment.retry.budget.available: current balance in retries
+ */
+@Component
+public class RetryBudgetRegistry {
+    
+    private final Map<PaymentProvider, RetryBudget> budgets = new EnumMap<>(PaymentProvider.class);
+    
+    public RetryBudgetRegistry(PaymentProperties paymentProperties, MeterRegistry meterRegistry) {
+        PaymentProperties.RetryBudget config = paymentProperties.getRetryBudget();
+        
+        for (PaymentProvider provider : PaymentProvider.values()) {
+            if (!Boolean.TRUE.equals(config.getEnabled())) {
+                budgets.put(provider, RetryBudget.unlimited());
+                continue;
+            }
+            Counter exhausted = Counter.builder("payment.retry.budget.exhausted")
+                .description("Provider retries skipped because the retry budget was empty")
+                .tag("provider", provider.getName())
+                .register(meterRegistry);
+            RetryBudget budget = new RetryBudget(config.getRatio(), config.getMaxTokens(), exhausted::increment);
+            Gauge.builder("payment.retry.budget.available", budget, RetryBudget::availableRetries)
+                .description("Retries currently available in the provider retry budget")
+                .tag("provider", provider.getName())
+                .register(meterRegistry);
+            budgets.put(provider, budget);
+        }
+    }
+    
+    /**
+     * @param provider the payment provider
+     * @return the shared retry budget of the provider
+     */
+    public RetryBudget forProvider(PaymentProvider provider) {
+        return budgets.get(provider);
+    }
+}
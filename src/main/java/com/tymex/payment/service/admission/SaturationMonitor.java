@@ -0,0 +1,265 @@
+package com.tymex.payment.service.admission;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.service.event.PaymentStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Live saturation signals for admission control (see AdmissionControlFilter).
+ *
+ * Signals and their thresholds (payment.admission.*):
+ * - Payment submissions in flight (max-in-flight-payments): single payments counted by the filter,
+ *   batches counted per item by BatchPaymentService (a 500-item batch weighs 500 payments)
+ * - Outbound provider calls in flight, all providers together (max-provider-in-flight), counted
+ *   around the provider call in PaymentService
+ * - Threads waiting for a Hikari connection (max-db-pending-threads) and the mean Hikari acquire
+ *   time over the last sample (max-db-acquire-ms), read from the hikaricp.* meters every
+ *   sample-interval-ms. Without a Hikari pool these two signals stay at zero.
+ *
+ * The request path only reads two counters and one volatile field. The DB signals are sampled
+ * because their meters are comparatively expensive to read.
+ *
+ * Also remembers the last replay-keys idempotency keys whose payment committed as COMPLETED,
+ * so that replays of them (one indexed read, no provider call) can be admitted while new
+ * payments are shed.
+ *
+ * Metrics:
+ * - payment.admission.signal{signal=...}: current value of each signal
+ * - payment.admission.threshold{signal=...}: the configured limit for the same signal
+ * - payment.admission.shed{reason=...}: submissions rejected with 503
+ * - payment.admission.replays: replays admitted while shedding
+ */
+@Component
+public class SaturationMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(SaturationMonitor.class);
+
+    /**
+     * Why a submission is shed; also the signal tag of the gauges.
+     */
+    public enum Signal {
+        IN_FLIGHT("in_flight"),
+        PROVIDER_IN_FLIGHT("provider_in_flight"),
+        DB_PENDING("db_pending"),
+        DB_ACQUIRE_MS("db_acquire_ms");
+
+        private final String tag;
+
+        Signal(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    private final PaymentProperties.Admission config;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger paymentsInFlight = new AtomicInteger();
+    private final AtomicInteger providerInFlight = new AtomicInteger();
+    private final Map<PaymentProvider, AtomicInteger> providerInFlightByProvider = new EnumMap<>(PaymentProvider.class);
+    private final Map<Signal, Counter> shed = new EnumMap<>(Signal.class);
+    private final Counter replays;
+    private final Set<String> completedKeys = ConcurrentHashMap.newKeySet();
+    private final String[] completedKeyRing;
+    private final ScheduledExecutorService sampler;
+
+    private int completedKeyPosition;
+    private volatile Signal dbSaturation;
+    private volatile double dbPending;
+    private volatile double dbAcquireMs;
+    private Timer hikariAcquire;
+    private Gauge hikariPending;
+    private long lastAcquireCount;
+    private double lastAcquireTotalMs;
+
+    public SaturationMonitor(PaymentProperties paymentProperties, MeterRegistry meterRegistry) {
+        this.config = paymentProperties.getAdmission();
+        this.meterRegistry = meterRegistry;
+        this.completedKeyRing = new String[Math.max(1, config.getReplayKeys())];
+        this.replays = meterRegistry.counter("payment.admission.replays");
+
+        for (Signal signal : Signal.values()) {
+            shed.put(signal, meterRegistry.counter("payment.admission.shed", "reason", signal.getTag()));
+        }
+        for (PaymentProvider provider : PaymentProvider.values()) {
+            AtomicInteger inFlight = new AtomicInteger();
+            providerInFlightByProvider.put(provider, inFlight);
+            Gauge.builder("payment.admission.provider.in_flight", inFlight, AtomicInteger::get)
+                .description("Outbound calls in flight per provider")
+                .tag("provider", provider.getName())
+                .register(meterRegistry);
+        }
+        registerSignal(Signal.IN_FLIGHT, paymentsInFlight::get, config.getMaxInFlightPayments());
+        registerSignal(Signal.PROVIDER_IN_FLIGHT, providerInFlight::get, config.getMaxProviderInFlight());
+        registerSignal(Signal.DB_PENDING, () -> dbPending, config.getMaxDbPendingThreads());
+        registerSignal(Signal.DB_ACQUIRE_MS, () -> dbAcquireMs, config.getMaxDbAcquireMs());
+
+        this.sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "admission-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (Boolean.TRUE.equals(config.getEnabled())) {
+            long interval = config.getSampleIntervalMs();
+            sampler.scheduleWithFixedDelay(this::sampleDatabase, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sampler.shutdownNow();
+    }
+
+    /**
+     * @return the first signal over its threshold, or null if new payments may be admitted
+     */
+    public Signal saturatedSignal() {
+        if (paymentsInFlight.get() >= config.getMaxInFlightPayments()) {
+            return Signal.IN_FLIGHT;
+        }
+        if (providerInFlight.get() >= config.getMaxProviderInFlight()) {
+            return Signal.PROVIDER_IN_FLIGHT;
+        }
+        return dbSaturation;
+    }
+
+    /**
+     * @return true if the key belongs to a recently completed payment (a cheap replay)
+     */
+    public boolean isCompletedReplay(String idempotencyKey) {
+        return idempotencyKey != null && completedKeys.contains(idempotencyKey);
+    }
+
+    public void paymentStarted() {
+        paymentsInFlight.incrementAndGet();
+    }
+
+    public void paymentFinished() {
+        paymentsInFlight.decrementAndGet();
+    }
+
+    /**
+     * Counts the items of an admitted batch as that many payments in flight.
+     */
+    public void paymentsStarted(int count) {
+        paymentsInFlight.addAndGet(count);
+    }
+
+    public void paymentsFinished(int count) {
+        paymentsInFlight.addAndGet(-count);
+    }
+
+    public void providerCallStarted(PaymentProvider provider) {
+        providerInFlight.incrementAndGet();
+        providerInFlightByProvider.get(provider).incrementAndGet();
+    }
+
+    public void providerCallFinished(PaymentProvider provider) {
+        providerInFlight.decrementAndGet();
+        providerInFlightByProvider.get(provider).decrementAndGet();
+    }
+
+    public void recordShed(Signal signal) {
+        shed.get(signal).increment();
+    }
+
+    public void recordReplayAdmitted() {
+        replays.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(PaymentStatusChangedEvent event) {
+        if (event.terminal()) {
+            rememberCompleted(event.idempotencyKey());
+        }
+    }
+
+    /**
+     * Keeps the last replay-keys completed keys: a ring buffer gives the eviction order,
+     * the concurrent set answers lookups without locking.
+     */
+    private synchronized void rememberCompleted(String idempotencyKey) {
+        if (!completedKeys.add(idempotencyKey)) {
+            return;
+        }
+        String evicted = completedKeyRing[completedKeyPosition];
+        completedKeyRing[completedKeyPosition] = idempotencyKey;
+        completedKeyPosition = (completedKeyPosition + 1) % completedKeyRing.length;
+        if (evicted != null) {
+            completedKeys.remove(evicted);
+        }
+    }
+
+    private void sampleDatabase() {
+        try {
+            if (hikariAcquire == null || hikariPending == null) {
+                // Bound once the pool has started
+                hikariAcquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+                hikariPending = meterRegistry.find("hikaricp.connections.pending").gauge();
+                if (hikariAcquire == null || hikariPending == null) {
+                    return;
+                }
+                lastAcquireCount = hikariAcquire.count();
+                lastAcquireTotalMs = hikariAcquire.totalTime(TimeUnit.MILLISECONDS);
+            }
+
+            long count = hikariAcquire.count();
+            double totalMs = hikariAcquire.totalTime(TimeUnit.MILLISECONDS);
+            // Mean wait of the acquisitions since the last sample (0 when nothing was acquired:
+            // threads stuck waiting show up in the pending count instead)
+            double acquireMs = count > lastAcquireCount ? (totalMs - lastAcquireTotalMs) / (count - lastAcquireCount) : 0;
+            lastAcquireCount = count;
+            lastAcquireTotalMs = totalMs;
+            double pending = hikariPending.value();
+
+            dbPending = pending;
+            dbAcquireMs = acquireMs;
+            Signal saturation = null;
+            if (pending >= config.getMaxDbPendingThreads()) {
+                saturation = Signal.DB_PENDING;
+            } else if (acquireMs >= config.getMaxDbAcquireMs()) {
+                saturation = Signal.DB_ACQUIRE_MS;
+            }
+            if (saturation != dbSaturation) {
+                log.warn("Database saturation changed: {} (pending={}, acquireMs={})",
+                        saturation == null ? "healthy" : saturation.getTag(), pending, String.format("%.1f", acquireMs));
+            }
+            dbSaturation = saturation;
+        } catch (RuntimeException e) {
+            // Must not escape: an exception would cancel the periodic sampling
+            log.warn("Admission sampling failed: {}", e.getMessage());
+        }
+    }
+
+    private void registerSignal(Signal signal, Supplier<Number> value, Number threshold) {
+        Gauge.builder("payment.admission.signal", value)
+            .description("Current value of an admission-control signal")
+            .tag("signal", signal.getTag())
+            .register(meterRegistry);
+        Gauge.builder("payment.admission.threshold", () -> threshold)
+            .description("Threshold above which new payments are shed")
+            .tag("signal", signal.getTag())
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,44 @@
+package com.tymex.payment.service.event;
+
+import com.tymex.payment.entity.PaymentRequest;
+
+/**
+ * Published when a payment's stored response changes (provider answered, webhook applied, failure).
+ * Listeners registered with @TransactionalEventListener see it only after the change committed.
+ *
+ * @param idempotencyKey the payment's idempotency key
+ * @param version the record version after the change (strictly increasing per payment)
+ * @param paymentStatus the payment status value (e.g. "pending", "completed", "failed")
+ * @param responseBody the stored response JSON after the change
+ * @param terminal true once the payment is COMPLETED (FAILED payments may be retried with the same key)
+ * @param clientId the API client that submitted the payment
+ */
+public record PaymentStatusChangedEvent(
+    String idempotencyKey,
+    long version,
+    String paymentStatus,
+    String responseBody,
+    boolean terminal,
+    String clientId
+) {
+    /**
+     * Builds the event from a record whose version already reflects the change (e.g. returned by save).
+     */
+    public static PaymentStatusChangedEvent of(PaymentRequest record) {
+        return of(record, record.getVersion());
+    }
+    
+    /**
+     * Builds the event from a record written outside JPA, with its new version.
+     */
+    public static PaymentStatusChangedEvent of(PaymentRequest record, long version) {
+        return new PaymentStatusChangedEvent(
+            record.getIdempotencyKey(),
+            version,
+            record.getPaymentStatus(),
+            record.getResponseBody(),
+            record.getProcessingStatus() == PaymentRequest.ProcessingStatus.COMPLETED,
+            record.getClientId()
+        );
+    }
+}
@@ -0,0 +1,284 @@
+package com.tymex.payment.service.event;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.entity.PaymentRequest;
+import com.tymex.payment.exception.PaymentNotFoundException;
+import com.tymex.payment.repository.PaymentRequestRepository;
+import com.tymex.payment.service.PaymentService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of payment status transitions to Server-Sent Events subscribers.
+ * 
+ * - Subscribers are async servlet responses (SseEmitter): an idle subscriber holds a connection
+ *   and a small Subscriber object, never a thread
+ * - Per-payment subscribers are indexed by idempotency key; "all payments" subscribers get the
+ *   events of the payments their API client submitted (PaymentRequest.clientId). Both only ever
+ *   see their own client's payments
+ * - Transitions arrive as PaymentStatusChangedEvent after their transaction committed and are
+ *   written by one fan-out thread, so webhook/payment threads never block on slow clients and
+ *   each subscriber sees its events in order
+ * - Heartbeat comments keep idle connections open through proxies and detect dead clients
+ * - Resume: the event id is the record version; a per-payment subscriber reconnecting with
+ *   Last-Event-ID gets the current state immediately if it is newer, and never an older one
+ * 
+ * Only the latest state of a payment matters, so there is no event history: a resumed
+ * subscriber gets the current response rather than every transition it missed.
+ * 
+ * Metrics:
+ * - payment.events.subscribers: open SSE subscribers
+ * - payment.events.dropped: transitions dropped because the fan-out queue was full
+ */
+@Component
+public class PaymentStatusStream {
+    
+    private static final Logger log = LoggerFactory.getLogger(PaymentStatusStream.class);
+    private static final String EVENT_NAME = "payment-status";
+    
+    private final PaymentRequestRepository repository;
+    private final PaymentProperties.Events config;
+    private final ScheduledExecutorService fanOut;
+    private final Map<String, List<Subscriber>> byKey = new ConcurrentHashMap<>();
+    private final List<Subscriber> allPayments = new CopyOnWriteArrayList<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter dropped;
+    
+    public PaymentStatusStream(PaymentRequestRepository repository, PaymentProperties paymentProperties,
+                               MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.config = paymentProperties.getEvents();
+        this.fanOut = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long heartbeat = config.getHeartbeatSeconds();
+        fanOut.scheduleWithFixedDelay(this::heartbeat, heartbeat, heartbeat, TimeUnit.SECONDS);
+        
+        Gauge.builder("payment.events.subscribers", subscribers, AtomicInteger::get)
+            .description("Open payment status SSE subscribers")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("payment.events.dropped")
+            .description("Payment status events dropped because the fan-out queue was full")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Subscribes to the transitions of one payment.
+     * The current state is sent right away when it is newer than lastVersion.
+     * The stream completes after the payment reached a terminal state.
+     * 
+     * @param idempotencyKey the payment's idempotency key (the payment may not exist yet)
+     * @param clientId the authenticated API client (only its own payment's events are sent)
+     * @param lastVersion the last version the client saw (Last-Event-ID), -1 if none
+     * @return the emitter to return from the controller
+     * @throws PaymentNotFoundException if the payment belongs to another client
+     * @throws IllegalStateException if the subscriber limit is reached
+     */
+    public SseEmitter subscribe(String idempotencyKey, String clientId, long lastVersion) {
+        Subscriber subscriber = register(idempotencyKey, clientId, lastVersion);
+        
+        // Registered first, then read: a transition committed in between is delivered by the
+        // listener or by this snapshot, and the version check drops whichever comes second
+        // (a client resuming at an already completed version just gets the stream closed)
+        Optional<PaymentRequest> record = repository.findByIdempotencyKey(idempotencyKey);
+        if (record.isPresent() && !PaymentService.isOwnedBy(record.get(), clientId)) {
+            unregister(subscriber);
+            throw new PaymentNotFoundException("Payment not found", idempotencyKey);
+        }
+        record.filter(found -> found.getResponseBody() != null)
+            .map(PaymentStatusChangedEvent::of)
+            .ifPresent(snapshot -> enqueue(() -> deliver(subscriber, snapshot)));
+        return subscriber.emitter;
+    }
+    
+    /**
+     * Subscribes to the transitions of every payment of one API client (no snapshot, no resume).
+     * 
+     * @param clientId the authenticated API client
+     * @return the emitter to return from the controller
+     * @throws IllegalStateException if the subscriber limit is reached
+     */
+    public SseEmitter subscribeAll(String clientId) {
+        return register(null, clientId, -1).emitter;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(PaymentStatusChangedEvent event) {
+        if (subscribers.get() == 0) {
+            return;
+        }
+        enqueue(() -> {
+            // A key subscribed to before the payment existed may be used by another client
+            List<Subscriber> forKey = byKey.get(event.idempotencyKey());
+            if (forKey != null) {
+                for (Subscriber subscriber : forKey) {
+                    if (Objects.equals(subscriber.clientId, event.clientId())) {
+                        deliver(subscriber, event);
+                    }
+                }
+            }
+            for (Subscriber subscriber : allPayments) {
+                if (subscriber.clientId != null && subscriber.clientId.equals(event.clientId())) {
+                    deliver(subscriber, event);
+                }
+            }
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdownNow();
+        byKey.values().forEach(list -> list.forEach(subscriber -> subscriber.emitter.complete()));
+        allPayments.forEach(subscriber -> subscriber.emitter.complete());
+    }
+    
+    private Subscriber register(String idempotencyKey, String clientId, long lastVersion) {
+        if (subscribers.incrementAndGet() > config.getMaxSubscribers()) {
+            subscribers.decrementAndGet();
+            throw new IllegalStateException("Too many event subscribers, please retry later");
+        }
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(config.getTimeoutMinutes()));
+        Subscriber subscriber = new Subscriber(idempotencyKey, clientId, emitter, lastVersion);
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unregister(subscriber));
+        
+        if (idempotencyKey == null) {
+            allPayments.add(subscriber);
+        } else {
+            byKey.compute(idempotencyKey, (key, list) -> {
+                List<Subscriber> subscribersOfKey = list != null ? list : new CopyOnWriteArrayList<>();
+                subscribersOfKey.add(subscriber);
+                return subscribersOfKey;
+            });
+        }
+        return subscriber;
+    }
+    
+    private void unregister(Subscriber subscriber) {
+        boolean removed;
+        if (subscriber.idempotencyKey == null) {
+            removed = allPayments.remove(subscriber);
+        } else {
+            boolean[] found = new boolean[1];
+            byKey.computeIfPresent(subscriber.idempotencyKey, (key, list) -> {
+                found[0] = list.remove(subscriber);
+                return list.isEmpty() ? null : list;
+            });
+            removed = found[0];
+        }
+        if (removed) {
+            subscribers.decrementAndGet();
+        }
+    }
+    
+    private void enqueue(Runnable task) {
+        if (queued.incrementAndGet() > config.getQueueCapacity()) {
+            queued.decrementAndGet();
+            dropped.increment();
+            log.warn("Payment events queue full, dropping event");
+            return;
+        }
+        try {
+            fanOut.execute(() -> {
+                queued.decrementAndGet();
+                task.run();
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();  // Shutting down
+        }
+    }
+    
+    /**
+     * Sends an event to one subscriber (fan-out thread only).
+     */
+    private void deliver(Subscriber subscriber, PaymentStatusChangedEvent event) {
+        boolean perPayment = subscriber.idempotencyKey != null;
+        if (perPayment && event.version() <= subscriber.lastVersion) {
+            // Already seen (snapshot/listener race or resumed client)
+            if (event.terminal()) {
+                subscriber.emitter.complete();
+            }
+            return;
+        }
+        String id = perPayment ? Long.toString(event.version()) : event.idempotencyKey() + ":" + event.version();
+        if (!send(subscriber, SseEmitter.event().id(id).name(EVENT_NAME).data(event.responseBody(), MediaType.APPLICATION_JSON))) {
+            return;
+        }
+        subscriber.lastVersion = event.version();
+        if (perPayment && event.terminal()) {
+            subscriber.emitter.complete();
+        }
+    }
+    
+    private void heartbeat() {
+        try {
+            sendHeartbeats();
+        } catch (RuntimeException e) {
+            // Never let the scheduled heartbeat die
+            log.warn("Payment events heartbeat failed", e);
+        }
+    }
+    
+    private void sendHeartbeats() {
+        for (List<Subscriber> list : byKey.values()) {
+            for (Subscriber subscriber : list) {
+                send(subscriber, SseEmitter.event().comment("heartbeat"));
+            }
+        }
+        for (Subscriber subscriber : allPayments) {
+            send(subscriber, SseEmitter.event().comment("heartbeat"));
+        }
+    }
+    
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client gone or emitter already completed
+            log.debug("Dropping event subscriber: {}", e.getMessage());
+            subscriber.emitter.complete();
+            unregister(subscriber);
+            return false;
+        }
+    }
+    
+    private static final class Subscriber {
+        private final String idempotencyKey;
+        private final SseEmitter emitter;
+        private final String clientId;  // "All payments" subscribers only
+        private long lastVersion;  // Fan-out thread only
+        
+        private Subscriber(String idempotencyKey, String clientId, SseEmitter emitter, long lastVersion) {
+            this.idempotencyKey = idempotencyKey;
+            this.clientId = clientId;
+            this.emitter = emitter;
+            this.lastVersion = lastVersion;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.tymex.payment.service.metrics;
+
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.enums.PaymentStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage latency and outcome counts of the payment pipeline, tagged by provider.
+ *
+ * Every meter is registered up front (one per provider and tag value), so recording is an array
+ * or EnumMap read plus the meter update - no tag lookup or allocation on the request path.
+ * Stages are timed with System.nanoTime() by the caller and passed in as a start time.
+ *
+ * Metrics:
+ * - payment.stage{stage, provider, outcome=ok|error}: time spent in each stage
+ *   - claim: inserting the PROCESSING record, including existing-record handling (409s are errors)
+ *     (a batch records its one claim round trip for each key it claimed)
+ *   - existing_record: handling a key that already exists (replay, retry of FAILED, in progress)
+ *   - provider_attempt: one provider call, so a retried payment records several
+ *   - retry_backoff: one backoff sleep (or scheduled delay) between provider attempts
+ *   - finalize: storing the provider answer or failure
+ *   - webhook_parse: provider-specific parsing and verification of a webhook payload
+ *   - webhook_apply: applying a parsed webhook (lane or batch wait included)
+ * - payment.cache.hits{provider}: submissions answered from a COMPLETED record
+ * - payment.requests.in_progress{provider}: submissions answered 409 REQUEST_IN_PROGRESS
+ * - payment.lock.conflicts{provider, operation=claim|webhook}: optimistic-lock conflicts that
+ *   exhausted the claim retries (read-only fallback) or failed a webhook apply
+ * - payment.outcomes{provider, outcome}: final outcome of each provider call sequence
+ *
+ * Histogram buckets for payment.stage are configured under management.metrics.distribution.
+ */
+@Component
+public class PaymentMetrics {
+
+    /**
+     * Timed pipeline stage; also the stage tag.
+     */
+    public enum Stage {
+        CLAIM("claim"),
+        EXISTING_RECORD("existing_record"),
+        PROVIDER_ATTEMPT("provider_attempt"),
+        RETRY_BACKOFF("retry_backoff"),
+        FINALIZE("finalize"),
+        WEBHOOK_PARSE("webhook_parse"),
+        WEBHOOK_APPLY("webhook_apply");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    /**
+     * Final outcome of a payment's provider calls; also the outcome tag.
+     */
+    public enum Outcome {
+        COMPLETED("completed"),
+        PENDING("pending"),
+        FAILED("failed"),
+        DEADLINE_EXCEEDED("deadline_exceeded");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        /**
+         * @return the outcome of a provider answer with the given status
+         */
+        public static Outcome of(PaymentStatus status) {
+            return switch (status) {
+                case COMPLETED -> COMPLETED;
+                case PENDING -> PENDING;
+                case FAILED -> FAILED;
+            };
+        }
+    }
+
+    /**
+     * Which operation hit an optimistic-lock conflict; also the operation tag.
+     */
+    public enum LockOperation {
+        CLAIM("claim"),
+        WEBHOOK("webhook");
+
+        private final String tag;
+
+        LockOperation(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    // [provider][stage][0 = ok, 1 = error]
+    private final Timer[][][] stageTimers;
+    private final Map<PaymentProvider, Counter> cacheHits = new EnumMap<>(PaymentProvider.class);
+    private final Map<PaymentProvider, Counter> inProgress = new EnumMap<>(PaymentProvider.class);
+    private final Map<PaymentProvider, Counter[]> lockConflicts = new EnumMap<>(PaymentProvider.class);
+    private final Map<PaymentProvider, Counter[]> outcomes = new EnumMap<>(PaymentProvider.class);
+
+    public PaymentMetrics(MeterRegistry meterRegistry) {
+        PaymentProvider[] providers = PaymentProvider.values();
+        Stage[] stages = Stage.values();
+        this.stageTimers = new Timer[providers.length][stages.length][2];
+
+        for (PaymentProvider provider : providers) {
+            String name = provider.getName();
+            for (Stage stage : stages) {
+                Timer[] timers = stageTimers[provider.ordinal()][stage.ordinal()];
+                timers[0] = stageTimer(meterRegistry, stage, name, "ok");
+                timers[1] = stageTimer(meterRegistry, stage, name, "error");
+            }
+
+            cacheHits.put(provider, meterRegistry.counter("payment.cache.hits", "provider", name));
+            inProgress.put(provider, meterRegistry.counter("payment.requests.in_progress", "provider", name));
+
+            Counter[] conflicts = new Counter[LockOperation.values().length];
+            for (LockOperation operation : LockOperation.values()) {
+                conflicts[operation.ordinal()] = meterRegistry.counter("payment.lock.conflicts",
+                    "provider", name, "operation", operation.getTag());
+            }
+            lockConflicts.put(provider, conflicts);
+
+            Counter[] byOutcome = new Counter[Outcome.values().length];
+            for (Outcome outcome : Outcome.values()) {
+                byOutcome[outcome.ordinal()] = meterRegistry.counter("payment.outcomes",
+                    "provider", name, "outcome", outcome.getTag());
+            }
+            outcomes.put(provider, byOutcome);
+        }
+    }
+
+    /**
+     * Records a stage that started at startNanos (System.nanoTime()) and ends now.
+     *
+     * @param stage the stage
+     * @param provider the provider (null is ignored, e.g. a request that failed validation)
+     * @param startNanos System.nanoTime() at the start of the stage
+     * @param success false if the stage ended with an exception or a rejection
+     */
+    public void recordStage(Stage stage, PaymentProvider provider, long startNanos, boolean success) {
+        recordStageNanos(stage, provider, System.nanoTime() - startNanos, success);
+    }
+
+    /**
+     * Records a stage whose duration was measured by the caller.
+     */
+    public void recordStageNanos(Stage stage, PaymentProvider provider, long durationNanos, boolean success) {
+        if (provider != null) {
+            stageTimers[provider.ordinal()][stage.ordinal()][success ? 0 : 1]
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordCacheHit(PaymentProvider provider) {
+        if (provider != null) {
+            cacheHits.get(provider).increment();
+        }
+    }
+
+    public void recordInProgress(PaymentProvider provider) {
+        if (provider != null) {
+            inProgress.get(provider).increment();
+        }
+    }
+
+    public void recordLockConflict(PaymentProvider provider, LockOperation operation) {
+        if (provider != null) {
+            lockConflicts.get(provider)[operation.ordinal()].increment();
+        }
+    }
+
+    public void recordOutcome(PaymentProvider provider, Outcome outcome) {
+        if (provider != null) {
+            outcomes.get(provider)[outcome.ordinal()].increment();
+        }
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, Stage stage, String provider, String outcome) {
+        return Timer.builder("payment.stage")
+            .description("Time spent in each payment pipeline stage")
+            .tag("stage", stage.getTag())
+            .tag("provider", provider)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
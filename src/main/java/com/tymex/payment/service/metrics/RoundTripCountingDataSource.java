@@ -0,0 +1,94 @@
+package com.tymex.payment.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * DataSource that counts database round trips made through its connections, for load tests
+ * (payment.debug.db-round-trips). Counted: statement executions (execute*, executeBatch counts
+ * once), commits and rollbacks. Everything else is passed straight through.
+ *
+ * Metrics:
+ * - payment.db.round_trips{kind=statement|commit|rollback}
+ *
+ * Unwrapping (DelegatingDataSource / Wrapper) still reaches the pool, so pool metrics keep working.
+ */
+public class RoundTripCountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+        "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final Counter statements;
+    private final Counter commits;
+    private final Counter rollbacks;
+
+    public RoundTripCountingDataSource(DataSource target, MeterRegistry meterRegistry) {
+        super(target);
+        this.statements = meterRegistry.counter("payment.db.round_trips", "kind", "statement");
+        this.commits = meterRegistry.counter("payment.db.round_trips", "kind", "commit");
+        this.rollbacks = meterRegistry.counter("payment.db.round_trips", "kind", "rollback");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countingConnection(super.getConnection(username, password));
+    }
+
+    private Connection countingConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "commit" -> commits.increment();
+                    case "rollback" -> rollbacks.increment();
+                    default -> { }
+                }
+                Object result = invoke(connection, method, args);
+                if (result instanceof CallableStatement statement) {
+                    return countingStatement(statement, CallableStatement.class);
+                }
+                if (result instanceof PreparedStatement statement) {
+                    return countingStatement(statement, PreparedStatement.class);
+                }
+                if (result instanceof Statement statement) {
+                    return countingStatement(statement, Statement.class);
+                }
+                return result;
+            });
+    }
+
+    private <S extends Statement> S countingStatement(S statement, Class<S> type) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (EXECUTE_METHODS.contains(method.getName())) {
+                statements.increment();
+            }
+            return invoke(statement, method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
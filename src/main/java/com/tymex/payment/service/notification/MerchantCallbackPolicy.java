@@ -0,0 +1,163 @@
+package com.tymex.payment.service.notification;
+
+import com.tymex.payment.config.PaymentProperties;
+import org.apache.commons.codec.binary.Hex;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Decides where merchant notifications may be sent and signs what is sent there.
+ *
+ * Callback URLs are a server-side request on the merchant's behalf, so they are constrained to:
+ * - Hosts registered for the owning API client (payment.notifications.clients.<client>.allowed-hosts,
+ *   exact host names); checked when a payment is submitted and again before each delivery
+ * - Public addresses: every address the host resolves to must be outside loopback, link-local,
+ *   private/unique-local, shared (100.64/10), multicast and reserved ranges, unless
+ *   allow-private-addresses is set (local stubs only)
+ *
+ * Each request body is signed with the client's signing-secret: HMAC (signature-algorithm) of the
+ * raw body, hex-encoded in signature-header, as the providers sign their webhooks to us.
+ *
+ * The HttpClient resolves the host again when it connects; registered hosts are the primary
+ * control and the resolution check keeps a registered name from pointing inside the network.
+ */
+@Component
+public class MerchantCallbackPolicy {
+
+    private final PaymentProperties.Notifications config;
+    private final Map<String, Set<String>> allowedHosts = new HashMap<>();
+    private final Map<String, SecretKeySpec> signingKeys = new HashMap<>();
+
+    public MerchantCallbackPolicy(PaymentProperties paymentProperties) {
+        this.config = paymentProperties.getNotifications();
+        for (Map.Entry<String, PaymentProperties.CallbackClient> entry : config.getClients().entrySet()) {
+            PaymentProperties.CallbackClient client = entry.getValue();
+            if (client.getSigningSecret() == null || client.getSigningSecret().isBlank()) {
+                throw new IllegalStateException(
+                    "payment.notifications.clients." + entry.getKey() + ".signing-secret is required");
+            }
+            allowedHosts.put(entry.getKey(), client.getAllowedHosts().stream()
+                .map(host -> host.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet()));
+            signingKeys.put(entry.getKey(), new SecretKeySpec(
+                client.getSigningSecret().getBytes(StandardCharsets.UTF_8), config.getSignatureAlgorithm()));
+        }
+        if (!signingKeys.isEmpty()) {
+            newMac(signingKeys.values().iterator().next());  // Fail fast on an unknown algorithm
+        }
+    }
+
+    /**
+     * Validates a submitted callback URL against the client's registered hosts.
+     *
+     * @param clientId the API client submitting the payment
+     * @param callbackUrl the requested callback URL (null or blank = no callback)
+     * @throws IllegalArgumentException if the URL's host is not registered for the client
+     */
+    public void checkRegistered(String clientId, String callbackUrl) {
+        if (callbackUrl == null || callbackUrl.isBlank()) {
+            return;
+        }
+        if (!isRegistered(clientId, callbackUrl)) {
+            throw new IllegalArgumentException("Callback URL host is not registered for this API client");
+        }
+    }
+
+    /**
+     * @return true if the URL is http(s) and its host is registered for the client
+     */
+    public boolean isRegistered(String clientId, String callbackUrl) {
+        Set<String> hosts = clientId != null ? allowedHosts.get(clientId) : null;
+        if (hosts == null || callbackUrl == null) {
+            return false;
+        }
+        try {
+            URI uri = URI.create(callbackUrl);
+            String scheme = uri.getScheme();
+            return ("https".equalsIgnoreCase(scheme) || "http".equalsIgnoreCase(scheme))
+                && uri.getHost() != null
+                && hosts.contains(uri.getHost().toLowerCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks a destination right before delivery: still registered for the client, and
+     * resolving to public addresses only.
+     *
+     * @throws IllegalStateException if the destination is refused
+     * @throws UnknownHostException if the host does not resolve
+     */
+    public void checkDestination(String clientId, URI destination) throws UnknownHostException {
+        if (!isRegistered(clientId, destination.toString())) {
+            throw new IllegalStateException("Callback host " + destination.getHost()
+                + " is not registered for client " + clientId);
+        }
+        if (Boolean.TRUE.equals(config.getAllowPrivateAddresses())) {
+            return;
+        }
+        for (InetAddress address : InetAddress.getAllByName(destination.getHost())) {
+            if (!isPublic(address)) {
+                throw new IllegalStateException("Callback host " + destination.getHost()
+                    + " resolves to non-public address " + address.getHostAddress());
+            }
+        }
+    }
+
+    /**
+     * @return hex HMAC of the body under the client's signing secret
+     * @throws IllegalStateException if the client has no signing secret
+     */
+    public String sign(String clientId, byte[] body) {
+        SecretKeySpec key = clientId != null ? signingKeys.get(clientId) : null;
+        if (key == null) {
+            throw new IllegalStateException("No signing secret for client " + clientId);
+        }
+        return Hex.encodeHexString(newMac(key).doFinal(body));
+    }
+
+    public String getSignatureHeader() {
+        return config.getSignatureHeader();
+    }
+
+    static boolean isPublic(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isAnyLocalAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        int first = bytes[0] & 0xff;
+        if (address instanceof Inet4Address) {
+            int second = bytes[1] & 0xff;
+            return first != 0                                   // 0.0.0.0/8 "this network"
+                && !(first == 100 && (second & 0xc0) == 64)     // 100.64.0.0/10 shared (carrier NAT)
+                && !(first == 198 && (second & 0xfe) == 18)     // 198.18.0.0/15 benchmarking
+                && first < 240;                                 // 240.0.0.0/4 reserved, broadcast
+        }
+        return (first & 0xfe) != 0xfc;                          // fc00::/7 unique local
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(key.getAlgorithm());
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + key.getAlgorithm() + " notification signer", e);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.tymex.payment.service.notification;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.entity.MerchantNotification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers merchant notifications from the outbox to payment callback URLs.
+ * Only runs when payment.notifications.enabled is true.
+ * 
+ * A single poll thread claims outbox rows and groups them by client and callback URL; each group
+ * is POSTed as a JSON array of up to max-batch-size notifications on the delivery pool:
+ * - One shared HttpClient, so connections to each merchant are kept alive and reused
+ * - At most max-concurrency-per-destination requests in flight per merchant host; rows for a
+ *   saturated host are handed back to the outbox instead of queueing behind a slow merchant
+ * - A 2xx answer acknowledges every notification in the request; anything else (including
+ *   timeouts) counts a failed attempt and the notification is retried with exponential backoff
+ * - Before each request MerchantCallbackPolicy re-checks the destination (registered host, public
+ *   addresses only; a refused destination counts a failed attempt) and the body is signed with
+ *   the client's secret in the signature header
+ * 
+ * Delivery is at-least-once: merchants should de-duplicate on (idempotencyKey, version).
+ * 
+ * Metrics:
+ * - payment.notification.depth: notifications not yet delivered
+ * - payment.notification.lag: age of the oldest undelivered notification (seconds)
+ * - payment.notification.delivery.latency: time from status change to delivery
+ * - payment.notification.delivered / failed / dead: outcomes per notification (dead = retries exhausted)
+ */
+@Component
+public class MerchantNotificationDispatcher implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(MerchantNotificationDispatcher.class);
+    
+    private final MerchantNotificationOutbox outbox;
+    private final MerchantCallbackPolicy callbackPolicy;
+    private final PaymentProperties.Notifications config;
+    private final HttpClient httpClient;
+    private final Map<String, Semaphore> destinationPermits = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Timer latency;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter dead;
+    
+    private ExecutorService deliveryPool;
+    private Thread poller;
+    private volatile boolean running;
+    
+    public MerchantNotificationDispatcher(MerchantNotificationOutbox outbox,
+                                          MerchantCallbackPolicy callbackPolicy,
+                                          PaymentProperties paymentProperties,
+                                          MeterRegistry meterRegistry) {
+        this.outbox = outbox;
+        this.callbackPolicy = callbackPolicy;
+        this.config = paymentProperties.getNotifications();
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(config.getRequestTimeoutMs()))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+        this.latency = Timer.builder("payment.notification.delivery.latency")
+            .description("Time from payment status change to merchant notification delivery")
+            .register(meterRegistry);
+        this.delivered = meterRegistry.counter("payment.notification.delivered");
+        this.failed = meterRegistry.counter("payment.notification.failed");
+        this.dead = meterRegistry.counter("payment.notification.dead");
+        
+        if (Boolean.TRUE.equals(config.getEnabled())) {
+            Gauge.builder("payment.notification.depth", outbox, MerchantNotificationOutbox::depth)
+                .description("Merchant notifications not yet delivered")
+                .register(meterRegistry);
+            Gauge.builder("payment.notification.lag", outbox, o -> o.lag().toMillis() / 1000.0)
+                .description("Age of the oldest undelivered merchant notification")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        }
+    }
+    
+    @Override
+    public synchronized void start() {
+        if (!Boolean.TRUE.equals(config.getEnabled()) || running) {
+            return;
+        }
+        running = true;
+        AtomicInteger threadCount = new AtomicInteger();
+        deliveryPool = Executors.newFixedThreadPool(config.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "merchant-notify-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller = new Thread(this::pollLoop, "merchant-notify-poller");
+        poller.setDaemon(true);
+        poller.start();
+        log.info("Merchant notification dispatcher started: workers={}", config.getWorkers());
+    }
+    
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        poller.interrupt();
+        deliveryPool.shutdown();
+        try {
+            poller.join(5000);
+            deliveryPool.awaitTermination(config.getRequestTimeoutMs() + 1000L, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything still DELIVERING is reclaimed after stale-claim-seconds
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    private void pollLoop() {
+        while (running) {
+            try {
+                // Claim only what the delivery pool can start now - the rest stays claimable by other instances
+                int capacity = (config.getWorkers() - inFlight.get()) * config.getMaxBatchSize();
+                List<MerchantNotification> notifications = capacity > 0
+                    ? outbox.claim(Math.min(capacity, config.getBatchSize()))
+                    : List.of();
+                if (notifications.isEmpty()) {
+                    Thread.sleep(config.getPollIntervalMs());
+                    continue;
+                }
+                dispatch(notifications);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Claim failed (e.g. DB unavailable) - back off and try again
+                log.warn("Merchant notification claim failed: {}", e.getMessage());
+                try {
+                    Thread.sleep(config.getPollIntervalMs());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    private void dispatch(List<MerchantNotification> notifications) {
+        // One request is signed for one client, so a URL shared by two clients gets two requests
+        Map<Route, List<MerchantNotification>> byRoute = new LinkedHashMap<>();
+        for (MerchantNotification notification : notifications) {
+            byRoute.computeIfAbsent(new Route(notification.getClientId(), notification.getDestination()),
+                    route -> new ArrayList<>())
+                .add(notification);
+        }
+        
+        for (Map.Entry<Route, List<MerchantNotification>> entry : byRoute.entrySet()) {
+            List<MerchantNotification> group = entry.getValue();
+            for (int from = 0; from < group.size(); from += config.getMaxBatchSize()) {
+                List<MerchantNotification> batch = group.subList(from, Math.min(from + config.getMaxBatchSize(), group.size()));
+                Semaphore permits = destinationPermits.computeIfAbsent(hostOf(entry.getKey().destination()),
+                    host -> new Semaphore(config.getMaxConcurrencyPerDestination()));
+                if (!permits.tryAcquire()) {
+                    // Merchant already at its concurrency cap - retry on a later poll, no attempt counted
+                    outbox.release(ids(batch), Duration.ofMillis(config.getPollIntervalMs()));
+                    continue;
+                }
+                inFlight.incrementAndGet();
+                try {
+                    deliveryPool.execute(() -> {
+                        try {
+                            deliver(entry.getKey(), batch);
+                        } finally {
+                            permits.release();
+                            inFlight.decrementAndGet();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    permits.release();
+                    inFlight.decrementAndGet();
+                    outbox.release(ids(batch), Duration.ZERO);
+                }
+            }
+        }
+    }
+    
+    private void deliver(Route route, List<MerchantNotification> batch) {
+        String destination = route.destination();
+        String error;
+        try {
+            URI uri = URI.create(destination);
+            callbackPolicy.checkDestination(route.clientId(), uri);
+            byte[] body = toJsonArray(batch).getBytes(StandardCharsets.UTF_8);
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(config.getRequestTimeoutMs()))
+                .header("Content-Type", "application/json")
+                .header(callbackPolicy.getSignatureHeader(), callbackPolicy.sign(route.clientId(), body))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            int status = response.statusCode();
+            if (status >= 200 && status < 300) {
+                outbox.markDelivered(ids(batch));
+                LocalDateTime now = LocalDateTime.now();
+                for (MerchantNotification notification : batch) {
+                    latency.record(Duration.between(notification.getCreatedAt(), now));
+                }
+                delivered.increment(batch.size());
+                return;
+            }
+            error = "HTTP " + status;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "interrupted";
+        } catch (Exception e) {
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        
+        for (MerchantNotification notification : batch) {
+            try {
+                if (outbox.markFailed(notification, error)) {
+                    dead.increment();
+                    log.error("Merchant notification {} to {} failed permanently after {} attempts: {}",
+                            notification.getId(), destination, notification.getAttempts() + 1, error);
+                } else {
+                    failed.increment();
+                }
+            } catch (Exception e) {
+                // Left DELIVERING - reclaimed after stale-claim-seconds
+                log.warn("Could not record failed merchant notification {}: {}", notification.getId(), e.getMessage());
+            }
+        }
+        log.warn("Merchant notification delivery to {} failed for {} notifications: {}",
+                destination, batch.size(), error);
+    }
+    
+    private static String toJsonArray(List<MerchantNotification> batch) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(batch.get(i).getPayload());
+        }
+        return json.append(']').toString();
+    }
+    
+    private record Route(String clientId, String destination) {}
+    
+    private static List<Long> ids(List<MerchantNotification> batch) {
+        return batch.stream().map(MerchantNotification::getId).toList();
+    }
+    
+    /**
+     * Concurrency is capped per merchant host rather than per URL, since that is what the
+     * merchant's server (and our kept-alive connections to it) sees.
+     */
+    private static String hostOf(String destination) {
+        try {
+            URI uri = URI.create(destination);
+            return uri.getScheme() + "://" + uri.getAuthority();
+        } catch (IllegalArgumentException e) {
+            return destination;
+        }
+    }
+}
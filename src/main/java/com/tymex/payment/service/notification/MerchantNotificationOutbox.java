@@ -0,0 +1,190 @@
+package com.tymex.payment.service.notification;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.entity.MerchantNotification;
+import com.tymex.payment.entity.PaymentRequest;
+import com.tymex.payment.repository.MerchantNotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Transactional outbox of merchant callback notifications.
+ * 
+ * A notification row is inserted in the same transaction as the payment status change it
+ * announces, so a committed transition always has its notification and a rolled-back one
+ * never does. MerchantNotificationDispatcher claims rows with FOR UPDATE SKIP LOCKED and
+ * delivers them to the payment's callback URL, signed for the client that owns the payment.
+ * 
+ * Notification format (the data field is the stored payment response):
+ * {"type": "payment.status_changed", "idempotencyKey": "...", "version": 2, "status": "completed", "data": {...}}
+ */
+@Service
+public class MerchantNotificationOutbox {
+    
+    private static final Logger log = LoggerFactory.getLogger(MerchantNotificationOutbox.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final String EVENT_TYPE = "payment.status_changed";
+    
+    private final MerchantNotificationRepository repository;
+    private final ObjectMapper objectMapper;
+    private final MerchantCallbackPolicy callbackPolicy;
+    private final PaymentProperties.Notifications config;
+    
+    public MerchantNotificationOutbox(MerchantNotificationRepository repository,
+                                      ObjectMapper objectMapper,
+                                      MerchantCallbackPolicy callbackPolicy,
+                                      PaymentProperties paymentProperties) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.callbackPolicy = callbackPolicy;
+        this.config = paymentProperties.getNotifications();
+    }
+    
+    /**
+     * Adds notifications for payments that just changed state, in the caller's transaction.
+     * Payments without a callback URL are skipped, and so are callback URLs whose host is no
+     * longer registered for the payment's client.
+     * 
+     * @param records the changed payment records (their new state already set)
+     * @param versions the committed version of each record (same order)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(List<PaymentRequest> records, List<Long> versions) {
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return;
+        }
+        List<MerchantNotification> notifications = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            PaymentRequest record = records.get(i);
+            if (record.getCallbackUrl() == null || record.getCallbackUrl().isBlank()) {
+                continue;
+            }
+            if (!callbackPolicy.isRegistered(record.getClientId(), record.getCallbackUrl())) {
+                log.warn("Skipping merchant notification for {}: callback host not registered for client {}",
+                        record.getIdempotencyKey(), record.getClientId());
+                continue;
+            }
+            MerchantNotification notification = new MerchantNotification();
+            notification.setIdempotencyKey(record.getIdempotencyKey());
+            notification.setClientId(record.getClientId());
+            notification.setDestination(record.getCallbackUrl());
+            notification.setPayload(buildPayload(record, versions.get(i)));
+            notifications.add(notification);
+        }
+        if (!notifications.isEmpty()) {
+            repository.saveAll(notifications);
+        }
+    }
+    
+    /**
+     * Same as {@link #enqueue(List, List)} for one record.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(PaymentRequest record, long version) {
+        enqueue(List.of(record), List.of(version));
+    }
+    
+    /**
+     * Claims up to {@code limit} notifications for this dispatcher.
+     * Claimed notifications move to DELIVERING; the row locks are released on commit,
+     * and the DELIVERING status keeps other dispatchers away.
+     * 
+     * @param limit maximum notifications to claim
+     * @return claimed notifications (detached after return), oldest first
+     */
+    @Transactional
+    public List<MerchantNotification> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusSeconds(config.getStaleClaimSeconds());
+        List<MerchantNotification> notifications = repository.lockClaimable(now, staleBefore, limit);
+        for (MerchantNotification notification : notifications) {
+            notification.setStatus(MerchantNotification.Status.DELIVERING);
+            notification.setClaimedAt(now);
+        }
+        return notifications;  // Dirty entities flushed on commit
+    }
+    
+    @Transactional
+    public void markDelivered(Collection<Long> ids) {
+        repository.markDelivered(ids, LocalDateTime.now());
+    }
+    
+    /**
+     * Hands claimed notifications back for the next poll without counting an attempt.
+     */
+    @Transactional
+    public void release(Collection<Long> ids, Duration delay) {
+        repository.release(ids, LocalDateTime.now().plus(delay));
+    }
+    
+    /**
+     * Records a failed delivery attempt. The notification is retried with exponential backoff
+     * (retry-base-delay-ms * 2^(attempt-1), capped at retry-max-delay-ms) until
+     * payment.notifications.max-attempts, then parked as DEAD.
+     * 
+     * @return true if the notification was parked as DEAD (no more retries)
+     */
+    @Transactional
+    public boolean markFailed(MerchantNotification notification, String error) {
+        int attempts = notification.getAttempts() + 1;
+        boolean exhausted = attempts >= config.getMaxAttempts();
+        MerchantNotification.Status status = exhausted
+            ? MerchantNotification.Status.DEAD
+            : MerchantNotification.Status.PENDING;
+        LocalDateTime availableAt = LocalDateTime.now().plus(retryDelay(attempts));
+        String message = String.valueOf(error);
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+        repository.markAttemptFailed(notification.getId(), status, attempts, availableAt, message);
+        return exhausted;
+    }
+    
+    /**
+     * @return number of notifications not yet delivered (PENDING or DELIVERING)
+     */
+    public long depth() {
+        return repository.countByStatusIn(
+            List.of(MerchantNotification.Status.PENDING, MerchantNotification.Status.DELIVERING));
+    }
+    
+    /**
+     * @return age of the oldest undelivered notification, zero if the outbox is drained
+     */
+    public Duration lag() {
+        LocalDateTime oldest = repository.findOldestUndeliveredCreatedAt();
+        return oldest == null ? Duration.ZERO : Duration.between(oldest, LocalDateTime.now());
+    }
+    
+    private Duration retryDelay(int attempts) {
+        long delayMs = (long) config.getRetryBaseDelayMs() << Math.min(attempts - 1, 30);
+        return Duration.ofMillis(Math.min(delayMs, config.getRetryMaxDelayMs()));
+    }
+    
+    private String buildPayload(PaymentRequest record, long version) {
+        ObjectNode notification = objectMapper.createObjectNode()
+            .put("type", EVENT_TYPE)
+            .put("idempotencyKey", record.getIdempotencyKey())
+            .put("version", version)
+            .put("status", record.getPaymentStatus());
+        // The stored response is already JSON - embed it as-is
+        notification.putRawValue("data", new RawValue(record.getResponseBody()));
+        try {
+            return objectMapper.writeValueAsString(notification);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize merchant notification", e);
+        }
+    }
+}
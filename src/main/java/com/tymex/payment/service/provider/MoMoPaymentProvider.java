@@ -1,23 +1,38 @@
 package com.tymex.payment.service.provider;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tymex.payment.config.PaymentProperties;
 import com.tymex.payment.dto.PaymentRequestDTO;
 import com.tymex.payment.dto.PaymentResponseDTO;
+import com.tymex.payment.dto.WebhookPayload;
 import com.tymex.payment.dto.WebhookResult;
 import com.tymex.payment.enums.PaymentProvider;
 import com.tymex.payment.enums.PaymentStatus;
 import com.tymex.payment.exception.PaymentException;
+import com.tymex.payment.service.provider.codec.MoMoCodec;
+import com.tymex.payment.service.provider.codec.MoMoPaymentCreated;
+import com.tymex.payment.service.provider.codec.MoMoWebhookEvent;
 import com.tymex.payment.service.provider.contract.PaymentProviderStrategy;
 import com.tymex.payment.service.provider.contract.WebhookCapablePaymentProviderStrategy;
+import com.tymex.payment.service.provider.http.ProviderHttpClient;
+import com.tymex.payment.service.provider.signature.WebhookSignatureVerifier;
+import com.tymex.payment.service.provider.simulation.ProviderSimulator;
+import com.tymex.payment.util.Deadline;
+import com.tymex.payment.util.PaymentReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * MoMo payment provider implementation (Asynchronous).
@@ -29,29 +44,88 @@ import java.util.UUID;
 public class MoMoPaymentProvider implements PaymentProviderStrategy, WebhookCapablePaymentProviderStrategy {
     
     private static final Logger log = LoggerFactory.getLogger(MoMoPaymentProvider.class);
+    private static final String PAYMENTS_PATH = "/v1/payments";
+    
     private final ObjectMapper objectMapper;
+    private final ProviderHttpClient providerHttpClient;
+    private final MoMoCodec momoCodec;
+    private final ProviderSimulator providerSimulator;
+    private final WebhookSignatureVerifier signatureVerifier;
+    private final boolean selfRoutingReference;
     
-    public MoMoPaymentProvider(ObjectMapper objectMapper) {
+    public MoMoPaymentProvider(ObjectMapper objectMapper, ProviderHttpClient providerHttpClient,
+                               MoMoCodec momoCodec, ProviderSimulator providerSimulator,
+                               PaymentProperties paymentProperties) {
         this.objectMapper = objectMapper;
+        this.providerHttpClient = providerHttpClient;
+        this.momoCodec = momoCodec;
+        this.providerSimulator = providerSimulator;
+        
+        PaymentProperties.Endpoint endpoint = paymentProperties.getProviders().getMomo();
+        this.selfRoutingReference = Boolean.TRUE.equals(endpoint.getSelfRoutingReference());
+        PaymentProperties.WebhookSignature signature = endpoint.getWebhookSignature();
+        this.signatureVerifier = new WebhookSignatureVerifier(
+            signature.getAlgorithm(), signature.getHeader(), signature.getSecrets());
+        if (!signatureVerifier.isEnabled()) {
+            log.warn("MoMo webhook signature verification is disabled (no secrets configured)");
+        }
+    }
+    
+    @Override
+    public PaymentResponseDTO process(PaymentRequestDTO request, String idempotencyKey, Deadline deadline) {
+        return process(request, idempotencyKey, null, deadline);
     }
     
     @Override
-    public PaymentResponseDTO process(PaymentRequestDTO request, String idempotencyKey) {
+    public PaymentResponseDTO process(PaymentRequestDTO request, String idempotencyKey, Long paymentId,
+                                      Deadline deadline) {
         log.info("Handling external provider MOMO: amount={}, method={}, idempotencyKey={}", 
                  request.amount(), request.paymentMethod(), idempotencyKey);
         
+        checkAmount(request);
+        
+        // Call MoMo over the shared HTTP client when wired to an endpoint,
+        // otherwise fall back to the in-process simulation (payment.providers.momo.simulation)
+        // Response is decoded in a single streaming pass into provider transaction ID and webhook URL
+        MoMoPaymentCreated providerResponse = providerHttpClient.isConfigured(PaymentProvider.MOMO)
+            ? callProviderApi(request, idempotencyKey, orderId(idempotencyKey, paymentId), deadline)
+            : parseProviderResponse(providerSimulator.call(PaymentProvider.MOMO, deadline,
+                    () -> simulateProviderApiCall(request)));
+        
+        return toResponse(providerResponse, request);
+    }
+    
+    /**
+     * Non-blocking MoMo call for the in-process simulation (its latency is a scheduled completion);
+     * the HTTP call keeps the default, blocking on the given executor.
+     */
+    @Override
+    public CompletableFuture<PaymentResponseDTO> processAsync(PaymentRequestDTO request, String idempotencyKey,
+                                                              Long paymentId, Deadline deadline,
+                                                              Executor blockingExecutor) {
+        if (providerHttpClient.isConfigured(PaymentProvider.MOMO)) {
+            return PaymentProviderStrategy.super.processAsync(request, idempotencyKey, paymentId, deadline,
+                    blockingExecutor);
+        }
+        log.info("Handling external provider MOMO (async): amount={}, method={}, idempotencyKey={}", 
+                 request.amount(), request.paymentMethod(), idempotencyKey);
+        try {
+            checkAmount(request);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return providerSimulator.callAsync(PaymentProvider.MOMO, deadline, () -> simulateProviderApiCall(request))
+            .thenApply(body -> toResponse(parseProviderResponse(body), request));
+    }
+    
+    private static void checkAmount(PaymentRequestDTO request) {
         // Simulate payment processing validation
         if (request.amount().compareTo(new BigDecimal("10000")) > 0) {
             throw new PaymentException("Payment amount exceeds limit");
         }
-        
-        // Simulate calling MoMo API (returns immediately, no delay)
-        // In real implementation: HTTP call to MoMo API
-        String providerJsonResponse = simulateProviderApiCall(request);
-        
-        // Extract provider transaction ID and webhook URL from response
-        ProviderResponse providerResponse = parseProviderResponse(providerJsonResponse);
-        
+    }
+    
+    private PaymentResponseDTO toResponse(MoMoPaymentCreated providerResponse, PaymentRequestDTO request) {
         // Store provider transaction ID and webhook URL for later webhook processing
         // In real implementation: Store in database for webhook lookup
         log.info("MoMo external provider handled: providerTransactionId={}, webhookUrl={}", 
@@ -76,21 +150,47 @@ public class MoMoPaymentProvider implements PaymentProviderStrategy, WebhookCapa
     }
     
     @Override
-    public WebhookResult handleWebhook(String payload, Map<String, String> headers) {
-        // Verify webhook signature (in real implementation)
-        // verifyWebhookSignature(payload, headers);
+    public WebhookResult handleWebhook(WebhookPayload payload, Map<String, String> headers) {
+        // Verify webhook signature over the raw body bytes
+        verifySignature(payload, headers);
         
-        log.info("Parsing MoMo webhook: payload length={}, headers={}", 
-                 payload.length(), headers.keySet());
+        log.info("Parsing MoMo webhook: payload length={}", payload.length());
         
         // Parse webhook payload
-        WebhookEvent webhookEvent = parseWebhookPayload(payload);
+        MoMoWebhookEvent webhookEvent = parseWebhookPayload(payload);
+        
+        log.info("Parsed MoMo webhook for providerTransactionId={}", webhookEvent.transactionId());
+        
+        return toWebhookResult(webhookEvent);
+    }
+    
+    @Override
+    public List<WebhookResult> handleWebhookBatch(WebhookPayload payload, Map<String, String> headers) {
+        verifySignature(payload, headers);
         
+        List<MoMoWebhookEvent> events;
+        try {
+            events = momoCodec.decodeWebhookBatch(payload.buffer(), payload.offset(), payload.length());
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Failed to parse MoMo webhook batch payload: " + e.getMessage(), e);
+        }
+        log.info("Parsed MoMo webhook batch: events={}", events.size());
+        return events.stream().map(this::toWebhookResult).toList();
+    }
+    
+    @Override
+    public void verifySignature(WebhookPayload payload, Map<String, String> headers) {
+        signatureVerifier.verify(payload, headers);
+    }
+    
+    private WebhookResult toWebhookResult(MoMoWebhookEvent webhookEvent) {
         // Extract provider_transaction_id from MoMo webhook payload format
         // MoMo uses "transaction_id" field in their webhook payload
         String providerTransactionId = webhookEvent.transactionId();
         
-        log.info("Parsed MoMo webhook for providerTransactionId={}", providerTransactionId);
+        // MoMo echoes our order_id; a self-routing reference resolves the payment by primary key
+        // (legacy order ids - idempotency keys - decode to null and fall back to providerTransactionId)
+        Long paymentId = PaymentReference.decode(webhookEvent.orderId());
         
         // Convert webhook status to PaymentStatus enum
         PaymentStatus paymentStatus;
@@ -108,13 +208,49 @@ public class MoMoPaymentProvider implements PaymentProviderStrategy, WebhookCapa
             providerTransactionId,  // provider_transaction_id (used to look up payment record)
             webhookEvent.transactionNo(),  // final transaction number (may be null if failed)
             paymentStatus,  // payment status (COMPLETED or FAILED)
-            payload  // original payload for hash validation
+            paymentId  // payment record id from a self-routing order_id (null for legacy references)
         );
     }
     
     /**
-     * Simulates calling MoMo API and returning JSON response.
-     * MoMo returns immediately with provider transaction ID and webhook URL.
+     * The order id sent to MoMo: a self-routing reference to our payment record when enabled
+     * (payment.providers.momo.self-routing-reference) and the record id is known,
+     * otherwise the idempotency key.
+     */
+    private String orderId(String idempotencyKey, Long paymentId) {
+        return selfRoutingReference && paymentId != null ? PaymentReference.encode(paymentId) : idempotencyKey;
+    }
+    
+    /**
+     * Calls the MoMo payments endpoint through the shared pooled HTTP client.
+     * 
+     * Request format: {"order_id": "<order_id>", "amount": ..., "payment_method": "...", "description": "..."}
+     */
+    private MoMoPaymentCreated callProviderApi(PaymentRequestDTO request, String idempotencyKey, String orderId,
+                                               Deadline deadline) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(objectMapper.createObjectNode()
+                .put("order_id", orderId)
+                .put("amount", request.amount())
+                .put("payment_method", request.paymentMethod())
+                .put("description", request.description()));
+        } catch (IOException e) {
+            throw new PaymentException("Failed to build MoMo request: " + e.getMessage(), e);
+        }
+        
+        // Decode straight from the response stream (no intermediate String)
+        try (InputStream response = providerHttpClient.post(
+                PaymentProvider.MOMO, PAYMENTS_PATH, body, idempotencyKey, deadline)) {
+            return momoCodec.decodePaymentCreated(response);
+        } catch (IOException e) {
+            throw new PaymentException("Failed to parse MoMo response: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Simulated MoMo API response; latency and failures come from the ProviderSimulator.
+     * MoMo answers with provider transaction ID and webhook URL (the result follows by webhook).
      * 
      * Response format: {
      *   "transaction_id": "<provider_transaction_id>",
@@ -122,8 +258,7 @@ public class MoMoPaymentProvider implements PaymentProviderStrategy, WebhookCapa
      *   "status": "PENDING"
      * }
      */
-    private String simulateProviderApiCall(PaymentRequestDTO request) {
-        // MoMo returns immediately (no delay for async providers)
+    private byte[] simulateProviderApiCall(PaymentRequestDTO request) {
         String providerTransactionId = "MOMO_" + UUID.randomUUID().toString().replace("-", "").substring(0, 20);
         String webhookUrl = "https://momo-provider.com/webhooks/" + providerTransactionId;
         
@@ -131,18 +266,15 @@ public class MoMoPaymentProvider implements PaymentProviderStrategy, WebhookCapa
         return String.format(
             "{\"transaction_id\":\"%s\",\"webhook_url\":\"%s\",\"status\":\"PENDING\"}",
             providerTransactionId, webhookUrl
-        );
+        ).getBytes(StandardCharsets.UTF_8);
     }
     
     /**
      * Parses MoMo provider response to extract transaction ID and webhook URL.
      */
-    private ProviderResponse parseProviderResponse(String jsonResponse) {
+    private MoMoPaymentCreated parseProviderResponse(byte[] jsonResponse) {
         try {
-            JsonNode jsonNode = objectMapper.readTree(jsonResponse);
-            String transactionId = jsonNode.get("transaction_id").asText();
-            String webhookUrl = jsonNode.get("webhook_url").asText();
-            return new ProviderResponse(transactionId, webhookUrl);
+            return momoCodec.decodePaymentCreated(jsonResponse);
         } catch (Exception e) {
             throw new PaymentException("Failed to parse MoMo response: " + e.getMessage(), e);
         }
@@ -153,33 +285,18 @@ public class MoMoPaymentProvider implements PaymentProviderStrategy, WebhookCapa
      * 
      * Webhook format: {
      *   "transaction_id": "<provider_transaction_id>",
+     *   "order_id": "<order_id we sent>",
      *   "transaction_no": "<final_transaction_no>",
      *   "status": "SUCCEED" (or "FAILED"),
      *   ...
      * }
      */
-    private WebhookEvent parseWebhookPayload(String payload) {
+    private MoMoWebhookEvent parseWebhookPayload(WebhookPayload payload) {
         try {
-            JsonNode jsonNode = objectMapper.readTree(payload);
-            String transactionId = jsonNode.get("transaction_id").asText();
-            String transactionNo = jsonNode.has("transaction_no") 
-                ? jsonNode.get("transaction_no").asText() 
-                : null;
-            String status = jsonNode.get("status").asText();
-            return new WebhookEvent(transactionId, transactionNo, status);
+            return momoCodec.decodeWebhook(payload.buffer(), payload.offset(), payload.length());
         } catch (Exception e) {
             throw new IllegalArgumentException("Failed to parse MoMo webhook payload: " + e.getMessage(), e);
         }
     }
-    
-    /**
-     * Record for provider response data.
-     */
-    private record ProviderResponse(String transactionId, String webhookUrl) {}
-    
-    /**
-     * Record for webhook event data.
-     */
-    private record WebhookEvent(String transactionId, String transactionNo, String status) {}
 }
 
@@ -1,20 +1,29 @@
 package com.tymex.payment.service.provider;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tymex.payment.dto.PaymentRequestDTO;
 import com.tymex.payment.dto.PaymentResponseDTO;
 import com.tymex.payment.enums.PaymentProvider;
 import com.tymex.payment.enums.PaymentStatus;
 import com.tymex.payment.exception.PaymentException;
+import com.tymex.payment.service.provider.codec.StripeCharge;
+import com.tymex.payment.service.provider.codec.StripeResponseCodec;
 import com.tymex.payment.service.provider.contract.PaymentProviderStrategy;
+import com.tymex.payment.service.provider.http.ProviderHttpClient;
+import com.tymex.payment.service.provider.simulation.ProviderSimulator;
+import com.tymex.payment.util.Deadline;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Stripe payment provider implementation (Synchronous).
@@ -24,32 +33,75 @@ import java.util.UUID;
 public class StripePaymentProvider implements PaymentProviderStrategy {
     
     private static final Logger log = LoggerFactory.getLogger(StripePaymentProvider.class);
+    private static final String CHARGES_PATH = "/v1/charges";
+    
     private final ObjectMapper objectMapper;
+    private final ProviderHttpClient providerHttpClient;
+    private final StripeResponseCodec stripeResponseCodec;
+    private final ProviderSimulator providerSimulator;
     
-    public StripePaymentProvider(ObjectMapper objectMapper) {
+    public StripePaymentProvider(ObjectMapper objectMapper, ProviderHttpClient providerHttpClient,
+                                 StripeResponseCodec stripeResponseCodec, ProviderSimulator providerSimulator) {
         this.objectMapper = objectMapper;
+        this.providerHttpClient = providerHttpClient;
+        this.stripeResponseCodec = stripeResponseCodec;
+        this.providerSimulator = providerSimulator;
     }
     
     @Override
-    public PaymentResponseDTO process(PaymentRequestDTO request, String idempotencyKey) {
+    public PaymentResponseDTO process(PaymentRequestDTO request, String idempotencyKey, Deadline deadline) {
         log.info("Processing payment via STRIPE: amount={}, method={}, idempotencyKey={}", 
                  request.amount(), request.paymentMethod(), idempotencyKey);
         
         // Simulate payment processing
+        checkAmount(request);
+        
+        // Call Stripe over the shared HTTP client when wired to an endpoint,
+        // otherwise fall back to the in-process simulation (payment.providers.stripe.simulation)
+        // Response is decoded in a single streaming pass
+        StripeCharge charge = providerHttpClient.isConfigured(PaymentProvider.STRIPE)
+            ? callProviderApi(request, idempotencyKey, deadline)
+            : decodeCharge(providerSimulator.call(PaymentProvider.STRIPE, deadline, () -> simulatedCharge(request)));
+        
+        return toResponse(charge, request);
+    }
+    
+    /**
+     * Non-blocking Stripe call: the HTTP request goes through the client's async API and the
+     * simulated latency is a scheduled completion, so no thread is parked while Stripe "works".
+     */
+    @Override
+    public CompletableFuture<PaymentResponseDTO> processAsync(PaymentRequestDTO request, String idempotencyKey,
+                                                              Long paymentId, Deadline deadline,
+                                                              Executor blockingExecutor) {
+        log.info("Processing payment via STRIPE (async): amount={}, method={}, idempotencyKey={}", 
+                 request.amount(), request.paymentMethod(), idempotencyKey);
+        
+        CompletableFuture<byte[]> charge;
+        try {
+            checkAmount(request);
+            charge = providerHttpClient.isConfigured(PaymentProvider.STRIPE)
+                ? providerHttpClient.postAsync(PaymentProvider.STRIPE, CHARGES_PATH, chargeRequestBody(request),
+                        idempotencyKey, deadline)
+                : providerSimulator.callAsync(PaymentProvider.STRIPE, deadline, () -> simulatedCharge(request));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return charge.thenApply(body -> toResponse(decodeCharge(body), request));
+    }
+    
+    private static void checkAmount(PaymentRequestDTO request) {
         if (request.amount().compareTo(new BigDecimal("10000")) > 0) {
             throw new PaymentException("Payment amount exceeds limit");
         }
-        
-        // Simulate external provider API call and get JSON response
-        // In real implementation: HTTP call to Stripe API returns JSON response
-        // This method includes the 10-second delay to simulate external API call
-        String providerJsonResponse = simulateProviderApiCall(request);
-        
-        // Extract transaction_no from provider's JSON response
-        String transactionNo = extractTransactionNo(providerJsonResponse);
+    }
+    
+    private PaymentResponseDTO toResponse(StripeCharge charge, PaymentRequestDTO request) {
+        // Extract transaction_no from provider's response
+        String transactionNo = extractTransactionNo(charge);
         
         // Determine status from provider response
-        PaymentStatus status = extractStatus(providerJsonResponse);
+        PaymentStatus status = extractStatus(charge);
         
         PaymentResponseDTO response = PaymentResponseDTO.of(
             transactionNo,              // From external provider response
@@ -68,20 +120,40 @@ public class StripePaymentProvider implements PaymentProviderStrategy {
     // Stripe is synchronous and doesn't use webhooks for payment initiation
     
     /**
-     * Simulates calling Stripe API and returning JSON response.
-     * In real implementation, this would make an HTTP call to Stripe API.
+     * Calls the Stripe charges endpoint through the shared pooled HTTP client.
      * 
-     * Response format: {"id": "<uuidv4_str>", "status": "SUCCEED" (or "FAILED"), ...}
+     * Request format: {"amount": ..., "payment_method": "...", "description": "..."}
      */
-    private String simulateProviderApiCall(PaymentRequestDTO request) {
-        // Simulate external API call delay (10 seconds as mentioned in requirements)
+    private StripeCharge callProviderApi(PaymentRequestDTO request, String idempotencyKey, Deadline deadline) {
+        byte[] body = chargeRequestBody(request);
+        
+        // Decode straight from the response stream (no intermediate String)
+        try (InputStream response = providerHttpClient.post(
+                PaymentProvider.STRIPE, CHARGES_PATH, body, idempotencyKey, deadline)) {
+            return stripeResponseCodec.decodeCharge(response);
+        } catch (IOException e) {
+            throw new PaymentException("Failed to parse Stripe response: " + e.getMessage(), e);
+        }
+    }
+    
+    private byte[] chargeRequestBody(PaymentRequestDTO request) {
         try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new PaymentException("Payment processing interrupted");
+            return objectMapper.writeValueAsBytes(objectMapper.createObjectNode()
+                .put("amount", request.amount())
+                .put("payment_method", request.paymentMethod())
+                .put("description", request.description()));
+        } catch (IOException e) {
+            throw new PaymentException("Failed to build Stripe request: " + e.getMessage(), e);
         }
-        
+    }
+    
+    /**
+     * Simulated Stripe API response; latency and failures come from the ProviderSimulator.
+     * In real implementation, this would make an HTTP call to Stripe API.
+     * 
+     * Response format: {"id": "<uuidv4_str>", "status": "SUCCEED" (or "FAILED"), ...}
+     */
+    private static byte[] simulatedCharge(PaymentRequestDTO request) {
         // Generate transaction number in Stripe format
         String transactionNo = "ch_" + UUID.randomUUID().toString().replace("-", "").substring(0, 24);
         
@@ -90,44 +162,36 @@ public class StripePaymentProvider implements PaymentProviderStrategy {
         return String.format(
             "{\"id\":\"%s\",\"status\":\"SUCCEED\",\"amount\":%s}",
             transactionNo, request.amount()
-        );
+        ).getBytes(StandardCharsets.UTF_8);
     }
     
     /**
-     * Extracts transaction_no from Stripe JSON response.
+     * Decodes a Stripe JSON response held in memory.
      */
-    private String extractTransactionNo(String jsonResponse) {
+    private StripeCharge decodeCharge(byte[] jsonResponse) {
         try {
-            JsonNode jsonNode = objectMapper.readTree(jsonResponse);
-            JsonNode idNode = jsonNode.get("id");
-            if (idNode == null || !idNode.isTextual()) {
-                throw new PaymentException("Invalid Stripe response: missing or invalid 'id' field");
-            }
-            return idNode.asText();
-        } catch (Exception e) {
+            return stripeResponseCodec.decodeCharge(jsonResponse);
+        } catch (IOException e) {
             throw new PaymentException("Failed to parse Stripe response: " + e.getMessage(), e);
         }
     }
     
     /**
-     * Extracts payment status from Stripe JSON response.
+     * Extracts transaction_no from the decoded Stripe response.
      */
-    private PaymentStatus extractStatus(String jsonResponse) {
-        try {
-            JsonNode jsonNode = objectMapper.readTree(jsonResponse);
-            JsonNode statusNode = jsonNode.get("status");
-            if (statusNode == null || !statusNode.isTextual()) {
-                return PaymentStatus.FAILED;
-            }
-            
-            String status = statusNode.asText();
-            return "SUCCEED".equalsIgnoreCase(status) 
-                ? PaymentStatus.COMPLETED 
-                : PaymentStatus.FAILED;
-        } catch (Exception e) {
-            log.warn("Failed to extract status from Stripe response, defaulting to FAILED", e);
-            return PaymentStatus.FAILED;
+    private String extractTransactionNo(StripeCharge charge) {
+        if (charge.id() == null) {
+            throw new PaymentException("Invalid Stripe response: missing or invalid 'id' field");
         }
+        return charge.id();
+    }
+    
+    /**
+     * Extracts payment status from the decoded Stripe response.
+     */
+    private PaymentStatus extractStatus(StripeCharge charge) {
+        return "SUCCEED".equalsIgnoreCase(charge.status()) 
+            ? PaymentStatus.COMPLETED 
+            : PaymentStatus.FAILED;
     }
 }
-
@@ -0,0 +1,120 @@
+package com.tymex.payment.service.provider.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes MoMo JSON (create-payment responses and webhook payloads) into typed records
+ * in a single streaming pass. Reads directly from bytes or a response stream - no JsonNode tree.
+ */
+@Component
+public class MoMoCodec {
+
+    private final JsonFactory jsonFactory;
+
+    public MoMoCodec(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public MoMoPaymentCreated decodePaymentCreated(byte[] json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return readPaymentCreated(parser);
+        }
+    }
+
+    public MoMoPaymentCreated decodePaymentCreated(InputStream json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return readPaymentCreated(parser);
+        }
+    }
+
+    public MoMoWebhookEvent decodeWebhook(byte[] json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return readWebhook(parser);
+        }
+    }
+
+    public MoMoWebhookEvent decodeWebhook(byte[] json, int offset, int length) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json, offset, length)) {
+            return readWebhook(parser);
+        }
+    }
+
+    /**
+     * Decodes a JSON array of webhook events in one streaming pass.
+     */
+    public List<MoMoWebhookEvent> decodeWebhookBatch(byte[] json, int offset, int length) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected JSON array of webhook events");
+            }
+            List<MoMoWebhookEvent> events = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                events.add(readWebhookFields(parser));
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new IOException("Expected only JSON objects in webhook event array");
+            }
+            return events;
+        }
+    }
+
+    private MoMoPaymentCreated readPaymentCreated(JsonParser parser) throws IOException {
+        StreamingJsonSupport.expectObject(parser);
+        String transactionId = null;
+        String webhookUrl = null;
+        String status = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "transaction_id" -> transactionId = StreamingJsonSupport.scalarAsText(parser, value);
+                case "webhook_url" -> webhookUrl = StreamingJsonSupport.scalarAsText(parser, value);
+                case "status" -> status = StreamingJsonSupport.scalarAsText(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+        if (transactionId == null || webhookUrl == null) {
+            throw new IOException("missing 'transaction_id' or 'webhook_url' field");
+        }
+        return new MoMoPaymentCreated(transactionId, webhookUrl, status);
+    }
+
+    private MoMoWebhookEvent readWebhook(JsonParser parser) throws IOException {
+        StreamingJsonSupport.expectObject(parser);
+        return readWebhookFields(parser);
+    }
+
+    /**
+     * Reads one webhook object; the parser is positioned on its START_OBJECT.
+     */
+    private MoMoWebhookEvent readWebhookFields(JsonParser parser) throws IOException {
+        String transactionId = null;
+        String orderId = null;
+        String transactionNo = null;
+        String status = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "transaction_id" -> transactionId = StreamingJsonSupport.scalarAsText(parser, value);
+                case "order_id" -> orderId = StreamingJsonSupport.scalarAsText(parser, value);
+                case "transaction_no" -> transactionNo = StreamingJsonSupport.scalarAsText(parser, value);
+                case "status" -> status = StreamingJsonSupport.scalarAsText(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+        if (transactionId == null || status == null) {
+            throw new IOException("missing 'transaction_id' or 'status' field");
+        }
+        return new MoMoWebhookEvent(transactionId, orderId, transactionNo, status);
+    }
+}
@@ -0,0 +1,11 @@
+package com.tymex.payment.service.provider.codec;
+
+/**
+ * Typed view of the MoMo create-payment response.
+ * Response format: {"transaction_id": "...", "webhook_url": "...", "status": "PENDING"}
+ *
+ * @param transactionId the MoMo transaction id (our providerTransactionId)
+ * @param webhookUrl the webhook URL MoMo will call with the final result
+ * @param status the raw MoMo status (may be null)
+ */
+public record MoMoPaymentCreated(String transactionId, String webhookUrl, String status) {}
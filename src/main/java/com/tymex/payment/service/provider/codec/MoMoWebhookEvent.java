@@ -0,0 +1,12 @@
+package com.tymex.payment.service.provider.codec;
+
+/**
+ * Typed view of a MoMo webhook payload.
+ * Webhook format: {"transaction_id": "...", "order_id": "...", "transaction_no": "...", "status": "SUCCEED" (or "FAILED")}
+ *
+ * @param transactionId the MoMo transaction id (our providerTransactionId)
+ * @param orderId the order id we sent when creating the payment (null if absent)
+ * @param transactionNo the final transaction number (null if absent, e.g. failed payments)
+ * @param status the raw MoMo status
+ */
+public record MoMoWebhookEvent(String transactionId, String orderId, String transactionNo, String status) {}
@@ -0,0 +1,60 @@
+package com.tymex.payment.service.provider.codec;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Small helpers shared by the provider codecs for walking a flat JSON object
+ * with a streaming JsonParser (no intermediate JsonNode tree).
+ */
+final class StreamingJsonSupport {
+
+    // Prevent instantiation
+    private StreamingJsonSupport() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Advances the parser onto the root START_OBJECT token.
+     *
+     * @throws JsonParseException if the document is not a JSON object
+     */
+    static void expectObject(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected JSON object");
+        }
+    }
+
+    /**
+     * Reads the current value as text when it is a JSON string, skipping it otherwise.
+     *
+     * @param parser the parser positioned on the value token
+     * @param token the value token
+     * @return the string value, or null if the value is null, a number, an object, etc.
+     */
+    static String textOrNull(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    /**
+     * Reads the current value as text for any scalar (string, number, boolean), skipping objects/arrays.
+     *
+     * @param parser the parser positioned on the value token
+     * @param token the value token
+     * @return the scalar rendered as text, or null for null/object/array values
+     */
+    static String scalarAsText(JsonParser parser, JsonToken token) throws IOException {
+        if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.tymex.payment.service.provider.codec;
+
+/**
+ * Typed view of a Stripe charge response.
+ * Response format: {"id": "ch_...", "status": "SUCCEED" (or "FAILED"), ...}
+ *
+ * @param id the Stripe charge id (our transactionNo), null if missing or not textual
+ * @param status the raw Stripe status, null if missing or not textual
+ */
+public record StripeCharge(String id, String status) {}
@@ -0,0 +1,52 @@
+package com.tymex.payment.service.provider.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes Stripe JSON responses into typed records in a single streaming pass.
+ * Reads directly from bytes or a response stream - no String copy and no JsonNode tree.
+ */
+@Component
+public class StripeResponseCodec {
+
+    private final JsonFactory jsonFactory;
+
+    public StripeResponseCodec(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public StripeCharge decodeCharge(byte[] json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return readCharge(parser);
+        }
+    }
+
+    public StripeCharge decodeCharge(InputStream json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return readCharge(parser);
+        }
+    }
+
+    private StripeCharge readCharge(JsonParser parser) throws IOException {
+        StreamingJsonSupport.expectObject(parser);
+        String id = null;
+        String status = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = StreamingJsonSupport.textOrNull(parser, value);
+                case "status" -> status = StreamingJsonSupport.textOrNull(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+        return new StripeCharge(id, status);
+    }
+}
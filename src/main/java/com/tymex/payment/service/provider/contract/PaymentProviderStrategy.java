@@ -2,6 +2,10 @@ package com.tymex.payment.service.provider.contract;
 
 import com.tymex.payment.dto.PaymentRequestDTO;
 import com.tymex.payment.dto.PaymentResponseDTO;
+import com.tymex.payment.util.Deadline;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Strategy interface for different payment provider implementations.
@@ -22,10 +26,64 @@ public interface PaymentProviderStrategy {
      * - Returns PaymentResponseDTO with PENDING status (transactionNo will be null)
      * - Final result comes via webhook callback
      * 
+     * The call must not outlive the deadline: implementations cap their provider
+     * request timeout to the remaining budget.
+     * 
+     * @param request the payment request
+     * @param idempotencyKey the idempotency key for this payment
+     * @param deadline the request deadline (Deadline.none() if the caller has no budget)
+     * @return PaymentResponseDTO with payment result (or PENDING for async providers)
+     */
+    PaymentResponseDTO process(PaymentRequestDTO request, String idempotencyKey, Deadline deadline);
+    
+    /**
+     * Processes payment for a known payment record.
+     * 
+     * Async providers may send PaymentReference.encode(paymentId) as the order reference so the
+     * webhook echoing it back resolves the record by primary key. Providers that do not use
+     * the record id keep the default, which ignores it.
+     * 
+     * @param request the payment request
+     * @param idempotencyKey the idempotency key for this payment
+     * @param paymentId the id of the claimed payment record (null if unknown)
+     * @param deadline the request deadline (Deadline.none() if the caller has no budget)
+     * @return PaymentResponseDTO with payment result (or PENDING for async providers)
+     */
+    default PaymentResponseDTO process(PaymentRequestDTO request, String idempotencyKey, Long paymentId,
+                                       Deadline deadline) {
+        return process(request, idempotencyKey, deadline);
+    }
+    
+    /**
+     * Non-blocking variant of {@link #process(PaymentRequestDTO, String, Long, Deadline)} for
+     * callers that must not park a thread on the provider call (the reactive deployment).
+     * 
+     * The default runs the blocking call on the given executor. Providers whose call is
+     * inherently asynchronous (HTTP client, simulated delay) override it so no thread waits.
+     * 
+     * @param request the payment request
+     * @param idempotencyKey the idempotency key for this payment
+     * @param paymentId the id of the claimed payment record (null if unknown)
+     * @param deadline the request deadline (Deadline.none() if the caller has no budget)
+     * @param blockingExecutor executor for work that still blocks
+     * @return future of the payment result (or PENDING for async providers)
+     */
+    default CompletableFuture<PaymentResponseDTO> processAsync(PaymentRequestDTO request, String idempotencyKey,
+                                                               Long paymentId, Deadline deadline,
+                                                               Executor blockingExecutor) {
+        return CompletableFuture.supplyAsync(() -> process(request, idempotencyKey, paymentId, deadline),
+                blockingExecutor);
+    }
+    
+    /**
+     * Processes payment with the external provider without a caller deadline.
+     * 
      * @param request the payment request
      * @param idempotencyKey the idempotency key for this payment
      * @return PaymentResponseDTO with payment result (or PENDING for async providers)
      */
-    PaymentResponseDTO process(PaymentRequestDTO request, String idempotencyKey);
+    default PaymentResponseDTO process(PaymentRequestDTO request, String idempotencyKey) {
+        return process(request, idempotencyKey, Deadline.none());
+    }
 }
 
@@ -1,7 +1,9 @@
 package com.tymex.payment.service.provider.contract;
 
+import com.tymex.payment.dto.WebhookPayload;
 import com.tymex.payment.dto.WebhookResult;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -33,11 +35,39 @@ public interface WebhookCapablePaymentProviderStrategy {
      * Note: This method only handles parsing/preparation. The actual processing
      * (idempotency, database updates) is handled by PaymentService.
      * 
-     * @param payload the webhook payload (JSON string)
-     * @param headers the webhook headers (for signature verification, etc.)
+     * The payload is read-only and only valid for the duration of the call (it may be a
+     * pooled request buffer); parse, hash and verify it directly from the bytes.
+     * 
+     * @param payload the webhook payload (raw JSON bytes)
+     * @param headers the webhook headers (read-only view, for signature verification, etc.)
      * @return WebhookResult containing parsed webhook data ready for processing
      * @throws IllegalArgumentException if webhook is invalid
      */
-    WebhookResult handleWebhook(String payload, Map<String, String> headers);
+    WebhookResult handleWebhook(WebhookPayload payload, Map<String, String> headers);
+    
+    /**
+     * Verifies the provider's webhook signature over the raw body bytes.
+     * Called by handleWebhook / handleWebhookBatch, and up front when a webhook is only
+     * stored for later processing (inbox / journal), so forged webhooks are never ACKed.
+     * Providers without signed webhooks keep the default (no verification).
+     * 
+     * @param payload the webhook payload (raw bytes)
+     * @param headers the webhook headers
+     * @throws com.tymex.payment.exception.UnauthorizedException if the signature is invalid
+     */
+    default void verifySignature(WebhookPayload payload, Map<String, String> headers) {
+        // No signature scheme by default
+    }
+    
+    /**
+     * Handles a payload carrying an array of webhook events (same per-event format as {@link #handleWebhook}).
+     * 
+     * @param payload the webhook payload (raw JSON array bytes)
+     * @param headers the webhook headers (read-only view, for signature verification, etc.)
+     * @return one WebhookResult per event, in payload order
+     * @throws IllegalArgumentException if the payload is invalid or the provider does not send event arrays
+     */
+    default List<WebhookResult> handleWebhookBatch(WebhookPayload payload, Map<String, String> headers) {
+        throw new IllegalArgumentException("Provider does not support webhook event arrays");
+    }
 }
-
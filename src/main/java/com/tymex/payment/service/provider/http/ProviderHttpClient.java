@@ -0,0 +1,218 @@
+package com.tymex.payment.service.provider.http;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.exception.DeadlineExceededException;
+import com.tymex.payment.exception.PaymentException;
+import com.tymex.payment.util.Deadline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shared HTTP client layer for outbound calls to external payment providers.
+ *
+ * A single java.net.http.HttpClient is reused by every provider, so:
+ * - Connections are pooled and kept alive between calls (no TCP/TLS setup per payment)
+ * - HTTP/2 is negotiated when the provider supports it, multiplexing concurrent calls
+ *   over one connection; otherwise pooled HTTP/1.1 keep-alive connections are used
+ * - Each provider has its own request timeout (payment.providers.&lt;provider&gt;.request-timeout-ms)
+ * - Response bodies are handed back as a stream so callers can decode without buffering
+ *
+ * A provider without a configured base URL is not "wired"; it keeps its in-process simulation.
+ * When the embedded stub server is enabled it becomes the default target for unwired providers.
+ */
+@Component
+public class ProviderHttpClient {
+
+    private static final Logger log = LoggerFactory.getLogger(ProviderHttpClient.class);
+
+    private final HttpClient httpClient;
+    private final PaymentProperties.Providers config;
+    private final ObjectProvider<ProviderStubServer> stubServer;
+
+    public ProviderHttpClient(PaymentProperties paymentProperties, ObjectProvider<ProviderStubServer> stubServer) {
+        this.config = paymentProperties.getProviders();
+        this.stubServer = stubServer;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(config.getConnectTimeoutMs()))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    /**
+     * Whether the provider is wired to an HTTP endpoint (configured base URL or stub server).
+     *
+     * @param provider the payment provider
+     * @return true if calls to the provider should go over HTTP
+     */
+    public boolean isConfigured(PaymentProvider provider) {
+        return resolveBaseUrl(provider) != null;
+    }
+
+    /**
+     * POSTs a JSON body to the provider and returns the response body as a stream.
+     * The caller owns the returned stream and must close it.
+     *
+     * @param provider the payment provider
+     * @param path the path relative to the provider base URL (e.g. "/v1/charges")
+     * @param jsonBody the request body (JSON bytes)
+     * @param idempotencyKey forwarded as Idempotency-Key so provider-side retries are safe
+     * @return the response body stream (2xx responses only)
+     * @throws PaymentException if the call fails, times out, or the provider answers non-2xx
+     */
+    public InputStream post(PaymentProvider provider, String path, byte[] jsonBody, String idempotencyKey) {
+        return post(provider, path, jsonBody, idempotencyKey, Deadline.none());
+    }
+
+    /**
+     * Same as {@link #post(PaymentProvider, String, byte[], String)} bounded by the caller's deadline:
+     * the request timeout is capped to the remaining budget.
+     *
+     * @throws DeadlineExceededException if the deadline has run out or cut the call's timeout short
+     */
+    public InputStream post(PaymentProvider provider, String path, byte[] jsonBody, String idempotencyKey,
+                            Deadline deadline) {
+        Duration requestTimeout = requestTimeout(provider);
+        Duration timeout = attemptTimeout(provider, requestTimeout, deadline);
+        HttpRequest request = buildRequest(provider, path, jsonBody, idempotencyKey, timeout);
+
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (HttpTimeoutException e) {
+            throw timedOut(provider, timeout, requestTimeout, e);
+        } catch (IOException e) {
+            throw new PaymentException(provider + " call failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentException(provider + " call interrupted", e);
+        }
+
+        int status = response.statusCode();
+        if (status < 200 || status >= 300) {
+            closeQuietly(response.body());
+            throw new PaymentException(provider + " responded with HTTP " + status);
+        }
+        log.debug("{} responded {} over {}", provider, status, response.version());
+        return response.body();
+    }
+
+    /**
+     * Non-blocking variant of {@link #post(PaymentProvider, String, byte[], String, Deadline)}:
+     * no thread waits for the provider, and the (small) response body is buffered.
+     *
+     * @return future of the response body (2xx responses only); completes exceptionally with
+     *         PaymentException if the call fails, times out, or the provider answers non-2xx
+     *         (DeadlineExceededException if the deadline has run out or cut the timeout short)
+     */
+    public CompletableFuture<byte[]> postAsync(PaymentProvider provider, String path, byte[] jsonBody,
+                                               String idempotencyKey, Deadline deadline) {
+        Duration requestTimeout = requestTimeout(provider);
+        Duration timeout;
+        HttpRequest request;
+        try {
+            timeout = attemptTimeout(provider, requestTimeout, deadline);
+            request = buildRequest(provider, path, jsonBody, idempotencyKey, timeout);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+                        if (cause instanceof HttpTimeoutException) {
+                            throw timedOut(provider, timeout, requestTimeout, cause);
+                        }
+                        throw new PaymentException(provider + " call failed: " + cause.getMessage(), cause);
+                    }
+                    int status = response.statusCode();
+                    if (status < 200 || status >= 300) {
+                        throw new PaymentException(provider + " responded with HTTP " + status);
+                    }
+                    log.debug("{} responded {} over {}", provider, status, response.version());
+                    return response.body();
+                });
+    }
+
+    public Duration requestTimeout(PaymentProvider provider) {
+        return Duration.ofMillis(endpoint(provider).getRequestTimeoutMs());
+    }
+
+    /**
+     * The provider's request timeout capped to the remaining budget. The budget may have run out
+     * since the retry loop checked it (e.g. a GC pause); HttpRequest rejects a zero timeout, so that
+     * is reported as DEADLINE_EXCEEDED instead of a provider failure.
+     */
+    private static Duration attemptTimeout(PaymentProvider provider, Duration requestTimeout, Deadline deadline) {
+        Duration timeout = deadline.cap(requestTimeout);
+        if (timeout.isZero() || timeout.isNegative()) {
+            throw new DeadlineExceededException("Request deadline exceeded before calling " + provider);
+        }
+        return timeout;
+    }
+
+    /**
+     * A timeout shorter than the provider's own means the caller's deadline ran out, which the
+     * payment records as DEADLINE_EXCEEDED rather than a provider failure.
+     */
+    private static PaymentException timedOut(PaymentProvider provider, Duration timeout, Duration requestTimeout,
+                                             Throwable cause) {
+        String message = provider + " call timed out after " + timeout.toMillis() + "ms";
+        return timeout.compareTo(requestTimeout) < 0
+                ? new DeadlineExceededException(message + " (request deadline)", cause)
+                : new PaymentException(message, cause);
+    }
+
+    private HttpRequest buildRequest(PaymentProvider provider, String path, byte[] jsonBody, String idempotencyKey,
+                                     Duration timeout) {
+        String baseUrl = resolveBaseUrl(provider);
+        if (baseUrl == null) {
+            throw new IllegalStateException("Provider " + provider + " has no HTTP endpoint configured");
+        }
+
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .header("Idempotency-Key", idempotencyKey)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(jsonBody))
+                .build();
+    }
+
+    private String resolveBaseUrl(PaymentProvider provider) {
+        String baseUrl = endpoint(provider).getBaseUrl();
+        if (baseUrl != null && !baseUrl.isBlank()) {
+            return baseUrl;
+        }
+        ProviderStubServer stub = stubServer.getIfAvailable();
+        return stub != null ? stub.baseUrl(provider) : null;
+    }
+
+    private PaymentProperties.Endpoint endpoint(PaymentProvider provider) {
+        return switch (provider) {
+            case STRIPE -> config.getStripe();
+            case MOMO -> config.getMomo();
+        };
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException ignored) {
+            // Nothing useful to do - the connection is returned to (or evicted from) the pool either way
+        }
+    }
+}
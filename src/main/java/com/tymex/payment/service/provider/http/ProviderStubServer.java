@@ -0,0 +1,196 @@
+package com.tymex.payment.service.provider.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tymex.payment.enums.PaymentProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded local server that mimics the Stripe and MoMo payment APIs.
+ * Lets both providers run their real HTTP path (pooling, timeouts, response streaming)
+ * in tests and benchmarks without leaving the machine.
+ *
+ * Endpoints:
+ * - POST /stripe/v1/charges   -> {"id": "ch_...", "status": "SUCCEED", "amount": ...}
+ * - POST /momo/v1/payments    -> {"transaction_id": "MOMO_...", "webhook_url": "...", "status": "PENDING"}
+ * - POST /merchant/callback   -> 200, counts received merchant notifications (use as callbackUrl)
+ * - POST /merchant/flaky      -> 503 on every other request, to exercise notification retries
+ *
+ * Note: com.sun.net.httpserver only speaks HTTP/1.1, so against this stub the shared
+ * client exercises pooled keep-alive connections rather than HTTP/2 multiplexing.
+ */
+public class ProviderStubServer {
+
+    private static final Logger log = LoggerFactory.getLogger(ProviderStubServer.class);
+
+    public static final String STRIPE_CHARGES_PATH = "/stripe/v1/charges";
+    public static final String MOMO_PAYMENTS_PATH = "/momo/v1/payments";
+    public static final String MERCHANT_CALLBACK_PATH = "/merchant/callback";
+    public static final String MERCHANT_FLAKY_CALLBACK_PATH = "/merchant/flaky";
+
+    private final ObjectMapper objectMapper;
+    private final int requestedPort;
+    private final int threads;
+
+    private final AtomicLong merchantNotifications = new AtomicLong();
+    private final AtomicLong flakyRequests = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public ProviderStubServer(ObjectMapper objectMapper, int port, int threads) {
+        this.objectMapper = objectMapper;
+        this.requestedPort = port;
+        this.threads = threads;
+    }
+
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        // The JDK server writes headers and body separately; without TCP_NODELAY each response
+        // waits out the client's delayed ACK (~40ms). Read once, when the first server starts.
+        System.getProperties().putIfAbsent("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", requestedPort), 0);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext(STRIPE_CHARGES_PATH, this::handleStripeCharge);
+        server.createContext(MOMO_PAYMENTS_PATH, this::handleMoMoPayment);
+        server.createContext(MERCHANT_CALLBACK_PATH, this::handleMerchantCallback);
+        server.createContext(MERCHANT_FLAKY_CALLBACK_PATH, this::handleFlakyMerchantCallback);
+        server.start();
+        log.info("Provider stub server listening on {}", baseUrl());
+    }
+
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+        log.info("Provider stub server stopped");
+    }
+
+    public int getPort() {
+        if (server == null) {
+            throw new IllegalStateException("Provider stub server is not started");
+        }
+        return server.getAddress().getPort();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + getPort();
+    }
+
+    /**
+     * Base URL a provider should target so its paths resolve to this stub.
+     *
+     * @param provider the payment provider
+     * @return base URL for the provider (e.g. http://127.0.0.1:port/stripe)
+     */
+    public String baseUrl(PaymentProvider provider) {
+        return switch (provider) {
+            case STRIPE -> baseUrl() + "/stripe";
+            case MOMO -> baseUrl() + "/momo";
+        };
+    }
+
+    private void handleStripeCharge(HttpExchange exchange) throws IOException {
+        JsonNode request = readBody(exchange);
+        if (request == null) {
+            return;
+        }
+        String transactionNo = "ch_" + UUID.randomUUID().toString().replace("-", "").substring(0, 24);
+        String response = String.format(
+            "{\"id\":\"%s\",\"status\":\"SUCCEED\",\"amount\":%s}",
+            transactionNo, request.path("amount").asText("0")
+        );
+        respond(exchange, 200, response);
+    }
+
+    private void handleMoMoPayment(HttpExchange exchange) throws IOException {
+        JsonNode request = readBody(exchange);
+        if (request == null) {
+            return;
+        }
+        String providerTransactionId = "MOMO_" + UUID.randomUUID().toString().replace("-", "").substring(0, 20);
+        String response = String.format(
+            "{\"transaction_id\":\"%s\",\"webhook_url\":\"%s\",\"status\":\"PENDING\"}",
+            providerTransactionId, baseUrl() + "/momo/webhooks/" + providerTransactionId
+        );
+        respond(exchange, 200, response);
+    }
+
+    /**
+     * @return merchant notifications accepted by the callback receivers so far
+     */
+    public long getMerchantNotificationCount() {
+        return merchantNotifications.get();
+    }
+
+    private void handleMerchantCallback(HttpExchange exchange) throws IOException {
+        JsonNode notifications = readBody(exchange);
+        if (notifications == null) {
+            return;
+        }
+        long total = merchantNotifications.addAndGet(notifications.isArray() ? notifications.size() : 1);
+        log.debug("Merchant callback received {} notifications (total {})", notifications.size(), total);
+        respond(exchange, 200, "{\"received\":" + notifications.size() + "}");
+    }
+
+    private void handleFlakyMerchantCallback(HttpExchange exchange) throws IOException {
+        if (flakyRequests.incrementAndGet() % 2 == 1) {
+            exchange.getRequestBody().close();
+            respond(exchange, 503, "{\"error\":\"temporarily unavailable\"}");
+            return;
+        }
+        handleMerchantCallback(exchange);
+    }
+
+    /**
+     * Reads the JSON request body, answering 405/400 directly when the request is unusable.
+     *
+     * @return parsed body, or null if an error response was already sent
+     */
+    private JsonNode readBody(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, "{\"error\":\"method not allowed\"}");
+            return null;
+        }
+        try (InputStream body = exchange.getRequestBody()) {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            respond(exchange, 400, "{\"error\":\"invalid json\"}");
+            return null;
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
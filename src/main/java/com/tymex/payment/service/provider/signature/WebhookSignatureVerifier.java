@@ -0,0 +1,125 @@
+package com.tymex.payment.service.provider.signature;
+
+import com.tymex.payment.dto.WebhookPayload;
+import com.tymex.payment.exception.UnauthorizedException;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifies HMAC webhook signatures over the raw body bytes.
+ * 
+ * Built once per provider:
+ * - Key specs are precomputed from the configured secrets
+ * - Each thread keeps its own initialized Mac per key (Mac is not thread-safe; doFinal resets
+ *   it for reuse), so there is no Mac.getInstance / init on the request path
+ * - The HMAC is streamed over the payload slice and written into a reused per-thread buffer
+ * - Several secrets can be active at once for rotation: a signature matching any of them passes
+ * - Comparison is constant time (MessageDigest.isEqual)
+ * 
+ * Signatures are expected hex-encoded (optionally prefixed with "sha256=").
+ * A verifier without secrets is disabled and accepts everything.
+ */
+public class WebhookSignatureVerifier {
+    
+    private static final String HEX_PREFIX = "sha256=";
+    
+    private final String algorithm;
+    private final String signatureHeader;
+    private final SecretKeySpec[] keys;
+    private final ThreadLocal<MacState> macState;
+    
+    /**
+     * @param algorithm the Mac algorithm (e.g. HmacSHA256)
+     * @param signatureHeader the header carrying the signature (e.g. X-Signature)
+     * @param secrets active secrets, newest first (empty = verification disabled)
+     */
+    public WebhookSignatureVerifier(String algorithm, String signatureHeader, List<String> secrets) {
+        this.algorithm = algorithm;
+        this.signatureHeader = signatureHeader;
+        this.keys = secrets.stream()
+            .filter(secret -> secret != null && !secret.isBlank())
+            .map(secret -> new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), algorithm))
+            .toArray(SecretKeySpec[]::new);
+        this.macState = ThreadLocal.withInitial(this::newMacState);
+        if (keys.length > 0) {
+            newMacState();  // Fail fast on an unknown algorithm or unusable key
+        }
+    }
+    
+    public boolean isEnabled() {
+        return keys.length > 0;
+    }
+    
+    /**
+     * Verifies the signature header against the payload.
+     * 
+     * @param payload the raw webhook body
+     * @param headers the webhook headers
+     * @throws UnauthorizedException if the signature is missing, malformed, or matches no active secret
+     */
+    public void verify(WebhookPayload payload, Map<String, String> headers) {
+        if (keys.length == 0) {
+            return;
+        }
+        String signature = headers.get(signatureHeader);
+        if (signature == null || signature.isBlank()) {
+            throw new UnauthorizedException("Missing webhook signature header " + signatureHeader);
+        }
+        if (!matches(payload, decode(signature))) {
+            throw new UnauthorizedException("Invalid webhook signature");
+        }
+    }
+    
+    /**
+     * @return true if the expected signature matches the HMAC of the payload under any active key
+     */
+    public boolean matches(WebhookPayload payload, byte[] expected) {
+        MacState state = macState.get();
+        boolean matched = false;
+        for (Mac mac : state.macs()) {
+            mac.update(payload.buffer(), payload.offset(), payload.length());
+            try {
+                mac.doFinal(state.output(), 0);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException(e);
+            }
+            // Check every key (no early exit) so timing does not reveal which key matched
+            matched |= MessageDigest.isEqual(state.output(), expected);
+        }
+        return matched;
+    }
+    
+    private static byte[] decode(String signature) {
+        String hex = signature.startsWith(HEX_PREFIX) ? signature.substring(HEX_PREFIX.length()) : signature;
+        try {
+            return Hex.decodeHex(hex.trim());
+        } catch (DecoderException e) {
+            throw new UnauthorizedException("Malformed webhook signature");
+        }
+    }
+    
+    private MacState newMacState() {
+        try {
+            Mac[] macs = new Mac[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                macs[i] = Mac.getInstance(algorithm);
+                macs[i].init(keys[i]);
+            }
+            int length = macs.length > 0 ? macs[0].getMacLength() : 0;
+            return new MacState(macs, new byte[length]);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + algorithm + " webhook verifier", e);
+        }
+    }
+    
+    private record MacState(Mac[] macs, byte[] output) {}
+}
@@ -0,0 +1,145 @@
+package com.tymex.payment.service.provider.simulation;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.enums.LatencyDistribution;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.exception.DeadlineExceededException;
+import com.tymex.payment.exception.PaymentException;
+import com.tymex.payment.util.Deadline;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * In-process stand-in for a provider API call, used by the providers while no base URL is
+ * configured. Latency, error rate and timeouts come from payment.providers.*.simulation, so
+ * load tests can reproduce production-like latency distributions and failure mixes.
+ *
+ * Like a real HTTP call, a simulated call that would outlast the provider's request-timeout-ms
+ * fails as timed out once that budget is spent, and one the caller's deadline cuts short fails
+ * with DeadlineExceededException.
+ */
+@Component
+public class ProviderSimulator {
+
+    // z-score of the 99th percentile of the standard normal distribution
+    private static final double Z_99 = 2.3263;
+
+    private final Map<PaymentProvider, Profile> profiles = new EnumMap<>(PaymentProvider.class);
+
+    /**
+     * Simulation settings of one provider, resolved once.
+     */
+    private record Profile(LatencyDistribution distribution, long latencyMs, long latencyP99Ms, double sigma,
+                           double errorRate, double timeoutRate, long requestTimeoutMs) {
+    }
+
+    /**
+     * One sampled call: how long it takes and how it ends.
+     */
+    private record Plan(long delayMs, boolean timedOut, boolean deadlineExceeded, boolean failed) {
+    }
+
+    public ProviderSimulator(PaymentProperties paymentProperties) {
+        PaymentProperties.Providers providers = paymentProperties.getProviders();
+        profiles.put(PaymentProvider.STRIPE, profile(providers.getStripe()));
+        profiles.put(PaymentProvider.MOMO, profile(providers.getMomo()));
+    }
+
+    /**
+     * Blocks for the sampled latency, then returns the response or throws the simulated failure.
+     *
+     * @param provider the simulated provider
+     * @param deadline the caller's deadline
+     * @param response builds the provider's success response
+     * @return the response
+     * @throws PaymentException on a simulated error or timeout
+     * @throws DeadlineExceededException if the deadline ends the call before the provider answers
+     */
+    public <T> T call(PaymentProvider provider, Deadline deadline, Supplier<T> response) {
+        Plan plan = plan(provider, deadline);
+        if (plan.delayMs() > 0) {
+            try {
+                Thread.sleep(plan.delayMs());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PaymentException("Payment processing interrupted");
+            }
+        }
+        return complete(provider, plan, response);
+    }
+
+    /**
+     * Same as {@link #call(PaymentProvider, Deadline, Supplier)} without a waiting thread:
+     * the result completes on a scheduled delay.
+     */
+    public <T> CompletableFuture<T> callAsync(PaymentProvider provider, Deadline deadline, Supplier<T> response) {
+        Plan plan = plan(provider, deadline);
+        if (plan.delayMs() <= 0) {
+            try {
+                return CompletableFuture.completedFuture(complete(provider, plan, response));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.supplyAsync(() -> complete(provider, plan, response),
+                CompletableFuture.delayedExecutor(plan.delayMs(), TimeUnit.MILLISECONDS));
+    }
+
+    private Plan plan(PaymentProvider provider, Deadline deadline) {
+        Profile profile = profiles.get(provider);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        boolean hangs = profile.timeoutRate() > 0 && random.nextDouble() < profile.timeoutRate();
+        long wantedMs = hangs ? profile.requestTimeoutMs() : Math.min(sampleLatency(profile, random), profile.requestTimeoutMs());
+        boolean timedOut = hangs || wantedMs == profile.requestTimeoutMs();
+
+        long delayMs = deadline.cap(Duration.ofMillis(wantedMs)).toMillis();
+        boolean deadlineExceeded = delayMs < wantedMs;  // The caller gives up first
+        boolean failed = !timedOut && !deadlineExceeded
+                && profile.errorRate() > 0 && random.nextDouble() < profile.errorRate();
+        return new Plan(delayMs, timedOut, deadlineExceeded, failed);
+    }
+
+    private static <T> T complete(PaymentProvider provider, Plan plan, Supplier<T> response) {
+        if (plan.deadlineExceeded()) {
+            throw new DeadlineExceededException(
+                    provider + " call timed out after " + plan.delayMs() + "ms (request deadline)");
+        }
+        if (plan.timedOut()) {
+            throw new PaymentException(provider + " call timed out after " + plan.delayMs() + "ms");
+        }
+        if (plan.failed()) {
+            throw new PaymentException(provider + " returned an error (simulated)");
+        }
+        return response.get();
+    }
+
+    private static long sampleLatency(Profile profile, ThreadLocalRandom random) {
+        return switch (profile.distribution()) {
+            case FIXED -> profile.latencyMs();
+            case UNIFORM -> profile.latencyP99Ms() > profile.latencyMs()
+                    ? random.nextLong(profile.latencyMs(), profile.latencyP99Ms() + 1)
+                    : profile.latencyMs();
+            case LOG_NORMAL -> Math.round(profile.latencyMs() * Math.exp(profile.sigma() * random.nextGaussian()));
+        };
+    }
+
+    private static Profile profile(PaymentProperties.Endpoint endpoint) {
+        PaymentProperties.Simulation simulation = endpoint.getSimulation();
+        long latencyMs = Math.max(0, simulation.getLatencyMs());
+        long latencyP99Ms = Math.max(0, simulation.getLatencyP99Ms());
+        // LOG_NORMAL: median = latencyMs, p99 = median * e^(sigma * z99)
+        double sigma = latencyMs > 0 && latencyP99Ms > latencyMs
+                ? Math.log((double) latencyP99Ms / latencyMs) / Z_99
+                : 0.0;
+        return new Profile(simulation.getDistribution(), latencyMs, latencyP99Ms, sigma,
+                simulation.getErrorRate(), simulation.getTimeoutRate(), endpoint.getRequestTimeoutMs());
+    }
+}
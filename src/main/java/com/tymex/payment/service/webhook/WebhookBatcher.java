@@ -0,0 +1,372 @@
+package com.tymex.payment.service.webhook;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.WebhookResult;
+import com.tymex.payment.entity.PaymentRequest;
+import com.tymex.payment.repository.PaymentRequestRepository;
+import com.tymex.payment.repository.WebhookTransitionRepository;
+import com.tymex.payment.service.event.PaymentStatusChangedEvent;
+import com.tymex.payment.service.notification.MerchantNotificationOutbox;
+import com.tymex.payment.util.KeyOrderedExecutor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Micro-batching stage for webhook state updates.
+ * 
+ * Callers submit parsed WebhookResults and wait on a future. Results are sharded by
+ * providerTransactionId onto the webhook lanes (payment.webhook.lanes), each with its own
+ * queue and flusher thread, so one payment's webhooks are always applied by the same flusher
+ * (never racing each other) while different payments are applied in parallel.
+ * Each flusher collects up to max-batch-size results, then per batch:
+ * 1. Resolves all payments by primary key (self-routing references), then with one
+ *    IN (...) lookup on provider_transaction_id for the rest
+ * 2. Applies every valid PROCESSING -> COMPLETED/FAILED transition in memory
+ *    (later webhooks for the same payment in the batch are duplicates, as in sequential order)
+ * 3. Writes all transitions in one transaction as one JDBC batch of versioned UPDATEs
+ * 4. Completes each caller's future after commit and publishes PaymentStatusChangedEvent
+ * 
+ * The flusher only lingers up to max-wait-ms for more results when the previous batch held
+ * more than one, so sequential callers pay no extra latency and bursts are coalesced.
+ * A version conflict re-queues the webhook so it is re-evaluated against the fresh row.
+ * 
+ * Metrics:
+ * - payment.webhook.batch.size: webhooks per flushed batch
+ * - payment.webhook.batch.flush: time to resolve and write one batch
+ * - payment.webhook.lock.conflicts: version conflicts (via WebhookLaneDispatcher)
+ */
+@Component
+public class WebhookBatcher implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(WebhookBatcher.class);
+    
+    private final PaymentRequestRepository repository;
+    private final WebhookTransitionRepository transitionRepository;
+    private final WebhookStateTransition stateTransition;
+    private final TransactionTemplate transactionTemplate;
+    private final WebhookLaneDispatcher laneDispatcher;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MerchantNotificationOutbox notificationOutbox;
+    private final PaymentProperties.Batching config;
+    private final List<BlockingQueue<Pending>> queues = new ArrayList<>();
+    private final DistributionSummary batchSize;
+    private final Timer flushTimer;
+    
+    private final List<Thread> flushers = new ArrayList<>();
+    private volatile boolean running;
+    
+    public WebhookBatcher(PaymentRequestRepository repository,
+                          WebhookTransitionRepository transitionRepository,
+                          WebhookStateTransition stateTransition,
+                          TransactionTemplate transactionTemplate,
+                          WebhookLaneDispatcher laneDispatcher,
+                          ApplicationEventPublisher eventPublisher,
+                          MerchantNotificationOutbox notificationOutbox,
+                          PaymentProperties paymentProperties,
+                          MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.transitionRepository = transitionRepository;
+        this.stateTransition = stateTransition;
+        this.transactionTemplate = transactionTemplate;
+        this.laneDispatcher = laneDispatcher;
+        this.eventPublisher = eventPublisher;
+        this.notificationOutbox = notificationOutbox;
+        this.config = paymentProperties.getWebhook().getBatching();
+        PaymentProperties.Lanes lanes = paymentProperties.getWebhook().getLanes();
+        int laneCount = Boolean.TRUE.equals(lanes.getEnabled()) ? lanes.resolveCount() : 1;
+        for (int i = 0; i < laneCount; i++) {
+            queues.add(new ArrayBlockingQueue<>(config.getQueueCapacity()));
+        }
+        this.batchSize = DistributionSummary.builder("payment.webhook.batch.size")
+            .description("Webhooks applied per batch")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("payment.webhook.batch.flush")
+            .description("Time to resolve and write one webhook batch")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Whether single webhooks should go through the batching stage (payment.webhook.batching.enabled).
+     * Array payloads always use it.
+     */
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(config.getEnabled());
+    }
+    
+    /**
+     * Queues a parsed webhook for the next batch.
+     * 
+     * @param result the parsed webhook
+     * @return future completed after the batch containing the webhook was committed;
+     *         completed exceptionally with IllegalArgumentException if the payment is not found
+     * @throws IllegalStateException if the batching queue of the webhook's lane is full
+     */
+    public CompletableFuture<Void> submit(WebhookResult result) {
+        Pending pending = new Pending(result, new CompletableFuture<>());
+        if (!laneQueue(result).offer(pending)) {
+            throw new IllegalStateException("Webhook batch queue is full");
+        }
+        return pending.future();
+    }
+    
+    /**
+     * Waits for a submitted webhook, rethrowing its failure as-is.
+     * 
+     * @param future the future returned by {@link #submit}
+     */
+    public void await(CompletableFuture<Void> future) {
+        try {
+            future.get(config.getAwaitTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Webhook batch not applied within " + config.getAwaitTimeoutMs() + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for webhook batch", e);
+        }
+    }
+    
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < queues.size(); i++) {
+            BlockingQueue<Pending> queue = queues.get(i);
+            Thread flusher = new Thread(() -> flushLoop(queue), "webhook-batcher-" + i);
+            flusher.setDaemon(true);
+            flusher.start();
+            flushers.add(flusher);
+        }
+    }
+    
+    @Override
+    public synchronized void stop() {
+        running = false;
+        for (Thread flusher : flushers) {
+            flusher.interrupt();
+        }
+        for (Thread flusher : flushers) {
+            try {
+                flusher.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushers.clear();
+        
+        for (BlockingQueue<Pending> queue : queues) {
+            Pending pending;
+            while ((pending = queue.poll()) != null) {
+                pending.future().completeExceptionally(new IllegalStateException("Webhook batcher stopped"));
+            }
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    private BlockingQueue<Pending> laneQueue(WebhookResult result) {
+        return queues.get(KeyOrderedExecutor.laneOf(result.providerTransactionId(), queues.size()));
+    }
+    
+    private void flushLoop(BlockingQueue<Pending> queue) {
+        int maxBatchSize = config.getMaxBatchSize();
+        long maxWaitNanos = Duration.ofMillis(config.getMaxWaitMs()).toNanos();
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        int previousBatchSize = 0;
+        
+        while (running) {
+            try {
+                Pending first = queue.take();
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                
+                // Linger for more only when traffic is concurrent enough to batch
+                if (previousBatchSize > 1) {
+                    long lingerUntil = System.nanoTime() + maxWaitNanos;
+                    while (batch.size() < maxBatchSize) {
+                        long remaining = lingerUntil - System.nanoTime();
+                        Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                    }
+                }
+                
+                previousBatchSize = batch.size();
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Webhook batch failed: size={}", batch.size(), e);
+                for (Pending pending : batch) {
+                    pending.future().completeExceptionally(e);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void flush(List<Pending> batch) {
+        long start = System.nanoTime();
+        
+        // Step 1: Resolve every payment in the batch - by primary key for self-routing references,
+        // then one IN (...) lookup on provider_transaction_id for the rest
+        Map<String, PaymentRequest> records = resolve(batch);
+        
+        // Step 2: Apply transitions in memory, in submission order
+        Map<String, List<Pending>> changed = new LinkedHashMap<>();
+        List<Pending> completed = new ArrayList<>();
+        for (Pending pending : batch) {
+            WebhookResult result = pending.result();
+            PaymentRequest record = records.get(result.providerTransactionId());
+            if (record == null) {
+                pending.future().completeExceptionally(new IllegalArgumentException(
+                        "Payment not found for providerTransactionId: " + result.providerTransactionId()));
+                continue;
+            }
+            
+            List<Pending> appliedBy = changed.get(result.providerTransactionId());
+            if (appliedBy != null) {
+                // Duplicate within the batch - settles with the transition it duplicates
+                appliedBy.add(pending);
+                continue;
+            }
+            if (record.getProcessingStatus() != PaymentRequest.ProcessingStatus.PROCESSING) {
+                log.info("Webhook ignored - payment already {}: idempotencyKey={}, providerTransactionId={}",
+                        record.getProcessingStatus(), record.getIdempotencyKey(), result.providerTransactionId());
+                completed.add(pending);
+                continue;
+            }
+            if (!stateTransition.apply(record, result.transactionNo(), result.status())) {
+                log.warn("Webhook: Unexpected status {} for providerTransactionId={}",
+                        result.status(), result.providerTransactionId());
+                completed.add(pending);
+                continue;
+            }
+            changed.put(result.providerTransactionId(), new ArrayList<>(List.of(pending)));
+        }
+        
+        // Step 3: Write all transitions in one transaction / JDBC batch
+        List<String> changedIds = new ArrayList<>(changed.keySet());
+        List<PaymentRequest> updates = changedIds.stream().map(records::get).toList();
+        boolean[] updated = updates.isEmpty()
+            ? new boolean[0]
+            : transactionTemplate.execute(status -> {
+                boolean[] applied = transitionRepository.updateAll(updates);
+                // Merchant notifications commit (or roll back) together with the transitions
+                List<PaymentRequest> notify = new ArrayList<>();
+                List<Long> versions = new ArrayList<>();
+                for (int i = 0; i < applied.length; i++) {
+                    if (applied[i]) {
+                        notify.add(updates.get(i));
+                        versions.add(updates.get(i).getVersion() + 1);
+                    }
+                }
+                notificationOutbox.enqueue(notify, versions);
+                return applied;
+            });
+        // COMMIT here
+        
+        // Step 4: Settle callers
+        for (int i = 0; i < updates.size(); i++) {
+            List<Pending> pendings = changed.get(changedIds.get(i));
+            if (updated[i]) {
+                completed.addAll(pendings);
+                // Written over JDBC: the committed version is the one read plus one
+                eventPublisher.publishEvent(PaymentStatusChangedEvent.of(updates.get(i), updates.get(i).getVersion() + 1));
+            } else {
+                for (Pending pending : pendings) {
+                    requeue(pending);
+                }
+            }
+        }
+        for (Pending pending : completed) {
+            pending.future().complete(null);
+        }
+        
+        batchSize.record(batch.size());
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("Webhook batch applied: size={}, updated={}", batch.size(), updates.size());
+    }
+    
+    /**
+     * Loads the batch's payments keyed by providerTransactionId, in at most two queries.
+     * A record found by id only counts if it belongs to the webhook's provider transaction;
+     * legacy references and mismatches go through the provider_transaction_id lookup.
+     */
+    private Map<String, PaymentRequest> resolve(List<Pending> batch) {
+        Map<String, PaymentRequest> records = new HashMap<>();
+        List<Long> paymentIds = batch.stream().map(p -> p.result().paymentId()).filter(Objects::nonNull).distinct().toList();
+        if (!paymentIds.isEmpty()) {
+            for (PaymentRequest record : repository.findAllById(paymentIds)) {
+                if (record.getProviderTransactionId() != null) {
+                    records.put(record.getProviderTransactionId(), record);
+                }
+            }
+        }
+        
+        List<String> unresolved = batch.stream()
+            .map(p -> p.result().providerTransactionId())
+            .filter(id -> !records.containsKey(id))
+            .distinct()
+            .toList();
+        if (!unresolved.isEmpty()) {
+            for (PaymentRequest record : repository.findByProviderTransactionIdIn(unresolved)) {
+                records.put(record.getProviderTransactionId(), record);
+            }
+        }
+        return records;
+    }
+    
+    /**
+     * Re-queues a webhook whose row changed concurrently so the next batch re-reads it.
+     */
+    private void requeue(Pending pending) {
+        laneDispatcher.recordLockConflict();
+        Pending retry = new Pending(pending.result(), pending.future(), pending.conflicts() + 1);
+        if (retry.conflicts() > config.getMaxConflictRetries() || !laneQueue(retry.result()).offer(retry)) {
+            pending.future().completeExceptionally(new IllegalStateException(
+                    "Concurrent update of payment for providerTransactionId: " + pending.result().providerTransactionId()));
+        }
+    }
+    
+    private record Pending(WebhookResult result, CompletableFuture<Void> future, int conflicts) {
+        Pending(WebhookResult result, CompletableFuture<Void> future) {
+            this(result, future, 0);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.tymex.payment.service.webhook;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.WebhookPayload;
+import com.tymex.payment.enums.PaymentProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Remembers SHA-256 digests of recently processed webhooks so exact redeliveries can be
+ * acknowledged without touching the database.
+ * 
+ * - Digest covers provider + raw payload bytes, stored as four longs (no hex strings)
+ * - A digest is only recorded after the webhook was processed successfully, so failed
+ *   webhooks are still retried by the provider
+ * - Entries expire after window-seconds; at most max-entries are kept (least recently
+ *   recorded evicted first)
+ * 
+ * A miss is never wrong (the database idempotency checks still apply), so the set is
+ * per-node and not shared between instances.
+ * 
+ * Metrics:
+ * - payment.webhook.digest.checked / payment.webhook.digest.duplicates: webhooks checked / rejected as duplicates
+ * - payment.webhook.digest.duplicate.ratio: duplicates / checked since startup
+ * - payment.webhook.digest.size: digests currently held
+ */
+@Component
+public class WebhookDigestFilter {
+    
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxEntries;
+    private final Map<Digest, Long> recordedAt = new ConcurrentHashMap<>();
+    private final Queue<Recorded> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final Counter checked;
+    private final Counter duplicates;
+    
+    public WebhookDigestFilter(PaymentProperties paymentProperties, MeterRegistry meterRegistry) {
+        PaymentProperties.Dedup config = paymentProperties.getWebhook().getDedup();
+        this.enabled = Boolean.TRUE.equals(config.getEnabled());
+        this.windowNanos = config.getWindowSeconds() * 1_000_000_000L;
+        this.maxEntries = config.getMaxEntries();
+        this.checked = meterRegistry.counter("payment.webhook.digest.checked");
+        this.duplicates = meterRegistry.counter("payment.webhook.digest.duplicates");
+        Gauge.builder("payment.webhook.digest.duplicate.ratio", this,
+                f -> f.checked.count() == 0 ? 0.0 : f.duplicates.count() / f.checked.count())
+            .description("Share of received webhooks rejected as exact duplicates")
+            .register(meterRegistry);
+        Gauge.builder("payment.webhook.digest.size", recordedAt, Map::size)
+            .description("Webhook digests currently remembered")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Computes the digest of a webhook.
+     * 
+     * @param provider the payment provider
+     * @param payload the raw webhook payload bytes
+     * @return the digest, or null when the filter is disabled
+     */
+    public Digest digest(PaymentProvider provider, WebhookPayload payload) {
+        if (!enabled) {
+            return null;
+        }
+        MessageDigest sha256 = DigestUtils.getSha256Digest();
+        sha256.update((byte) provider.ordinal());
+        sha256.update(payload.buffer(), payload.offset(), payload.length());
+        ByteBuffer hash = ByteBuffer.wrap(sha256.digest());
+        return new Digest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+    
+    /**
+     * Checks whether an identical webhook was processed within the window.
+     * 
+     * @param digest the webhook digest (null = filter disabled)
+     * @return true if the webhook is a duplicate and can be acknowledged as-is
+     */
+    public boolean isDuplicate(Digest digest) {
+        if (digest == null) {
+            return false;
+        }
+        checked.increment();
+        Long at = recordedAt.get(digest);
+        if (at != null && System.nanoTime() - at < windowNanos) {
+            duplicates.increment();
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Records a successfully processed webhook.
+     * 
+     * @param digest the webhook digest (null = filter disabled)
+     */
+    public void recordProcessed(Digest digest) {
+        if (digest == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        // Every recording gets its own queue entry; the ones it supersedes are skipped on eviction
+        recordedAt.put(digest, now);
+        insertionOrder.add(new Recorded(digest, now));
+        evict(now);
+    }
+    
+    private void evict(long now) {
+        Recorded oldest;
+        while ((oldest = insertionOrder.peek()) != null
+                && (recordedAt.size() > maxEntries || now - oldest.at() >= windowNanos)) {
+            // Another thread may have evicted the head concurrently - just evict whatever is oldest now.
+            // Only remove the digest if this entry is still its latest recording, so a digest that was
+            // recorded again since keeps its newer timestamp.
+            Recorded evicted = insertionOrder.poll();
+            if (evicted != null) {
+                recordedAt.remove(evicted.digest(), evicted.at());
+            }
+        }
+    }
+    
+    /**
+     * SHA-256 of provider + payload.
+     */
+    public record Digest(long h0, long h1, long h2, long h3) {}
+    
+    private record Recorded(Digest digest, long at) {}
+}
@@ -0,0 +1,171 @@
+package com.tymex.payment.service.webhook;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.entity.WebhookInboxEntry;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.repository.WebhookInboxRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Durable webhook inbox.
+ * 
+ * Receiving a webhook costs one INSERT of the raw payload and headers; the caller answers 200
+ * immediately. Workers then claim entries with FOR UPDATE SKIP LOCKED (so several workers or
+ * nodes never claim the same entry) and process them through PaymentService.processWebhook.
+ */
+@Service
+public class WebhookInboxService {
+    
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final TypeReference<Map<String, String>> HEADERS_TYPE = new TypeReference<>() { };
+    
+    private final WebhookInboxRepository repository;
+    private final ObjectMapper objectMapper;
+    private final PaymentProperties.Inbox config;
+    
+    public WebhookInboxService(WebhookInboxRepository repository,
+                               ObjectMapper objectMapper,
+                               PaymentProperties paymentProperties) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.config = paymentProperties.getWebhook().getInbox();
+    }
+    
+    /**
+     * Appends a received webhook to the inbox (single INSERT, committed on return).
+     * 
+     * @param provider the payment provider
+     * @param payload the raw webhook payload
+     * @param headers the webhook headers (kept for signature verification during processing)
+     * @return the inbox entry id
+     */
+    public Long append(PaymentProvider provider, String payload, Map<String, String> headers) {
+        WebhookInboxEntry entry = new WebhookInboxEntry();
+        entry.setProvider(provider);
+        entry.setPayload(payload);
+        entry.setHeaders(serializeHeaders(headers));
+        return repository.save(entry).getId();
+    }
+    
+    /**
+     * Stores a webhook that already failed elsewhere (the journal consumer) as a FAILED entry,
+     * so it is kept for inspection and manual replay instead of being dropped.
+     * 
+     * @param provider the payment provider
+     * @param payload the raw webhook payload
+     * @param headers the webhook headers
+     * @param attempts attempts already spent on it
+     * @param error the last failure
+     * @return the inbox entry id
+     */
+    public Long park(PaymentProvider provider, String payload, Map<String, String> headers,
+                     int attempts, Exception error) {
+        WebhookInboxEntry entry = new WebhookInboxEntry();
+        entry.setProvider(provider);
+        entry.setPayload(payload);
+        entry.setHeaders(serializeHeaders(headers));
+        entry.setStatus(WebhookInboxEntry.Status.FAILED);
+        entry.setAttempts(attempts);
+        entry.setLastError(truncate(String.valueOf(error.getMessage())));
+        return repository.save(entry).getId();
+    }
+    
+    /**
+     * Claims up to {@code limit} entries for this worker.
+     * Claimed entries move to PROCESSING with their attempt count incremented; the row locks
+     * are released on commit, and the PROCESSING status keeps other workers away.
+     * 
+     * @param limit maximum entries to claim
+     * @return claimed entries (detached after return)
+     */
+    @Transactional
+    public List<WebhookInboxEntry> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusSeconds(config.getStaleClaimSeconds());
+        List<WebhookInboxEntry> entries = repository.lockClaimable(now, staleBefore, limit);
+        for (WebhookInboxEntry entry : entries) {
+            entry.setStatus(WebhookInboxEntry.Status.PROCESSING);
+            entry.setClaimedAt(now);
+            entry.setAttempts(entry.getAttempts() + 1);
+        }
+        return entries;  // Dirty entities flushed on commit
+    }
+    
+    /**
+     * Hands claimed entries back for the next claim without counting an attempt.
+     */
+    @Transactional
+    public void release(List<WebhookInboxEntry> entries) {
+        repository.release(entries.stream().map(WebhookInboxEntry::getId).toList(), LocalDateTime.now());
+    }
+    
+    @Transactional
+    public void markDone(WebhookInboxEntry entry) {
+        repository.markDone(entry.getId(), LocalDateTime.now());
+    }
+    
+    /**
+     * Records a failed attempt. The entry is retried after a linear backoff
+     * until payment.webhook.inbox.max-attempts, then parked as FAILED.
+     * 
+     * @return true if the entry was parked as FAILED (no more retries)
+     */
+    @Transactional
+    public boolean markFailed(WebhookInboxEntry entry, Exception error) {
+        boolean exhausted = entry.getAttempts() >= config.getMaxAttempts();
+        WebhookInboxEntry.Status status = exhausted
+            ? WebhookInboxEntry.Status.FAILED
+            : WebhookInboxEntry.Status.PENDING;
+        LocalDateTime availableAt = LocalDateTime.now()
+            .plus(Duration.ofMillis((long) config.getRetryDelayMs() * entry.getAttempts()));
+        repository.markAttemptFailed(entry.getId(), status, availableAt, truncate(String.valueOf(error.getMessage())));
+        return exhausted;
+    }
+    
+    public Map<String, String> readHeaders(WebhookInboxEntry entry) {
+        if (entry.getHeaders() == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(entry.getHeaders(), HEADERS_TYPE);
+        } catch (Exception e) {
+            throw new IllegalStateException("Corrupt headers in webhook inbox entry " + entry.getId(), e);
+        }
+    }
+    
+    /**
+     * @return number of entries not yet processed (PENDING or PROCESSING)
+     */
+    public long depth() {
+        return repository.countByStatusIn(
+            List.of(WebhookInboxEntry.Status.PENDING, WebhookInboxEntry.Status.PROCESSING));
+    }
+    
+    /**
+     * @return age of the oldest unprocessed entry, zero if the inbox is drained
+     */
+    public Duration lag() {
+        LocalDateTime oldest = repository.findOldestUnprocessedReceivedAt();
+        return oldest == null ? Duration.ZERO : Duration.between(oldest, LocalDateTime.now());
+    }
+    
+    private static String truncate(String message) {
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+    
+    private String serializeHeaders(Map<String, String> headers) {
+        try {
+            return objectMapper.writeValueAsString(headers);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Failed to serialize webhook headers", e);
+        }
+    }
+}
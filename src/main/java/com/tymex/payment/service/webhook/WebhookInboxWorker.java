@@ -0,0 +1,166 @@
+package com.tymex.payment.service.webhook;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.entity.WebhookInboxEntry;
+import com.tymex.payment.enums.WebhookIngestionMode;
+import com.tymex.payment.service.PaymentService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pool of background workers draining the webhook inbox through PaymentService.processWebhook.
+ * Only runs when payment.webhook.ingestion-mode is INBOX.
+ * 
+ * A claim is a lease: after stale-claim-seconds other workers may reclaim the entries. A worker
+ * works through its claimed batch one entry at a time, so it stops once half the lease is spent
+ * and hands the entries it has not started back (no attempt counted) rather than process entries
+ * another worker may already have reclaimed.
+ * 
+ * Metrics:
+ * - payment.webhook.inbox.depth: entries not yet processed
+ * - payment.webhook.inbox.lag: age of the oldest unprocessed entry (seconds)
+ * - payment.webhook.inbox.latency: time from receipt to successful processing
+ * - payment.webhook.inbox.processed / payment.webhook.inbox.failed: outcomes (failed = parked)
+ */
+@Component
+public class WebhookInboxWorker implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(WebhookInboxWorker.class);
+    
+    private final WebhookInboxService inboxService;
+    private final PaymentService paymentService;
+    private final PaymentProperties.Webhook config;
+    private final Timer latency;
+    private final Counter processed;
+    private final Counter failed;
+    
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+    
+    public WebhookInboxWorker(WebhookInboxService inboxService,
+                              PaymentService paymentService,
+                              PaymentProperties paymentProperties,
+                              MeterRegistry meterRegistry) {
+        this.inboxService = inboxService;
+        this.paymentService = paymentService;
+        this.config = paymentProperties.getWebhook();
+        this.latency = Timer.builder("payment.webhook.inbox.latency")
+            .description("Time from webhook receipt to successful processing")
+            .register(meterRegistry);
+        this.processed = meterRegistry.counter("payment.webhook.inbox.processed");
+        this.failed = meterRegistry.counter("payment.webhook.inbox.failed");
+        
+        if (config.getIngestionMode() == WebhookIngestionMode.INBOX) {
+            Gauge.builder("payment.webhook.inbox.depth", inboxService, WebhookInboxService::depth)
+                .description("Webhook inbox entries not yet processed")
+                .register(meterRegistry);
+            Gauge.builder("payment.webhook.inbox.lag", inboxService, s -> s.lag().toMillis() / 1000.0)
+                .description("Age of the oldest unprocessed webhook inbox entry")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        }
+    }
+    
+    @Override
+    public synchronized void start() {
+        if (config.getIngestionMode() != WebhookIngestionMode.INBOX || running) {
+            return;
+        }
+        running = true;
+        for (int i = 1; i <= config.getInbox().getWorkers(); i++) {
+            Thread worker = new Thread(this::drainLoop, "webhook-inbox-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Webhook inbox workers started: count={}", workers.size());
+    }
+    
+    @Override
+    public synchronized void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.clear();
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    private void drainLoop() {
+        PaymentProperties.Inbox inbox = config.getInbox();
+        while (running) {
+            try {
+                List<WebhookInboxEntry> entries = inboxService.claim(inbox.getBatchSize());
+                if (entries.isEmpty()) {
+                    Thread.sleep(inbox.getPollIntervalMs());
+                    continue;
+                }
+                long leaseEnd = System.nanoTime() + Duration.ofSeconds(inbox.getStaleClaimSeconds()).toNanos() / 2;
+                for (int i = 0; i < entries.size(); i++) {
+                    // The first entry is always processed, so a short lease cannot starve the inbox
+                    if (!running || (i > 0 && System.nanoTime() - leaseEnd >= 0)) {
+                        List<WebhookInboxEntry> unstarted = entries.subList(i, entries.size());
+                        inboxService.release(unstarted);
+                        log.warn("Webhook inbox claim lease running out, released {} unprocessed entries",
+                                unstarted.size());
+                        break;
+                    }
+                    process(entries.get(i));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Claim failed (e.g. DB unavailable) - back off and try again
+                log.warn("Webhook inbox claim failed: {}", e.getMessage());
+                try {
+                    Thread.sleep(inbox.getPollIntervalMs());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    private void process(WebhookInboxEntry entry) {
+        try {
+            paymentService.processWebhook(entry.getProvider(), entry.getPayload(), inboxService.readHeaders(entry));
+            inboxService.markDone(entry);
+            processed.increment();
+            latency.record(Duration.between(entry.getReceivedAt(), LocalDateTime.now()));
+        } catch (Exception e) {
+            boolean parked = inboxService.markFailed(entry, e);
+            if (parked) {
+                failed.increment();
+                log.error("Webhook inbox entry {} failed permanently after {} attempts: {}",
+                        entry.getId(), entry.getAttempts(), e.getMessage());
+            } else {
+                log.warn("Webhook inbox entry {} failed (attempt {}), will retry: {}",
+                        entry.getId(), entry.getAttempts(), e.getMessage());
+            }
+        }
+    }
+}
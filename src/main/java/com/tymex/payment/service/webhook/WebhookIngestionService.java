@@ -0,0 +1,113 @@
+package com.tymex.payment.service.webhook;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.WebhookPayload;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.enums.WebhookIngestionMode;
+import com.tymex.payment.service.PaymentService;
+import com.tymex.payment.service.provider.routing.PaymentProviderRouter;
+import com.tymex.payment.service.webhook.journal.WebhookJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Entry point for a single received webhook, shared by the servlet and reactive controllers.
+ *
+ * An exact copy of an already processed webhook (same payload digest) is acknowledged straight
+ * away, before any database or inbox/journal access. Otherwise the webhook goes through the
+ * configured payment.webhook.ingestion-mode:
+ * - DIRECT: processed inline by PaymentService
+ * - INBOX: signature checked, appended to the durable inbox, processed by background workers
+ * - JOURNAL: signature checked, appended to the memory-mapped journal, acknowledged once the
+ *   next group commit forced it to disk
+ *
+ * Blocking: callers on an event loop must run it on a bounded blocking scheduler.
+ */
+@Service
+public class WebhookIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookIngestionService.class);
+
+    /**
+     * What happened to an ingested webhook.
+     */
+    public enum Outcome {
+        /** Exact redelivery of a processed webhook, acknowledged without processing */
+        DUPLICATE,
+        /** Applied (DIRECT) or durably queued (INBOX, JOURNAL) - acknowledge with 200 */
+        ACCEPTED,
+        /** Journal commit did not complete in time - the provider must redeliver */
+        NOT_DURABLE
+    }
+
+    private final PaymentService paymentService;
+    private final PaymentProviderRouter providerRouter;
+    private final WebhookInboxService inboxService;
+    private final WebhookDigestFilter digestFilter;
+    private final WebhookJournal journal;
+    private final WebhookIngestionMode ingestionMode;
+    private final Duration journalAckTimeout;
+
+    public WebhookIngestionService(PaymentService paymentService,
+                                   PaymentProviderRouter providerRouter,
+                                   WebhookInboxService inboxService,
+                                   WebhookDigestFilter digestFilter,
+                                   ObjectProvider<WebhookJournal> journal,
+                                   PaymentProperties paymentProperties) {
+        this.paymentService = paymentService;
+        this.providerRouter = providerRouter;
+        this.inboxService = inboxService;
+        this.digestFilter = digestFilter;
+        this.journal = journal.getIfAvailable();
+        this.ingestionMode = paymentProperties.getWebhook().getIngestionMode();
+        this.journalAckTimeout = Duration.ofMillis(paymentProperties.getWebhook().getJournal().getAckTimeoutMs());
+    }
+
+    /**
+     * Ingests one webhook according to the configured mode.
+     *
+     * @param provider the payment provider (from path parameter)
+     * @param payload the raw webhook payload
+     * @param headers the webhook headers (for signature verification, etc.)
+     * @return the outcome
+     * @throws com.tymex.payment.exception.UnauthorizedException if the signature is invalid
+     * @throws IllegalArgumentException if the provider is not supported or the webhook is invalid
+     * @throws InterruptedException if interrupted while waiting for the journal commit
+     */
+    public Outcome ingest(PaymentProvider provider, WebhookPayload payload, Map<String, String> headers)
+            throws InterruptedException {
+        if (digestFilter.isDuplicate(digestFilter.digest(provider, payload))) {
+            log.info("Duplicate webhook acknowledged without processing: provider={}", provider);
+            return Outcome.DUPLICATE;
+        }
+
+        if (ingestionMode == WebhookIngestionMode.INBOX) {
+            // Reject providers without webhook support and forged webhooks up front, then ACK after the durable append
+            providerRouter.routeWebhook(provider).verifySignature(payload, headers);
+            Long entryId = inboxService.append(provider, payload.toUtf8String(), headers);
+            log.debug("Webhook appended to inbox: provider={}, entryId={}", provider, entryId);
+            return Outcome.ACCEPTED;
+        }
+
+        if (ingestionMode == WebhookIngestionMode.JOURNAL) {
+            providerRouter.routeWebhook(provider).verifySignature(payload, headers);
+            long offset = journal.append(provider, payload, headers);
+            if (!journal.awaitDurable(offset, journalAckTimeout)) {
+                // Not durable yet - make the provider redeliver rather than ACK a webhook we may lose
+                log.error("Webhook journal commit timed out: provider={}, offset={}", provider, offset);
+                return Outcome.NOT_DURABLE;
+            }
+            return Outcome.ACCEPTED;
+        }
+
+        // Service handles routing, parsing, and processing
+        paymentService.processWebhook(provider, payload, headers);
+        log.info("Webhook processed successfully: provider={}", provider);
+        return Outcome.ACCEPTED;
+    }
+}
@@ -0,0 +1,114 @@
+package com.tymex.payment.service.webhook;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.util.KeyOrderedExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs per-webhook processing on key-ordered lanes: webhooks for the same
+ * providerTransactionId are processed serially on one lane, so concurrent or out-of-order
+ * redeliveries never race each other into optimistic-lock conflicts, while webhooks for
+ * different payments run in parallel across lanes.
+ * 
+ * Lane count (payment.webhook.lanes.count) defaults to the number of CPU cores and is also
+ * used to shard WebhookBatcher. With lanes disabled, tasks run inline on the caller thread.
+ * 
+ * Metrics:
+ * - payment.webhook.lock.conflicts: optimistic-lock failures while processing webhooks
+ * - payment.webhook.lanes.queued: webhooks waiting for their lane
+ */
+@Component
+public class WebhookLaneDispatcher {
+    
+    private final KeyOrderedExecutor executor;
+    private final long awaitTimeoutMs;
+    private final Counter lockConflicts;
+    
+    public WebhookLaneDispatcher(PaymentProperties paymentProperties, MeterRegistry meterRegistry) {
+        PaymentProperties.Lanes config = paymentProperties.getWebhook().getLanes();
+        this.awaitTimeoutMs = config.getAwaitTimeoutMs();
+        this.executor = Boolean.TRUE.equals(config.getEnabled())
+            ? new KeyOrderedExecutor("webhook-lane-", config.resolveCount(), config.getQueueCapacity())
+            : null;
+        this.lockConflicts = Counter.builder("payment.webhook.lock.conflicts")
+            .description("Optimistic-lock failures while processing webhooks")
+            .register(meterRegistry);
+        if (executor != null) {
+            Gauge.builder("payment.webhook.lanes.queued", executor, KeyOrderedExecutor::queuedTasks)
+                .description("Webhooks waiting for their processing lane")
+                .register(meterRegistry);
+        }
+    }
+    
+    /**
+     * Runs the task on the lane of the key and waits for it, rethrowing its failure as-is.
+     * 
+     * @param providerTransactionId the ordering key
+     * @param task the webhook processing task
+     * @throws IllegalStateException if the lane is full or the task does not finish in time
+     */
+    public void run(String providerTransactionId, Runnable task) {
+        if (executor == null) {
+            runCounting(task);
+            return;
+        }
+        
+        CompletableFuture<Void> future;
+        try {
+            future = executor.submit(providerTransactionId, () -> {
+                runCounting(task);
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Webhook lane queue is full", e);
+        }
+        
+        try {
+            future.get(awaitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Webhook not processed within " + awaitTimeoutMs + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for webhook lane", e);
+        }
+    }
+    
+    /**
+     * Records an optimistic-lock conflict observed outside {@link #run} (e.g. by the batcher).
+     */
+    public void recordLockConflict() {
+        lockConflicts.increment();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+    
+    private void runCounting(Runnable task) {
+        try {
+            task.run();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            lockConflicts.increment();
+            throw e;
+        }
+    }
+}
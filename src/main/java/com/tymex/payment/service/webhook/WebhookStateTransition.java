@@ -0,0 +1,77 @@
+package com.tymex.payment.service.webhook;
+
+import com.tymex.payment.dto.PaymentResponseDTO;
+import com.tymex.payment.entity.PaymentRequest;
+import com.tymex.payment.enums.ErrorCode;
+import com.tymex.payment.enums.PaymentStatus;
+import com.tymex.payment.service.JsonSerializationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Applies the final state carried by a webhook to a PROCESSING payment record (in memory only).
+ * Shared by the per-webhook path in PaymentService and the batched path in WebhookBatcher,
+ * which persist the record differently (JPA save vs. one JDBC batch).
+ */
+@Component
+public class WebhookStateTransition {
+    
+    private final JsonSerializationService jsonSerializationService;
+    
+    public WebhookStateTransition(JsonSerializationService jsonSerializationService) {
+        this.jsonSerializationService = jsonSerializationService;
+    }
+    
+    /**
+     * Moves the record to COMPLETED or FAILED and stores the final response body.
+     * 
+     * @param record the payment record (expected to be PROCESSING)
+     * @param transactionNo the final transaction number (from webhook, may be null if failed)
+     * @param status the payment status (COMPLETED or FAILED)
+     * @return true if the record was changed, false for any other status
+     */
+    public boolean apply(PaymentRequest record, String transactionNo, PaymentStatus status) {
+        if (status == PaymentStatus.COMPLETED) {
+            record.setProcessingStatus(PaymentRequest.ProcessingStatus.COMPLETED);
+            record.setTransactionNo(transactionNo);
+            record.setPaymentStatus(PaymentStatus.COMPLETED.getValue());
+            record.setResponseStatus(HttpStatus.OK.value());
+            
+            // Update response body with final status
+            PaymentResponseDTO finalResponse = PaymentResponseDTO.of(
+                    transactionNo,
+                    PaymentStatus.COMPLETED,
+                    record.getAmount(),
+                    record.getPaymentMethod(),
+                    record.getDescription(),
+                    LocalDateTime.now(),
+                    record.getPaymentProvider()
+            );
+            record.setResponseBody(jsonSerializationService.serializeResponse(finalResponse));
+            return true;
+        }
+        
+        if (status == PaymentStatus.FAILED) {
+            record.setProcessingStatus(PaymentRequest.ProcessingStatus.FAILED);
+            record.setPaymentStatus(PaymentStatus.FAILED.getValue());
+            record.setResponseStatus(HttpStatus.OK.value()); // 200 OK (gracefully handled)
+            
+            // Update response body with failure status
+            PaymentResponseDTO failedResponse = PaymentResponseDTO.failed(
+                    record.getAmount(),
+                    record.getPaymentMethod(),
+                    record.getDescription(),
+                    LocalDateTime.now(),
+                    record.getPaymentProvider(),
+                    ErrorCode.PAYMENT_FAILED.getCode(),
+                    "Payment processing failed"
+            );
+            record.setResponseBody(jsonSerializationService.serializeResponse(failedResponse));
+            return true;
+        }
+        
+        return false;
+    }
+}
@@ -0,0 +1,22 @@
+package com.tymex.payment.service.webhook.journal;
+
+import com.tymex.payment.enums.PaymentProvider;
+
+import java.util.Map;
+
+/**
+ * Webhook read back from the journal.
+ *
+ * @param offset logical offset of the entry
+ * @param nextOffset logical offset right after the entry (the consumer's next read position)
+ * @param provider the payment provider
+ * @param headers the webhook headers as received
+ * @param payload the raw webhook payload bytes
+ */
+public record JournalEntry(
+    long offset,
+    long nextOffset,
+    PaymentProvider provider,
+    Map<String, String> headers,
+    byte[] payload
+) {}
@@ -0,0 +1,439 @@
+package com.tymex.payment.service.webhook.journal;
+
+import com.tymex.payment.dto.WebhookPayload;
+import com.tymex.payment.enums.PaymentProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only webhook journal on memory-mapped segment files.
+ *
+ * Layout:
+ * - Segment files {@code <baseOffset>.wal} of a fixed size, mapped read-write.
+ *   Logical offset = segment base offset + position in segment.
+ * - Entry: [int length][int crc32c(body)][body]; a zero length marks the end of written data.
+ * - Body: [byte provider][short headerCount]([short len][key][short len][value])*[payload]
+ *
+ * Durability uses group commit: appends only write into the mapping, and a flusher thread
+ * forces the written range to disk every flush interval. {@link #awaitDurable} blocks a
+ * request until its entry is covered by a flush, so one fsync acknowledges many webhooks.
+ *
+ * The consumer offset is kept in {@code consumer.offset}; segments entirely below it are
+ * deleted. On open, the last segment is scanned and truncated after the last entry with a
+ * valid CRC, and consumption resumes from the stored consumer offset.
+ */
+public class WebhookJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookJournal.class);
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CONSUMER_OFFSET_FILE = "consumer.offset";
+    private static final PaymentProvider[] PROVIDERS = PaymentProvider.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ConcurrentNavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final FileChannel consumerOffsetChannel;
+    private final ScheduledExecutorService flusher;
+
+    // Writer state, guarded by writeLock
+    private final Object writeLock = new Object();
+    private Segment active;
+    private int writePosition;
+    private int flushedPosition;
+
+    // Durability tracking
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durableAdvanced = durableLock.newCondition();
+    private volatile long writeOffset;
+    private volatile long durableOffset;
+    private volatile long consumerOffset;
+
+    /**
+     * Opens (or creates) a journal, recovering any existing segments.
+     *
+     * @param directory directory holding segment files and the consumer offset
+     * @param segmentSize size of each segment file in bytes
+     * @param flushInterval group-commit interval
+     */
+    public WebhookJournal(Path directory, int segmentSize, Duration flushInterval) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+
+        this.consumerOffsetChannel = FileChannel.open(directory.resolve(CONSUMER_OFFSET_FILE),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recover();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "webhook-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMicros = flushInterval.toNanos() / 1000;
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMicros, intervalMicros, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Appends a webhook. The entry is visible to the consumer only once it is durable.
+     *
+     * @return the logical offset right after the entry (pass to {@link #awaitDurable})
+     * @throws IllegalArgumentException if the entry does not fit in one segment
+     */
+    public long append(PaymentProvider provider, WebhookPayload payload, Map<String, String> headers) {
+        byte[] body = encodeBody(provider, payload, headers);
+        int entrySize = HEADER_BYTES + body.length;
+        if (entrySize > segmentSize) {
+            throw new IllegalArgumentException("Webhook of " + body.length + " bytes exceeds journal segment size");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+
+        synchronized (writeLock) {
+            if (writePosition + entrySize > segmentSize) {
+                roll();
+            }
+            MappedByteBuffer buffer = active.buffer;
+            buffer.put(writePosition + HEADER_BYTES, body);
+            buffer.putInt(writePosition + 4, (int) crc.getValue());
+            buffer.putInt(writePosition, body.length);  // Length last: a torn entry reads as end-of-data
+            writePosition += entrySize;
+            writeOffset = active.baseOffset + writePosition;
+            return writeOffset;
+        }
+    }
+
+    /**
+     * Blocks until everything up to {@code offset} has been forced to disk.
+     *
+     * @return true if durable, false on timeout
+     */
+    public boolean awaitDurable(long offset, Duration timeout) throws InterruptedException {
+        if (durableOffset >= offset) {
+            return true;
+        }
+        long remaining = timeout.toNanos();
+        durableLock.lock();
+        try {
+            while (durableOffset < offset) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = durableAdvanced.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the durable entry at {@code offset}, following segment boundaries.
+     *
+     * @return the entry, or null if nothing durable is available at that offset yet
+     * @throws IllegalStateException if the entry fails its CRC check
+     */
+    public JournalEntry read(long offset) {
+        while (offset < durableOffset) {
+            Map.Entry<Long, Segment> floor = segments.floorEntry(offset);
+            if (floor == null) {
+                // Segment already deleted - continue from the first remaining one
+                offset = segments.isEmpty() ? durableOffset : segments.firstKey();
+                continue;
+            }
+            Segment segment = floor.getValue();
+            int position = (int) (offset - segment.baseOffset);
+            int length = position + HEADER_BYTES <= segmentSize ? segment.buffer.getInt(position) : 0;
+            if (length == 0) {
+                // End of this segment's data - move to the next segment
+                Long next = segments.higherKey(segment.baseOffset);
+                if (next == null) {
+                    return null;
+                }
+                offset = next;
+                continue;
+            }
+
+            byte[] body = new byte[length];
+            segment.buffer.get(position + HEADER_BYTES, body);
+            CRC32C crc = new CRC32C();
+            crc.update(body);
+            if ((int) crc.getValue() != segment.buffer.getInt(position + 4)) {
+                throw new IllegalStateException("Journal entry at offset " + offset + " failed CRC check");
+            }
+            return decodeEntry(offset, offset + HEADER_BYTES + length, body);
+        }
+        return null;
+    }
+
+    /**
+     * Offset of the segment after the one containing {@code offset} (used to skip corruption).
+     */
+    public long nextSegmentOffset(long offset) {
+        Long next = segments.higherKey(offset);
+        return next != null ? next : durableOffset;
+    }
+
+    public long getConsumerOffset() {
+        return consumerOffset;
+    }
+
+    public long getWriteOffset() {
+        return writeOffset;
+    }
+
+    public long getDurableOffset() {
+        return durableOffset;
+    }
+
+    /**
+     * Persists the consumer offset and deletes segments that are fully consumed.
+     */
+    public void commitConsumerOffset(long offset) {
+        try {
+            ByteBuffer value = ByteBuffer.allocate(Long.BYTES).putLong(0, offset);
+            consumerOffsetChannel.write(value, 0);
+            consumerOffsetChannel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to persist journal consumer offset", e);
+        }
+        consumerOffset = offset;
+        deleteConsumedSegments(offset);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+        consumerOffsetChannel.close();
+    }
+
+    /**
+     * Group commit: forces everything written since the previous flush, then wakes waiters.
+     */
+    void flush() {
+        Segment segment;
+        int from;
+        int to;
+        long offset;
+        synchronized (writeLock) {
+            segment = active;
+            from = flushedPosition;
+            to = writePosition;
+            offset = writeOffset;
+            flushedPosition = writePosition;
+        }
+        if (offset == durableOffset) {
+            return;
+        }
+        if (to > from) {
+            segment.buffer.force(from, to - from);
+        }
+        durableLock.lock();
+        try {
+            durableOffset = offset;
+            durableAdvanced.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Webhook journal flush failed", e);
+        }
+    }
+
+    /**
+     * Seals the active segment (forcing its unflushed tail) and starts a new one. Caller holds writeLock.
+     */
+    private void roll() {
+        if (writePosition > flushedPosition) {
+            active.buffer.force(flushedPosition, writePosition - flushedPosition);
+        }
+        long nextBase = active.baseOffset + segmentSize;
+        active = openSegment(nextBase);
+        writePosition = 0;
+        flushedPosition = 0;
+        writeOffset = nextBase;
+        log.info("Webhook journal rolled to segment {}", nextBase);
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            segments.put(base, openSegment(base));
+        }
+        if (segments.isEmpty()) {
+            segments.put(0L, openSegment(0L));
+        }
+
+        active = segments.lastEntry().getValue();
+        writePosition = scanValidEntries(active);
+        // Truncate anything after the last valid entry so a later recovery never replays stale bytes
+        for (int i = writePosition; i < segmentSize; i += Long.BYTES) {
+            if (segmentSize - i >= Long.BYTES) {
+                active.buffer.putLong(i, 0L);
+            } else {
+                active.buffer.put(i, (byte) 0);
+            }
+        }
+        active.buffer.force();
+        flushedPosition = writePosition;
+        writeOffset = active.baseOffset + writePosition;
+        durableOffset = writeOffset;
+
+        long storedOffset = consumerOffsetChannel.size() >= Long.BYTES
+            ? readStoredConsumerOffset()
+            : segments.firstKey();
+        consumerOffset = Math.max(segments.firstKey(), Math.min(storedOffset, writeOffset));
+        log.info("Webhook journal recovered: segments={}, writeOffset={}, consumerOffset={}",
+                segments.size(), writeOffset, consumerOffset);
+    }
+
+    private long readStoredConsumerOffset() throws IOException {
+        ByteBuffer value = ByteBuffer.allocate(Long.BYTES);
+        consumerOffsetChannel.read(value, 0);
+        return value.getLong(0);
+    }
+
+    /**
+     * @return position right after the last entry with a valid length and CRC
+     */
+    private int scanValidEntries(Segment segment) {
+        int position = 0;
+        while (position + HEADER_BYTES <= segmentSize) {
+            int length = segment.buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > segmentSize) {
+                break;
+            }
+            byte[] body = new byte[length];
+            segment.buffer.get(position + HEADER_BYTES, body);
+            CRC32C crc = new CRC32C();
+            crc.update(body);
+            if ((int) crc.getValue() != segment.buffer.getInt(position + 4)) {
+                log.warn("Webhook journal: torn entry at offset {}, truncating", segment.baseOffset + position);
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private void deleteConsumedSegments(long offset) {
+        for (Map.Entry<Long, Segment> entry : segments.entrySet()) {
+            Segment segment = entry.getValue();
+            if (segment == active || segment.baseOffset + segmentSize > offset) {
+                break;
+            }
+            segments.remove(entry.getKey());
+            try {
+                segment.channel.close();
+                // The mapping itself is released when the buffer is garbage collected
+                Files.deleteIfExists(segment.path);
+                log.info("Webhook journal deleted consumed segment {}", segment.baseOffset);
+            } catch (IOException e) {
+                log.warn("Failed to delete webhook journal segment {}: {}", segment.path, e.getMessage());
+            }
+        }
+    }
+
+    private Segment openSegment(long baseOffset) {
+        Path path = directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+        try {
+            FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            Segment segment = new Segment(baseOffset, path, channel, buffer);
+            segments.put(baseOffset, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open webhook journal segment " + path, e);
+        }
+    }
+
+    private static byte[] encodeBody(PaymentProvider provider, WebhookPayload payload, Map<String, String> headers) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length() + 256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(provider.ordinal());
+            out.writeShort(headers.size());
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                writeString(out, header.getKey());
+                writeString(out, header.getValue());
+            }
+            out.write(payload.buffer(), payload.offset(), payload.length());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static JournalEntry decodeEntry(long offset, long nextOffset, byte[] body) {
+        ByteBuffer in = ByteBuffer.wrap(body);
+        PaymentProvider provider = PROVIDERS[in.get()];
+        int headerCount = Short.toUnsignedInt(in.getShort());
+        Map<String, String> headers = new LinkedHashMap<>(headerCount * 2);
+        for (int i = 0; i < headerCount; i++) {
+            headers.put(readString(in), readString(in));
+        }
+        byte[] payload = new byte[in.remaining()];
+        in.get(payload);
+        return new JournalEntry(offset, nextOffset, provider, headers, payload);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Segment(long baseOffset, Path path, FileChannel channel, MappedByteBuffer buffer) {}
+}
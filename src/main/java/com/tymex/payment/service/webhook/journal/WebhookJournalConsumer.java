@@ -0,0 +1,188 @@
+package com.tymex.payment.service.webhook.journal;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.WebhookPayload;
+import com.tymex.payment.service.PaymentService;
+import com.tymex.payment.service.webhook.WebhookInboxService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single background consumer feeding journal entries, in append order, into PaymentService.processWebhook.
+ * Only runs when the WebhookJournal bean exists (payment.webhook.ingestion-mode is JOURNAL).
+ *
+ * The consumer offset is committed every commit-every entries and whenever the consumer catches up,
+ * so a crash replays at most that many already-processed webhooks (processWebhook is idempotent).
+ * A failing entry is retried in place (entries behind it wait, preserving order). Once it still
+ * fails after max-attempts it is parked as a FAILED webhook inbox entry - the provider already got
+ * its 200, so it will not redeliver - and the consumer moves on. An entry still being retried when
+ * the consumer stops is left unconsumed and replayed on the next start.
+ *
+ * Metrics:
+ * - payment.webhook.journal.backlog: durable bytes not yet consumed
+ * - payment.webhook.journal.processed / payment.webhook.journal.failed: outcomes (failed = parked)
+ * - payment.webhook.journal.corrupt: unreadable segment tails skipped (their webhooks are lost)
+ */
+@Component
+public class WebhookJournalConsumer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookJournalConsumer.class);
+
+    private final WebhookJournal journal;
+    private final PaymentService paymentService;
+    private final WebhookInboxService inboxService;
+    private final PaymentProperties.Journal config;
+    private final Counter processed;
+    private final Counter failed;
+    private final Counter corrupt;
+
+    private Thread consumer;
+    private volatile boolean running;
+
+    public WebhookJournalConsumer(ObjectProvider<WebhookJournal> journal,
+                                  PaymentService paymentService,
+                                  WebhookInboxService inboxService,
+                                  PaymentProperties paymentProperties,
+                                  MeterRegistry meterRegistry) {
+        this.journal = journal.getIfAvailable();
+        this.paymentService = paymentService;
+        this.inboxService = inboxService;
+        this.config = paymentProperties.getWebhook().getJournal();
+        this.processed = meterRegistry.counter("payment.webhook.journal.processed");
+        this.failed = meterRegistry.counter("payment.webhook.journal.failed");
+        this.corrupt = meterRegistry.counter("payment.webhook.journal.corrupt");
+
+        if (this.journal != null) {
+            Gauge.builder("payment.webhook.journal.backlog", this.journal,
+                    j -> j.getDurableOffset() - j.getConsumerOffset())
+                .description("Durable webhook journal bytes not yet consumed")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (journal == null || running) {
+            return;
+        }
+        running = true;
+        consumer = new Thread(this::consumeLoop, "webhook-journal-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+        log.info("Webhook journal consumer started at offset {}", journal.getConsumerOffset());
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (consumer == null) {
+            return;
+        }
+        consumer.interrupt();
+        try {
+            consumer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        consumer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void consumeLoop() {
+        long offset = journal.getConsumerOffset();
+        int uncommitted = 0;
+        while (running) {
+            try {
+                JournalEntry entry;
+                try {
+                    entry = journal.read(offset);
+                } catch (IllegalStateException e) {
+                    // Corrupt entry - nothing after it in this segment can be framed, skip to the next one
+                    long next = journal.nextSegmentOffset(offset);
+                    corrupt.increment();
+                    log.error("{}; skipping journal bytes [{}, {}) to the next segment", e.getMessage(), offset, next);
+                    offset = next;
+                    continue;
+                }
+
+                if (entry == null) {
+                    if (uncommitted > 0) {
+                        journal.commitConsumerOffset(offset);
+                        uncommitted = 0;
+                    }
+                    Thread.sleep(config.getFlushIntervalMs());
+                    continue;
+                }
+
+                if (!process(entry)) {
+                    break;  // Stopping mid-retry: leave the entry for the next start
+                }
+                offset = entry.nextOffset();
+                if (++uncommitted >= config.getCommitEvery()) {
+                    journal.commitConsumerOffset(offset);
+                    uncommitted = 0;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Webhook journal consumer error at offset {}", offset, e);
+            }
+        }
+        if (uncommitted > 0) {
+            journal.commitConsumerOffset(offset);
+        }
+    }
+
+    /**
+     * @return true if the entry is consumed (processed or parked), false if the consumer is stopping
+     */
+    private boolean process(JournalEntry entry) throws InterruptedException {
+        WebhookPayload payload = WebhookPayload.of(entry.payload());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                paymentService.processWebhook(entry.provider(), payload, entry.headers());
+                processed.increment();
+                return true;
+            } catch (Exception e) {
+                if (attempt >= config.getMaxAttempts()) {
+                    park(entry, attempt, e);
+                    return true;
+                }
+                if (!running) {
+                    return false;
+                }
+                log.warn("Webhook journal entry at offset {} failed (attempt {}), will retry: {}",
+                        entry.offset(), attempt, e.getMessage());
+                Thread.sleep((long) config.getRetryDelayMs() * attempt);
+            }
+        }
+    }
+
+    private void park(JournalEntry entry, int attempts, Exception error) {
+        failed.increment();
+        String payload = new String(entry.payload(), StandardCharsets.UTF_8);
+        try {
+            Long inboxId = inboxService.park(entry.provider(), payload, entry.headers(), attempts, error);
+            log.error("Webhook journal entry at offset {} failed permanently after {} attempts, parked as "
+                    + "FAILED webhook inbox entry {}: {}", entry.offset(), attempts, inboxId, error.getMessage());
+        } catch (Exception e) {
+            log.error("Webhook journal entry at offset {} failed permanently after {} attempts and could not be "
+                    + "parked ({}), dropping {} webhook: {} - last error: {}", entry.offset(), attempts,
+                    e.getMessage(), entry.provider(), payload, error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.tymex.payment.util;
+
+import java.time.Duration;
+
+/**
+ * Immutable point in time by which a request must be answered.
+ * Carried from the controller through PaymentService, the retry loop and the provider call
+ * so work stops once the caller has given up waiting.
+ * 
+ * Uses System.nanoTime() so it is immune to wall-clock adjustments.
+ */
+public final class Deadline {
+    
+    /** Header carrying the client's time budget in milliseconds */
+    public static final String REQUEST_TIMEOUT_HEADER = "Request-Timeout";
+    
+    private static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+    
+    private final long deadlineNanos;
+    
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+    
+    /**
+     * Creates a deadline the given duration from now.
+     * 
+     * @param timeout the time budget
+     * @return the deadline
+     */
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+    
+    /**
+     * @return a deadline that never expires (no caller budget)
+     */
+    public static Deadline none() {
+        return NONE;
+    }
+    
+    /**
+     * Builds a request deadline from a Request-Timeout header value (milliseconds),
+     * falling back to defaultTimeoutMs and capping at maxTimeoutMs.
+     * A default of 0 disables the deadline when the client sends none.
+     * 
+     * @param requestTimeout the header value (may be null)
+     * @param defaultTimeoutMs budget when the header is absent (0 = unbounded)
+     * @param maxTimeoutMs upper bound for any budget
+     * @return the deadline
+     * @throws IllegalArgumentException if the header is not a positive integer
+     */
+    public static Deadline fromRequestTimeout(String requestTimeout, long defaultTimeoutMs, long maxTimeoutMs) {
+        long timeoutMs;
+        if (requestTimeout == null || requestTimeout.isBlank()) {
+            timeoutMs = defaultTimeoutMs;
+            if (timeoutMs <= 0) {
+                return none();
+            }
+        } else {
+            try {
+                timeoutMs = Long.parseLong(requestTimeout.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(REQUEST_TIMEOUT_HEADER + " must be a number of milliseconds");
+            }
+            if (timeoutMs <= 0) {
+                throw new IllegalArgumentException(REQUEST_TIMEOUT_HEADER + " must be positive");
+            }
+        }
+        return after(Duration.ofMillis(Math.min(timeoutMs, maxTimeoutMs)));
+    }
+    
+    public boolean isBounded() {
+        return this != NONE;
+    }
+    
+    /**
+     * @return the remaining budget, never negative
+     */
+    public Duration remaining() {
+        if (!isBounded()) {
+            return Duration.ofNanos(Long.MAX_VALUE);
+        }
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+    
+    public boolean isExpired() {
+        return isBounded() && deadlineNanos - System.nanoTime() <= 0;
+    }
+    
+    /**
+     * Whether the remaining budget can still fit the given amount of work.
+     * 
+     * @param needed the time the next step is expected to take
+     * @return true if the step fits in the remaining budget
+     */
+    public boolean canFit(Duration needed) {
+        return !isBounded() || remaining().compareTo(needed) >= 0;
+    }
+    
+    /**
+     * Caps a timeout to the remaining budget.
+     * 
+     * @param timeout the configured timeout of the next operation
+     * @return the smaller of the timeout and the remaining budget
+     */
+    public Duration cap(Duration timeout) {
+        Duration remaining = remaining();
+        return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+    
+    @Override
+    public String toString() {
+        return isBounded() ? "Deadline[remaining=" + remaining().toMillis() + "ms]" : "Deadline[none]";
+    }
+}
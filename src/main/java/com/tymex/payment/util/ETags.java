@@ -0,0 +1,43 @@
+package com.tymex.payment.util;
+
+/**
+ * Entity tags of the payment status endpoint: the record version, as a weak tag.
+ * 
+ * The status is served as JSON, CBOR or Protobuf depending on Accept, so one version has
+ * several byte-different representations: the tag is weak (same content, not the same bytes)
+ * and responses carry Vary: Accept so shared caches keep one entry per format.
+ */
+public final class ETags {
+    
+    // Prevent instantiation
+    private ETags() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+    
+    /**
+     * @param version the record version
+     * @return the weak entity tag of that version
+     */
+    public static String of(long version) {
+        return "W/\"" + version + "\"";
+    }
+    
+    /**
+     * Weak comparison of an If-None-Match header ("*" or a comma-separated list of
+     * possibly W/-prefixed entity tags) against the current ETag.
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        String current = opaqueTag(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = opaqueTag(candidate.trim());
+            if (tag.equals("*") || tag.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String opaqueTag(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+}
@@ -0,0 +1,92 @@
+package com.tymex.payment.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Executor with N single-threaded lanes; a task runs on the lane its key hashes to.
+ * 
+ * Tasks with the same key therefore run one at a time in submission order (no lock
+ * conflicts between them), while tasks with different keys spread across lanes and
+ * run in parallel. Each lane has a bounded queue; a full lane rejects new tasks.
+ */
+public final class KeyOrderedExecutor implements AutoCloseable {
+    
+    private final ThreadPoolExecutor[] lanes;
+    
+    /**
+     * @param threadNamePrefix lane threads are named prefix + lane index
+     * @param laneCount number of lanes (threads)
+     * @param queueCapacity maximum queued tasks per lane
+     */
+    public KeyOrderedExecutor(String threadNamePrefix, int laneCount, int queueCapacity) {
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String name = threadNamePrefix + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        }
+    }
+    
+    /**
+     * Maps a key to a lane index in [0, laneCount).
+     */
+    public static int laneOf(Object key, int laneCount) {
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), laneCount);
+    }
+    
+    /**
+     * Runs the task on the lane of the key.
+     * 
+     * @param key the ordering key (tasks with equal keys never run concurrently)
+     * @param task the task
+     * @return future completed with the task's result or failure
+     * @throws RejectedExecutionException if the lane queue is full or the executor is closed
+     */
+    public <T> CompletableFuture<T> submit(Object key, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, lanes[laneOf(key, lanes.length)]);
+    }
+    
+    public int laneCount() {
+        return lanes.length;
+    }
+    
+    /**
+     * @return tasks waiting across all lanes
+     */
+    public int queuedTasks() {
+        int queued = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            queued += lane.getQueue().size();
+        }
+        return queued;
+    }
+    
+    /**
+     * Stops accepting tasks and waits briefly for queued ones to finish.
+     */
+    @Override
+    public void close() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            try {
+                lane.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.tymex.payment.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Self-routing payment references for async providers.
+ *
+ * The reference we send as the provider order id encodes our payment record id plus a checksum:
+ * "PR-" + base36(id) + "-" + 4 base36 checksum chars (e.g. "PR-2n9c-0k3f").
+ * When the provider echoes it back in a webhook, the record is fetched by primary key
+ * instead of looking up provider_transaction_id.
+ *
+ * The checksum only catches corrupted or foreign references (e.g. legacy idempotency-key
+ * order ids); authenticity comes from the webhook signature, and callers still check that
+ * the resolved record belongs to the webhook's provider transaction.
+ *
+ * This is a utility class with static methods - no Spring management needed.
+ */
+public final class PaymentReference {
+
+    private static final String PREFIX = "PR-";
+    private static final int RADIX = 36;
+    private static final int CHECKSUM_LENGTH = 4;
+    private static final long CHECKSUM_MODULUS = 36L * 36 * 36 * 36;
+
+    // Prevent instantiation
+    private PaymentReference() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Encodes a payment record id as a self-routing reference.
+     *
+     * @param id the payment record id (primary key)
+     * @return the reference to send to the provider
+     */
+    public static String encode(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Payment id must not be negative: " + id);
+        }
+        String body = PREFIX + Long.toString(id, RADIX);
+        return body + "-" + checksum(body);
+    }
+
+    /**
+     * Decodes a reference produced by {@link #encode(long)}.
+     *
+     * @param reference the reference echoed back by the provider (may be null)
+     * @return the payment record id, or null if the reference is not a valid self-routing reference
+     */
+    public static Long decode(String reference) {
+        if (reference == null || !reference.startsWith(PREFIX)) {
+            return null;
+        }
+        int separator = reference.length() - CHECKSUM_LENGTH - 1;
+        if (separator <= PREFIX.length() || reference.charAt(separator) != '-') {
+            return null;
+        }
+        String body = reference.substring(0, separator);
+        if (!checksum(body).equals(reference.substring(separator + 1))) {
+            return null;
+        }
+        try {
+            long id = Long.parseLong(body, PREFIX.length(), body.length(), RADIX);
+            return id >= 0 ? id : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String checksum(String body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.US_ASCII));
+        String checksum = Long.toString(crc.getValue() % CHECKSUM_MODULUS, RADIX);
+        return "0".repeat(CHECKSUM_LENGTH - checksum.length()) + checksum;
+    }
+}
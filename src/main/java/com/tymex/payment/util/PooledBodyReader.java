@@ -0,0 +1,90 @@
+package com.tymex.payment.util;
+
+import com.tymex.payment.dto.WebhookPayload;
+import com.tymex.payment.exception.PayloadTooLargeException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reads a request body into a per-thread pooled byte buffer (one buffer per servlet
+ * worker thread, reused across requests) instead of allocating a new array or String
+ * per request.
+ * 
+ * Buffers grow to fit the body; a buffer larger than MAX_RETAINED_BYTES is used once and
+ * dropped, so an occasional large body does not pin memory on every thread.
+ * The returned payload is only valid on the calling thread until its next read.
+ * 
+ * The body is bounded by the caller's limit whatever its Content-Type (JsonRequestSizeLimitFilter
+ * only sees API formats): a declared length over it is rejected before anything is allocated,
+ * and a chunked body never grows the buffer past it.
+ */
+public final class PooledBodyReader {
+    
+    private static final int INITIAL_BYTES = 4 * 1024;
+    private static final int MAX_RETAINED_BYTES = 64 * 1024;
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[INITIAL_BYTES]);
+    
+    // Prevent instantiation
+    private PooledBodyReader() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+    
+    /**
+     * Reads the whole stream into the calling thread's buffer.
+     * 
+     * @param in the body stream
+     * @param contentLength declared body length, or -1 if unknown (chunked)
+     * @param limit maximum body size
+     * @return the body as a slice of the pooled buffer
+     * @throws PayloadTooLargeException if the body is (or is declared) larger than the limit
+     */
+    public static WebhookPayload read(InputStream in, long contentLength, DataSize limit) throws IOException {
+        // Leave room for the one byte past the limit that tells a full body from an oversized one
+        int maxBytes = (int) Math.min(Integer.MAX_VALUE - 8, limit.toBytes());
+        if (contentLength > maxBytes) {
+            throw tooLarge(limit);
+        }
+        byte[] buffer = BUFFER.get();
+        if (contentLength >= 0) {
+            if (contentLength > buffer.length) {
+                buffer = ensureCapacity(buffer, (int) contentLength);
+            }
+            return new WebhookPayload(buffer, 0, in.readNBytes(buffer, 0, (int) contentLength));
+        }
+        
+        // Unknown length - grow until end of stream, at most to one byte past the limit
+        int length = 0;
+        while (true) {
+            if (length == buffer.length) {
+                if (length > maxBytes) {
+                    throw tooLarge(limit);
+                }
+                buffer = ensureCapacity(buffer, (int) Math.min((long) buffer.length * 2, maxBytes + 1L));
+            }
+            int read = in.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        if (length > maxBytes) {
+            throw tooLarge(limit);
+        }
+        return new WebhookPayload(buffer, 0, length);
+    }
+    
+    private static PayloadTooLargeException tooLarge(DataSize limit) {
+        return new PayloadTooLargeException(String.format("Request body exceeds %s limit", limit));
+    }
+    
+    private static byte[] ensureCapacity(byte[] buffer, int capacity) {
+        byte[] grown = Arrays.copyOf(buffer, capacity);
+        if (capacity <= MAX_RETAINED_BYTES) {
+            BUFFER.set(grown);
+        }
+        return grown;
+    }
+}
@@ -0,0 +1,51 @@
+package com.tymex.payment.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only Map view of the request headers.
+ * 
+ * Lookups go straight to the servlet request (case-insensitive, no copy). Headers are only
+ * copied if the view is iterated (e.g. when a webhook is stored in the inbox or journal).
+ * Like the request itself, the view is only valid until the request completes.
+ */
+public final class RequestHeaderView extends AbstractMap<String, String> {
+    
+    private final HttpServletRequest request;
+    private Set<Map.Entry<String, String>> entries;
+    
+    public RequestHeaderView(HttpServletRequest request) {
+        this.request = request;
+    }
+    
+    @Override
+    public String get(Object key) {
+        return key instanceof String name ? request.getHeader(name) : null;
+    }
+    
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+    
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        if (entries == null) {
+            Map<String, String> headers = new LinkedHashMap<>();
+            Enumeration<String> names = request.getHeaderNames();
+            while (names.hasMoreElements()) {
+                String name = names.nextElement();
+                headers.put(name, request.getHeader(name));
+            }
+            entries = Collections.unmodifiableMap(headers).entrySet();
+        }
+        return entries;
+    }
+}
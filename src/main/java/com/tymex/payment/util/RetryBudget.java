@@ -0,0 +1,81 @@
+package com.tymex.payment.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket that caps retries to a fraction of recent first attempts.
+ * 
+ * Every first attempt deposits {@code ratio} tokens, every retry withdraws one token,
+ * and the bucket holds at most {@code maxTokens}. With ratio 0.2, retries can use at most
+ * ~20% of recent first-attempt traffic: when a provider is down and every call fails,
+ * the bucket drains and further retries are skipped instead of multiplying load.
+ * The cap makes the budget track recent traffic only.
+ * 
+ * Lock-free: tokens are kept in thousandths in a single AtomicLong.
+ */
+public final class RetryBudget {
+    
+    private static final long SCALE = 1000;
+    private static final RetryBudget UNLIMITED = new RetryBudget(0, 0, () -> { });
+    
+    private final long depositPerAttempt;
+    private final long maxTokens;
+    private final Runnable onExhausted;
+    private final AtomicLong tokens;
+    
+    /**
+     * @param ratio tokens deposited per first attempt (maximum retry/first-attempt ratio)
+     * @param maxTokens bucket capacity in retries (also the initial balance)
+     * @param onExhausted invoked each time a retry is refused (e.g. to count a metric)
+     */
+    public RetryBudget(double ratio, int maxTokens, Runnable onExhausted) {
+        this.depositPerAttempt = Math.round(ratio * SCALE);
+        this.maxTokens = maxTokens * SCALE;
+        this.onExhausted = onExhausted;
+        this.tokens = new AtomicLong(this.maxTokens);
+    }
+    
+    /**
+     * @return a budget that never refuses retries
+     */
+    public static RetryBudget unlimited() {
+        return UNLIMITED;
+    }
+    
+    /**
+     * Records a first attempt, depositing tokens up to the cap.
+     */
+    public void recordFirstAttempt() {
+        if (this == UNLIMITED) {
+            return;
+        }
+        tokens.accumulateAndGet(depositPerAttempt, (current, deposit) -> Math.min(maxTokens, current + deposit));
+    }
+    
+    /**
+     * Withdraws one retry token if available.
+     * 
+     * @return true if the retry may proceed, false if the budget is exhausted
+     */
+    public boolean tryAcquireRetry() {
+        if (this == UNLIMITED) {
+            return true;
+        }
+        long current;
+        do {
+            current = tokens.get();
+            if (current < SCALE) {
+                onExhausted.run();
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - SCALE));
+        return true;
+    }
+    
+    /**
+     * @return the current balance in retries (fractional)
+     */
+    public double availableRetries() {
+        return this == UNLIMITED ? Double.POSITIVE_INFINITY : (double) tokens.get() / SCALE;
+    }
+}
@@ -1,8 +1,15 @@
 package com.tymex.payment.util;
 
+import com.tymex.payment.exception.DeadlineExceededException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
 import java.util.function.Supplier;
 
 /**
@@ -15,6 +22,7 @@ public final class RetryUtil {
     
     private static final Logger log = LoggerFactory.getLogger(RetryUtil.class);
     public static final int DEFAULT_RETRY_ATTEMPT = 3;
+    private static final LongConsumer NO_BACKOFF_OBSERVER = nanos -> { };
     
     // Prevent instantiation
     private RetryUtil() {
@@ -31,8 +39,49 @@ public final class RetryUtil {
      * @throws Exception Last exception if all retries fail
      */
     public static <T> T executeWithRetry(Supplier<T> operation, int maxAttempts) throws Exception {
+        return executeWithRetry(operation, maxAttempts, Deadline.none(), Duration.ZERO, RetryBudget.unlimited());
+    }
+    
+    /**
+     * Executes an operation with retry logic using exponential backoff (1s, 2s, 4s), bounded by a deadline.
+     * 
+     * Before every attempt the remaining budget is checked: if it cannot fit the backoff sleep
+     * plus the expected attempt duration, retrying stops early with a DeadlineExceededException
+     * (carrying the last failure as cause) instead of sleeping past the point the caller gave up.
+     * 
+     * @param operation The operation to execute
+     * @param maxAttempts Maximum number of attempts (use DEFAULT_RETRY_ATTEMPT or custom value)
+     * @param deadline The request deadline (Deadline.none() for unbounded)
+     * @param minAttemptDuration Minimum time an attempt needs to be worth starting
+     * @param retryBudget Shared retry budget of the target (RetryBudget.unlimited() for none);
+     *                    when it is exhausted the last failure is thrown without retrying
+     * @param <T> Return type
+     * @return Result of the operation
+     * @throws DeadlineExceededException if the deadline leaves no room for another attempt
+     * @throws Exception Last exception if all retries fail or the retry budget is exhausted
+     */
+    public static <T> T executeWithRetry(Supplier<T> operation, int maxAttempts,
+                                         Deadline deadline, Duration minAttemptDuration,
+                                         RetryBudget retryBudget) throws Exception {
+        return executeWithRetry(operation, maxAttempts, deadline, minAttemptDuration, retryBudget, NO_BACKOFF_OBSERVER);
+    }
+    
+    /**
+     * Same as {@link #executeWithRetry(Supplier, int, Deadline, Duration, RetryBudget)}, reporting
+     * how long each backoff sleep actually took.
+     * 
+     * @param backoffObserver Called with the nanoseconds slept after each backoff
+     */
+    public static <T> T executeWithRetry(Supplier<T> operation, int maxAttempts,
+                                         Deadline deadline, Duration minAttemptDuration,
+                                         RetryBudget retryBudget, LongConsumer backoffObserver) throws Exception {
         Exception lastException = null;
         
+        if (!deadline.canFit(minAttemptDuration)) {
+            throw new DeadlineExceededException("Request deadline exceeded before first attempt");
+        }
+        retryBudget.recordFirstAttempt();
+        
         for (int attempt = 1; attempt <= maxAttempts; attempt++) {
             try {
                 return operation.get();
@@ -44,14 +93,32 @@ public final class RetryUtil {
                 if (attempt < maxAttempts) {
                     long backoffMs = calculateExponentialBackoff(attempt);
                     
+                    // Stop early if the caller's budget cannot fit the sleep plus another attempt
+                    if (!deadline.canFit(minAttemptDuration.plusMillis(backoffMs))) {
+                        log.warn("Operation failed (attempt {}/{}), not retrying: {} cannot fit {}ms backoff. Error: {}", 
+                                attempt, maxAttempts, deadline, backoffMs, e.getMessage());
+                        throw new DeadlineExceededException(
+                                "Request deadline exceeded after " + attempt + " attempt(s): " + e.getMessage(), e);
+                    }
+                    
+                    // Skip retrying when the shared budget is spent (prevents retry storms)
+                    if (!retryBudget.tryAcquireRetry()) {
+                        log.warn("Operation failed (attempt {}/{}), not retrying: retry budget exhausted. Error: {}", 
+                                attempt, maxAttempts, e.getMessage());
+                        throw e;
+                    }
+                    
                     log.warn("Operation failed (attempt {}/{}), retrying in {}ms. Error: {}", 
                             attempt, maxAttempts, backoffMs, e.getMessage());
                     
+                    long sleepStart = System.nanoTime();
                     try {
                         Thread.sleep(backoffMs);
                     } catch (InterruptedException ie) {
                         Thread.currentThread().interrupt();
                         throw new RuntimeException("Retry interrupted", ie);
+                    } finally {
+                        backoffObserver.accept(System.nanoTime() - sleepStart);
                     }
                     
                     continue; // Retry
@@ -69,6 +136,110 @@ public final class RetryUtil {
                 : new RuntimeException("Operation failed after " + maxAttempts + " attempts");
     }
     
+    /**
+     * Non-blocking variant of {@link #executeWithRetry(Supplier, int, Deadline, Duration, RetryBudget)}
+     * for operations that return a future: same backoff, deadline and retry-budget rules, but the
+     * backoff is a scheduled delay instead of a sleeping thread.
+     * 
+     * @param operation Starts one attempt (an exception thrown while starting counts as a failed attempt)
+     * @param maxAttempts Maximum number of attempts
+     * @param deadline The request deadline (Deadline.none() for unbounded)
+     * @param minAttemptDuration Minimum time an attempt needs to be worth starting
+     * @param retryBudget Shared retry budget of the target (RetryBudget.unlimited() for none)
+     * @param <T> Return type
+     * @return Future completed with the first successful result, or exceptionally with the last
+     *         failure (DeadlineExceededException if the deadline left no room for another attempt)
+     */
+    public static <T> CompletableFuture<T> executeWithRetryAsync(Supplier<CompletableFuture<T>> operation,
+                                                                 int maxAttempts, Deadline deadline,
+                                                                 Duration minAttemptDuration,
+                                                                 RetryBudget retryBudget) {
+        return executeWithRetryAsync(operation, maxAttempts, deadline, minAttemptDuration, retryBudget,
+                NO_BACKOFF_OBSERVER);
+    }
+    
+    /**
+     * Same as {@link #executeWithRetryAsync(Supplier, int, Deadline, Duration, RetryBudget)}, reporting
+     * how long each backoff delay actually took (scheduling to start of the next attempt).
+     * 
+     * @param backoffObserver Called with the nanoseconds of each backoff delay, on the delaying thread
+     */
+    public static <T> CompletableFuture<T> executeWithRetryAsync(Supplier<CompletableFuture<T>> operation,
+                                                                 int maxAttempts, Deadline deadline,
+                                                                 Duration minAttemptDuration,
+                                                                 RetryBudget retryBudget,
+                                                                 LongConsumer backoffObserver) {
+        if (!deadline.canFit(minAttemptDuration)) {
+            return CompletableFuture.failedFuture(
+                    new DeadlineExceededException("Request deadline exceeded before first attempt"));
+        }
+        retryBudget.recordFirstAttempt();
+        
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(operation, 1, maxAttempts, deadline, minAttemptDuration, retryBudget, backoffObserver, result);
+        return result;
+    }
+    
+    private static <T> void attemptAsync(Supplier<CompletableFuture<T>> operation, int attempt, int maxAttempts,
+                                         Deadline deadline, Duration minAttemptDuration,
+                                         RetryBudget retryBudget, LongConsumer backoffObserver,
+                                         CompletableFuture<T> result) {
+        CompletableFuture<T> call;
+        try {
+            call = operation.get();
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        
+        call.whenComplete((value, failure) -> {
+            if (failure == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable e = unwrap(failure);
+            if (attempt >= maxAttempts) {
+                log.error("Operation failed after {} attempts. Error: {}", attempt, e.getMessage());
+                result.completeExceptionally(e);
+                return;
+            }
+            
+            long backoffMs = calculateExponentialBackoff(attempt);
+            if (!deadline.canFit(minAttemptDuration.plusMillis(backoffMs))) {
+                log.warn("Operation failed (attempt {}/{}), not retrying: {} cannot fit {}ms backoff. Error: {}", 
+                        attempt, maxAttempts, deadline, backoffMs, e.getMessage());
+                result.completeExceptionally(new DeadlineExceededException(
+                        "Request deadline exceeded after " + attempt + " attempt(s): " + e.getMessage(), e));
+                return;
+            }
+            if (!retryBudget.tryAcquireRetry()) {
+                log.warn("Operation failed (attempt {}/{}), not retrying: retry budget exhausted. Error: {}", 
+                        attempt, maxAttempts, e.getMessage());
+                result.completeExceptionally(e);
+                return;
+            }
+            
+            log.warn("Operation failed (attempt {}/{}), retrying in {}ms. Error: {}", 
+                    attempt, maxAttempts, backoffMs, e.getMessage());
+            long delayStart = System.nanoTime();
+            CompletableFuture.delayedExecutor(backoffMs, TimeUnit.MILLISECONDS).execute(() -> {
+                backoffObserver.accept(System.nanoTime() - delayStart);
+                attemptAsync(operation, attempt + 1, maxAttempts, deadline, minAttemptDuration, retryBudget,
+                        backoffObserver, result);
+            });
+        });
+    }
+    
+    /**
+     * @return the failure a future was completed with, without CompletionException/ExecutionException wrappers
+     */
+    public static Throwable unwrap(Throwable failure) {
+        Throwable cause = failure;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+    
     /**
      * Calculates exponential backoff delay
      * Attempt 1: 1s (1000ms)
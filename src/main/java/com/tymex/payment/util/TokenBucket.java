@@ -0,0 +1,66 @@
+package com.tymex.payment.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate-limiting token bucket: refills at {@code ratePerSecond}, holds at most {@code burst} tokens.
+ *
+ * Lock-free: instead of a token count plus a last-refill timestamp, the whole state is one
+ * AtomicLong holding the "theoretical arrival time" (the instant the bucket would be full again,
+ * in System.nanoTime units). Taking a token advances it by one emission interval; the request is
+ * allowed while it stays within burst intervals of now. One CAS per request, no refill thread.
+ *
+ * A bucket whose arrival time is in the past is full and indistinguishable from a new one,
+ * so idle buckets can be dropped and recreated without losing state ({@link #isIdle(long)}).
+ */
+public final class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong arrivalTime;
+
+    /**
+     * @param ratePerSecond sustained requests per second (must be positive)
+     * @param burst requests allowed back to back from a full bucket (at least 1)
+     */
+    public TokenBucket(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1: rate="
+                    + ratePerSecond + ", burst=" + burst);
+        }
+        this.emissionIntervalNanos = Math.max(1, Math.round(NANOS_PER_SECOND / ratePerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.arrivalTime = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @param nowNanos the current System.nanoTime()
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(long nowNanos) {
+        long current;
+        long next;
+        do {
+            current = arrivalTime.get();
+            long base = current - nowNanos > 0 ? current : nowNanos;  // overflow-safe max(current, now)
+            next = base + emissionIntervalNanos;
+            long waitNanos = next - nowNanos - burstToleranceNanos - emissionIntervalNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+        } while (!arrivalTime.compareAndSet(current, next));
+        return 0;
+    }
+
+    /**
+     * @param nowNanos the current System.nanoTime()
+     * @return true if the bucket is full again (dropping it loses nothing)
+     */
+    public boolean isIdle(long nowNanos) {
+        return arrivalTime.get() - nowNanos <= 0;
+    }
+}
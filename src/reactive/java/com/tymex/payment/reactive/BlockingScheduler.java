@@ -0,0 +1,63 @@
+package com.tymex.payment.reactive;
+
+import com.tymex.payment.config.PaymentProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * Bridge from the Netty event loops to the blocking parts of the service (JPA, webhook batching,
+ * journal commits), which the reactive deployment reuses unchanged.
+ *
+ * A bounded elastic scheduler with one thread per database connection by default
+ * (payment.reactive.blocking-threads, 0 = spring.datasource.hikari.maximum-pool-size): more
+ * threads would only queue inside Hikari. Work beyond payment.reactive.blocking-queue-capacity
+ * is rejected (RejectedExecutionException), which the controllers answer with 503.
+ */
+@Component
+public class BlockingScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(BlockingScheduler.class);
+    private static final int IDLE_THREAD_TTL_SECONDS = 60;
+
+    private final Scheduler scheduler;
+    private final Executor executor;
+
+    public BlockingScheduler(PaymentProperties paymentProperties,
+                             @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        PaymentProperties.Reactive config = paymentProperties.getReactive();
+        int threads = config.getBlockingThreads() > 0 ? config.getBlockingThreads() : connectionPoolSize;
+        this.scheduler = Schedulers.newBoundedElastic(threads, config.getBlockingQueueCapacity(),
+                "payment-blocking", IDLE_THREAD_TTL_SECONDS, true);
+        this.executor = scheduler::schedule;
+        log.info("Reactive blocking scheduler: threads={}, queueCapacity={}", threads, config.getBlockingQueueCapacity());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+
+    /**
+     * @param task blocking work (a null result completes the Mono empty)
+     * @return a Mono running the task on the blocking scheduler
+     */
+    public <T> Mono<T> call(Callable<T> task) {
+        return Mono.fromCallable(task).subscribeOn(scheduler);
+    }
+
+    /**
+     * @return the scheduler as an Executor, for CompletableFuture-based service methods
+     */
+    public Executor executor() {
+        return executor;
+    }
+}
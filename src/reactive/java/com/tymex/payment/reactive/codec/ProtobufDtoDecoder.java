@@ -0,0 +1,50 @@
+package com.tymex.payment.reactive.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.tymex.payment.codec.ApiMediaTypes;
+import com.tymex.payment.codec.ProtobufSchemas;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.codec.json.AbstractJackson2Decoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+/**
+ * WebFlux counterpart of ProtobufDtoHttpMessageConverter (reading). A Protobuf message has no
+ * framing, so the body is joined first (bounded by spring.codec.max-in-memory-size and
+ * ReactiveRequestSizeLimitFilter) and decoded in one go; there is no streaming decode.
+ */
+public class ProtobufDtoDecoder extends AbstractJackson2Decoder {
+
+    private final ProtobufSchemas schemas;
+
+    /**
+     * @param protobufMapper a mapper from ApiObjectMappers.protobuf
+     * @param schemas the DTO schemas
+     */
+    public ProtobufDtoDecoder(ObjectMapper protobufMapper, ProtobufSchemas schemas) {
+        super(protobufMapper, ApiMediaTypes.APPLICATION_PROTOBUF);
+        this.schemas = schemas;
+    }
+
+    @Override
+    public boolean canDecode(ResolvableType elementType, MimeType mimeType) {
+        return schemas.supports(elementType.toClass()) && super.canDecode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<Object> decode(Publisher<DataBuffer> input, ResolvableType elementType, MimeType mimeType,
+                               Map<String, Object> hints) {
+        return Flux.error(new DecodingException("Protobuf bodies are single messages, not streams"));
+    }
+
+    @Override
+    protected ObjectReader customizeReader(ObjectReader reader, ResolvableType elementType, Map<String, Object> hints) {
+        return reader.with(schemas.schemaFor(elementType.toClass()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.tymex.payment.reactive.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tymex.payment.codec.ApiMediaTypes;
+import com.tymex.payment.codec.ProtobufSchemas;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.json.AbstractJackson2Encoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * WebFlux counterpart of ProtobufDtoHttpMessageConverter (writing): single DTO values only,
+ * with the schema chosen by the runtime class of the value.
+ */
+public class ProtobufDtoEncoder extends AbstractJackson2Encoder {
+
+    private final ProtobufSchemas schemas;
+
+    /**
+     * @param protobufMapper a mapper from ApiObjectMappers.protobuf
+     * @param schemas the DTO schemas
+     */
+    public ProtobufDtoEncoder(ObjectMapper protobufMapper, ProtobufSchemas schemas) {
+        super(protobufMapper, ApiMediaTypes.APPLICATION_PROTOBUF);
+        this.schemas = schemas;
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        Class<?> clazz = elementType.toClass();
+        // Object without a media type is how the codec configurer tells object writers from typed ones,
+        // which it places before every object writer - including the JSON encoder registered first
+        boolean supported = clazz == Object.class ? mimeType == null : schemas.supports(clazz);
+        return supported && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        if (inputStream instanceof Mono<?> mono) {
+            return Flux.from(mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)));
+        }
+        return Flux.error(new EncodingException("Protobuf bodies are single messages, not streams"));
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  MimeType mimeType, Map<String, Object> hints) {
+        if (!schemas.supports(value.getClass())) {
+            throw new EncodingException("No Protobuf schema for " + value.getClass().getSimpleName());
+        }
+        return super.encodeValue(value, bufferFactory, ResolvableType.forInstance(value), mimeType, hints);
+    }
+
+    @Override
+    protected ObjectWriter customizeWriter(ObjectWriter writer, MimeType mimeType, ResolvableType elementType,
+                                           Map<String, Object> hints) {
+        return writer.with(schemas.schemaFor(elementType.toClass()));
+    }
+}
@@ -0,0 +1,44 @@
+package com.tymex.payment.reactive.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tymex.payment.codec.ApiObjectMappers;
+import com.tymex.payment.codec.ProtobufSchemas;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * CBOR and Protobuf codecs of the reactive build (see ContentNegotiationConfig for the servlet
+ * converters). WebFlux registers no CBOR codec by default, and Spring's CBOR encoder cannot write
+ * response bodies (see SingleValueCborEncoder).
+ *
+ * Custom writers are consulted before the default ones, so the JSON encoder is registered again
+ * ahead of the binary encoders: JSON stays the answer to a missing or wildcard Accept header.
+ * All codecs get the default codec configuration (spring.codec.max-in-memory-size). Media types
+ * are passed explicitly: the Jackson codecs fall back to the JSON ones without them.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCodecConfig {
+
+    @Bean
+    public CodecCustomizer binaryCodecCustomizer(ObjectMapper objectMapper,
+                                                 ObjectProvider<Jackson2ObjectMapperBuilder> builders,
+                                                 ProtobufSchemas schemas) {
+        return configurer -> {
+            ObjectMapper cborMapper = ApiObjectMappers.cbor(builders.getObject());
+            ObjectMapper protobufMapper = ApiObjectMappers.protobuf(builders.getObject());
+            configurer.customCodecs().registerWithDefaultConfig(new Jackson2JsonEncoder(objectMapper));
+            configurer.customCodecs().registerWithDefaultConfig(new SingleValueCborEncoder(cborMapper));
+            configurer.customCodecs().registerWithDefaultConfig(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+            configurer.customCodecs().registerWithDefaultConfig(new ProtobufDtoEncoder(protobufMapper, schemas));
+            configurer.customCodecs().registerWithDefaultConfig(new ProtobufDtoDecoder(protobufMapper, schemas));
+        };
+    }
+}
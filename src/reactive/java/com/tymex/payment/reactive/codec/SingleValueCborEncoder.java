@@ -0,0 +1,39 @@
+package com.tymex.payment.reactive.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Jackson2CborEncoder that can write response bodies: EncoderHttpMessageWriter always calls
+ * encode(Publisher), which Spring's encoder rejects even for a single value. A Mono is encoded
+ * with encodeValue; streams stay unsupported.
+ */
+public class SingleValueCborEncoder extends Jackson2CborEncoder {
+
+    /**
+     * @param cborMapper a mapper from ApiObjectMappers.cbor
+     */
+    public SingleValueCborEncoder(ObjectMapper cborMapper) {
+        super(cborMapper, MediaType.APPLICATION_CBOR);  // Without a type the codec defaults to the JSON ones
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        if (inputStream instanceof Mono<?> mono) {
+            return Flux.from(mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)));
+        }
+        return Flux.error(new EncodingException("CBOR bodies are single values, not streams"));
+    }
+}
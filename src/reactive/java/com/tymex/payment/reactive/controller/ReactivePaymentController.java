@@ -0,0 +1,193 @@
+package com.tymex.payment.reactive.controller;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.BatchPaymentRequestDTO;
+import com.tymex.payment.dto.ErrorResponseDTO;
+import com.tymex.payment.dto.PaymentResponseDTO;
+import com.tymex.payment.dto.PaymentRequestDTO;
+import com.tymex.payment.enums.ErrorCode;
+import com.tymex.payment.exception.PaymentNotFoundException;
+import com.tymex.payment.exception.RequestInProgressException;
+import com.tymex.payment.filter.ApiKeyAuthenticationFilter;
+import com.tymex.payment.reactive.BlockingScheduler;
+import com.tymex.payment.service.BatchPaymentService;
+import com.tymex.payment.service.PaymentService;
+import com.tymex.payment.util.Deadline;
+import com.tymex.payment.util.ETags;
+import com.tymex.payment.util.RetryUtil;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reactive (WebFlux) variant of PaymentController: same paths, headers, status codes and bodies.
+ *
+ * Submissions go through PaymentService.processPaymentAsync: the idempotent claim and the final
+ * update run on the BlockingScheduler, the provider call is non-blocking, and retry backoffs are
+ * timers, so a Netty event loop never waits on the database or a provider. Status reads and batch
+ * submissions are run on the BlockingScheduler as a whole.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/v1/payments")
+public class ReactivePaymentController {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReactivePaymentController.class);
+    
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+    
+    private final PaymentService paymentService;
+    private final BatchPaymentService batchPaymentService;
+    private final BlockingScheduler blockingScheduler;
+    private final PaymentProperties.Deadline deadlineConfig;
+    
+    public ReactivePaymentController(PaymentService paymentService, BatchPaymentService batchPaymentService,
+                                     BlockingScheduler blockingScheduler, PaymentProperties paymentProperties) {
+        this.paymentService = paymentService;
+        this.batchPaymentService = batchPaymentService;
+        this.blockingScheduler = blockingScheduler;
+        this.deadlineConfig = paymentProperties.getDeadline();
+    }
+    
+    @PostMapping
+    public Mono<ResponseEntity<?>> processPayment(
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = Deadline.REQUEST_TIMEOUT_HEADER, required = false) String requestTimeout,
+            @RequestAttribute(value = ApiKeyAuthenticationFilter.CLIENT_ID_ATTRIBUTE, required = false) String clientId,
+            @Valid @RequestBody PaymentRequestDTO request) {
+        
+        // Validate idempotency key presence
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return Mono.just(ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ErrorResponseDTO.of(
+                    ErrorCode.BAD_REQUEST,
+                    "Idempotency-Key header is required"
+                )));
+        }
+        
+        Deadline deadline;
+        try {
+            deadline = resolveDeadline(requestTimeout);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(error(HttpStatus.BAD_REQUEST, ErrorCode.BAD_REQUEST, e.getMessage(), idempotencyKey));
+        }
+        
+        // suppressCancel: a client disconnect must not skip the final update of a claimed record
+        return Mono.fromFuture(() -> paymentService.processPaymentAsync(
+                    idempotencyKey, request.withClientId(clientId), deadline, blockingScheduler.executor()), true)
+            .<ResponseEntity<?>>map(result -> ResponseEntity.ok(
+                result.getResponse().withMetadata(idempotencyKey, result.isCached())))
+            .onErrorResume(e -> Mono.just(errorResponse(RetryUtil.unwrap(e), idempotencyKey)));
+    }
+    
+    /**
+     * Same contract as PaymentController.getPayment: ETag is the record version and a matching
+     * If-None-Match is answered 304 from a version-only query.
+     */
+    @GetMapping("/{idempotencyKey}")
+    public Mono<ResponseEntity<?>> getPayment(
+            @PathVariable String idempotencyKey,
+            @RequestHeader(value = IF_NONE_MATCH_HEADER, required = false) String ifNoneMatch,
+            @RequestAttribute(value = ApiKeyAuthenticationFilter.CLIENT_ID_ATTRIBUTE, required = false) String clientId) {
+        return blockingScheduler.<ResponseEntity<?>>call(() -> readPayment(idempotencyKey, ifNoneMatch, clientId))
+            .onErrorResume(e -> Mono.just(errorResponse(e, idempotencyKey)));
+    }
+    
+    /**
+     * Same contract as PaymentController.processBatch. The batch blocks one BlockingScheduler
+     * thread while its items run on BatchPaymentService's provider executor.
+     */
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<?>> processBatch(
+            @RequestHeader(value = Deadline.REQUEST_TIMEOUT_HEADER, required = false) String requestTimeout,
+            @RequestAttribute(value = ApiKeyAuthenticationFilter.CLIENT_ID_ATTRIBUTE, required = false) String clientId,
+            @Valid @RequestBody BatchPaymentRequestDTO request) {
+        return blockingScheduler.<ResponseEntity<?>>call(() -> ResponseEntity.ok(
+                batchPaymentService.processBatch(request.items(), clientId, resolveDeadline(requestTimeout))))
+            .onErrorResume(e -> Mono.just(errorResponse(e, null)));
+    }
+    
+    private ResponseEntity<?> readPayment(String idempotencyKey, String ifNoneMatch, String clientId) {
+        // Revalidation: version-only query, 304 without touching the response body
+        if (ifNoneMatch != null && !ifNoneMatch.isBlank()) {
+            Optional<Long> version = paymentService.getPaymentVersion(idempotencyKey, clientId);
+            if (version.isEmpty()) {
+                return notFound(idempotencyKey);
+            }
+            if (ETags.matches(ifNoneMatch, ETags.of(version.get()))) {
+                return ResponseEntity
+                    .status(HttpStatus.NOT_MODIFIED)
+                    .eTag(ETags.of(version.get()))
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+            }
+        }
+        
+        Optional<PaymentService.PaymentStatusResult> result = paymentService.getPaymentStatus(idempotencyKey, clientId);
+        if (result.isEmpty()) {
+            return notFound(idempotencyKey);
+        }
+        PaymentResponseDTO response = result.get().getResponse().withMetadata(idempotencyKey, true);
+        return ResponseEntity.ok()
+            .eTag(ETags.of(result.get().getVersion()))
+            .varyBy(HttpHeaders.ACCEPT)
+            .cacheControl(CacheControl.noCache())
+            .body(response);
+    }
+    
+    /**
+     * Maps the exceptions PaymentController catches to the same responses; blocking work rejected
+     * by a full BlockingScheduler queue is answered 503 like admission shedding.
+     */
+    private static ResponseEntity<?> errorResponse(Throwable e, String idempotencyKey) {
+        if (e instanceof RequestInProgressException) {
+            return error(HttpStatus.CONFLICT, ErrorCode.REQUEST_IN_PROGRESS, e.getMessage(), idempotencyKey);
+        }
+        if (e instanceof PaymentNotFoundException) {
+            return notFound(idempotencyKey);
+        }
+        if (e instanceof IllegalArgumentException) {
+            return error(HttpStatus.BAD_REQUEST, ErrorCode.BAD_REQUEST, e.getMessage(), idempotencyKey);
+        }
+        if (e instanceof RejectedExecutionException) {
+            log.warn("Blocking scheduler saturated, rejecting request: {}", e.getMessage());
+            return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(ErrorResponseDTO.of(ErrorCode.SERVICE_UNAVAILABLE, "Service is at capacity. Please retry later."));
+        }
+        log.error("Error processing payment request", e);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, ErrorCode.PAYMENT_FAILED, e.getMessage(), idempotencyKey);
+    }
+    
+    private static ResponseEntity<ErrorResponseDTO> error(HttpStatus status, ErrorCode code, String message,
+                                                          String idempotencyKey) {
+        return ResponseEntity
+            .status(status)
+            .body(idempotencyKey != null
+                ? ErrorResponseDTO.of(code, message, idempotencyKey)
+                : ErrorResponseDTO.of(code, message));
+    }
+    
+    private static ResponseEntity<ErrorResponseDTO> notFound(String idempotencyKey) {
+        return error(HttpStatus.NOT_FOUND, ErrorCode.NOT_FOUND, "Payment not found", idempotencyKey);
+    }
+    
+    private Deadline resolveDeadline(String requestTimeout) {
+        return Deadline.fromRequestTimeout(requestTimeout,
+                deadlineConfig.getDefaultTimeoutMs(), deadlineConfig.getMaxTimeoutMs());
+    }
+}
@@ -0,0 +1,157 @@
+package com.tymex.payment.reactive.controller;
+
+import com.tymex.payment.dto.ErrorResponseDTO;
+import com.tymex.payment.dto.WebhookBatchResponseDTO;
+import com.tymex.payment.dto.WebhookPayload;
+import com.tymex.payment.enums.ErrorCode;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.exception.PayloadTooLargeException;
+import com.tymex.payment.exception.UnauthorizedException;
+import com.tymex.payment.reactive.BlockingScheduler;
+import com.tymex.payment.service.PaymentService;
+import com.tymex.payment.service.webhook.WebhookIngestionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reactive (WebFlux) variant of WebhookController: same paths, ingestion modes and responses.
+ *
+ * The body is aggregated without blocking (bounded by payment.security.max-batch-json-size, in
+ * addition to the per-path limit of ReactiveRequestSizeLimitFilter for JSON bodies); ingestion
+ * itself (WebhookIngestionService, PaymentService) runs on the BlockingScheduler.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/v1/webhooks")
+public class ReactiveWebhookController {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReactiveWebhookController.class);
+    
+    private final PaymentService paymentService;
+    private final WebhookIngestionService ingestionService;
+    private final BlockingScheduler blockingScheduler;
+    private final int maxBodyBytes;
+    
+    public ReactiveWebhookController(PaymentService paymentService,
+                                     WebhookIngestionService ingestionService,
+                                     BlockingScheduler blockingScheduler,
+                                     @Value("${payment.security.max-batch-json-size:1MB}") DataSize maxBodySize) {
+        this.paymentService = paymentService;
+        this.ingestionService = ingestionService;
+        this.blockingScheduler = blockingScheduler;
+        this.maxBodyBytes = (int) Math.min(Integer.MAX_VALUE, maxBodySize.toBytes());
+    }
+    
+    @PostMapping("/{provider}")
+    public Mono<ResponseEntity<?>> handleWebhook(@PathVariable String provider, ServerHttpRequest request) {
+        Map<String, String> headers = headers(request);
+        return readBody(request)
+            .flatMap(payload -> blockingScheduler.call(() -> {
+                PaymentProvider paymentProvider = PaymentProvider.fromString(provider);
+                log.info("Received webhook from {}: payload length={}", paymentProvider, payload.length());
+                return ingestionService.ingest(paymentProvider, payload, headers);
+            }))
+            .<ResponseEntity<?>>map(outcome -> outcome == WebhookIngestionService.Outcome.NOT_DURABLE
+                ? ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .body(ErrorResponseDTO.of(
+                        ErrorCode.WEBHOOK_NOT_PERSISTED,
+                        "Webhook not persisted in time, please retry"
+                    ))
+                : ResponseEntity.ok().build())
+            .onErrorResume(e -> Mono.just(errorResponse(e, "Webhook", "Invalid webhook: ")));
+    }
+    
+    @PostMapping("/{provider}/batch")
+    public Mono<ResponseEntity<?>> handleWebhookBatch(@PathVariable String provider, ServerHttpRequest request) {
+        Map<String, String> headers = headers(request);
+        return readBody(request)
+            .flatMap(payload -> blockingScheduler.<ResponseEntity<?>>call(() -> {
+                PaymentProvider paymentProvider = PaymentProvider.fromString(provider);
+                log.info("Received webhook batch from {}: payload length={}", paymentProvider, payload.length());
+                return ResponseEntity.ok(new WebhookBatchResponseDTO(
+                        paymentService.processWebhookBatch(paymentProvider, payload, headers)));
+            }))
+            .onErrorResume(e -> Mono.just(errorResponse(e, "Webhook batch", "Invalid webhook batch: ")));
+    }
+    
+    private Mono<WebhookPayload> readBody(ServerHttpRequest request) {
+        return DataBufferUtils.join(request.getBody(), maxBodyBytes)
+            .map(buffer -> {
+                try {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    return WebhookPayload.of(bytes);
+                } finally {
+                    DataBufferUtils.release(buffer);
+                }
+            })
+            .defaultIfEmpty(WebhookPayload.of(new byte[0]));
+    }
+    
+    /**
+     * Case-insensitive copy of the request headers (first value per name), as signature
+     * verification and the inbox expect.
+     */
+    private static Map<String, String> headers(ServerHttpRequest request) {
+        Map<String, String> headers = new LinkedCaseInsensitiveMap<>();
+        request.getHeaders().forEach((name, values) -> {
+            if (!values.isEmpty()) {
+                headers.putIfAbsent(name, values.get(0));
+            }
+        });
+        return headers;
+    }
+    
+    private static ResponseEntity<ErrorResponseDTO> errorResponse(Throwable e, String what, String invalidPrefix) {
+        if (e instanceof UnauthorizedException) {
+            log.warn("{} rejected: {}", what, e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.UNAUTHORIZED)
+                    .body(ErrorResponseDTO.of(ErrorCode.UNAUTHORIZED, e.getMessage()));
+        }
+        if (e instanceof PayloadTooLargeException || e instanceof DataBufferLimitException) {
+            log.warn("{} rejected: {}", what, e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(ErrorResponseDTO.of(ErrorCode.PAYLOAD_TOO_LARGE, e.getMessage()));
+        }
+        if (e instanceof IllegalArgumentException) {
+            log.warn("{} validation failed: {}", what, e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ErrorResponseDTO.of(ErrorCode.BAD_REQUEST, invalidPrefix + e.getMessage()));
+        }
+        if (e instanceof RejectedExecutionException) {
+            // Blocking scheduler saturated - the provider redelivers
+            log.warn("{} rejected, blocking scheduler saturated: {}", what, e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .body(ErrorResponseDTO.of(ErrorCode.SERVICE_UNAVAILABLE, "Service is at capacity. Please retry later."));
+        }
+        log.error("Error processing {}", what.toLowerCase(), e);
+        return ResponseEntity
+                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ErrorResponseDTO.of(
+                        ErrorCode.PAYMENT_FAILED,
+                        "Failed to process " + what.toLowerCase() + ": " + e.getMessage()
+                ));
+    }
+}
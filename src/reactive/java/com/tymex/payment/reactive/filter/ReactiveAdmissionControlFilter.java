@@ -0,0 +1,81 @@
+package com.tymex.payment.reactive.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.ErrorResponseDTO;
+import com.tymex.payment.enums.ErrorCode;
+import com.tymex.payment.service.admission.SaturationMonitor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of AdmissionControlFilter: sheds new payment submissions with 503 while
+ * the SaturationMonitor reports a saturated signal, admitting replays of completed payments.
+ *
+ * On Netty an admitted submission holds no thread, so the in-flight count (max-in-flight-payments)
+ * is the only bound on concurrent payments; it is released when the response completes or the
+ * client goes away.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Order(3)
+public class ReactiveAdmissionControlFilter implements WebFilter {
+
+    private static final String PAYMENTS_PATH = "/api/v1/payments";
+    private static final String BATCH_PATH = PAYMENTS_PATH + "/batch";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final SaturationMonitor saturationMonitor;
+    private final PaymentProperties.Admission config;
+    private final String retryAfter;
+    private final byte[] overloadedBody;
+
+    public ReactiveAdmissionControlFilter(SaturationMonitor saturationMonitor, PaymentProperties paymentProperties,
+                                          ObjectMapper objectMapper) throws JsonProcessingException {
+        this.saturationMonitor = saturationMonitor;
+        this.config = paymentProperties.getAdmission();
+        this.retryAfter = Integer.toString(config.getRetryAfterSeconds());
+        this.overloadedBody = objectMapper.writeValueAsBytes(ErrorResponseDTO.of(
+            ErrorCode.SERVICE_UNAVAILABLE,
+            "Service is at capacity. Please retry after the time given in the Retry-After header."
+        ));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!Boolean.TRUE.equals(config.getEnabled()) || request.getMethod() != HttpMethod.POST) {
+            return chain.filter(exchange);
+        }
+        String path = request.getPath().pathWithinApplication().value();
+        if (!PAYMENTS_PATH.equals(path) && !BATCH_PATH.equals(path)) {
+            return chain.filter(exchange);
+        }
+
+        SaturationMonitor.Signal saturated = saturationMonitor.saturatedSignal();
+        if (saturated != null) {
+            if (saturationMonitor.isCompletedReplay(request.getHeaders().getFirst(IDEMPOTENCY_KEY_HEADER))) {
+                saturationMonitor.recordReplayAdmitted();
+            } else {
+                saturationMonitor.recordShed(saturated);
+                exchange.getResponse().getHeaders().set("Retry-After", retryAfter);
+                return ReactiveResponses.write(exchange, HttpStatus.SERVICE_UNAVAILABLE, overloadedBody);
+            }
+        }
+
+        if (BATCH_PATH.equals(path)) {
+            return chain.filter(exchange);  // Counted per item by BatchPaymentService
+        }
+        saturationMonitor.paymentStarted();
+        return chain.filter(exchange).doFinally(signal -> saturationMonitor.paymentFinished());
+    }
+}
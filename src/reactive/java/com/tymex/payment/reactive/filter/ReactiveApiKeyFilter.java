@@ -0,0 +1,72 @@
+package com.tymex.payment.reactive.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tymex.payment.dto.ErrorResponseDTO;
+import com.tymex.payment.enums.ErrorCode;
+import com.tymex.payment.filter.ApiKeyAuthenticationFilter;
+import com.tymex.payment.filter.ApiKeyRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Reactive counterpart of ApiKeyAuthenticationFilter for /api/* and the metrics endpoints
+ * (/actuator/metrics, /actuator/prometheus; /actuator/health stays open): authenticates the X-API-Key
+ * header against the same ApiKeyRegistry and stores the client id in the exchange attribute
+ * {@link ApiKeyAuthenticationFilter#CLIENT_ID_ATTRIBUTE}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Order(1)
+public class ReactiveApiKeyFilter implements WebFilter {
+
+    private static final List<String> AUTHENTICATED_PATH_PREFIXES =
+        List.of("/api/", "/actuator/metrics", "/actuator/prometheus");
+    private static final String API_KEY_HEADER = "X-API-Key";
+
+    private final ApiKeyRegistry apiKeyRegistry;
+    private final byte[] notConfiguredBody;
+    private final byte[] invalidKeyBody;
+
+    public ReactiveApiKeyFilter(ApiKeyRegistry apiKeyRegistry, ObjectMapper objectMapper)
+            throws JsonProcessingException {
+        this.apiKeyRegistry = apiKeyRegistry;
+        this.notConfiguredBody = objectMapper.writeValueAsBytes(ErrorResponseDTO.of(
+            ErrorCode.UNAUTHORIZED,
+            "API key is not configured. Please set API_KEY environment variable."
+        ));
+        this.invalidKeyBody = objectMapper.writeValueAsBytes(ErrorResponseDTO.of(
+            ErrorCode.UNAUTHORIZED,
+            "Invalid or missing API key"
+        ));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (AUTHENTICATED_PATH_PREFIXES.stream().noneMatch(path::startsWith)) {
+            return chain.filter(exchange);
+        }
+
+        // Reject all requests if no API key is configured (API_KEY unset and no keys file)
+        if (apiKeyRegistry.isEmpty()) {
+            return ReactiveResponses.write(exchange, HttpStatus.INTERNAL_SERVER_ERROR, notConfiguredBody);
+        }
+
+        String clientId = apiKeyRegistry.authenticate(exchange.getRequest().getHeaders().getFirst(API_KEY_HEADER));
+        if (clientId == null) {
+            return ReactiveResponses.write(exchange, HttpStatus.UNAUTHORIZED, invalidKeyBody);
+        }
+
+        exchange.getAttributes().put(ApiKeyAuthenticationFilter.CLIENT_ID_ATTRIBUTE, clientId);
+        return chain.filter(exchange);
+    }
+}
@@ -0,0 +1,124 @@
+package com.tymex.payment.reactive.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tymex.payment.codec.ApiMediaTypes;
+import com.tymex.payment.dto.ErrorResponseDTO;
+import com.tymex.payment.enums.ErrorCode;
+import com.tymex.payment.exception.PayloadTooLargeException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reactive counterpart of JsonRequestSizeLimitFilter, with the same limits
+ * (payment.security.max-json-size, max-batch-json-size for /batch paths) and the same body formats
+ * (JSON, CBOR, Protobuf):
+ * - A declared Content-Length over the limit is rejected with 413 before the body is read
+ * - Otherwise the body Flux counts bytes and errors with PayloadTooLargeException as soon as the
+ *   limit is passed (mapped to 413 by PayloadTooLargeAdvice or the controller)
+ * - Any Content-Encoding other than identity is rejected with 415: the reactive build does not
+ *   inflate request bodies
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReactiveRequestSizeLimitFilter implements WebFilter {
+
+    private static final String BATCH_PATH_SUFFIX = "/batch";
+
+    private final DataSize maxJsonSize;
+    private final DataSize maxBatchJsonSize;
+    private final byte[] tooLargeBody;
+    private final byte[] batchTooLargeBody;
+    private final byte[] unsupportedEncodingBody;
+
+    public ReactiveRequestSizeLimitFilter(
+            @Value("${payment.security.max-json-size:10KB}") DataSize maxJsonSize,
+            @Value("${payment.security.max-batch-json-size:1MB}") DataSize maxBatchJsonSize,
+            ObjectMapper objectMapper) throws JsonProcessingException {
+        this.maxJsonSize = maxJsonSize;
+        this.maxBatchJsonSize = maxBatchJsonSize;
+        this.tooLargeBody = objectMapper.writeValueAsBytes(ErrorResponseDTO.of(
+            ErrorCode.PAYLOAD_TOO_LARGE, String.format("Request body exceeds %s limit", maxJsonSize)));
+        this.batchTooLargeBody = objectMapper.writeValueAsBytes(ErrorResponseDTO.of(
+            ErrorCode.PAYLOAD_TOO_LARGE, String.format("Request body exceeds %s limit", maxBatchJsonSize)));
+        this.unsupportedEncodingBody = objectMapper.writeValueAsBytes(ErrorResponseDTO.of(
+            ErrorCode.UNSUPPORTED_MEDIA_TYPE, "Unsupported Content-Encoding. Supported: identity"));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!isApiBody(request.getHeaders())) {
+            return chain.filter(exchange);
+        }
+
+        boolean batch = request.getPath().pathWithinApplication().value().endsWith(BATCH_PATH_SUFFIX);
+        DataSize limit = batch ? maxBatchJsonSize : maxJsonSize;
+
+        if (request.getHeaders().getContentLength() > limit.toBytes()) {
+            return ReactiveResponses.write(exchange, HttpStatus.PAYLOAD_TOO_LARGE, batch ? batchTooLargeBody : tooLargeBody);
+        }
+
+        String encoding = request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (encoding != null && !encoding.isBlank() && !"identity".equalsIgnoreCase(encoding.trim())) {
+            return ReactiveResponses.write(exchange, HttpStatus.UNSUPPORTED_MEDIA_TYPE, unsupportedEncodingBody);
+        }
+
+        return chain.filter(exchange.mutate().request(new SizeLimitedRequest(request, limit)).build());
+    }
+
+    private static boolean isApiBody(HttpHeaders headers) {
+        try {
+            return ApiMediaTypes.isApiBody(headers.getContentType());
+        } catch (InvalidMediaTypeException e) {
+            return false; // Invalid Content-Type header
+        }
+    }
+
+    /**
+     * Request whose body errors once more than limit bytes have been received.
+     */
+    private static final class SizeLimitedRequest extends ServerHttpRequestDecorator {
+
+        private final DataSize limit;
+
+        SizeLimitedRequest(ServerHttpRequest delegate, DataSize limit) {
+            super(delegate);
+            this.limit = limit;
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return Flux.defer(() -> {
+                AtomicLong count = new AtomicLong();
+                return super.getBody().handle((buffer, sink) -> {
+                    if (count.addAndGet(buffer.readableByteCount()) > limit.toBytes()) {
+                        DataBufferUtils.release(buffer);
+                        sink.error(new PayloadTooLargeException(String.format("Request body exceeds %s limit", limit)));
+                    } else {
+                        sink.next(buffer);
+                    }
+                });
+            });
+        }
+    }
+}
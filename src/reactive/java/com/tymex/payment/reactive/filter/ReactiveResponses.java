@@ -0,0 +1,26 @@
+package com.tymex.payment.reactive.filter;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes the pre-rendered rejection bodies of the reactive filters.
+ */
+final class ReactiveResponses {
+
+    // Prevent instantiation
+    private ReactiveResponses() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    static Mono<Void> write(ServerWebExchange exchange, HttpStatus status, byte[] body) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
@@ -0,0 +1,77 @@
+package com.tymex.payment.controller.v1;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Same properties as PaymentEventControllerTest, so both run in one application context
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "payment.api.key=acme-key",
+        "payment.api.default-client-id=acme",
+        "payment.api.keys-file=src/test/resources/test-api-keys.txt",
+        "payment.providers.stripe.simulation.latency-ms=0",
+        "payment.notifications.enabled=false",
+        "payment.events.heartbeat-seconds=1"
+})
+class PaymentControllerTest {
+
+    @LocalServerPort
+    int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void paymentOfAnotherClientIsNotFound() throws Exception {
+        String idempotencyKey = UUID.randomUUID().toString();
+        HttpResponse<String> created = pay("acme-key", idempotencyKey, 100);
+        assertThat(created.statusCode()).isEqualTo(200);
+        assertThat(created.body()).contains("\"amount\":100");
+
+        assertThat(get("globex-key", "/api/v1/payments/" + idempotencyKey, null).statusCode()).isEqualTo(404);
+        assertThat(get("globex-key", "/api/v1/payments/" + idempotencyKey, "W/\"1\"").statusCode()).isEqualTo(404);
+        assertThat(get("globex-key", "/api/v1/payments/" + idempotencyKey + "/events", null).statusCode())
+                .isEqualTo(404);
+
+        // A replay with the same key neither returns nor takes over the payment
+        HttpResponse<String> replay = pay("globex-key", idempotencyKey, 999);
+        assertThat(replay.statusCode()).isEqualTo(404);
+        assertThat(replay.body()).doesNotContain("\"amount\"");
+
+        HttpResponse<String> own = get("acme-key", "/api/v1/payments/" + idempotencyKey, null);
+        assertThat(own.statusCode()).isEqualTo(200);
+        assertThat(own.body()).contains("\"amount\":100");
+        HttpResponse<String> ownReplay = pay("acme-key", idempotencyKey, 100);
+        assertThat(ownReplay.statusCode()).isEqualTo(200);
+        assertThat(ownReplay.body()).contains("\"cached\":true");
+    }
+
+    private HttpResponse<String> pay(String apiKey, String idempotencyKey, int amount) throws Exception {
+        return client.send(HttpRequest.newBuilder(url("/api/v1/payments"))
+                .header("X-API-Key", apiKey)
+                .header("Idempotency-Key", idempotencyKey)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"amount\":" + amount + ",\"paymentMethod\":\"card\",\"paymentProvider\":\"STRIPE\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String apiKey, String path, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(url(path)).header("X-API-Key", apiKey);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI url(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
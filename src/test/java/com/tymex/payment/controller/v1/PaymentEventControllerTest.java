@@ -0,0 +1,113 @@
+package com.tymex.payment.controller.v1;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "payment.api.key=acme-key",
+        "payment.api.default-client-id=acme",
+        "payment.api.keys-file=src/test/resources/test-api-keys.txt",
+        "payment.providers.stripe.simulation.latency-ms=0",
+        "payment.notifications.enabled=false",
+        // SSE response headers are only flushed with the first write - a heartbeat - so subscribe() waits for one
+        "payment.events.heartbeat-seconds=1"
+})
+class PaymentEventControllerTest {
+
+    @LocalServerPort
+    int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void allPaymentsStreamOnlyCarriesTheCallersOwnPayments() throws Exception {
+        BlockingQueue<String> acmeEvents = subscribe("acme-key");
+        BlockingQueue<String> globexEvents = subscribe("globex-key");
+
+        String idempotencyKey = UUID.randomUUID().toString();
+        HttpResponse<String> payment = client.send(HttpRequest.newBuilder(url("/api/v1/payments"))
+                .header("X-API-Key", "acme-key")
+                .header("Idempotency-Key", idempotencyKey)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        // Ownership comes from the API key; a clientId in the body is ignored
+                        "{\"amount\":100,\"paymentMethod\":\"card\",\"paymentProvider\":\"STRIPE\","
+                                + "\"clientId\":\"globex\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(payment.statusCode()).isEqualTo(200);
+
+        assertThat(acmeEvents.poll(5, TimeUnit.SECONDS)).isEqualTo("id:" + idempotencyKey + ":1");
+        assertThat(globexEvents.poll(1, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    void paymentStreamOpenedBeforeTheKeyExistsOnlyCarriesTheCallersPayment() throws Exception {
+        String idempotencyKey = UUID.randomUUID().toString();
+        BlockingQueue<String> globexEvents = subscribe("globex-key", "/api/v1/payments/" + idempotencyKey + "/events");
+
+        HttpResponse<String> payment = client.send(HttpRequest.newBuilder(url("/api/v1/payments"))
+                .header("X-API-Key", "acme-key")
+                .header("Idempotency-Key", idempotencyKey)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"amount\":100,\"paymentMethod\":\"card\",\"paymentProvider\":\"STRIPE\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(payment.statusCode()).isEqualTo(200);
+
+        assertThat(globexEvents.poll(1, TimeUnit.SECONDS)).isNull();
+    }
+
+    private BlockingQueue<String> subscribe(String apiKey) throws Exception {
+        return subscribe(apiKey, "/api/v1/payments/events");
+    }
+
+    /**
+     * Opens an event stream and collects the "id:" line of every event it receives.
+     */
+    private BlockingQueue<String> subscribe(String apiKey, String path) throws Exception {
+        BlockingQueue<String> ids = new LinkedBlockingQueue<>();
+        HttpResponse<InputStream> response = client.send(HttpRequest.newBuilder(url(path))
+                .header("X-API-Key", apiKey)
+                .header("Accept", "text/event-stream")
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+        Thread reader = new Thread(() -> {
+            try (BufferedReader lines = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    if (line.startsWith("id:")) {
+                        ids.add(line);
+                    }
+                }
+            } catch (Exception e) {
+                // Stream closed with the context
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+        return ids;
+    }
+
+    private URI url(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,56 @@
+package com.tymex.payment.controller.v1;
+
+import com.tymex.payment.dto.ErrorResponseDTO;
+import com.tymex.payment.enums.ErrorCode;
+import com.tymex.payment.service.PaymentService;
+import com.tymex.payment.service.webhook.WebhookIngestionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class WebhookControllerTest {
+
+    private final PaymentService paymentService = mock(PaymentService.class);
+    private final WebhookIngestionService ingestionService = mock(WebhookIngestionService.class);
+    private final WebhookController controller = new WebhookController(paymentService, ingestionService,
+            DataSize.ofKilobytes(10), DataSize.ofMegabytes(1));
+
+    @Test
+    void oversizedDeclaredLengthWithNonJsonTypeIsRejectedBeforeReading() {
+        // Not an API format, so JsonRequestSizeLimitFilter lets it through; the declared 2GB must not be allocated
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/webhooks/momo") {
+            @Override
+            public long getContentLengthLong() {
+                return 2L * 1024 * 1024 * 1024 - 1;
+            }
+        };
+        request.setContentType("text/plain");
+        request.setContent("{}".getBytes(StandardCharsets.UTF_8));
+
+        ResponseEntity<?> response = controller.handleWebhook("momo", request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        assertThat(((ErrorResponseDTO) response.getBody()).error()).isEqualTo(ErrorCode.PAYLOAD_TOO_LARGE);
+        verifyNoInteractions(ingestionService);
+    }
+
+    @Test
+    void batchLimitAppliesToBatchWebhooks() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/webhooks/momo/batch");
+        request.setContentType("application/octet-stream");
+        request.setContent(new byte[(int) DataSize.ofMegabytes(1).toBytes() + 1]);
+
+        ResponseEntity<?> response = controller.handleWebhookBatch("momo", request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        verifyNoInteractions(paymentService);
+    }
+}
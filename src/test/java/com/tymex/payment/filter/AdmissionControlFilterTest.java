@@ -0,0 +1,77 @@
+package com.tymex.payment.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.service.admission.SaturationMonitor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private final PaymentProperties properties = new PaymentProperties();
+    private final SaturationMonitor saturationMonitor = new SaturationMonitor(properties, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        saturationMonitor.shutdown();
+    }
+
+    @Test
+    void singlePaymentIsCountedInFlightByTheFilter() throws Exception {
+        AtomicReference<SaturationMonitor.Signal> signalDuringRequest = new AtomicReference<>();
+        properties.getAdmission().setMaxInFlightPayments(1);
+        AdmissionControlFilter filter = filter();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post("/api/v1/payments"), response,
+                (request, ignored) -> signalDuringRequest.set(saturationMonitor.saturatedSignal()));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(signalDuringRequest.get()).isEqualTo(SaturationMonitor.Signal.IN_FLIGHT);
+        assertThat(saturationMonitor.saturatedSignal()).isNull();
+    }
+
+    @Test
+    void batchIsLeftToBeCountedPerItem() throws Exception {
+        AtomicReference<SaturationMonitor.Signal> signalDuringRequest = new AtomicReference<>();
+        properties.getAdmission().setMaxInFlightPayments(1);
+        AdmissionControlFilter filter = filter();
+
+        filter.doFilter(post("/api/v1/payments/batch"), new MockHttpServletResponse(),
+                (request, ignored) -> signalDuringRequest.set(saturationMonitor.saturatedSignal()));
+
+        assertThat(signalDuringRequest.get()).isNull();
+    }
+
+    @Test
+    void batchItemsInFlightShedNewSubmissions() throws Exception {
+        properties.getAdmission().setMaxInFlightPayments(100);
+        AdmissionControlFilter filter = filter();
+
+        saturationMonitor.paymentsStarted(100);
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        filter.doFilter(post("/api/v1/payments"), shed, (request, ignored) -> { });
+        saturationMonitor.paymentsFinished(100);
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(post("/api/v1/payments"), admitted, (request, ignored) -> { });
+
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(shed.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(admitted.getStatus()).isEqualTo(200);
+    }
+
+    private AdmissionControlFilter filter() throws Exception {
+        return new AdmissionControlFilter(saturationMonitor, properties, new ObjectMapper(), 200);
+    }
+
+    private static MockHttpServletRequest post(String uri) {
+        return new MockHttpServletRequest("POST", uri);
+    }
+}
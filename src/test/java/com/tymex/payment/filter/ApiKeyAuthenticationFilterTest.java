@@ -0,0 +1,49 @@
+package com.tymex.payment.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@AutoConfigureObservability  // Tests disable metrics export (and /actuator/prometheus) by default
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "payment.api.key=acme-key",
+        "payment.api.default-client-id=acme"
+})
+class ApiKeyAuthenticationFilterTest {
+
+    @LocalServerPort
+    int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void metricsEndpointsRequireAnApiKey() throws Exception {
+        for (String path : new String[] {"/actuator/prometheus", "/actuator/metrics",
+                "/actuator/metrics/payment.notification.delivered"}) {
+            assertThat(get(path, null)).as(path).isEqualTo(401);
+            assertThat(get(path, "wrong-key")).as(path).isEqualTo(401);
+            assertThat(get(path, "acme-key")).as(path).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void healthStaysOpenForProbes() throws Exception {
+        assertThat(get("/actuator/health", null)).isEqualTo(200);
+    }
+
+    private int get(String path, String apiKey) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (apiKey != null) {
+            request.header("X-API-Key", apiKey);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,157 @@
+package com.tymex.payment.service;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.BatchPaymentItemDTO;
+import com.tymex.payment.dto.BatchPaymentItemResultDTO;
+import com.tymex.payment.dto.PaymentRequestDTO;
+import com.tymex.payment.dto.PaymentResponseDTO;
+import com.tymex.payment.entity.PaymentRequest;
+import com.tymex.payment.enums.BatchItemOutcome;
+import com.tymex.payment.enums.ErrorCode;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.enums.PaymentStatus;
+import com.tymex.payment.repository.PaymentRequestClaimRepository;
+import com.tymex.payment.repository.PaymentRequestRepository;
+import com.tymex.payment.service.admission.SaturationMonitor;
+import com.tymex.payment.service.metrics.PaymentMetrics;
+import com.tymex.payment.service.notification.MerchantCallbackPolicy;
+import com.tymex.payment.util.Deadline;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchPaymentServiceTest {
+
+    private final PaymentService paymentService = mock(PaymentService.class);
+    private final PaymentRequestClaimRepository claimRepository = mock(PaymentRequestClaimRepository.class);
+    private final PaymentRequestRepository repository = mock(PaymentRequestRepository.class);
+    private final PaymentProperties properties = new PaymentProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch providerCalled = new CountDownLatch(1);
+    private final CountDownLatch providerRelease = new CountDownLatch(1);
+    private SaturationMonitor saturationMonitor;
+    private BatchPaymentService batchPaymentService;
+
+    @BeforeEach
+    void setUp() {
+        properties.getBatch().setProviderConcurrency(1);
+        properties.getBatch().setProviderQueueCapacity(1);
+        properties.getBatch().setMaxConcurrentBatches(1);
+        saturationMonitor = new SaturationMonitor(properties, meterRegistry);
+        batchPaymentService = new BatchPaymentService(paymentService, claimRepository, repository,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new MerchantCallbackPolicy(properties), saturationMonitor, new PaymentMetrics(meterRegistry),
+                properties);
+
+        // Keys already exist (nothing claimed), so every item goes through processPayment
+        when(claimRepository.claimAll(anyMap(), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> new boolean[invocation.<Map<?, ?>>getArgument(0).size()]);
+        when(paymentService.processPayment(anyString(), any(PaymentRequestDTO.class), any(Deadline.class)))
+                .thenAnswer(invocation -> {
+                    providerCalled.countDown();
+                    providerRelease.await(5, TimeUnit.SECONDS);
+                    return new PaymentService.ProcessPaymentResult(PaymentResponseDTO.of("TX-1",
+                            PaymentStatus.COMPLETED, BigDecimal.TEN, "card", null, LocalDateTime.now(),
+                            PaymentProvider.STRIPE), true);
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        providerRelease.countDown();
+        batchPaymentService.shutdown();
+        saturationMonitor.shutdown();
+    }
+
+    @Test
+    void itemsBeyondTheProviderQueueAreRejectedUnclaimed() {
+        List<BatchPaymentItemDTO> items = List.of(item(), item(), item());
+
+        providerRelease.countDown();
+        List<BatchPaymentItemResultDTO> results =
+                batchPaymentService.processBatch(items, "acme", Deadline.none()).results();
+
+        assertThat(results).extracting(BatchPaymentItemResultDTO::outcome)
+                .containsExactly(BatchItemOutcome.CACHED, BatchItemOutcome.CACHED, BatchItemOutcome.FAILED);
+        assertThat(results.get(2).error().error()).isEqualTo(ErrorCode.SERVICE_UNAVAILABLE);
+        verify(claimRepository).claimAll(argThat(claimable -> claimable.size() == 2
+                && !claimable.containsKey(items.get(2).idempotencyKey())), any(LocalDateTime.class));
+
+        // Slots are returned once the batch is done
+        assertThat(batchPaymentService.processBatch(items, "acme", Deadline.none()).results())
+                .extracting(BatchPaymentItemResultDTO::outcome)
+                .containsExactly(BatchItemOutcome.CACHED, BatchItemOutcome.CACHED, BatchItemOutcome.FAILED);
+    }
+
+    @Test
+    void batchesBeyondTheConcurrencyCapAreRejected() throws Exception {
+        CompletableFuture<?> running = CompletableFuture.runAsync(
+                () -> batchPaymentService.processBatch(List.of(item()), "acme", Deadline.none()));
+        assertThat(providerCalled.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> batchPaymentService.processBatch(List.of(item()), "acme", Deadline.none()))
+                .isInstanceOf(RejectedExecutionException.class);
+
+        providerRelease.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        assertThat(batchPaymentService.processBatch(List.of(item()), "acme", Deadline.none()).results())
+                .extracting(BatchPaymentItemResultDTO::outcome)
+                .containsExactly(BatchItemOutcome.CACHED);
+    }
+
+    @Test
+    void claimedItemsRecordTheBatchClaimAsTheirClaimStage() {
+        List<BatchPaymentItemDTO> items = List.of(item(), item());
+        when(claimRepository.claimAll(anyMap(), any(LocalDateTime.class))).thenReturn(new boolean[] {true, false});
+        when(repository.findByIdempotencyKeyIn(anyList())).thenAnswer(invocation -> invocation.<List<String>>getArgument(0)
+                .stream().map(BatchPaymentServiceTest::record).toList());
+        when(paymentService.executePayment(any(PaymentRequest.class), anyString(), any(PaymentRequestDTO.class),
+                any(Deadline.class))).thenReturn(new PaymentService.ProcessPaymentResult(PaymentResponseDTO.of("TX-2",
+                PaymentStatus.COMPLETED, BigDecimal.TEN, "card", null, LocalDateTime.now(), PaymentProvider.STRIPE), false));
+        providerRelease.countDown();
+
+        assertThat(batchPaymentService.processBatch(items, "acme", Deadline.none()).results())
+                .extracting(BatchPaymentItemResultDTO::outcome)
+                .containsExactly(BatchItemOutcome.NEW, BatchItemOutcome.CACHED);
+
+        // The existing key is timed by PaymentService.claim (mocked here), not by the batch
+        Timer claims = meterRegistry.get("payment.stage")
+                .tags("stage", "claim", "provider", PaymentProvider.STRIPE.getName(), "outcome", "ok").timer();
+        assertThat(claims.count()).isEqualTo(1);
+    }
+
+    private static PaymentRequest record(String idempotencyKey) {
+        PaymentRequest record = new PaymentRequest();
+        record.setIdempotencyKey(idempotencyKey);
+        return record;
+    }
+
+    private static BatchPaymentItemDTO item() {
+        return new BatchPaymentItemDTO(UUID.randomUUID().toString(),
+                new PaymentRequestDTO(BigDecimal.TEN, "card", null, PaymentProvider.STRIPE, null));
+    }
+}
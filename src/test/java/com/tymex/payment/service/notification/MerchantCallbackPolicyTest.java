@@ -0,0 +1,104 @@
+package com.tymex.payment.service.notification;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.WebhookPayload;
+import com.tymex.payment.service.provider.signature.WebhookSignatureVerifier;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MerchantCallbackPolicyTest {
+
+    private static final String SECRET = "acme-callback-secret";
+
+    @Test
+    void onlyHostsRegisteredForTheClientAreAccepted() {
+        MerchantCallbackPolicy policy = policy(List.of("hooks.acme.com"), false);
+
+        assertThat(policy.isRegistered("acme", "https://hooks.acme.com/payments")).isTrue();
+        assertThat(policy.isRegistered("acme", "https://HOOKS.acme.com:8443/payments")).isTrue();
+        assertThat(policy.isRegistered("acme", "https://evil.example.com/payments")).isFalse();
+        assertThat(policy.isRegistered("acme", "https://hooks.acme.com.evil.example.com/")).isFalse();
+        assertThat(policy.isRegistered("acme", "ftp://hooks.acme.com/payments")).isFalse();
+        assertThat(policy.isRegistered("globex", "https://hooks.acme.com/payments")).isFalse();
+        assertThat(policy.isRegistered(null, "https://hooks.acme.com/payments")).isFalse();
+
+        assertThatCode(() -> policy.checkRegistered("globex", null)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> policy.checkRegistered("globex", "https://hooks.acme.com/payments"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void registeredHostResolvingToAPrivateAddressIsRefused() {
+        MerchantCallbackPolicy policy = policy(List.of("127.0.0.1", "169.254.169.254", "10.1.2.3"), false);
+
+        for (String host : List.of("127.0.0.1", "169.254.169.254", "10.1.2.3")) {
+            assertThatThrownBy(() -> policy.checkDestination("acme", URI.create("http://" + host + "/hook")))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("non-public address");
+        }
+    }
+
+    @Test
+    void privateAddressesAreAllowedOnlyWhenConfigured() {
+        MerchantCallbackPolicy policy = policy(List.of("127.0.0.1"), true);
+
+        assertThatCode(() -> policy.checkDestination("acme", URI.create("http://127.0.0.1:9000/hook")))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void addressClassification() throws Exception {
+        for (String address : List.of("127.0.0.1", "0.0.0.0", "10.0.0.1", "172.16.5.4", "192.168.1.1",
+                "169.254.169.254", "100.64.0.1", "198.18.0.1", "224.0.0.1", "255.255.255.255",
+                "::1", "::", "fe80::1", "fd00::1", "::ffff:127.0.0.1")) {
+            assertThat(MerchantCallbackPolicy.isPublic(InetAddress.getByName(address))).as(address).isFalse();
+        }
+        for (String address : List.of("93.184.216.34", "8.8.8.8", "100.128.0.1", "2606:4700::1111")) {
+            assertThat(MerchantCallbackPolicy.isPublic(InetAddress.getByName(address))).as(address).isTrue();
+        }
+    }
+
+    @Test
+    void signatureVerifiesWithTheClientSecret() {
+        MerchantCallbackPolicy policy = policy(List.of("hooks.acme.com"), false);
+        byte[] body = "[{\"type\":\"payment.status_changed\",\"version\":2}]".getBytes(StandardCharsets.UTF_8);
+
+        String signature = policy.sign("acme", body);
+
+        WebhookSignatureVerifier verifier = new WebhookSignatureVerifier("HmacSHA256", "X-Signature", List.of(SECRET));
+        assertThatCode(() -> verifier.verify(WebhookPayload.of(body), Map.of("X-Signature", signature)))
+                .doesNotThrowAnyException();
+        assertThatThrownBy(() -> policy.sign("globex", body)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void clientWithoutSigningSecretFailsAtStartup() {
+        PaymentProperties properties = new PaymentProperties();
+        PaymentProperties.CallbackClient client = new PaymentProperties.CallbackClient();
+        client.setAllowedHosts(List.of("hooks.acme.com"));
+        properties.getNotifications().getClients().put("acme", client);
+
+        assertThatThrownBy(() -> new MerchantCallbackPolicy(properties))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("signing-secret");
+    }
+
+    static MerchantCallbackPolicy policy(List<String> allowedHosts, boolean allowPrivateAddresses) {
+        PaymentProperties properties = new PaymentProperties();
+        PaymentProperties.CallbackClient client = new PaymentProperties.CallbackClient();
+        client.setAllowedHosts(allowedHosts);
+        client.setSigningSecret(SECRET);
+        properties.getNotifications().getClients().put("acme", client);
+        properties.getNotifications().setAllowPrivateAddresses(allowPrivateAddresses);
+        return new MerchantCallbackPolicy(properties);
+    }
+}
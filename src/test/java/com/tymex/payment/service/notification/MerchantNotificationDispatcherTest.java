@@ -0,0 +1,110 @@
+package com.tymex.payment.service.notification;
+
+import com.sun.net.httpserver.HttpServer;
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.WebhookPayload;
+import com.tymex.payment.entity.MerchantNotification;
+import com.tymex.payment.service.provider.signature.WebhookSignatureVerifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MerchantNotificationDispatcherTest {
+
+    private static final String PAYLOAD = "{\"type\":\"payment.status_changed\",\"version\":2}";
+
+    private HttpServer merchant;
+    private final BlockingQueue<Map.Entry<String, byte[]>> received = new ArrayBlockingQueue<>(10);
+    private MerchantNotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void startMerchant() throws Exception {
+        merchant = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        merchant.createContext("/hook", exchange -> {
+            received.add(Map.entry(String.valueOf(exchange.getRequestHeaders().getFirst("X-Signature")),
+                    exchange.getRequestBody().readAllBytes()));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        merchant.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+        merchant.stop(0);
+    }
+
+    @Test
+    void deliveredBodyCarriesTheClientSignature() throws Exception {
+        MerchantNotificationOutbox outbox = outboxReturning(notification());
+
+        start(outbox, true);
+
+        Map.Entry<String, byte[]> request = received.poll(5, TimeUnit.SECONDS);
+        assertThat(request).isNotNull();
+        assertThat(new String(request.getValue())).isEqualTo("[" + PAYLOAD + "]");
+        WebhookSignatureVerifier verifier = new WebhookSignatureVerifier("HmacSHA256", "X-Signature",
+                List.of("acme-callback-secret"));
+        assertThatCode(() -> verifier.verify(WebhookPayload.of(request.getValue()),
+                Map.of("X-Signature", request.getKey()))).doesNotThrowAnyException();
+        verify(outbox, timeout(2000)).markDelivered(List.of(7L));
+    }
+
+    @Test
+    void privateDestinationIsRefusedWithoutARequest() throws Exception {
+        MerchantNotificationOutbox outbox = outboxReturning(notification());
+
+        start(outbox, false);
+
+        verify(outbox, timeout(2000)).markFailed(argThat(n -> n.getId() == 7L),
+                argThat(error -> error.contains("non-public address 127.0.0.1")));
+        assertThat(received.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private void start(MerchantNotificationOutbox outbox, boolean allowPrivateAddresses) {
+        MerchantCallbackPolicy policy = MerchantCallbackPolicyTest.policy(List.of("127.0.0.1"), allowPrivateAddresses);
+        PaymentProperties properties = new PaymentProperties();
+        properties.getNotifications().setEnabled(true);
+        properties.getNotifications().setPollIntervalMs(20);
+        dispatcher = new MerchantNotificationDispatcher(outbox, policy, properties, new SimpleMeterRegistry());
+        dispatcher.start();
+    }
+
+    private static MerchantNotificationOutbox outboxReturning(MerchantNotification notification) {
+        MerchantNotificationOutbox outbox = mock(MerchantNotificationOutbox.class);
+        when(outbox.claim(anyInt())).thenReturn(List.of(notification), List.of());
+        return outbox;
+    }
+
+    private MerchantNotification notification() {
+        MerchantNotification notification = new MerchantNotification();
+        notification.setId(7L);
+        notification.setIdempotencyKey("7b0f5a9e-3c1d-4e2f-8a6b-9c0d1e2f3a4b");
+        notification.setClientId("acme");
+        notification.setDestination("http://127.0.0.1:" + merchant.getAddress().getPort() + "/hook");
+        notification.setPayload(PAYLOAD);
+        notification.setCreatedAt(LocalDateTime.now());
+        return notification;
+    }
+}
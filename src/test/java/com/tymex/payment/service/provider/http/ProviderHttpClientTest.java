@@ -0,0 +1,80 @@
+package com.tymex.payment.service.provider.http;
+
+import com.sun.net.httpserver.HttpServer;
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.exception.DeadlineExceededException;
+import com.tymex.payment.util.Deadline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ProviderHttpClientTest {
+
+    private static final byte[] BODY = "{\"amount\":10}".getBytes(StandardCharsets.UTF_8);
+    private static final String KEY = "7b0f5a9e-3c1d-4e2f-8a6b-9c0d1e2f3a4b";
+
+    private HttpServer provider;
+    private final AtomicInteger requests = new AtomicInteger();
+    private ProviderHttpClient client;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void startProvider() throws Exception {
+        provider = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        provider.createContext("/v1/charges", exchange -> {
+            requests.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            byte[] response = "{\"status\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        provider.start();
+
+        PaymentProperties properties = new PaymentProperties();
+        properties.getProviders().getStripe().setBaseUrl("http://127.0.0.1:" + provider.getAddress().getPort());
+        client = new ProviderHttpClient(properties, mock(ObjectProvider.class));
+    }
+
+    @AfterEach
+    void stopProvider() {
+        provider.stop(0);
+    }
+
+    @Test
+    void exhaustedDeadlineIsDeadlineExceededWithoutARequest() {
+        Deadline expired = Deadline.after(Duration.ZERO);
+
+        assertThatThrownBy(() -> client.post(PaymentProvider.STRIPE, "/v1/charges", BODY, KEY, expired))
+                .isInstanceOf(DeadlineExceededException.class);
+        assertThatThrownBy(() -> client.postAsync(PaymentProvider.STRIPE, "/v1/charges", BODY, KEY, expired).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(DeadlineExceededException.class);
+        assertThat(requests).hasValue(0);
+    }
+
+    @Test
+    void callWithinTheDeadlineReturnsTheResponse() throws Exception {
+        Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+
+        try (InputStream response = client.post(PaymentProvider.STRIPE, "/v1/charges", BODY, KEY, deadline)) {
+            assertThat(new String(response.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("{\"status\":\"ok\"}");
+        }
+        assertThat(client.postAsync(PaymentProvider.STRIPE, "/v1/charges", BODY, KEY, deadline).join())
+                .asString(StandardCharsets.UTF_8).isEqualTo("{\"status\":\"ok\"}");
+        assertThat(requests).hasValue(2);
+    }
+}
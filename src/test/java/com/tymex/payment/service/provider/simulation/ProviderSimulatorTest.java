@@ -0,0 +1,60 @@
+package com.tymex.payment.service.provider.simulation;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.exception.DeadlineExceededException;
+import com.tymex.payment.exception.PaymentException;
+import com.tymex.payment.util.Deadline;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProviderSimulatorTest {
+
+    @Test
+    void deadlineCuttingTheCallShortThrowsDeadlineExceeded() {
+        ProviderSimulator simulator = simulator(1000, 10000);
+
+        assertThatThrownBy(() -> simulator.call(PaymentProvider.STRIPE, Deadline.after(Duration.ofMillis(50)), () -> "ok"))
+                .isInstanceOf(DeadlineExceededException.class);
+    }
+
+    @Test
+    void deadlineCuttingTheAsyncCallShortFailsWithDeadlineExceeded() {
+        ProviderSimulator simulator = simulator(1000, 10000);
+
+        assertThatThrownBy(() -> simulator.callAsync(PaymentProvider.STRIPE, Deadline.after(Duration.ofMillis(50)),
+                () -> "ok").join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(DeadlineExceededException.class);
+    }
+
+    @Test
+    void providerRequestTimeoutIsAPlainPaymentFailure() {
+        ProviderSimulator simulator = simulator(1000, 50);
+
+        assertThatThrownBy(() -> simulator.call(PaymentProvider.STRIPE, Deadline.none(), () -> "ok"))
+                .isInstanceOf(PaymentException.class)
+                .isNotInstanceOf(DeadlineExceededException.class);
+    }
+
+    @Test
+    void callWithinTheDeadlineReturnsTheResponse() {
+        ProviderSimulator simulator = simulator(10, 10000);
+
+        assertThat(simulator.call(PaymentProvider.STRIPE, Deadline.after(Duration.ofSeconds(5)), () -> "ok"))
+                .isEqualTo("ok");
+    }
+
+    private static ProviderSimulator simulator(int latencyMs, int requestTimeoutMs) {
+        PaymentProperties properties = new PaymentProperties();
+        PaymentProperties.Endpoint stripe = properties.getProviders().getStripe();
+        stripe.getSimulation().setLatencyMs(latencyMs);
+        stripe.setRequestTimeoutMs(requestTimeoutMs);
+        return new ProviderSimulator(properties);
+    }
+}
@@ -0,0 +1,57 @@
+package com.tymex.payment.service.webhook;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.WebhookPayload;
+import com.tymex.payment.enums.PaymentProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookDigestFilterTest {
+
+    @Test
+    void reRecordedDigestIsNotEvictedByItsOlderRecording() {
+        WebhookDigestFilter filter = filter(2);
+        WebhookDigestFilter.Digest first = digest(filter, "MOMO_first");
+        WebhookDigestFilter.Digest second = digest(filter, "MOMO_second");
+        WebhookDigestFilter.Digest third = digest(filter, "MOMO_third");
+
+        filter.recordProcessed(first);
+        filter.recordProcessed(second);
+        filter.recordProcessed(first);
+        filter.recordProcessed(third);
+
+        // second is now the least recently recorded digest, first was refreshed after it
+        assertThat(filter.isDuplicate(first)).isTrue();
+        assertThat(filter.isDuplicate(second)).isFalse();
+        assertThat(filter.isDuplicate(third)).isTrue();
+    }
+
+    @Test
+    void oldestDigestIsEvictedOverMaxEntries() {
+        WebhookDigestFilter filter = filter(2);
+        WebhookDigestFilter.Digest first = digest(filter, "MOMO_first");
+        WebhookDigestFilter.Digest second = digest(filter, "MOMO_second");
+        WebhookDigestFilter.Digest third = digest(filter, "MOMO_third");
+
+        filter.recordProcessed(first);
+        filter.recordProcessed(second);
+        filter.recordProcessed(third);
+
+        assertThat(filter.isDuplicate(first)).isFalse();
+        assertThat(filter.isDuplicate(second)).isTrue();
+        assertThat(filter.isDuplicate(third)).isTrue();
+    }
+
+    private static WebhookDigestFilter filter(int maxEntries) {
+        PaymentProperties properties = new PaymentProperties();
+        properties.getWebhook().getDedup().setMaxEntries(maxEntries);
+        return new WebhookDigestFilter(properties, new SimpleMeterRegistry());
+    }
+
+    private static WebhookDigestFilter.Digest digest(WebhookDigestFilter filter, String transactionId) {
+        return filter.digest(PaymentProvider.MOMO,
+                WebhookPayload.of("{\"transaction_id\":\"" + transactionId + "\",\"status\":\"success\"}"));
+    }
+}
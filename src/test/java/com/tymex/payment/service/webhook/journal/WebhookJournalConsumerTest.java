@@ -0,0 +1,77 @@
+package com.tymex.payment.service.webhook.journal;
+
+import com.tymex.payment.config.PaymentProperties;
+import com.tymex.payment.dto.WebhookPayload;
+import com.tymex.payment.enums.PaymentProvider;
+import com.tymex.payment.service.PaymentService;
+import com.tymex.payment.service.webhook.WebhookInboxService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WebhookJournalConsumerTest {
+
+    private static final String BODY = "{\"transaction_id\":\"MOMO_3712681415304c7c9b8e\",\"status\":\"success\"}";
+
+    @TempDir
+    Path directory;
+
+    private WebhookJournal journal;
+    private WebhookJournalConsumer consumer;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        consumer.stop();
+        journal.close();
+    }
+
+    @Test
+    void entryFailingEveryAttemptIsParkedInTheInboxAndCounted() throws Exception {
+        PaymentService paymentService = mock(PaymentService.class);
+        doThrow(new IllegalStateException("payment locked"))
+                .when(paymentService).processWebhook(eq(PaymentProvider.MOMO), any(WebhookPayload.class), anyMap());
+        WebhookInboxService inboxService = mock(WebhookInboxService.class);
+        when(inboxService.park(any(), any(), anyMap(), any(Integer.class), any())).thenReturn(42L);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        startConsumer(paymentService, inboxService, meterRegistry);
+        long offset = journal.append(PaymentProvider.MOMO, WebhookPayload.of(BODY), Map.of("x-momo-signature", "abc"));
+        assertThat(journal.awaitDurable(offset, Duration.ofSeconds(1))).isTrue();
+
+        verify(inboxService, timeout(2000)).park(eq(PaymentProvider.MOMO), eq(BODY),
+                eq(Map.of("x-momo-signature", "abc")), eq(2), any(IllegalStateException.class));
+        assertThat(meterRegistry.counter("payment.webhook.journal.failed").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("payment.webhook.journal.processed").count()).isZero();
+    }
+
+    private void startConsumer(PaymentService paymentService, WebhookInboxService inboxService,
+                               SimpleMeterRegistry meterRegistry) throws Exception {
+        PaymentProperties properties = new PaymentProperties();
+        PaymentProperties.Journal config = properties.getWebhook().getJournal();
+        config.setMaxAttempts(2);
+        config.setRetryDelayMs(1);
+
+        journal = new WebhookJournal(directory, 1024 * 1024, Duration.ofMillis(config.getFlushIntervalMs()));
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("webhookJournal", journal);
+        consumer = new WebhookJournalConsumer(beans.getBeanProvider(WebhookJournal.class), paymentService,
+                inboxService, properties, meterRegistry);
+        consumer.start();
+    }
+}
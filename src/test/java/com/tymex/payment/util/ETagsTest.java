@@ -0,0 +1,22 @@
+package com.tymex.payment.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ETagsTest {
+
+    @Test
+    void versionTagIsWeak() {
+        assertThat(ETags.of(3)).isEqualTo("W/\"3\"");
+    }
+
+    @Test
+    void ifNoneMatchComparesWeakly() {
+        assertThat(ETags.matches("W/\"3\"", ETags.of(3))).isTrue();
+        assertThat(ETags.matches("\"3\"", ETags.of(3))).isTrue();
+        assertThat(ETags.matches("\"2\", W/\"3\"", ETags.of(3))).isTrue();
+        assertThat(ETags.matches("*", ETags.of(3))).isTrue();
+        assertThat(ETags.matches("W/\"2\"", ETags.of(3))).isFalse();
+    }
+}
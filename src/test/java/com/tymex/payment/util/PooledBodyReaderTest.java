@@ -0,0 +1,52 @@
+package com.tymex.payment.util;
+
+import com.tymex.payment.dto.WebhookPayload;
+import com.tymex.payment.exception.PayloadTooLargeException;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PooledBodyReaderTest {
+
+    private static final DataSize LIMIT = DataSize.ofKilobytes(64);
+
+    @Test
+    void chunkedBodyStopsGrowingAtTheLimit() {
+        // Endless chunked body: the reader must give up one byte past the limit, not grow forever
+        InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                return 'x';
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return len;
+            }
+        };
+
+        assertThatThrownBy(() -> PooledBodyReader.read(endless, -1, LIMIT))
+                .isInstanceOf(PayloadTooLargeException.class)
+                .hasMessageContaining("65536B");
+    }
+
+    @Test
+    void chunkedBodyOfExactlyTheLimitIsRead() throws Exception {
+        byte[] body = new byte[(int) LIMIT.toBytes()];
+
+        WebhookPayload payload = PooledBodyReader.read(new ByteArrayInputStream(body), -1, LIMIT);
+
+        assertThat(payload.length()).isEqualTo(body.length);
+    }
+
+    @Test
+    void declaredLengthOverTheLimitIsRejected() {
+        assertThatThrownBy(() -> PooledBodyReader.read(new ByteArrayInputStream(new byte[0]), LIMIT.toBytes() + 1, LIMIT))
+                .isInstanceOf(PayloadTooLargeException.class);
+    }
+}